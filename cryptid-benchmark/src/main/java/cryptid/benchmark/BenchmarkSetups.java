@@ -0,0 +1,31 @@
+package cryptid.benchmark;
+
+import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
+import cryptid.ellipticcurve.point.affine.generator.Mod3GenerationStrategy;
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer;
+import cryptid.ibe.domain.IbeSetup;
+import cryptid.ibe.domain.SecurityLevel;
+import cryptid.ibe.exception.SetupException;
+import cryptid.ibe.util.SolinasPrimeFactory;
+
+import java.security.SecureRandom;
+
+/**
+ * Helpers creating the IBE setups the benchmarks operate on.
+ */
+final class BenchmarkSetups {
+    private BenchmarkSetups() {
+        /*
+         * Cannot be constructed.
+         */
+    }
+
+    static IbeSetup freshSetup(final SecurityLevel securityLevel, final SecureRandom secureRandom) throws SetupException {
+        final SolinasPrimeFactory solinasPrimeFactory = new SolinasPrimeFactory(secureRandom);
+        final GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory =
+                ellipticCurve -> new Mod3GenerationStrategy(ellipticCurve, secureRandom);
+
+        return new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory, generationStrategyFactory)
+                .setup(securityLevel);
+    }
+}
@@ -0,0 +1,146 @@
+package cryptid.benchmark;
+
+import cryptid.ibe.IbeClient;
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl;
+import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.IbeSetup;
+import cryptid.ibe.domain.SecurityLevel;
+import cryptid.util.StripedSecureRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static cryptid.util.BigIntegerUtils.randomBigInteger;
+
+/**
+ * Measures the throughput of a single client shared by many threads, with a shared and a striped random source.
+ * The randomScalar benchmark isolates the random source, drawing the scalar of an encryption, while the encrypt
+ * benchmark performs whole encryptions.
+ *
+ * JMH cannot parameterize the number of threads, thus the {@link #main(String[])} method runs the benchmarks with
+ * 1 to 64 threads and prints the speedup over a single thread. Run through the JMH entry point, the number of
+ * threads can be set with the {@code -t} option.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16, 32, 64 };
+    private static final String IDENTITY = "alice@example.com";
+    private static final int MESSAGE_LENGTH = 32;
+
+    /**
+     * The random source shared by the threads.
+     */
+    public enum Randomness {
+        SHARED {
+            @Override
+            SecureRandom wrap(final SecureRandom master) {
+                return master;
+            }
+        },
+        STRIPED {
+            @Override
+            SecureRandom wrap(final SecureRandom master) {
+                return new StripedSecureRandom(master);
+            }
+        };
+
+        abstract SecureRandom wrap(SecureRandom master);
+    }
+
+    @Param({ "SHARED", "STRIPED" })
+    private Randomness randomness;
+
+    private SecureRandom secureRandom;
+    private IbeClient client;
+    private BigInteger q;
+    private byte[] message;
+
+    @Setup
+    public void setup() throws Exception {
+        final SecureRandom master = new SecureRandom();
+        final IbeSetup ibeSetup = BenchmarkSetups.freshSetup(SecurityLevel.LOWEST, master);
+
+        secureRandom = randomness.wrap(master);
+        client = new BonehFranklinIbeComponentFactoryImpl(secureRandom).obtainClient(ibeSetup.getPublicParameters());
+        q = ibeSetup.getPublicParameters().getQ();
+
+        message = new byte[MESSAGE_LENGTH];
+        master.nextBytes(message);
+    }
+
+    @Benchmark
+    public BigInteger randomScalar() {
+        return randomBigInteger(BigInteger.ONE, q, secureRandom);
+    }
+
+    @Benchmark
+    public CipherTextTuple encrypt() {
+        return client.encrypt(message, IDENTITY);
+    }
+
+    /**
+     * Runs the benchmarks with every thread count and prints the speedups.
+     * @param args the regular expression selecting the benchmarks, defaults to every benchmark of this class
+     * @throws RunnerException if a benchmark cannot be run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : ContentionBenchmark.class.getSimpleName();
+        final List<RunResult> results = new ArrayList<>();
+
+        for (final int threads : THREAD_COUNTS) {
+            results.addAll(new Runner(new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .build())
+                    .run());
+        }
+
+        final Map<String, Double> singleThreaded = new HashMap<>();
+        results.stream()
+                .filter(result -> result.getParams().getThreads() == 1)
+                .forEach(result -> singleThreaded.put(key(result), result.getPrimaryResult().getScore()));
+
+        System.out.println();
+        System.out.printf("%-60s %-10s %8s %16s %10s%n", "Benchmark", "Randomness", "Threads", "Score (ops/ms)", "Speedup");
+
+        results.stream()
+                .sorted(Comparator.comparing(ContentionBenchmark::key)
+                        .thenComparingInt(result -> result.getParams().getThreads()))
+                .forEach(result -> System.out.printf("%-60s %-10s %8d %16.3f %10.2f%n",
+                        result.getParams().getBenchmark(),
+                        result.getParams().getParam("randomness"),
+                        result.getParams().getThreads(),
+                        result.getPrimaryResult().getScore(),
+                        result.getPrimaryResult().getScore() / singleThreaded.getOrDefault(key(result), Double.NaN)));
+    }
+
+    private static String key(final RunResult result) {
+        return result.getParams().getBenchmark() + ":" + result.getParams().getParam("randomness");
+    }
+}
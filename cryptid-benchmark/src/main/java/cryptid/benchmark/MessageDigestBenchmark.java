@@ -0,0 +1,91 @@
+package cryptid.benchmark;
+
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the SHA-2 and BLAKE2 message digests on the input sizes processed by the IBE: hashlen and
+ * 2 * hashlen octets in HashBytes and HashToRange, and the 128 to 384 octet canonical encodings of the pairing
+ * results of the LOWEST to MEDIUM security levels. The HashBytes and HashToRange benchmarks measure the helpers
+ * themselves, the former producing a mask for a 1 KiB message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageDigestBenchmark {
+    private static final int MASK_LENGTH = 1024;
+
+    @Param({ "SHA-256", "SHA-384", "SHA-512", "BLAKE2B-512", "BLAKE2S-256" })
+    private String algorithm;
+
+    private MessageDigest messageDigest;
+    private byte[] rho;
+    private byte[] t;
+    private BigInteger q;
+
+    @Setup
+    public void setup() throws Exception {
+        final SecureRandom secureRandom = new SecureRandom();
+
+        messageDigest = MessageDigestFactory.forAlgorithm(algorithm).obtainInstance();
+
+        rho = new byte[messageDigest.getDigestLength()];
+        t = new byte[messageDigest.getDigestLength()];
+        secureRandom.nextBytes(rho);
+        secureRandom.nextBytes(t);
+
+        q = BigInteger.ONE.shiftLeft(160).subtract(BigInteger.ONE.shiftLeft(48)).subtract(BigInteger.ONE);
+    }
+
+    @Benchmark
+    public byte[] digest(final Input input) {
+        return messageDigest.digest(input.bytes);
+    }
+
+    @Benchmark
+    public byte[] hashBytes() {
+        return HashUtils.hashBytes(MASK_LENGTH, rho, messageDigest);
+    }
+
+    @Benchmark
+    public BigInteger hashToRange() {
+        return HashUtils.hashToRange(q, messageDigest, rho, t);
+    }
+
+    /**
+     * The input of the raw digest benchmark, parameterized separately so the helper benchmarks do not run for every
+     * input length.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({ "32", "64", "128", "192", "256", "384" })
+        private int inputLength;
+
+        private byte[] bytes;
+
+        @Setup
+        public void setup() {
+            bytes = new byte[inputLength];
+            new SecureRandom().nextBytes(bytes);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package cryptid.benchmark;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.multiplier.AffineScalarMultiplier;
+import cryptid.ellipticcurve.multiplier.MontgomeryLadderScalarMultiplier;
+import cryptid.ellipticcurve.multiplier.ScalarMultiplier;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.IbeSetup;
+import cryptid.ibe.domain.SecurityLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import static cryptid.util.BigIntegerUtils.randomBigInteger;
+
+/**
+ * Compares the scalar multiplication backends on points of order q, using scalars of the size used by
+ * encryption, decryption and extraction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScalarMultiplicationBenchmark {
+    @Param({ "LOWEST", "LOW", "MEDIUM" })
+    private SecurityLevel securityLevel;
+
+    private AffinePoint point;
+    private BigInteger scalar;
+
+    private ScalarMultiplier affine;
+    private ScalarMultiplier montgomeryLadder;
+
+    @Setup
+    public void setup() throws Exception {
+        final SecureRandom secureRandom = new SecureRandom();
+        final IbeSetup ibeSetup = BenchmarkSetups.freshSetup(securityLevel, secureRandom);
+        final TypeOneEllipticCurve ellipticCurve = ibeSetup.getPublicParameters().getEllipticCurve();
+
+        point = ibeSetup.getPublicParameters().getPointP();
+        scalar = randomBigInteger(BigInteger.ONE, ibeSetup.getPublicParameters().getQ(), secureRandom);
+
+        affine = new AffineScalarMultiplier(ellipticCurve);
+        montgomeryLadder = new MontgomeryLadderScalarMultiplier(ellipticCurve);
+    }
+
+    @Benchmark
+    public AffinePoint affineDoubleAndAdd() {
+        return affine.multiply(point, scalar);
+    }
+
+    @Benchmark
+    public AffinePoint montgomeryLadder() {
+        return montgomeryLadder.multiply(point, scalar);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH benchmarks of the CryptID.java core library.
+ */
+package cryptid.benchmark;
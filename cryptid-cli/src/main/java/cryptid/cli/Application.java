@@ -3,13 +3,14 @@ package cryptid.cli;
 import cryptid.cli.commands.DecryptCommand;
 import cryptid.cli.commands.EncryptCommand;
 import cryptid.cli.commands.ExtractCommand;
+import cryptid.cli.commands.PrecomputeCommand;
 import cryptid.cli.commands.SetupCommand;
 
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
 @Command(name = "cryptid-cli", mixinStandardHelpOptions = true, version = "CryptID.java CLI version 1.0",
-        subcommands = {DecryptCommand.class, EncryptCommand.class, ExtractCommand.class, SetupCommand.class })
+        subcommands = {DecryptCommand.class, EncryptCommand.class, ExtractCommand.class, PrecomputeCommand.class, SetupCommand.class })
 public final class Application implements Runnable {
     private static final CommandLine cmd = new CommandLine(new Application());
 
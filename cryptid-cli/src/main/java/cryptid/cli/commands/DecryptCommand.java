@@ -5,12 +5,12 @@ import cryptid.ibe.IbeClient;
 import cryptid.ibe.IbeComponentFactory;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.domain.PublicParameters;
-import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl;
+import cryptid.cli.util.Scheme;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
 import java.io.File;
-import java.io.PrintStream;
+import java.nio.file.Files;
 import java.security.SecureRandom;
 import java.util.Optional;
 
@@ -43,24 +43,27 @@ public class DecryptCommand implements Runnable {
     )
     private File privateKeyFile;
 
+    @Option(names = { "-sc", "--scheme" },
+            description = "The IBE scheme of the setup: ${COMPLETION-CANDIDATES} (default: BONEH_FRANKLIN)."
+    )
+    private Scheme scheme = Scheme.BONEH_FRANKLIN;
+
     @Override
     public void run() {
         try {
-            final PrivateKey privateKey = readPrivateKey(privateKeyFile);
-            final CipherTextTuple cipherTextTuple = readCipherTextTuple(ciphertextFile);
             final PublicParameters publicParameters = readPublicParameters(publicParametersFile);
+            final PrivateKey privateKey = readPrivateKey(privateKeyFile, publicParameters);
+            final CipherTextTuple cipherTextTuple = readCipherTextTuple(ciphertextFile, publicParameters.getEllipticCurve());
 
             final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
 
-            final IbeComponentFactory componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom);
+            final IbeComponentFactory componentFactory = scheme.componentFactory(secureRandom);
             final IbeClient client = componentFactory.obtainClient(publicParameters);
 
-            Optional<String> messageOptional = client.decrypt(privateKey, cipherTextTuple);
+            Optional<byte[]> messageOptional = client.decryptBytes(privateKey, cipherTextTuple);
 
             if (messageOptional.isPresent()) {
-                try (PrintStream stream = new PrintStream(messageFile)) {
-                    stream.print(messageOptional.get());
-                }
+                Files.write(messageFile.toPath(), messageOptional.get());
             } else {
                 throw new Exception("Could not decrypt the ciphertext with the specified private key.");
             }
@@ -1,16 +1,22 @@
 package cryptid.cli.commands;
 
+import cryptid.cli.util.Scheme;
 import cryptid.ibe.domain.CipherTextTuple;
 import cryptid.ibe.IbeClient;
-import cryptid.ibe.IbeComponentFactory;
+import cryptid.ibe.domain.MaskGenerationMode;
 import cryptid.ibe.domain.PublicParameters;
 import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl;
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeComponentFactoryImpl;
+import cryptid.ibe.store.IdentityPrecomputationStore;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.security.SecureRandom;
+import java.util.Arrays;
 
 import static cryptid.cli.Application.FAILURE;
 import static cryptid.cli.util.CommandUtils.printCipherTextTuple;
@@ -43,23 +49,65 @@ public class EncryptCommand implements Runnable {
     )
     private File ciphertextFile;
 
+    @Option(names = { "-mm", "--maskMode" },
+            description = "The mask generation mode, HASH_CHAIN (default, RFC 5091) or COUNTER (parallelizable)."
+    )
+    private MaskGenerationMode maskGenerationMode = MaskGenerationMode.HASH_CHAIN;
+
+    @Option(names = { "-st", "--store" },
+            description = "A precomputation store built for the public parameters (optional)."
+    )
+    private File storeFile;
+
+    @Option(names = { "-sk", "--storeKey" },
+            description = "The file containing the secret key the precomputation store was built with."
+    )
+    private File storeKeyFile;
+
+    @Option(names = { "-sc", "--scheme" },
+            description = "The IBE scheme of the setup: ${COMPLETION-CANDIDATES} (default: BONEH_FRANKLIN)."
+    )
+    private Scheme scheme = Scheme.BONEH_FRANKLIN;
+
     @Override
     public void run() {
         try {
-            final String message = readFileIntoString(messageFile);
+            final byte[] message = Files.readAllBytes(messageFile.toPath());
             final String identity = readFileIntoString(identityFile);
 
             final PublicParameters publicParameters = readPublicParameters(publicParametersFile);
 
             final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
 
-            final IbeComponentFactory componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom);
-            final IbeClient client = componentFactory.obtainClient(publicParameters);
+            if (scheme == Scheme.SAKAI_KASAHARA) {
+                if (storeFile != null) {
+                    throw new Exception("Precomputation stores are only supported by Boneh-Franklin.");
+                }
+
+                final IbeClient client = new SakaiKasaharaIbeComponentFactoryImpl(secureRandom)
+                        .withMaskGenerationMode(maskGenerationMode)
+                        .obtainClient(publicParameters);
 
-            CipherTextTuple cipherTextTuple = client.encrypt(message, identity);
+                writeCipherTextTuple(client.encrypt(message, identity), publicParameters);
+                return;
+            }
+
+            BonehFranklinIbeComponentFactoryImpl componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+                    .withMaskGenerationMode(maskGenerationMode);
 
-            try (PrintStream stream = new PrintStream(ciphertextFile)) {
-                printCipherTextTuple(cipherTextTuple, stream);
+            if (storeFile != null && storeKeyFile == null) {
+                throw new Exception("The key of the precomputation store is missing.");
+            }
+
+            try (IdentityPrecomputationStore store = storeFile == null
+                    ? null : openStore(publicParameters)) {
+                if (store != null) {
+                    componentFactory = componentFactory.withPrecomputationStore(store);
+                }
+
+                final IbeClient client = componentFactory.obtainClient(publicParameters);
+
+                writeCipherTextTuple(client.encrypt(message, identity), publicParameters);
             }
         } catch(Exception ex) {
             System.err.println("Could not encrypt the specified message.");
@@ -68,4 +116,21 @@ public class EncryptCommand implements Runnable {
             System.exit(FAILURE);
         }
     }
+
+    private IdentityPrecomputationStore openStore(final PublicParameters publicParameters) throws IOException {
+        final byte[] storeKey = Files.readAllBytes(storeKeyFile.toPath());
+
+        try {
+            return IdentityPrecomputationStore.open(storeFile.toPath(), publicParameters, storeKey);
+        } finally {
+            Arrays.fill(storeKey, (byte) 0);
+        }
+    }
+
+    private void writeCipherTextTuple(final CipherTextTuple cipherTextTuple, final PublicParameters publicParameters)
+            throws IOException {
+        try (PrintStream stream = new PrintStream(ciphertextFile)) {
+            printCipherTextTuple(cipherTextTuple, publicParameters.getEllipticCurve(), stream);
+        }
+    }
 }
@@ -3,7 +3,7 @@ package cryptid.cli.commands;
 import cryptid.ibe.IbeComponentFactory;
 import cryptid.ibe.PrivateKeyGenerator;
 import cryptid.ibe.domain.PublicParameters;
-import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl;
+import cryptid.cli.util.Scheme;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
@@ -41,6 +41,11 @@ public class ExtractCommand implements Runnable {
     )
     private File privateKeyFile;
 
+    @Option(names = { "-sc", "--scheme" },
+            description = "The IBE scheme of the setup: ${COMPLETION-CANDIDATES} (default: BONEH_FRANKLIN)."
+    )
+    private Scheme scheme = Scheme.BONEH_FRANKLIN;
+
     @Override
     public void run() {
         try {
@@ -51,11 +56,11 @@ public class ExtractCommand implements Runnable {
 
             final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
 
-            final IbeComponentFactory componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom);
+            final IbeComponentFactory componentFactory = scheme.componentFactory(secureRandom);
             final PrivateKeyGenerator privateKeyGenerator = componentFactory.obtainPrivateKeyGenerator(publicParameters, masterSecret);
 
             try (PrintStream stream = new PrintStream(privateKeyFile)) {
-                printPrivateKey(privateKeyGenerator.extract(identity), stream);
+                printPrivateKey(privateKeyGenerator.extract(identity), publicParameters.getEllipticCurve(), stream);
             }
         } catch (Exception ex) {
             System.err.println("Could not extract private key.");
@@ -0,0 +1,68 @@
+package cryptid.cli.commands;
+
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.store.IdentityPrecomputationStoreBuilder;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static cryptid.cli.Application.FAILURE;
+import static cryptid.cli.util.CommandUtils.readPublicParameters;
+
+@Command(name = "precompute", description = "Builds a store of precomputed values for the specified identities.", mixinStandardHelpOptions = true)
+public class PrecomputeCommand implements Runnable {
+    @Option(names = { "-pp", "--publicParameters" },
+            required = true,
+            description = "The file to containing the public parameters."
+    )
+    private File publicParametersFile;
+
+    @Option(names = { "-i", "--identities" },
+            required = true,
+            description = "The file containing the identities, one per line."
+    )
+    private File identitiesFile;
+
+    @Option(names = { "-o", "--store" },
+            required = true,
+            description = "The file to write the store into."
+    )
+    private File storeFile;
+
+    @Option(names = { "-sk", "--storeKey" },
+            required = true,
+            description = "The file containing the secret key authenticating the store, at least 16 octets."
+    )
+    private File storeKeyFile;
+
+    @Override
+    public void run() {
+        try {
+            final PublicParameters publicParameters = readPublicParameters(publicParametersFile);
+
+            final List<String> identities = Files.readAllLines(identitiesFile.toPath(), Charset.defaultCharset())
+                    .stream()
+                    .filter(identity -> !identity.isEmpty())
+                    .collect(Collectors.toList());
+
+            final byte[] storeKey = Files.readAllBytes(storeKeyFile.toPath());
+
+            try {
+                new IdentityPrecomputationStoreBuilder(publicParameters, storeKey).build(identities, storeFile.toPath());
+            } finally {
+                Arrays.fill(storeKey, (byte) 0);
+            }
+        } catch (Exception ex) {
+            System.err.println("Could not build the precomputation store.");
+            System.err.println(ex.getMessage());
+
+            System.exit(FAILURE);
+        }
+    }
+}
@@ -1,12 +1,8 @@
 package cryptid.cli.commands;
 
-import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
-import cryptid.ellipticcurve.point.affine.generator.Mod3GenerationStrategy;
-import cryptid.ibe.IbeInitializer;
 import cryptid.ibe.domain.IbeSetup;
+import cryptid.cli.util.Scheme;
 import cryptid.ibe.domain.SecurityLevel;
-import cryptid.ibe.util.SolinasPrimeFactory;
-import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -39,18 +35,22 @@ public class SetupCommand implements Runnable {
     )
     private File masterSecretFile;
 
+    @Option(names = { "-hf", "--hashFunction" },
+            description = "The hash function to use instead of the default one of the security level, for example BLAKE2B-512."
+    )
+    private String hashFunction;
+
+    @Option(names = { "-sc", "--scheme" },
+            description = "The IBE scheme of the setup: ${COMPLETION-CANDIDATES} (default: BONEH_FRANKLIN)."
+    )
+    private Scheme scheme = Scheme.BONEH_FRANKLIN;
+
     @Override
     public void run() {
         try {
             final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
 
-            final SolinasPrimeFactory solinasPrimeFactory = new SolinasPrimeFactory(secureRandom);
-            final GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory =
-                    curve -> new Mod3GenerationStrategy(curve, secureRandom);
-
-            final IbeInitializer initializer = new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory, generationStrategyFactory);
-
-            final IbeSetup setup = initializer.setup(securityLevel);
+            final IbeSetup setup = scheme.setup(secureRandom, securityLevel, hashFunction);
 
             try (PrintStream stream = new PrintStream(publicParametersFile)) {
                 printPublicParameters(setup.getPublicParameters(), stream);
@@ -1,8 +1,10 @@
 package cryptid.cli.util;
 
+import cryptid.ellipticcurve.SubgroupValidator;
 import cryptid.ellipticcurve.TypeOneEllipticCurve;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
 import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.MaskGenerationMode;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.domain.PublicParameters;
 
@@ -42,8 +44,8 @@ public final class CommandUtils {
         stream.println(publicParameters.getHashFunction());
         stream.println(publicParameters.getEllipticCurve().getFieldOrder());
         stream.println(publicParameters.getQ());
-        printAffine(publicParameters.getPointP(), stream);
-        printAffine(publicParameters.getPointPpublic(), stream);
+        printAffine(publicParameters.getPointP(), publicParameters.getEllipticCurve(), stream);
+        printAffine(publicParameters.getPointPpublic(), publicParameters.getEllipticCurve(), stream);
     }
 
     public static PublicParameters readPublicParameters(File file) throws DeserializationException {
@@ -53,8 +55,13 @@ public final class CommandUtils {
             final String hashFunction = scanner.nextLine();
             final TypeOneEllipticCurve ellipticCurve = TypeOneEllipticCurve.ofOrder(new BigInteger(scanner.nextLine(), INPUT_RADIX));
             final BigInteger q = new BigInteger(scanner.nextLine(), INPUT_RADIX);
-            final AffinePoint pointP = readAffine(scanner.nextLine());
-            final AffinePoint pointPpublic = readAffine(scanner.nextLine());
+            final AffinePoint pointP = readAffine(scanner.nextLine(), ellipticCurve);
+            final AffinePoint pointPpublic = readAffine(scanner.nextLine(), ellipticCurve);
+
+            final SubgroupValidator subgroupValidator = SubgroupValidator.forSubgroup(ellipticCurve, q);
+            if (!subgroupValidator.isValid(pointP) || !subgroupValidator.isValid(pointPpublic)) {
+                throw new IllegalArgumentException("The public parameters contain a point that is not of order q.");
+            }
 
             PublicParameters publicParameters = new PublicParameters(ellipticCurve, q, pointP, pointPpublic, hashFunction);
 
@@ -66,15 +73,19 @@ public final class CommandUtils {
         }
     }
 
-    public static void printPrivateKey(PrivateKey privateKey, PrintStream stream) {
-        printAffine(privateKey.getData(), stream);
+    public static void printPrivateKey(PrivateKey privateKey, TypeOneEllipticCurve ellipticCurve, PrintStream stream) {
+        printAffine(privateKey.getData(), ellipticCurve, stream);
     }
 
-    public static PrivateKey readPrivateKey(File file) throws DeserializationException {
+    public static PrivateKey readPrivateKey(File file, PublicParameters publicParameters) throws DeserializationException {
         try {
             final Scanner scanner = new Scanner(file);
 
-            final AffinePoint point = readAffine(scanner.nextLine());
+            final AffinePoint point = readAffine(scanner.nextLine(), publicParameters.getEllipticCurve());
+
+            if (!SubgroupValidator.forSubgroup(publicParameters.getEllipticCurve(), publicParameters.getQ()).isValid(point)) {
+                throw new IllegalArgumentException("The private key is not a point of order q.");
+            }
 
             PrivateKey privateKey = new PrivateKey(point);
 
@@ -86,21 +97,29 @@ public final class CommandUtils {
         }
     }
 
-    public static void printCipherTextTuple(CipherTextTuple cipherTextTuple, PrintStream stream) {
-        printAffine(cipherTextTuple.getCipherU(), stream);
+    public static void printCipherTextTuple(CipherTextTuple cipherTextTuple, TypeOneEllipticCurve ellipticCurve, PrintStream stream) {
+        printAffine(cipherTextTuple.getCipherU(), ellipticCurve, stream);
         stream.println(base64Encoder.encodeToString(cipherTextTuple.getCipherV()));
         stream.println(base64Encoder.encodeToString(cipherTextTuple.getCipherW()));
+
+        // Omitted for the default mode, so such ciphertexts can be read by earlier versions.
+        if (cipherTextTuple.getMaskGenerationMode() != MaskGenerationMode.HASH_CHAIN) {
+            stream.println(cipherTextTuple.getMaskGenerationMode());
+        }
     }
 
-    public static CipherTextTuple readCipherTextTuple(File file) throws DeserializationException {
+    public static CipherTextTuple readCipherTextTuple(File file, TypeOneEllipticCurve ellipticCurve) throws DeserializationException {
         try {
             final Scanner scanner = new Scanner(file);
 
-            final AffinePoint cipherU = readAffine(scanner.nextLine());
+            final AffinePoint cipherU = readAffine(scanner.nextLine(), ellipticCurve);
             final byte[] cipherV = base64Decoder.decode(scanner.nextLine());
             final byte[] cipherW = base64Decoder.decode(scanner.nextLine());
+            final String modeLine = scanner.hasNextLine() ? scanner.nextLine().trim() : "";
+            final MaskGenerationMode maskGenerationMode =
+                    modeLine.isEmpty() ? MaskGenerationMode.HASH_CHAIN : MaskGenerationMode.valueOf(modeLine);
 
-            CipherTextTuple cipherTextTuple = new CipherTextTuple(cipherU, cipherV, cipherW);
+            CipherTextTuple cipherTextTuple = new CipherTextTuple(cipherU, cipherV, cipherW, maskGenerationMode);
 
             scanner.close();
 
@@ -128,17 +147,21 @@ public final class CommandUtils {
         }
     }
 
-    public static void printAffine(AffinePoint affinePoint, PrintStream stream) {
-        stream.printf("%s %s%n",
-                affinePoint.getX(), affinePoint.getY());
+    public static void printAffine(AffinePoint affinePoint, TypeOneEllipticCurve ellipticCurve, PrintStream stream) {
+        stream.println(base64Encoder.encodeToString(affinePoint.toCompressedBytes(ellipticCurve)));
     }
 
-    public static AffinePoint readAffine(final String line) {
+    public static AffinePoint readAffine(final String line, final TypeOneEllipticCurve ellipticCurve) {
         final String[] fragments = line.split(" ");
 
-        final BigInteger x = new BigInteger(fragments[0], INPUT_RADIX);
-        final BigInteger y = new BigInteger(fragments[1], INPUT_RADIX);
+        // Files written by earlier versions contain both coordinates in decimal.
+        if (fragments.length == 2) {
+            final BigInteger x = new BigInteger(fragments[0], INPUT_RADIX);
+            final BigInteger y = new BigInteger(fragments[1], INPUT_RADIX);
+
+            return new AffinePoint(x, y);
+        }
 
-        return new AffinePoint(x, y);
+        return AffinePoint.fromCompressedBytes(base64Decoder.decode(line), ellipticCurve);
     }
 }
@@ -0,0 +1,77 @@
+package cryptid.cli.util;
+
+import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
+import cryptid.ellipticcurve.point.affine.generator.Mod3GenerationStrategy;
+import cryptid.ibe.IbeComponentFactory;
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl;
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer;
+import cryptid.ibe.domain.IbeSetup;
+import cryptid.ibe.domain.SecurityLevel;
+import cryptid.ibe.exception.SetupException;
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeComponentFactoryImpl;
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeInitializer;
+import cryptid.ibe.util.SolinasPrimeFactory;
+
+import java.security.SecureRandom;
+
+/**
+ * The IBE schemes selectable from the command line. The files of the schemes have the same format, thus the scheme
+ * of a setup must be specified consistently for every command.
+ */
+public enum Scheme {
+    BONEH_FRANKLIN {
+        @Override
+        public IbeSetup setup(final SecureRandom secureRandom, final SecurityLevel securityLevel,
+                              final String hashFunction) throws SetupException {
+            final BonehFranklinIbeInitializer initializer = new BonehFranklinIbeInitializer(secureRandom,
+                    new SolinasPrimeFactory(secureRandom), generationStrategyFactory(secureRandom));
+
+            return hashFunction == null
+                    ? initializer.setup(securityLevel) : initializer.setup(securityLevel, hashFunction);
+        }
+
+        @Override
+        public IbeComponentFactory componentFactory(final SecureRandom secureRandom) {
+            return new BonehFranklinIbeComponentFactoryImpl(secureRandom);
+        }
+    },
+
+    SAKAI_KASAHARA {
+        @Override
+        public IbeSetup setup(final SecureRandom secureRandom, final SecurityLevel securityLevel,
+                              final String hashFunction) throws SetupException {
+            final SakaiKasaharaIbeInitializer initializer = new SakaiKasaharaIbeInitializer(secureRandom,
+                    new SolinasPrimeFactory(secureRandom), generationStrategyFactory(secureRandom));
+
+            return hashFunction == null
+                    ? initializer.setup(securityLevel) : initializer.setup(securityLevel, hashFunction);
+        }
+
+        @Override
+        public IbeComponentFactory componentFactory(final SecureRandom secureRandom) {
+            return new SakaiKasaharaIbeComponentFactoryImpl(secureRandom);
+        }
+    };
+
+    /**
+     * Creates a new setup of the scheme.
+     * @param secureRandom a cryptographically strong random source
+     * @param securityLevel the desired security level
+     * @param hashFunction the hash function to use or {@code null} to use the default one of the security level
+     * @return the new setup
+     * @throws SetupException if the setup cannot be created
+     */
+    public abstract IbeSetup setup(SecureRandom secureRandom, SecurityLevel securityLevel, String hashFunction)
+            throws SetupException;
+
+    /**
+     * Creates a factory of the components of the scheme.
+     * @param secureRandom a cryptographically strong random source
+     * @return the component factory
+     */
+    public abstract IbeComponentFactory componentFactory(SecureRandom secureRandom);
+
+    private static GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory(final SecureRandom secureRandom) {
+        return curve -> new Mod3GenerationStrategy(curve, secureRandom);
+    }
+}
@@ -12,12 +12,18 @@ import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer;
 import cryptid.ibe.domain.IbeSetup;
 import cryptid.ibe.domain.SecurityLevel;
 import cryptid.ibe.exception.SetupException;
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeComponentFactoryImpl;
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeInitializer;
 import cryptid.ibe.util.SolinasPrimeFactory;
+import cryptid.util.StripedSecureRandom;
 
 import java.security.SecureRandom;
 
 /**
  * Class of static factories providing a convenient entry point to the CryptID library.
+ *
+ * The setups are created with a strong random source, while the returned instances draw their randomness from a
+ * {@link StripedSecureRandom} seeded from it, so that they can be shared by many threads.
  */
 public final class CryptID {
     private CryptID() {
@@ -36,26 +42,49 @@ public final class CryptID {
     public static IdentityBasedEncryption setupBonehFranklin(final SecurityLevel securityLevel) throws SetupException {
         try {
             final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
-            final SolinasPrimeFactory solinasPrimeFactory = new SolinasPrimeFactory(secureRandom);
 
-            final GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory =
-                    ellipticCurve -> new Mod3GenerationStrategy(ellipticCurve, secureRandom);
+            return setup(new BonehFranklinIbeInitializer(secureRandom, new SolinasPrimeFactory(secureRandom),
+                    generationStrategyFactory(secureRandom)),
+                    new BonehFranklinIbeComponentFactoryImpl(new StripedSecureRandom(secureRandom)), securityLevel);
+        } catch (final Exception e) {
+            throw new SetupException("Could not setup Boneh-Franklin IBE.", e);
+        }
+    }
 
-            final IbeInitializer initializer =
-                    new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory, generationStrategyFactory);
+    /**
+     * Creates a new Sakai-Kasahara IBE setup that can be used for encryption, decryption and private key
+     * extraction. Unlike Boneh-Franklin, its encryption needs no pairing, which makes it the better choice if
+     * encryption is much more frequent than decryption.
+     * @param securityLevel The desired security level of the setup.
+     * @return a ready-to-use {@code IdentityBasedEncryption} instance
+     * @throws SetupException if the IBE setup cannot be created
+     */
+    public static IdentityBasedEncryption setupSakaiKasahara(final SecurityLevel securityLevel) throws SetupException {
+        try {
+            final SecureRandom secureRandom = SecureRandom.getInstanceStrong();
 
-            final IbeSetup setup = initializer.setup(securityLevel);
+            return setup(new SakaiKasaharaIbeInitializer(secureRandom, new SolinasPrimeFactory(secureRandom),
+                    generationStrategyFactory(secureRandom)),
+                    new SakaiKasaharaIbeComponentFactoryImpl(new StripedSecureRandom(secureRandom)), securityLevel);
+        } catch (final Exception e) {
+            throw new SetupException("Could not setup Sakai-Kasahara IBE.", e);
+        }
+    }
 
-            final IbeComponentFactory componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom);
+    private static IdentityBasedEncryption setup(final IbeInitializer initializer,
+                                                 final IbeComponentFactory componentFactory,
+                                                 final SecurityLevel securityLevel) throws Exception {
+        final IbeSetup setup = initializer.setup(securityLevel);
 
-            final IbeClient client = componentFactory.obtainClient(setup.getPublicParameters());
+        final IbeClient client = componentFactory.obtainClient(setup.getPublicParameters());
 
-            final PrivateKeyGenerator privateKeyGenerator =
-                    componentFactory.obtainPrivateKeyGenerator(setup.getPublicParameters(), setup.getMasterSecret());
+        final PrivateKeyGenerator privateKeyGenerator =
+                componentFactory.obtainPrivateKeyGenerator(setup.getPublicParameters(), setup.getMasterSecret());
 
-            return new IdentityBasedEncryption(client, privateKeyGenerator);
-        } catch (final Exception e) {
-            throw new SetupException("Could not setup Boneh-Franklin IBE.", e);
-        }
+        return new IdentityBasedEncryption(client, privateKeyGenerator);
+    }
+
+    private static GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory(final SecureRandom secureRandom) {
+        return ellipticCurve -> new Mod3GenerationStrategy(ellipticCurve, secureRandom);
     }
 }
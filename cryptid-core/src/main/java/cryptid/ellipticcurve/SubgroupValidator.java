@@ -0,0 +1,195 @@
+package cryptid.ellipticcurve;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Class that can check whether untrusted points (for example ones read from the wire) are valid members of the
+ * subgroup of order {@code q} on a Type-1 elliptic curve.
+ *
+ * A point U is a member of the subgroup if it is on the curve and {@code [q]U} is infinity. If {@code q} is a
+ * Solinas prime {@code 2^a - 2^b - 1}, then {@code [q]U = [2^a]U - [2^b]U - U}, thus the check boils down to a run
+ * of {@code a} doublings and a single addition, that is, checking {@code [2^a]U = [2^b]U + U}. The doublings are
+ * performed in Jacobian coordinates, so no field inversions are needed at all. For other subgroup orders, a generic
+ * scalar multiplication is performed.
+ */
+public final class SubgroupValidator {
+    private static final BigInteger THREE = BigInteger.valueOf(3L);
+
+    private final TypeOneEllipticCurve ellipticCurve;
+    private final BigInteger subgroupOrder;
+    private final BigInteger p;
+
+    /*
+     * The exponents of the Solinas prime or -1 if the subgroup order is not a Solinas prime.
+     */
+    private final int solinasA;
+    private final int solinasB;
+
+    /**
+     * Creates a new validator for the subgroup of the specified order.
+     * @param ellipticCurve the curve the points should be on
+     * @param subgroupOrder the order of the subgroup
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return a new validator
+     */
+    public static SubgroupValidator forSubgroup(final TypeOneEllipticCurve ellipticCurve, final BigInteger subgroupOrder) {
+        return new SubgroupValidator(Objects.requireNonNull(ellipticCurve), Objects.requireNonNull(subgroupOrder));
+    }
+
+    private SubgroupValidator(final TypeOneEllipticCurve ellipticCurve, final BigInteger subgroupOrder) {
+        this.ellipticCurve = ellipticCurve;
+        this.subgroupOrder = subgroupOrder;
+        this.p = ellipticCurve.getFieldOrder();
+
+        // q = 2^a - 2^b - 1 <=> 2^a - 1 - q = 2^b, where 2^a is the smallest power of two above q.
+        final int a = subgroupOrder.bitLength();
+        final BigInteger remainder = BigInteger.ONE.shiftLeft(a).subtract(BigInteger.ONE).subtract(subgroupOrder);
+
+        if (subgroupOrder.signum() > 0 && remainder.signum() > 0 && remainder.bitCount() == 1) {
+            this.solinasA = a;
+            this.solinasB = remainder.getLowestSetBit();
+        } else {
+            this.solinasA = -1;
+            this.solinasB = -1;
+        }
+    }
+
+    /**
+     * Checks if the specified point is a finite point on the curve with coordinates in the range {@code [0, p)}
+     * and it is a member of the subgroup of order {@code q}.
+     * @param point the point to check
+     * @throws NullPointerException if the point is {@code null}
+     * @return {@code true} if the point is a valid member of the subgroup, {@code false} otherwise
+     */
+    public boolean isValid(final AffinePoint point) {
+        Objects.requireNonNull(point);
+
+        if (AffinePoint.isInfinity(point) || !isReduced(point.getX()) || !isReduced(point.getY())
+                || !ellipticCurve.isOnCurve(point)) {
+            return false;
+        }
+
+        if (solinasA < 0) {
+            return AffinePoint.isInfinity(ellipticCurve.multiply(point, subgroupOrder));
+        }
+
+        // T_b = [2^b]U
+        JacobianPoint t = toJacobian(point);
+        for (int i = 0; i < solinasB; ++i) {
+            t = t.doubl();
+        }
+        final JacobianPoint pointTb = t;
+
+        // T_a = [2^a]U
+        for (int i = solinasB; i < solinasA; ++i) {
+            t = t.doubl();
+        }
+
+        // [q]U is infinity <=> [2^a]U = [2^b]U + U
+        return t.isEqualTo(pointTb.addAffine(point));
+    }
+
+    /**
+     * Gets the order of the subgroup the points are checked against.
+     * @return the order of the subgroup
+     */
+    public BigInteger getSubgroupOrder() {
+        return subgroupOrder;
+    }
+
+    private JacobianPoint toJacobian(final AffinePoint point) {
+        return new JacobianPoint(point.getX(), point.getY(), BigInteger.ONE);
+    }
+
+    private boolean isReduced(final BigInteger coordinate) {
+        return coordinate.signum() >= 0 && coordinate.compareTo(p) < 0;
+    }
+
+    /**
+     * Point in Jacobian coordinates, {@code (X, Y, Z)} representing {@code (X / Z^2, Y / Z^3)}, on a curve with
+     * {@code a = 0}. Infinity is represented with {@code Z = 0}.
+     */
+    private final class JacobianPoint {
+        private final BigInteger x;
+        private final BigInteger y;
+        private final BigInteger z;
+
+        private JacobianPoint(final BigInteger x, final BigInteger y, final BigInteger z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        private boolean isInfinity() {
+            return z.signum() == 0;
+        }
+
+        private JacobianPoint doubl() {
+            if (isInfinity() || y.signum() == 0) {
+                return infinity();
+            }
+
+            // dbl-2009-l
+            final BigInteger a = x.multiply(x).mod(p);
+            final BigInteger b = y.multiply(y).mod(p);
+            final BigInteger c = b.multiply(b).mod(p);
+            final BigInteger d = x.add(b).pow(2).subtract(a).subtract(c).shiftLeft(1).mod(p);
+            final BigInteger e = a.multiply(THREE).mod(p);
+            final BigInteger f = e.multiply(e).mod(p);
+
+            final BigInteger xn = f.subtract(d.shiftLeft(1)).mod(p);
+            final BigInteger yn = e.multiply(d.subtract(xn)).subtract(c.shiftLeft(3)).mod(p);
+            final BigInteger zn = y.multiply(z).shiftLeft(1).mod(p);
+
+            return new JacobianPoint(xn, yn, zn);
+        }
+
+        private JacobianPoint addAffine(final AffinePoint other) {
+            if (isInfinity()) {
+                return toJacobian(other);
+            }
+
+            // madd-2007-bl
+            final BigInteger z1z1 = z.multiply(z).mod(p);
+            final BigInteger u2 = other.getX().multiply(z1z1).mod(p);
+            final BigInteger s2 = other.getY().multiply(z).multiply(z1z1).mod(p);
+            final BigInteger h = u2.subtract(x).mod(p);
+            final BigInteger r = s2.subtract(y).shiftLeft(1).mod(p);
+
+            if (h.signum() == 0) {
+                return r.signum() == 0 ? doubl() : infinity();
+            }
+
+            final BigInteger hh = h.multiply(h).mod(p);
+            final BigInteger i = hh.shiftLeft(2).mod(p);
+            final BigInteger j = h.multiply(i).mod(p);
+            final BigInteger v = x.multiply(i).mod(p);
+
+            final BigInteger xn = r.multiply(r).subtract(j).subtract(v.shiftLeft(1)).mod(p);
+            final BigInteger yn = r.multiply(v.subtract(xn)).subtract(y.multiply(j).shiftLeft(1)).mod(p);
+            final BigInteger zn = z.add(h).pow(2).subtract(z1z1).subtract(hh).mod(p);
+
+            return new JacobianPoint(xn, yn, zn);
+        }
+
+        private boolean isEqualTo(final JacobianPoint other) {
+            if (isInfinity() || other.isInfinity()) {
+                return isInfinity() && other.isInfinity();
+            }
+
+            // X1 * Z2^2 = X2 * Z1^2 and Y1 * Z2^3 = Y2 * Z1^3
+            final BigInteger z1z1 = z.multiply(z).mod(p);
+            final BigInteger z2z2 = other.z.multiply(other.z).mod(p);
+
+            return x.multiply(z2z2).mod(p).equals(other.x.multiply(z1z1).mod(p))
+                    && y.multiply(z2z2).multiply(other.z).mod(p).equals(other.y.multiply(z1z1).multiply(z).mod(p));
+        }
+
+        private JacobianPoint infinity() {
+            return new JacobianPoint(BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package cryptid.ellipticcurve;
 
+import cryptid.ellipticcurve.multiplier.AffineScalarMultiplier;
+import cryptid.ellipticcurve.multiplier.ScalarMultiplier;
+import cryptid.ellipticcurve.multiplier.ScalarMultiplierFactory;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
 import java.math.BigInteger;
 import java.util.Objects;
 
@@ -10,24 +15,89 @@ public class TypeOneEllipticCurve extends EllipticCurve {
     private static final BigInteger ELEVEN = BigInteger.valueOf(11L);
     private static final BigInteger TWELVE = BigInteger.valueOf(12L);
 
-    private TypeOneEllipticCurve(final BigInteger fieldOrder) {
+    private final BigInteger cubeRootExponent;
+
+    private final ScalarMultiplier scalarMultiplier;
+
+    private TypeOneEllipticCurve(final BigInteger fieldOrder, final ScalarMultiplierFactory<?> scalarMultiplierFactory) {
         super(BigInteger.ZERO, BigInteger.ONE, fieldOrder);
+
+        // As p is congruent to 2 modulo 3, cubing is a bijection in F_p, and its inverse is exponentiation by
+        // (2p - 1) / 3.
+        this.cubeRootExponent = fieldOrder.shiftLeft(1).subtract(BigInteger.ONE).divide(BigInteger.valueOf(3L));
+
+        this.scalarMultiplier = Objects.requireNonNull(scalarMultiplierFactory.newInstance(this));
     }
 
     /**
-     * Creates a new Type-1 elliptic curve of the specified field order.
+     * Creates a new Type-1 elliptic curve of the specified field order. Scalar multiplications on the curve
+     * are performed by an {@link AffineScalarMultiplier}.
      * @param fieldOrder the order of the finite field
      * @throws IllegalArgumentException if the field order is not congruent to 11 modulo 12
      * @throws NullPointerException if the field order is {@code null}
      * @return a new Type-1 elliptic curve
      */
     public static TypeOneEllipticCurve ofOrder(final BigInteger fieldOrder) {
+        return ofOrder(fieldOrder, AffineScalarMultiplier::new);
+    }
+
+    /**
+     * Creates a new Type-1 elliptic curve of the specified field order, which performs scalar multiplications
+     * using the multiplier produced by the specified factory.
+     * @param fieldOrder the order of the finite field
+     * @param scalarMultiplierFactory factory producing the scalar multiplication backend of the curve
+     * @throws IllegalArgumentException if the field order is not congruent to 11 modulo 12
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return a new Type-1 elliptic curve
+     */
+    public static TypeOneEllipticCurve ofOrder(final BigInteger fieldOrder, final ScalarMultiplierFactory<?> scalarMultiplierFactory) {
         Objects.requireNonNull(fieldOrder);
+        Objects.requireNonNull(scalarMultiplierFactory);
 
         if (!fieldOrder.mod(TWELVE).equals(ELEVEN)) {
             throw new IllegalArgumentException("The field order must be congruent to 11 modulo 12!");
         }
 
-        return new TypeOneEllipticCurve(fieldOrder);
+        return new TypeOneEllipticCurve(fieldOrder, scalarMultiplierFactory);
+    }
+
+    /**
+     * Multiplies the specified point with a scalar using the scalar multiplication backend of this curve.
+     * @param point a point on this curve
+     * @param s the non-negative scalar to multiply with
+     * @return the result of the multiplication
+     */
+    public AffinePoint multiply(final AffinePoint point, final BigInteger s) {
+        return scalarMultiplier.multiply(point, s);
+    }
+
+    /**
+     * Gets the scalar multiplication backend of this curve.
+     * @return the scalar multiplier
+     */
+    public ScalarMultiplier getScalarMultiplier() {
+        return scalarMultiplier;
+    }
+
+    /**
+     * Gets the exponent {@code (2p - 1) / 3} which can be used to compute the (unique) cube root of an element of
+     * the finite field.
+     * @return the cube root exponent
+     */
+    public BigInteger getCubeRootExponent() {
+        return cubeRootExponent;
+    }
+
+    /**
+     * Solves the curve equation for the x coordinate. As cube roots are unique in the finite field, there is
+     * exactly one such x for every y, that is, {@code x = (y^2 - 1)^((2p - 1) / 3)}.
+     * @param y the y coordinate
+     * @throws NullPointerException if y is {@code null}
+     * @return the x coordinate of the point on the curve with the specified y coordinate
+     */
+    public BigInteger solveForX(final BigInteger y) {
+        Objects.requireNonNull(y);
+
+        return y.pow(2).subtract(BigInteger.ONE).modPow(cubeRootExponent, getFieldOrder());
     }
 }
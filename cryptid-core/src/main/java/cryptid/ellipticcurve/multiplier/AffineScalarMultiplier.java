@@ -0,0 +1,25 @@
+package cryptid.ellipticcurve.multiplier;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Scalar multiplier using double-and-add in affine short Weierstrass coordinates, that is,
+ * {@link AffinePoint#multiply(BigInteger, cryptid.ellipticcurve.EllipticCurve)}.
+ */
+public final class AffineScalarMultiplier extends ScalarMultiplier {
+    public AffineScalarMultiplier(final TypeOneEllipticCurve ellipticCurve) {
+        super(ellipticCurve);
+    }
+
+    @Override
+    public AffinePoint multiply(final AffinePoint point, final BigInteger s) {
+        Objects.requireNonNull(point);
+        Objects.requireNonNull(s);
+
+        return point.multiply(s, ellipticCurve);
+    }
+}
@@ -0,0 +1,156 @@
+package cryptid.ellipticcurve.multiplier;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static cryptid.util.BigIntegerUtils.batchModInverse;
+
+/**
+ * Scalar multiplier that multiplies many points with the same scalar in lockstep, using affine double-and-add.
+ * Every affine doubling and addition needs a field inversion. As all points go through the same sequence of
+ * doublings and additions, the inversions of a single step can be shared across the whole batch with Montgomery's
+ * trick, so the cost of a step is a single inversion plus a few multiplications per point.
+ *
+ * The rare exceptional cases (infinity, points of order two, adding a point to itself or to its negative) are
+ * handled one by one, using the regular affine formulas.
+ */
+public final class BatchAffineScalarMultiplier extends ScalarMultiplier {
+    private static final BigInteger THREE = BigInteger.valueOf(3L);
+
+    private final BigInteger p;
+
+    public BatchAffineScalarMultiplier(final TypeOneEllipticCurve ellipticCurve) {
+        super(ellipticCurve);
+
+        this.p = ellipticCurve.getFieldOrder();
+    }
+
+    @Override
+    public AffinePoint multiply(final AffinePoint point, final BigInteger s) {
+        Objects.requireNonNull(point);
+
+        return multiplyAll(Collections.singletonList(point), s).get(0);
+    }
+
+    /**
+     * Multiplies each of the specified points with the same scalar.
+     * @param points points on the curve
+     * @param s the non-negative scalar to multiply with
+     * @throws NullPointerException if any of the arguments or points is {@code null}
+     * @return the results of the multiplications, in the same order as the points
+     */
+    public List<AffinePoint> multiplyAll(final List<AffinePoint> points, final BigInteger s) {
+        Objects.requireNonNull(points);
+        Objects.requireNonNull(s);
+
+        final int n = points.size();
+        final List<AffinePoint> accumulators = new ArrayList<>(n);
+
+        if (s.signum() == 0) {
+            for (final AffinePoint point : points) {
+                Objects.requireNonNull(point);
+                accumulators.add(AffinePoint.INFINITY);
+            }
+
+            return accumulators;
+        }
+
+        for (final AffinePoint point : points) {
+            accumulators.add(Objects.requireNonNull(point));
+        }
+
+        for (int i = s.bitLength() - 2; i >= 0; --i) {
+            doubleAll(accumulators);
+
+            if (s.testBit(i)) {
+                addAll(accumulators, points);
+            }
+        }
+
+        return accumulators;
+    }
+
+    /**
+     * Replaces each accumulator with its double.
+     */
+    private void doubleAll(final List<AffinePoint> accumulators) {
+        final List<Integer> indices = new ArrayList<>(accumulators.size());
+        final List<BigInteger> denominators = new ArrayList<>(accumulators.size());
+
+        for (int i = 0; i < accumulators.size(); ++i) {
+            final AffinePoint point = accumulators.get(i);
+
+            if (AffinePoint.isInfinity(point) || point.getY().signum() == 0) {
+                accumulators.set(i, AffinePoint.INFINITY);
+            } else {
+                indices.add(i);
+                denominators.add(point.getY().shiftLeft(1));
+            }
+        }
+
+        final List<BigInteger> inverses = batchModInverse(denominators, p);
+
+        for (int j = 0; j < indices.size(); ++j) {
+            final int i = indices.get(j);
+            final AffinePoint point = accumulators.get(i);
+
+            // m = 3 * x^2 / 2 * y
+            final BigInteger m = point.getX().pow(2).multiply(THREE).multiply(inverses.get(j)).mod(p);
+
+            accumulators.set(i, fromSlope(m, point, point));
+        }
+    }
+
+    /**
+     * Replaces each accumulator with the sum of itself and the corresponding point.
+     */
+    private void addAll(final List<AffinePoint> accumulators, final List<AffinePoint> points) {
+        final List<Integer> indices = new ArrayList<>(accumulators.size());
+        final List<BigInteger> denominators = new ArrayList<>(accumulators.size());
+
+        for (int i = 0; i < accumulators.size(); ++i) {
+            final AffinePoint accumulator = accumulators.get(i);
+            final AffinePoint point = points.get(i);
+
+            if (AffinePoint.isInfinity(accumulator) || AffinePoint.isInfinity(point)
+                    || accumulator.getX().equals(point.getX())) {
+                // Exceptional case, no point in batching it.
+                accumulators.set(i, accumulator.add(point, ellipticCurve));
+            } else {
+                indices.add(i);
+                denominators.add(point.getX().subtract(accumulator.getX()));
+            }
+        }
+
+        final List<BigInteger> inverses = batchModInverse(denominators, p);
+
+        for (int j = 0; j < indices.size(); ++j) {
+            final int i = indices.get(j);
+            final AffinePoint accumulator = accumulators.get(i);
+            final AffinePoint point = points.get(i);
+
+            // m = (y_2 - y_1) / (x_2 - x_1)
+            final BigInteger m = point.getY().subtract(accumulator.getY()).multiply(inverses.get(j)).mod(p);
+
+            accumulators.set(i, fromSlope(m, accumulator, point));
+        }
+    }
+
+    /**
+     * Computes the sum of two points from the slope of the line through them.
+     */
+    private AffinePoint fromSlope(final BigInteger m, final AffinePoint first, final AffinePoint second) {
+        // x = m^2 - x_1 - x_2
+        final BigInteger xn = m.pow(2).subtract(first.getX()).subtract(second.getX()).mod(p);
+        // y = m(x_1 - x) - y_1
+        final BigInteger yn = m.multiply(first.getX().subtract(xn)).subtract(first.getY()).mod(p);
+
+        return new AffinePoint(xn, yn);
+    }
+}
@@ -0,0 +1,174 @@
+package cryptid.ellipticcurve.multiplier;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Scalar multiplier that maps points into an isomorphic Montgomery curve and performs the multiplication with the
+ * x-only Montgomery ladder. The ladder uses projective {@code (X : Z)} coordinates, therefore (unlike the affine
+ * double-and-add) it does not need a field inversion in every step. The y coordinate of the result is recovered
+ * at the end using the Okeya-Sakurai formula, and the point is mapped back to the Type-1 curve.
+ *
+ * The map is derived as follows. Having {@code X = x + 1}, the curve {@code y^2 = x^3 + 1} becomes
+ * {@code y^2 = X^3 - 3X^2 + 3X}. As {@code p} is congruent to 11 modulo 12, 3 is a quadratic residue, and with
+ * {@code s = sqrt(3)}, {@code u = X / s} and {@code v = y / 3s} we arrive at the Montgomery curve
+ * <pre>
+ * {@code
+ * Bv^2 = u^3 + Au^2 + u, where A = -s and B = 3s.
+ * }
+ * </pre>
+ *
+ * @see <a href="https://eprint.iacr.org/2017/293" target="_blank">Costello, Smith: Montgomery curves and their arithmetic</a>
+ */
+public final class MontgomeryLadderScalarMultiplier extends ScalarMultiplier {
+    private static final BigInteger TWO = BigInteger.valueOf(2L);
+    private static final BigInteger THREE = BigInteger.valueOf(3L);
+    private static final BigInteger FOUR = BigInteger.valueOf(4L);
+
+    private final BigInteger p;
+
+    /*
+     * s = sqrt(3) and its inverse.
+     */
+    private final BigInteger s;
+    private final BigInteger sInverse;
+
+    /*
+     * The coefficients of the Montgomery curve.
+     */
+    private final BigInteger montgomeryA;
+    private final BigInteger montgomeryB;
+    private final BigInteger montgomeryBInverse;
+
+    /*
+     * a24 = (A - 2) / 4
+     */
+    private final BigInteger a24;
+
+    public MontgomeryLadderScalarMultiplier(final TypeOneEllipticCurve ellipticCurve) {
+        super(ellipticCurve);
+
+        this.p = ellipticCurve.getFieldOrder();
+
+        // p is congruent to 3 modulo 4, so the square root can be computed as 3^((p + 1) / 4)
+        this.s = THREE.modPow(p.add(BigInteger.ONE).divide(FOUR), p);
+        this.sInverse = s.modInverse(p);
+
+        this.montgomeryA = s.negate().mod(p);
+        this.montgomeryB = s.multiply(THREE).mod(p);
+        this.montgomeryBInverse = montgomeryB.modInverse(p);
+
+        this.a24 = montgomeryA.subtract(TWO).multiply(FOUR.modInverse(p)).mod(p);
+    }
+
+    @Override
+    public AffinePoint multiply(final AffinePoint point, final BigInteger scalar) {
+        Objects.requireNonNull(point);
+        Objects.requireNonNull(scalar);
+
+        if (scalar.equals(BigInteger.ZERO) || AffinePoint.isInfinity(point)) {
+            return AffinePoint.INFINITY;
+        }
+
+        // Points of order two cannot be handled by the y-recovery, but they are trivial anyway.
+        if (point.getY().equals(BigInteger.ZERO)) {
+            return scalar.testBit(0) ? point : AffinePoint.INFINITY;
+        }
+
+        // Map to the Montgomery curve: u = (x + 1) / s, v = y / 3s
+        final BigInteger u = point.getX().add(BigInteger.ONE).multiply(sInverse).mod(p);
+        final BigInteger v = point.getY().multiply(montgomeryBInverse).mod(p);
+
+        // R0 = infinity, R1 = P
+        BigInteger x0 = BigInteger.ONE;
+        BigInteger z0 = BigInteger.ZERO;
+        BigInteger x1 = u;
+        BigInteger z1 = BigInteger.ONE;
+
+        // Invariant: R1 - R0 = P
+        for (int i = scalar.bitLength() - 1; i >= 0; --i) {
+            final boolean bit = scalar.testBit(i);
+
+            // If the bit is set, we compute R0 = R0 + R1 and R1 = 2 * R1, that is, the roles are swapped.
+            final BigInteger dblX = bit ? x1 : x0;
+            final BigInteger dblZ = bit ? z1 : z0;
+            final BigInteger otherX = bit ? x0 : x1;
+            final BigInteger otherZ = bit ? z0 : z1;
+
+            // Differential addition R0 + R1 with R1 - R0 = P
+            final BigInteger a = dblX.add(dblZ);
+            final BigInteger b = dblX.subtract(dblZ);
+            final BigInteger c = otherX.add(otherZ);
+            final BigInteger d = otherX.subtract(otherZ);
+            final BigInteger da = d.multiply(a);
+            final BigInteger cb = c.multiply(b);
+            final BigInteger sumX = da.add(cb).pow(2).mod(p);
+            final BigInteger sumZ = u.multiply(da.subtract(cb).pow(2)).mod(p);
+
+            // Doubling
+            final BigInteger aa = a.multiply(a).mod(p);
+            final BigInteger bb = b.multiply(b).mod(p);
+            final BigInteger e = aa.subtract(bb);
+            final BigInteger doubleX = aa.multiply(bb).mod(p);
+            final BigInteger doubleZ = e.multiply(aa.add(a24.multiply(e))).mod(p);
+
+            if (bit) {
+                x0 = sumX;
+                z0 = sumZ;
+                x1 = doubleX;
+                z1 = doubleZ;
+            } else {
+                x0 = doubleX;
+                z0 = doubleZ;
+                x1 = sumX;
+                z1 = sumZ;
+            }
+        }
+
+        // [k]P is infinity
+        if (z0.signum() == 0) {
+            return AffinePoint.INFINITY;
+        }
+
+        // [k + 1]P is infinity, thus [k]P = -P
+        if (z1.signum() == 0) {
+            return new AffinePoint(point.getX(), point.getY().negate().mod(p));
+        }
+
+        return recover(u, v, x0, z0, x1, z1);
+    }
+
+    /**
+     * Recovers the full result from the affine input point {@code (u, v)}, {@code [k]P = (x0 : z0)} and
+     * {@code [k + 1]P = (x1 : z1)} using the Okeya-Sakurai formula, and maps it back to the Type-1 curve.
+     */
+    private AffinePoint recover(final BigInteger u, final BigInteger v,
+                                final BigInteger x0, final BigInteger z0, final BigInteger x1, final BigInteger z1) {
+        final BigInteger twoA = montgomeryA.shiftLeft(1);
+        final BigInteger uz0 = u.multiply(z0).mod(p);
+
+        // X' = 2 * B * v * z0 * z1 * x0
+        // Z' = 2 * B * v * z0 * z1 * z0
+        final BigInteger common = montgomeryB.shiftLeft(1).multiply(v).multiply(z0).multiply(z1).mod(p);
+
+        // Y' = z1 * [(x0 + u * z0 + 2 * A * z0) * (x0 * u + z0) - 2 * A * z0^2] - (x0 - u * z0)^2 * x1
+        final BigInteger first = x0.add(uz0).add(twoA.multiply(z0)).multiply(x0.multiply(u).add(z0))
+                .subtract(twoA.multiply(z0).multiply(z0)).multiply(z1);
+        final BigInteger second = x0.subtract(uz0).pow(2).multiply(x1);
+        final BigInteger yNumerator = first.subtract(second).mod(p);
+
+        final BigInteger zInverse = common.multiply(z0).mod(p).modInverse(p);
+
+        final BigInteger montgomeryU = common.multiply(x0).multiply(zInverse).mod(p);
+        final BigInteger montgomeryV = yNumerator.multiply(zInverse).mod(p);
+
+        // Map back to the Type-1 curve: x = s * u - 1, y = 3s * v
+        final BigInteger x = s.multiply(montgomeryU).subtract(BigInteger.ONE).mod(p);
+        final BigInteger y = montgomeryB.multiply(montgomeryV).mod(p);
+
+        return new AffinePoint(x, y);
+    }
+}
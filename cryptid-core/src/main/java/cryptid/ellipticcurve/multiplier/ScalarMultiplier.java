@@ -0,0 +1,41 @@
+package cryptid.ellipticcurve.multiplier;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Base class for point arithmetic backends that can compute scalar multiples of affine points on a specific
+ * Type-1 elliptic curve. Implementations may perform the computation in an arbitrary curve model or coordinate
+ * system, however, both the input and the output are affine points on the Type-1 curve.
+ */
+public abstract class ScalarMultiplier {
+    protected final TypeOneEllipticCurve ellipticCurve;
+
+    /**
+     * Constructs a new multiplier operating on the specified curve.
+     * @param ellipticCurve the curve to operate on
+     * @throws NullPointerException if the curve is {@code null}
+     */
+    public ScalarMultiplier(final TypeOneEllipticCurve ellipticCurve) {
+        this.ellipticCurve = Objects.requireNonNull(ellipticCurve);
+    }
+
+    /**
+     * Multiplies the specified point with a scalar.
+     * @param point a point on the curve
+     * @param s the non-negative scalar to multiply with
+     * @return the result of the multiplication
+     */
+    public abstract AffinePoint multiply(AffinePoint point, BigInteger s);
+
+    /**
+     * Gets the elliptic curve of the multiplier.
+     * @return the elliptic curve this multiplier operates on
+     */
+    public TypeOneEllipticCurve getEllipticCurve() {
+        return ellipticCurve;
+    }
+}
@@ -0,0 +1,16 @@
+package cryptid.ellipticcurve.multiplier;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+
+/**
+ * Interface for factory classes that can produce {@link ScalarMultiplier} instances.
+ */
+@FunctionalInterface
+public interface ScalarMultiplierFactory<T extends ScalarMultiplier> {
+    /**
+     * Creates a new multiplier which operates on the specified curve.
+     * @param ellipticCurve the curve to operate on
+     * @return a new multiplier instance
+     */
+    T newInstance(TypeOneEllipticCurve ellipticCurve);
+}
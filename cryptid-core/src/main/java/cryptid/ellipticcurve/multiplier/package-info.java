@@ -0,0 +1,4 @@
+/**
+ * Pluggable scalar multiplication backends for Type-1 elliptic curves.
+ */
+package cryptid.ellipticcurve.multiplier;
@@ -0,0 +1,30 @@
+package cryptid.ellipticcurve.pairing.tate;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.pairing.tate.miller.MillerFunction;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+/**
+ * The Tate pairing with its first point fixed, obtained from {@link TatePairing#prepare(AffinePoint)}. The lines of
+ * Miller's algorithm are computed once, so every pairing with the fixed point costs only their evaluation and the
+ * final exponentiation. Instances are immutable and thread-safe.
+ */
+public final class PreparedTatePairing {
+    private final TatePairing tatePairing;
+    private final MillerFunction millerFunction;
+
+    PreparedTatePairing(final TatePairing tatePairing, final MillerFunction millerFunction) {
+        this.tatePairing = tatePairing;
+        this.millerFunction = millerFunction;
+    }
+
+    /**
+     * Performs the Tate pairing on the fixed point and the specified point, yielding the same result as
+     * {@link TatePairing#performPairing(AffinePoint, AffinePoint)}.
+     * @param b point to perform the pairing on
+     * @return the result of the pairing
+     */
+    public Complex performPairing(final AffinePoint b) {
+        return tatePairing.performPairing(millerFunction, b);
+    }
+}
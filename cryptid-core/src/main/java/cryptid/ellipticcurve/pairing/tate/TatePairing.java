@@ -3,6 +3,7 @@ package cryptid.ellipticcurve.pairing.tate;
 import cryptid.complex.Complex;
 import cryptid.ellipticcurve.pairing.tate.distortion.DistortionMap;
 import cryptid.ellipticcurve.pairing.tate.miller.MillerAlgorithm;
+import cryptid.ellipticcurve.pairing.tate.miller.MillerFunction;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
 import cryptid.ellipticcurve.EllipticCurve;
 import cryptid.ellipticcurve.point.complexaffine.ComplexAffinePoint;
@@ -13,6 +14,8 @@ import java.util.Objects;
 /**
  * Class representing the Tate-pairing operation with a specific Miller's Algorithm implementation and
  * distortion map.
+ *
+ * Instances are immutable and thread-safe, so a single instance can be shared by any number of threads.
  */
 public class TatePairing {
     private static final int MINIMAL_EMBEDDING_DEGREE = 2;
@@ -52,6 +55,22 @@ public class TatePairing {
      */
     public Complex performPairing(final AffinePoint a, final AffinePoint b) {
         Objects.requireNonNull(a);
+
+        return performPairing(millerAlgorithm.prepare(a), b);
+    }
+
+    /**
+     * Prepares the Tate pairing for a fixed first point, which is worth it if the point is paired with many others,
+     * as is the case with a private key decrypting many ciphertexts.
+     * @param a the fixed point to perform the pairings on
+     * @throws NullPointerException if the point is {@code null}
+     * @return the pairing with the fixed point
+     */
+    public PreparedTatePairing prepare(final AffinePoint a) {
+        return new PreparedTatePairing(this, millerAlgorithm.prepare(Objects.requireNonNull(a)));
+    }
+
+    Complex performPairing(final MillerFunction millerFunction, final AffinePoint b) {
         Objects.requireNonNull(b);
 
         final ComplexAffinePoint bprime = distortionMap.apply(b);
@@ -60,7 +79,7 @@ public class TatePairing {
             return new Complex(1L);
         }
 
-        final Complex f = millerAlgorithm.evaluate(a, bprime);
+        final Complex f = millerFunction.evaluate(bprime);
 
         return finalExponentiation(f);
     }
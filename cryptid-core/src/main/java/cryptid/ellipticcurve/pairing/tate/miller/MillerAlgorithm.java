@@ -29,6 +29,20 @@ public abstract class MillerAlgorithm {
      */
     public abstract Complex evaluate(AffinePoint p, ComplexAffinePoint q);
 
+    /**
+     * Prepares the evaluation of Miller's algorithm for a fixed first point, so that everything depending only on
+     * that point is computed once, no matter how many times the result is evaluated. The default implementation
+     * does not precompute anything.
+     * @param p a point of E[subgroupOrder]
+     * @throws NullPointerException if the point is {@code null}
+     * @return Miller's algorithm with its first point fixed
+     */
+    public MillerFunction prepare(final AffinePoint p) {
+        Objects.requireNonNull(p);
+
+        return q -> evaluate(p, q);
+    }
+
     public EllipticCurve getEllipticCurve() {
         return ellipticCurve;
     }
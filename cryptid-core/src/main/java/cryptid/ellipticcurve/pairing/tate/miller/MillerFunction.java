@@ -0,0 +1,17 @@
+package cryptid.ellipticcurve.pairing.tate.miller;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.point.complexaffine.ComplexAffinePoint;
+
+/**
+ * Miller's algorithm with its first point fixed, see {@link MillerAlgorithm#prepare(cryptid.ellipticcurve.point.affine.AffinePoint)}.
+ */
+@FunctionalInterface
+public interface MillerFunction {
+    /**
+     * Evaluates Miller's algorithm on the fixed point and the specified point.
+     * @param q a point linearly independent from the fixed point
+     * @return the result of the pairing
+     */
+    Complex evaluate(ComplexAffinePoint q);
+}
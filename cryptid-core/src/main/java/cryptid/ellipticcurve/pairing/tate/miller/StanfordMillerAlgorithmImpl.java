@@ -6,10 +6,17 @@ import cryptid.ellipticcurve.EllipticCurve;
 import cryptid.ellipticcurve.point.complexaffine.ComplexAffinePoint;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Class implementing the Miller's algorithm as it's written in the
  * <a href="https://crypto.stanford.edu/pbc/notes/ep/miller.html" target="_blank">Stanford Pairing-based Cryptography Notes</a>.
+ *
+ * The lines of the algorithm only depend on the first point, thus they are computed in advance (along with the
+ * multiples of the point) and then evaluated at the second point. The numerator and the denominator of {@code f}
+ * are accumulated separately, so a single inversion is needed per evaluation instead of one per step.
  */
 public final class StanfordMillerAlgorithmImpl extends MillerAlgorithm {
 
@@ -25,6 +32,13 @@ public final class StanfordMillerAlgorithmImpl extends MillerAlgorithm {
      */
     @Override
     public Complex evaluate(final AffinePoint p, final ComplexAffinePoint q) {
+        return prepare(p).evaluate(q);
+    }
+
+    @Override
+    public MillerFunction prepare(final AffinePoint p) {
+        Objects.requireNonNull(p);
+
         // Mostly, we stick to the notation used on the site, however in some places this is not possible,
         // because we want to write idiomatic Java.
         // Therefore, here the "<->" symbol is used to mark changes in the notation.
@@ -34,207 +48,209 @@ public final class StanfordMillerAlgorithmImpl extends MillerAlgorithm {
         // Throughout the comments, TeX code is used for maths.
 
         // 1. Set f = 1 and V = P
-        // f = 1
         // V = P
-        PairingContext context = PairingContext.initialContext(ellipticCurve, p, q);
+        AffinePoint v = p;
+        final List<Step> steps = new ArrayList<>();
 
         // t <-> n.bitCount()
         // 2. for i = t - 1 to 0 do:
         for (int i = subgroupOrder.bitCount() - 1; i >= 0; --i) {
-            context = doubleStep(context);
+            //  2.1
+            // f = f^{2} \frac{g_{V, V}(Q)}{g_{2V, -2V}(Q)}
+            final AffinePoint doubleV = v.add(v, ellipticCurve);
+            steps.add(new Step(true, tangent(v), vertical(doubleV)));
+
+            // V = 2V
+            v = doubleV;
 
             // 2.2 if l_i = 1 then
             if (subgroupOrder.testBit(i)) {
-                context = addStep(context);
+                // 2.2.1
+                // f = f \frac{g_{V, P}(Q)}{g_{V + P, -(V + P)}(Q)}
+                final AffinePoint vPlusP = v.add(p, ellipticCurve);
+                steps.add(new Step(false, line(v, p), vertical(vPlusP)));
+
+                // V = V + P
+                v = vPlusP;
             }
         }
 
-        return context.f;
-    }
-
-    private PairingContext doubleStep(final PairingContext context) {
-        //  2.1
-        // f = f^{2} \frac{g_{V, V}(Q)}{g_{2V, -2V}(Q)}
-        final AffinePoint doubleV = context.v.add(context.v, context.ec);
-        final Complex gVVQ = evaluateTangent(context.ec, context.v, context.q);
-        final Complex g2VMinus2VQ = evaluateVertical(context.ec, doubleV, context.q);
-        final Complex g2VMinus2VQInv = g2VMinus2VQ.multiplicativeInverse(context.ec.getFieldOrder());
-        final Complex frac = gVVQ.modMul(g2VMinus2VQInv, context.ec.getFieldOrder());
-        Complex f = context.f.modMul(context.f, context.ec.getFieldOrder());
-        f = f.modMul(frac, context.ec.getFieldOrder());
-
-        // V = 2V
-        return context.adjustWith(f, doubleV);
-    }
-
-    private PairingContext addStep(final PairingContext context) {
-        // 2.2.1
-        // f = f \frac{g_{V, P}(Q)}{g_{V + P, -(V + P)}(Q)}
-        final AffinePoint vPlusP = context.v.add(context.p, context.ec);
-        final Complex gVPQ = evaluateLine(context.ec, context.v, context.p, context.q);
-        final Complex gVPlusQ = evaluateVertical(context.ec, vPlusP, context.q);
-        final Complex gVPlusQInv = gVPlusQ.multiplicativeInverse(context.ec.getFieldOrder());
-        final Complex frac = gVPQ.modMul(gVPlusQInv, context.ec.getFieldOrder());
-        final Complex f = context.f.modMul(frac, context.ec.getFieldOrder());
-
-        // V = V + P
-        return context.adjustWith(f, vPlusP);
+        return new PreparedMillerFunction(steps, ellipticCurve.getFieldOrder());
     }
 
     /**
-     * Evaluates the divisor of a tangent on a Type-One elliptic curve.
-     * @param ec the elliptic curve to operate on
+     * Computes the line tangent to {@code A} on a Type-One elliptic curve.
      * @param a a point in {@code E(F_p)}
-     * @param b a point {@code E(F_p^2)}
-     * @return an element of {@code F_p^2} that is the divisor of the line tangent to {@code A} evaluated at {@code B}
+     * @return the line tangent to {@code A}
      * @see <a href="https://tools.ietf.org/html/rfc5091#section-3.4.1" target="_blank">RFC 5091 - Algorithm 3.4.2</a>
      */
-    private Complex evaluateTangent(final EllipticCurve ec, final AffinePoint a, final ComplexAffinePoint b) {
-        // ----
-        // | Argument checks
-        // ----
-        if (ComplexAffinePoint.isInfinity(b)) {
-            throw new IllegalArgumentException("B must not be infinity!");
-        }
+    private Line tangent(final AffinePoint a) {
+        final BigInteger fieldOrder = ellipticCurve.getFieldOrder();
 
         // ----
         // | Special cases
         // ----
         if (AffinePoint.isInfinity(a)) {
-            return new Complex(1L, 0L);
+            return new Line(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE);
         }
 
         if (a.getY().equals(BigInteger.ZERO)) {
-            return evaluateVertical(ec, a, b);
+            return vertical(a);
         }
 
         // ----
         // | Line computation
         // ----
         // a = -3 * x_A^2
-        final BigInteger threeAddInv = BigInteger.valueOf(-3L).mod(ec.getFieldOrder());
-        final BigInteger aprime = a.getX().pow(2).multiply(threeAddInv).mod(ec.getFieldOrder());
+        final BigInteger threeAddInv = BigInteger.valueOf(-3L).mod(fieldOrder);
+        final BigInteger aprime = a.getX().pow(2).multiply(threeAddInv).mod(fieldOrder);
 
         // b = 2 * y_A
-        final BigInteger bprime = a.getY().multiply(BigInteger.valueOf(2L)).mod(ec.getFieldOrder());
+        final BigInteger bprime = a.getY().multiply(BigInteger.valueOf(2L)).mod(fieldOrder);
 
         // c = -b * y_A - a * x_A
-        final BigInteger bAddInv = bprime.negate().mod(ec.getFieldOrder());
-        final BigInteger bAddInvyA = bAddInv.multiply(a.getY()).mod(ec.getFieldOrder());
-        final BigInteger axA = aprime.multiply(a.getX()).mod(ec.getFieldOrder());
-        final BigInteger axAaddInv = axA.negate().mod(ec.getFieldOrder());
-        final BigInteger c = bAddInvyA.add(axAaddInv).mod(ec.getFieldOrder());
+        final BigInteger bAddInv = bprime.negate().mod(fieldOrder);
+        final BigInteger bAddInvyA = bAddInv.multiply(a.getY()).mod(fieldOrder);
+        final BigInteger axA = aprime.multiply(a.getX()).mod(fieldOrder);
+        final BigInteger axAaddInv = axA.negate().mod(fieldOrder);
+        final BigInteger c = bAddInvyA.add(axAaddInv).mod(fieldOrder);
 
-        // ----
-        // | Evaluation at B
-        // ----
-        // r = a * x_B + b * y_B + c
-        final Complex axB = b.getX().modMulScalar(aprime, ec.getFieldOrder());
-        final Complex byB = b.getY().modMulScalar(bprime, ec.getFieldOrder());
-        return axB.modAdd(byB, ec.getFieldOrder()).modAddScalar(c, ec.getFieldOrder());
+        return new Line(aprime, bprime, c);
     }
 
     /**
-     * Evaluates the divisor of a vertical line on a Type-One elliptic curve.
-     *
-     * [RFC 5091 - Algorithm 3.4.1]
-     * @param ec the elliptic curve to operate on
+     * Computes the vertical line going through {@code A} on a Type-One elliptic curve, that is
+     * {@code x_B - x_A} evaluated at {@code B}.
      * @param a a point in {@code E(F_p)}
-     * @param b a point {@code E(F_p^2)}
-     * @return an element of {@code F_p^2} that is the divisor of the vertical line going through
-     *         {@code A} evaluated at {@code B}
-     * @see <a href="https://tools.ietf.org/html/rfc5091#section-3.4.1" target="_blank">RFC 5091 - Algorithm 3.4.2</a>
+     * @return the vertical line going through {@code A}
+     * @see <a href="https://tools.ietf.org/html/rfc5091#section-3.4.1" target="_blank">RFC 5091 - Algorithm 3.4.1</a>
      */
-    private Complex evaluateVertical(final EllipticCurve ec, final AffinePoint a, final ComplexAffinePoint b) {
+    private Line vertical(final AffinePoint a) {
         // r = x_B - x_A
-        final BigInteger xAaddInv = a.getX().negate().mod(ec.getFieldOrder());
-        return b.getX().modAddScalar(xAaddInv, ec.getFieldOrder());
+        final BigInteger xAaddInv = a.getX().negate().mod(ellipticCurve.getFieldOrder());
+        return new Line(BigInteger.ONE, BigInteger.ZERO, xAaddInv);
     }
 
     /**
-     * Evaluates the divisor of a line on a Type-One elliptic curve.
-     * @param ec the elliptic curve to operate on
+     * Computes the line going through {@code A'} and {@code A''} on a Type-One elliptic curve.
      * @param a a point in {@code E(F_p)}
-     * @param aprime a point in {@code E(F_o)}
-     * @param b a point in {@code E(F_p^2)}
-     * @return an element of {@code F_p^2} that is the divisor of the line going through
-     *         {@code A'} and {@code A''} evaluated at {@code B}
+     * @param aprime a point in {@code E(F_p)}
+     * @return the line going through {@code A'} and {@code A''}
      * @see <a href="https://tools.ietf.org/html/rfc5091#section-3.4.1" target="_blank">RFC 5091 - Algorithm 3.4.3</a>
      */
-    private Complex evaluateLine(final EllipticCurve ec, final AffinePoint a, final AffinePoint aprime, final ComplexAffinePoint b) {
-        // ----
-        // | Argument checks
-        // ----
-        if (ComplexAffinePoint.isInfinity(b)) {
-            throw new IllegalArgumentException("B must not be infinity!");
-        }
+    private Line line(final AffinePoint a, final AffinePoint aprime) {
+        final BigInteger fieldOrder = ellipticCurve.getFieldOrder();
 
         // ----
         // | Special cases
         // ----
         if (AffinePoint.isInfinity(a)) {
-            return evaluateVertical(ec, aprime, b);
+            return vertical(aprime);
         }
 
-        final AffinePoint aPlusAPrime = a.add(aprime, ec);
+        final AffinePoint aPlusAPrime = a.add(aprime, ellipticCurve);
         if (AffinePoint.isInfinity(aprime) || AffinePoint.isInfinity(aPlusAPrime)) {
-            return evaluateVertical(ec, a, b);
+            return vertical(a);
         }
 
         if (a.equals(aprime)) {
-            return evaluateTangent(ec, a, b);
+            return tangent(a);
         }
 
         // ----
         // | Line computation
         // ----
         // a = y_A' - y_A''
-        final BigInteger linea = a.getY().subtract(aprime.getY()).mod(ec.getFieldOrder());
+        final BigInteger linea = a.getY().subtract(aprime.getY()).mod(fieldOrder);
 
         // b = x_A'' - x_A'
-        final BigInteger lineb = aprime.getX().subtract(a.getX()).mod(ec.getFieldOrder());
+        final BigInteger lineb = aprime.getX().subtract(a.getX()).mod(fieldOrder);
 
         // c = -b * y_A' - a * x_A'
-        final BigInteger linebaddinv = lineb.negate().mod(ec.getFieldOrder());
-        final BigInteger q = linebaddinv.multiply(a.getY()).mod(ec.getFieldOrder());
-        final BigInteger t = linea.multiply(a.getX()).mod(ec.getFieldOrder());
-        final BigInteger taddinv = t.negate().mod(ec.getFieldOrder());
-        final BigInteger linec = q.add(taddinv).mod(ec.getFieldOrder());
+        final BigInteger linebaddinv = lineb.negate().mod(fieldOrder);
+        final BigInteger q = linebaddinv.multiply(a.getY()).mod(fieldOrder);
+        final BigInteger t = linea.multiply(a.getX()).mod(fieldOrder);
+        final BigInteger taddinv = t.negate().mod(fieldOrder);
+        final BigInteger linec = q.add(taddinv).mod(fieldOrder);
 
-        // ----
-        // | Evaluation at B
-        // ----
-        // r = a * x_B + b * y_B + c
-        final Complex axb = b.getX().modMulScalar(linea, ec.getFieldOrder());
-        final Complex byb = b.getY().modMulScalar(lineb, ec.getFieldOrder());
-        return axb.modAdd(byb.modAddScalar(linec, ec.getFieldOrder()), ec.getFieldOrder());
+        return new Line(linea, lineb, linec);
     }
 
-    private static final class PairingContext {
-        private final Complex f;
-        private final AffinePoint v;
+    /**
+     * A line {@code a * x + b * y + c} over {@code F_p}.
+     */
+    private static final class Line {
+        private final BigInteger a;
+        private final BigInteger b;
+        private final BigInteger c;
+
+        private Line(final BigInteger a, final BigInteger b, final BigInteger c) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
 
-        private final EllipticCurve ec;
-        private final AffinePoint p;
-        private final ComplexAffinePoint q;
+        /**
+         * Evaluates the line at a point of {@code E(F_p^2)}.
+         */
+        private Complex evaluate(final ComplexAffinePoint q, final BigInteger fieldOrder) {
+            // r = a * x_B + b * y_B + c
+            final Complex axB = q.getX().modMulScalar(a, fieldOrder);
+            final Complex byB = q.getY().modMulScalar(b, fieldOrder);
+            return axB.modAdd(byB, fieldOrder).modAddScalar(c, fieldOrder);
+        }
+    }
 
-        private static PairingContext initialContext(final EllipticCurve ec, final AffinePoint p, final ComplexAffinePoint q) {
-            // We are in the degree two extension field of the original field, so the identity element
-            // (with respect to multiplication) is (1, 0).
-            // f = 1
-            return new PairingContext(new Complex(1L, 0L), p, ec, p, q);
+    /**
+     * A single step of the loop: {@code f = f^2 * numerator / denominator} if it is a doubling step,
+     * {@code f = f * numerator / denominator} otherwise.
+     */
+    private static final class Step {
+        private final boolean doubling;
+        private final Line numerator;
+        private final Line denominator;
+
+        private Step(final boolean doubling, final Line numerator, final Line denominator) {
+            this.doubling = doubling;
+            this.numerator = numerator;
+            this.denominator = denominator;
         }
+    }
+
+    private static final class PreparedMillerFunction implements MillerFunction {
+        private final List<Step> steps;
+        private final BigInteger fieldOrder;
 
-        private PairingContext(final Complex f, AffinePoint v, final EllipticCurve ec, final AffinePoint p, final ComplexAffinePoint q) {
-            this.f = f;
-            this.v = v;
-            this.ec = ec;
-            this.p = p;
-            this.q = q;
+        private PreparedMillerFunction(final List<Step> steps, final BigInteger fieldOrder) {
+            this.steps = steps;
+            this.fieldOrder = fieldOrder;
         }
 
-        private PairingContext adjustWith(final Complex f, final AffinePoint v) {
-            return new PairingContext(f, v, this.ec, this.p, this.q);
+        @Override
+        public Complex evaluate(final ComplexAffinePoint q) {
+            Objects.requireNonNull(q);
+
+            if (ComplexAffinePoint.isInfinity(q)) {
+                throw new IllegalArgumentException("B must not be infinity!");
+            }
+
+            // We are in the degree two extension field of the original field, so the identity element
+            // (with respect to multiplication) is (1, 0).
+            // f = numerator / denominator = 1
+            Complex numerator = new Complex(1L, 0L);
+            Complex denominator = new Complex(1L, 0L);
+
+            for (final Step step : steps) {
+                if (step.doubling) {
+                    numerator = numerator.modMul(numerator, fieldOrder);
+                    denominator = denominator.modMul(denominator, fieldOrder);
+                }
+
+                numerator = numerator.modMul(step.numerator.evaluate(q, fieldOrder), fieldOrder);
+                denominator = denominator.modMul(step.denominator.evaluate(q, fieldOrder), fieldOrder);
+            }
+
+            return numerator.modMul(denominator.multiplicativeInverse(fieldOrder), fieldOrder);
         }
     }
 }
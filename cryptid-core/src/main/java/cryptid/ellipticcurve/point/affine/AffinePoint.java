@@ -1,12 +1,16 @@
 package cryptid.ellipticcurve.point.affine;
 
 import cryptid.ellipticcurve.EllipticCurve;
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+import static cryptid.util.BigIntegerUtils.byteLength;
+import static cryptid.util.BigIntegerUtils.convertPositiveBigIntegerToByteArray;
 import static java.math.BigInteger.ZERO;
 
 /**
@@ -29,6 +33,48 @@ public final class AffinePoint {
         return p == INFINITY;
     }
 
+    private static final byte COMPRESSED_INFINITY_FLAG = 0x00;
+    private static final byte COMPRESSED_POINT_FLAG = 0x01;
+
+    /**
+     * Decodes a point from its compressed representation produced by {@link #toCompressedBytes(TypeOneEllipticCurve)}.
+     * The x coordinate is recovered from the curve equation using the precomputed cube root exponent of the curve.
+     * @param bytes the compressed representation
+     * @param ec the curve the point is on
+     * @throws IllegalArgumentException if the specified bytes are not a valid compressed point on the curve
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return the decoded point
+     */
+    public static AffinePoint fromCompressedBytes(final byte[] bytes, final TypeOneEllipticCurve ec) {
+        Objects.requireNonNull(bytes);
+        Objects.requireNonNull(ec);
+
+        if (bytes.length != compressedLength(ec)) {
+            throw new IllegalArgumentException("The length of the compressed point does not match the curve!");
+        }
+
+        final BigInteger y = new BigInteger(1, Arrays.copyOfRange(bytes, 1, bytes.length));
+
+        if (bytes[0] == COMPRESSED_INFINITY_FLAG && y.equals(ZERO)) {
+            return INFINITY;
+        }
+
+        if (bytes[0] != COMPRESSED_POINT_FLAG || y.compareTo(ec.getFieldOrder()) >= 0) {
+            throw new IllegalArgumentException("Invalid compressed point!");
+        }
+
+        return new AffinePoint(ec.solveForX(y), y);
+    }
+
+    /**
+     * Returns the length of compressed points on the specified curve in bytes.
+     * @param ec the curve
+     * @return the length of the compressed representation
+     */
+    public static int compressedLength(final TypeOneEllipticCurve ec) {
+        return 1 + byteLength(ec.getFieldOrder());
+    }
+
     private final BigInteger x;
 
     private final BigInteger y;
@@ -137,6 +183,41 @@ public final class AffinePoint {
         return pointQ;
     }
 
+    /**
+     * Computes the linear combination {@code s_1 * P_1 + ... + s_n * P_n} using interleaved double-and-add
+     * (Straus' method). The doublings are shared among all the points, therefore this is considerably faster
+     * than performing the multiplications one-by-one, especially when the scalars are short.
+     * @param scalars the non-negative scalars
+     * @param points the points to multiply, in the same order as the scalars
+     * @param ec the elliptic curve to operate over
+     * @throws IllegalArgumentException if the number of scalars and points differ
+     * @return the linear combination of the points
+     */
+    public static AffinePoint linearCombination(final List<BigInteger> scalars, final List<AffinePoint> points, final EllipticCurve ec) {
+        if (scalars.size() != points.size()) {
+            throw new IllegalArgumentException("The number of scalars and points must be the same!");
+        }
+
+        int maxBitLength = 0;
+        for (final BigInteger s : scalars) {
+            maxBitLength = Math.max(maxBitLength, s.bitLength());
+        }
+
+        AffinePoint pointQ = AffinePoint.INFINITY;
+
+        for (int i = maxBitLength - 1; i >= 0; --i) {
+            pointQ = pointQ.doubl(ec);
+
+            for (int j = 0; j < scalars.size(); ++j) {
+                if (scalars.get(j).testBit(i)) {
+                    pointQ = pointQ.add(points.get(j), ec);
+                }
+            }
+        }
+
+        return pointQ;
+    }
+
     public AffinePoint doubl(final EllipticCurve ec) {
         if (this == AffinePoint.INFINITY) {
             return AffinePoint.INFINITY;
@@ -207,6 +288,30 @@ public final class AffinePoint {
         return new AffinePoint(xn.mod(ec.getFieldOrder()), yn.mod(ec.getFieldOrder()));
     }
 
+    /**
+     * Encodes this point in compressed form. On Type-1 curves the x coordinate is uniquely determined by the y
+     * coordinate, therefore the encoding consists of a flag octet (distinguishing infinity) and the y coordinate as
+     * a fixed-length big-endian octet string.
+     * @param ec the curve the point is on
+     * @throws NullPointerException if the curve is {@code null}
+     * @return the compressed representation of this point
+     */
+    public byte[] toCompressedBytes(final TypeOneEllipticCurve ec) {
+        Objects.requireNonNull(ec);
+
+        final int coordinateLength = byteLength(ec.getFieldOrder());
+        final byte[] result = new byte[1 + coordinateLength];
+
+        if (isInfinity(this)) {
+            result[0] = COMPRESSED_INFINITY_FLAG;
+        } else {
+            result[0] = COMPRESSED_POINT_FLAG;
+            System.arraycopy(convertPositiveBigIntegerToByteArray(y, coordinateLength), 0, result, 1, coordinateLength);
+        }
+
+        return result;
+    }
+
     /**
      * Gets the x coordinate
      * @return the x coordinate
@@ -20,13 +20,7 @@ public final class Mod3GenerationStrategy extends AffinePointGenerationStrategy
     public Optional<AffinePoint> nextPoint() {
         final BigInteger y = randomBigInteger();
 
-        final BigInteger bAddInv = ellipticCurve.getB().negate().mod(ellipticCurve.getFieldOrder());
-        final BigInteger base =
-                y.pow(2).add(bAddInv).mod(ellipticCurve.getFieldOrder());
-
-        final BigInteger exp = ellipticCurve.getFieldOrder().multiply(BigInteger.valueOf(2L)).subtract(BigInteger.ONE).divide(BigInteger.valueOf(3L));
-
-        final BigInteger x = base.modPow(exp, ellipticCurve.getFieldOrder());
+        final BigInteger x = ellipticCurve.solveForX(y);
 
         return Optional.of(new AffinePoint(x, y));
     }
@@ -0,0 +1,216 @@
+package cryptid.ibe;
+
+import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.PrivateKey;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous counterpart of {@link IdentityBasedEncryption}, which performs the operations on a dedicated, bounded
+ * pool of threads, and returns {@code CompletableFuture} instances. Thus, the CPU-heavy pairing work is kept away
+ * from the threads of the caller (for example, I/O event loops).
+ *
+ * The pool has a fixed number of threads and a queue of limited capacity. Operations submitted while the queue is
+ * full are handled according to the {@link RejectionPolicy}, so an overload results in clean rejections instead of
+ * an unbounded latency. The pool should be shut down with {@link #close()}.
+ */
+public class AsyncIdentityBasedEncryption implements AutoCloseable {
+    /**
+     * The default capacity of the queue of pending operations.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final IdentityBasedEncryption identityBasedEncryption;
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy rejectionPolicy;
+    private final int queueCapacity;
+
+    /**
+     * The way operations submitted when the queue is full (or the instance is closed) are handled.
+     */
+    public enum RejectionPolicy {
+        /**
+         * The returned future is completed exceptionally with a {@code RejectedExecutionException}.
+         */
+        REJECT,
+
+        /**
+         * The operation is performed synchronously on the submitting thread, slowing the submitter down. Operations
+         * submitted after closing the instance are still rejected.
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * Constructs a new instance with as many threads as there are available processors, a queue of
+     * {@link #DEFAULT_QUEUE_CAPACITY} and {@link RejectionPolicy#REJECT}.
+     * @param identityBasedEncryption the synchronous instance performing the operations
+     */
+    public AsyncIdentityBasedEncryption(final IdentityBasedEncryption identityBasedEncryption) {
+        this(identityBasedEncryption, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY,
+                RejectionPolicy.REJECT);
+    }
+
+    /**
+     * Constructs a new instance.
+     * @param identityBasedEncryption the synchronous instance performing the operations
+     * @param threads the number of threads
+     * @param queueCapacity the maximum number of operations waiting for a thread
+     * @param rejectionPolicy the handling of operations submitted while the queue is full
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @throws IllegalArgumentException if the number of threads or the capacity is not positive
+     */
+    public AsyncIdentityBasedEncryption(final IdentityBasedEncryption identityBasedEncryption, final int threads,
+                                        final int queueCapacity, final RejectionPolicy rejectionPolicy) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive!");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be positive!");
+        }
+
+        this.identityBasedEncryption = Objects.requireNonNull(identityBasedEncryption);
+        this.rejectionPolicy = Objects.requireNonNull(rejectionPolicy);
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Encrypts the specified message using the provided identity asynchronously.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @return a future of the ciphertext
+     */
+    public CompletableFuture<CipherTextTuple> encrypt(final String message, final String identity) {
+        return submit(() -> identityBasedEncryption.encrypt(message, identity));
+    }
+
+    /**
+     * Encrypts the specified binary message using the provided identity asynchronously.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @return a future of the ciphertext
+     */
+    public CompletableFuture<CipherTextTuple> encrypt(final byte[] message, final String identity) {
+        return submit(() -> identityBasedEncryption.encrypt(message, identity));
+    }
+
+    /**
+     * Decrypts the specified ciphertext with the specified private key asynchronously.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @return a future of an Optional with the plaintext or an empty Optional on failure
+     */
+    public CompletableFuture<Optional<String>> decrypt(final PrivateKey privateKey, final CipherTextTuple ciphertext) {
+        return submit(() -> identityBasedEncryption.decrypt(privateKey, ciphertext));
+    }
+
+    /**
+     * Decrypts the specified ciphertext with the specified private key into binary asynchronously.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @return a future of an Optional with the binary plaintext or an empty Optional on failure
+     */
+    public CompletableFuture<Optional<byte[]>> decryptBytes(final PrivateKey privateKey, final CipherTextTuple ciphertext) {
+        return submit(() -> identityBasedEncryption.decryptBytes(privateKey, ciphertext));
+    }
+
+    /**
+     * Extracts the private key of the specified identity asynchronously.
+     * @param identity the identity
+     * @return a future of the private key
+     */
+    public CompletableFuture<PrivateKey> extract(final String identity) {
+        return submit(() -> identityBasedEncryption.extract(identity));
+    }
+
+    /**
+     * Gets the number of operations waiting for a thread.
+     * @return the current depth of the queue
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the maximum number of operations that can wait for a thread.
+     * @return the capacity of the queue
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the approximate number of operations being performed at the moment.
+     * @return the number of busy threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Shuts the pool down. The operations already submitted are completed, new ones are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Blocks until every operation submitted before {@link #close()} is completed, or the timeout elapses.
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @return {@code true} if the pool has terminated, {@code false} if the timeout elapsed
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private <T> CompletableFuture<T> submit(final Supplier<T> operation) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Runnable task = () -> {
+            try {
+                future.complete(operation.get());
+            } catch (final Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+                task.run();
+            } else {
+                future.completeExceptionally(e);
+            }
+        }
+
+        return future;
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        final int pool = POOL_COUNTER.incrementAndGet();
+        final AtomicInteger threadCounter = new AtomicInteger();
+
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "cryptid-async-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,13 +1,34 @@
 package cryptid.ibe;
 
+import cryptid.ibe.domain.BatchResult;
+import cryptid.ibe.domain.CipherTextHeader;
 import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.EncryptionRequest;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.domain.PublicParameters;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Base class for classes that provide IBE encryption and decryption.
+ *
+ * Implementations are required to be thread-safe: a single client can be shared by any number of threads, as long
+ * as its random source is thread-safe. Every operation obtains its own message digest, so no hashing state is
+ * shared between threads. A {@link cryptid.util.StripedSecureRandom} keeps concurrent operations from contending for
+ * the random source.
  */
 public abstract class IbeClient {
     protected final PublicParameters publicParameters;
@@ -21,22 +42,198 @@ public abstract class IbeClient {
     }
 
     /**
-     * Encrypts the specified message using the specified identity.
+     * Encrypts the UTF-8 encoding of the specified message using the specified identity.
      * @param message the message to encrypt
      * @param identity the identity to encrypt with
      * @return the ciphertext result of the encryption
      */
-    public abstract CipherTextTuple encrypt(String message, String identity);
+    public CipherTextTuple encrypt(String message, String identity) {
+        Objects.requireNonNull(message);
+
+        return encrypt(message.getBytes(StandardCharsets.UTF_8), identity);
+    }
+
+    /**
+     * Encrypts the specified binary message using the specified identity.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @return the ciphertext result of the encryption
+     */
+    public CipherTextTuple encrypt(byte[] message, String identity) {
+        Objects.requireNonNull(message);
+
+        return encrypt(ByteBuffer.wrap(message), identity);
+    }
+
+    /**
+     * Encrypts the remaining octets of the specified buffer using the specified identity. The message is read
+     * without copying it, and the position of the buffer is advanced to its limit.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @return the ciphertext result of the encryption
+     */
+    public abstract CipherTextTuple encrypt(ByteBuffer message, String identity);
 
     /**
      * Decrypts the specified ciphertext with the specified private key. If the decryption if successful,
      * an Optional with the result is returned. However, if the decryption fails, then an empty Optional
      * is returned.
+     *
+     * The plaintext is decoded as UTF-8, thus this method should only be used with ciphertexts of text messages.
      * @param privateKey the private key
      * @param ciphertext the ciphertext to decrypt
      * @return an Optional with the plaintext result of the decryption or an empty Optional on failure
      */
-    public abstract Optional<String> decrypt(PrivateKey privateKey, CipherTextTuple ciphertext);
+    public Optional<String> decrypt(PrivateKey privateKey, CipherTextTuple ciphertext) {
+        return decryptBytes(privateKey, ciphertext).map(message -> new String(message, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decrypts the specified ciphertext with the specified private key into a new array.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @return an Optional with the binary plaintext or an empty Optional on failure
+     */
+    public Optional<byte[]> decryptBytes(PrivateKey privateKey, CipherTextTuple ciphertext) {
+        Objects.requireNonNull(ciphertext);
+
+        final byte[] message = new byte[ciphertext.getCipherW().length];
+
+        return decrypt(privateKey, ciphertext, ByteBuffer.wrap(message)) ? Optional.of(message) : Optional.empty();
+    }
+
+    /**
+     * Decrypts the specified ciphertext with the specified private key directly into the specified buffer. The
+     * plaintext is as long as the {@code W} component of the ciphertext. On success, the plaintext is written at the
+     * position of the buffer, and the position is advanced past it. On failure, the octets that have been written
+     * are zeroed out and the position is left unchanged, so no unauthenticated plaintext is left in the buffer.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @param destination the buffer to write the plaintext into
+     * @throws java.nio.BufferOverflowException if the buffer has less space remaining than the plaintext length
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     * @return {@code true} if the decryption was successful, {@code false} otherwise
+     */
+    public abstract boolean decrypt(PrivateKey privateKey, CipherTextTuple ciphertext, ByteBuffer destination);
+
+    /**
+     * Encrypts a batch of messages. The requests are grouped by identity, the identity point and the pairing of an
+     * identity are computed once and reused for every message of its group, and the groups are processed in
+     * parallel. A record that fails (for example because of an empty message or identity) does not affect the rest
+     * of the batch.
+     * @param requests the messages to encrypt along with the identities of their recipients
+     * @throws NullPointerException if the list is {@code null}
+     * @return the result of every request, in the same order as the requests
+     */
+    public abstract List<BatchResult<CipherTextTuple>> encryptAll(List<EncryptionRequest> requests);
+
+    /**
+     * Encrypts the same message for each of the specified identities, hashing the message only once. Each ciphertext
+     * is an ordinary ciphertext which can be decrypted by its recipient alone. The rest of the encryption is only
+     * shared where the scheme allows it: the Boneh-Franklin client shares the randomness, thus all the ciphertexts
+     * share the same {@code U} and {@code W} components (each with its own copy of the {@code W} array) and only
+     * {@code V} is computed per recipient, so any recipient can tell that the others received the same message. The {@code U} components of the Sakai-Kasahara scheme depend on the identity and would reveal
+     * shared randomness, thus its client draws fresh randomness for every recipient.
+     * @param message the message to encrypt
+     * @param identities the identities of the recipients
+     * @throws NullPointerException if any of the arguments or identities is {@code null}
+     * @throws IllegalArgumentException if the message or any of the identities is empty
+     * @return the ciphertexts, in the same order as the identities
+     */
+    public abstract List<CipherTextTuple> encryptForAll(byte[] message, List<String> identities);
+
+    /**
+     * Encrypts the contents of the channel from its current position to its end, writing the {@code W} component
+     * of the ciphertext into the output channel, and returning the rest of the ciphertext. The message is read in
+     * two passes (the first one hashes it, the second one masks it), so memory usage is independent of its length,
+     * and the message must not change during the encryption. The produced ciphertext is identical to the one
+     * produced by the in-memory methods.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @param cipherW the channel to write the {@code W} component into
+     * @throws IOException if reading or writing fails
+     * @return the other components of the ciphertext
+     */
+    public abstract CipherTextHeader encrypt(SeekableByteChannel message, String identity, WritableByteChannel cipherW) throws IOException;
+
+    /**
+     * Decrypts a ciphertext whose {@code W} component is read from the channel (from its current position), writing
+     * the plaintext into the output channel, staging it in the default temporary directory. See
+     * {@link #decrypt(PrivateKey, CipherTextHeader, SeekableByteChannel, WritableByteChannel, Path)}.
+     * @param privateKey the private key
+     * @param header the other components of the ciphertext
+     * @param cipherW the {@code W} component of the ciphertext
+     * @param output the channel to write the plaintext into
+     * @throws IOException if reading, staging or writing fails
+     * @return {@code true} if the decryption was successful, {@code false} otherwise
+     */
+    public boolean decrypt(PrivateKey privateKey, CipherTextHeader header, SeekableByteChannel cipherW,
+                           WritableByteChannel output) throws IOException {
+        return decrypt(privateKey, header, cipherW, output, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Decrypts a ciphertext whose {@code W} component is read from the channel (from its current position), writing
+     * the plaintext into the output channel. The plaintext is staged in a temporary file within the specified
+     * directory, and is only written into the output once the ciphertext has been checked. On failure, nothing
+     * is written into the output. The staging file is deleted in both cases. The output channel must be in blocking
+     * mode, an output that stops accepting data fails the decryption with an {@link IOException}.
+     * @param privateKey the private key
+     * @param header the other components of the ciphertext
+     * @param cipherW the {@code W} component of the ciphertext
+     * @param output the channel to write the plaintext into
+     * @param stagingDirectory the directory to stage the plaintext in
+     * @throws IOException if reading, staging or writing fails
+     * @return {@code true} if the decryption was successful, {@code false} otherwise
+     */
+    public abstract boolean decrypt(PrivateKey privateKey, CipherTextHeader header, SeekableByteChannel cipherW,
+                                    WritableByteChannel output, Path stagingDirectory) throws IOException;
+
+    /**
+     * Decrypts the specified ciphertexts with the specified private key. The result contains an element for
+     * every ciphertext, in the same order as the ciphertexts were specified. Each element is an Optional with the
+     * plaintext if the decryption of the corresponding ciphertext was successful or an empty Optional otherwise.
+     *
+     * The default implementation decrypts the ciphertexts one-by-one. Implementations are encouraged to override
+     * this method if the ciphertexts can be processed more efficiently together.
+     * @param privateKey the private key
+     * @param ciphertexts the ciphertexts to decrypt
+     * @return the results of the decryptions
+     */
+    public List<Optional<String>> decryptAll(PrivateKey privateKey, List<CipherTextTuple> ciphertexts) {
+        Objects.requireNonNull(ciphertexts);
+
+        final List<Optional<String>> result = new ArrayList<>(ciphertexts.size());
+
+        for (final CipherTextTuple ciphertext : ciphertexts) {
+            result.add(decrypt(privateKey, ciphertext));
+        }
+
+        return result;
+    }
+
+    /**
+     * Decrypts the ciphertexts of many private keys, spreading the work across the common fork-join pool. See
+     * {@link #decryptAll(Map, Executor)}.
+     * @param ciphertexts the ciphertexts to decrypt, grouped by the private key decrypting them
+     * @return the results of the decryptions, grouped by private key
+     */
+    public Map<PrivateKey, List<Optional<byte[]>>> decryptAll(Map<PrivateKey, List<CipherTextTuple>> ciphertexts) {
+        return decryptAll(ciphertexts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Decrypts the ciphertexts of many private keys. Everything that depends only on a private key is computed once
+     * for all of its ciphertexts, and the decryptions are spread across the specified executor. The result contains
+     * an Optional for every ciphertext of every key (in the same order) holding the binary plaintext on success or
+     * nothing if the decryption failed, thus a single failing ciphertext does not affect the rest of the batch.
+     * @param ciphertexts the ciphertexts to decrypt, grouped by the private key decrypting them
+     * @param executor the executor performing the decryptions
+     * @throws NullPointerException if any of the arguments, keys, lists or ciphertexts is {@code null}
+     * @return the results of the decryptions, grouped by private key, in the iteration order of the argument
+     */
+    public abstract Map<PrivateKey, List<Optional<byte[]>>> decryptAll(Map<PrivateKey, List<CipherTextTuple>> ciphertexts,
+                                                                       Executor executor);
 
     /**
      * Gets the public parameters.
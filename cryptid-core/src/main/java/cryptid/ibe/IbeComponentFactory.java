@@ -6,7 +6,7 @@ import cryptid.ibe.exception.ComponentConstructionException;
 import java.math.BigInteger;
 
 /**
- * Interface for classes providing IBE system specific client and private key generator instances.
+ * Interface for classes providing IBE system specific client, key encapsulation and private key generator instances.
  */
 public interface IbeComponentFactory {
     /**
@@ -18,6 +18,15 @@ public interface IbeComponentFactory {
      */
     IbeClient obtainClient(PublicParameters publicParameters) throws ComponentConstructionException;
 
+    /**
+     * Returns a key encapsulation mechanism that uses the specified public parameters. Implementations may return
+     * the same instance on subsequent calls for the same public parameters.
+     * @param publicParameters the public parameters of the IBE system
+     * @return a key encapsulation mechanism using the specified public parameters
+     * @throws ComponentConstructionException if the key encapsulation mechanism cannot be constructed
+     */
+    IbeKem obtainKem(PublicParameters publicParameters) throws ComponentConstructionException;
+
     /**
      * Returns a private key generator that uses the specified data to extract private keys. Implementations may
      * return the same instance on subsequent calls for the same public parameters and the same master secret.
@@ -0,0 +1,69 @@
+package cryptid.ibe;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.EncapsulationRandomness;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+
+import java.util.Optional;
+
+/**
+ * Base class for identity-based key encapsulation mechanisms. Instead of a message, a fresh random symmetric key is
+ * encrypted for an identity, which can then be used to encrypt data of any length with a symmetric cipher.
+ *
+ * Implementations are required to be thread-safe under the same conditions as {@link IbeClient}.
+ */
+public abstract class IbeKem {
+    protected final PublicParameters publicParameters;
+
+    /**
+     * Constructs a new key encapsulation mechanism.
+     * @param publicParameters the public parameters of the IBE system
+     */
+    public IbeKem(PublicParameters publicParameters) {
+        this.publicParameters = publicParameters;
+    }
+
+    /**
+     * Generates a fresh symmetric key and its encapsulation for the specified identity.
+     * @param identity the identity of the receiver
+     * @return the key and its encapsulation
+     */
+    public abstract KeyEncapsulation encapsulate(String identity);
+
+    /**
+     * Computes the randomness of an encapsulation, which does not depend on the identity. This is the expensive,
+     * offline part of an encapsulation, that can be done ahead of time.
+     * @return fresh randomness for a single encapsulation
+     */
+    public abstract EncapsulationRandomness precomputeRandomness();
+
+    /**
+     * Generates a fresh symmetric key for the specified identity, encapsulating it with previously computed
+     * randomness. This is the online part of an encapsulation, which only performs the identity dependent work.
+     * @param identity the identity of the receiver
+     * @param randomness randomness obtained from {@link #precomputeRandomness()}
+     * @throws IllegalStateException if the randomness has already been used
+     * @return the key and its encapsulation
+     */
+    public abstract KeyEncapsulation encapsulate(String identity, EncapsulationRandomness randomness);
+
+    /**
+     * Recovers the symmetric key from the specified encapsulation with the specified private key. If the
+     * encapsulation is malformed, an empty Optional is returned. Note, that an encapsulation created for another
+     * identity yields a key different from the original one, which is detected by the symmetric cipher.
+     * @param privateKey the private key
+     * @param encapsulation the encapsulation of the key
+     * @return an Optional with the symmetric key or an empty Optional if the encapsulation is rejected
+     */
+    public abstract Optional<byte[]> decapsulate(PrivateKey privateKey, AffinePoint encapsulation);
+
+    /**
+     * Gets the public parameters.
+     * @return the public parameters
+     */
+    public PublicParameters getPublicParameters() {
+        return publicParameters;
+    }
+}
@@ -1,10 +1,20 @@
 package cryptid.ibe;
 
+import cryptid.ibe.domain.BatchResult;
+import cryptid.ibe.domain.CipherTextHeader;
 import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.EncryptionRequest;
 import cryptid.ibe.domain.PrivateKey;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 /**
  * Convenience class that can be used to perform encrypt, decrypt and extract operations.
@@ -33,6 +43,26 @@ public class IdentityBasedEncryption {
         return client.encrypt(message, identity);
     }
 
+    /**
+     * Encrypts the specified binary message using the provided identity.
+     * @param message the message to encrypt
+     * @param identity the identity of the receiver
+     * @return the ciphertext
+     */
+    public CipherTextTuple encrypt(final byte[] message, final String identity) {
+        return client.encrypt(message, identity);
+    }
+
+    /**
+     * Encrypts the remaining octets of the specified buffer using the provided identity.
+     * @param message the message to encrypt
+     * @param identity the identity of the receiver
+     * @return the ciphertext
+     */
+    public CipherTextTuple encrypt(final ByteBuffer message, final String identity) {
+        return client.encrypt(message, identity);
+    }
+
     /**
      * Decrypts the specified ciphertext with the specified private key. If the decryption if successful,
      * an Optional with the result is returned. However, if the decryption fails, then an empty Optional
@@ -45,6 +75,101 @@ public class IdentityBasedEncryption {
         return client.decrypt(privateKey, ciphertext);
     }
 
+    /**
+     * Decrypts the specified ciphertext with the specified private key into a new array.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @return an Optional with the binary plaintext or an empty Optional on failure
+     */
+    public Optional<byte[]> decryptBytes(final PrivateKey privateKey, final CipherTextTuple ciphertext) {
+        return client.decryptBytes(privateKey, ciphertext);
+    }
+
+    /**
+     * Decrypts the specified ciphertext with the specified private key into the specified buffer. See
+     * {@link IbeClient#decrypt(PrivateKey, CipherTextTuple, ByteBuffer)} for the handling of the buffer.
+     * @param privateKey the private key
+     * @param ciphertext the ciphertext to decrypt
+     * @param destination the buffer to write the plaintext into
+     * @return {@code true} if the decryption was successful, {@code false} otherwise
+     */
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextTuple ciphertext, final ByteBuffer destination) {
+        return client.decrypt(privateKey, ciphertext, destination);
+    }
+
+    /**
+     * Encrypts a batch of messages, reusing the pairing of every identity within the batch. See
+     * {@link IbeClient#encryptAll(List)}.
+     * @param requests the messages to encrypt along with the identities of their recipients
+     * @return the result of every request, in the same order as the requests
+     */
+    public List<BatchResult<CipherTextTuple>> encryptAll(final List<EncryptionRequest> requests) {
+        return client.encryptAll(requests);
+    }
+
+    /**
+     * Encrypts the same message for each of the specified identities, sharing the randomness. See
+     * {@link IbeClient#encryptForAll(byte[], List)}.
+     * @param message the message to encrypt
+     * @param identities the identities of the recipients
+     * @return the ciphertexts, in the same order as the identities
+     */
+    public List<CipherTextTuple> encryptForAll(final byte[] message, final List<String> identities) {
+        return client.encryptForAll(message, identities);
+    }
+
+    /**
+     * Encrypts the contents of the channel, writing W into the output channel. See
+     * {@link IbeClient#encrypt(SeekableByteChannel, String, WritableByteChannel)}.
+     * @param message the message to encrypt
+     * @param identity the identity to encrypt with
+     * @param cipherW the channel to write the {@code W} component into
+     * @throws IOException if reading or writing fails
+     * @return the other components of the ciphertext
+     */
+    public CipherTextHeader encrypt(final SeekableByteChannel message, final String identity,
+                                    final WritableByteChannel cipherW) throws IOException {
+        return client.encrypt(message, identity, cipherW);
+    }
+
+    /**
+     * Decrypts a ciphertext whose W is read from a channel, writing the plaintext into the output channel. See
+     * {@link IbeClient#decrypt(PrivateKey, CipherTextHeader, SeekableByteChannel, WritableByteChannel)}.
+     * @param privateKey the private key
+     * @param header the other components of the ciphertext
+     * @param cipherW the {@code W} component of the ciphertext
+     * @param output the channel to write the plaintext into
+     * @throws IOException if reading, staging or writing fails
+     * @return {@code true} if the decryption was successful, {@code false} otherwise
+     */
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextHeader header, final SeekableByteChannel cipherW,
+                           final WritableByteChannel output) throws IOException {
+        return client.decrypt(privateKey, header, cipherW, output);
+    }
+
+    /**
+     * Decrypts the specified ciphertexts with the specified private key. The result contains an Optional for every
+     * ciphertext (in the same order) holding the plaintext on success or nothing if the decryption failed.
+     * @param privateKey the private key
+     * @param ciphertexts the ciphertexts to decrypt
+     * @return the results of the decryptions
+     */
+    public List<Optional<String>> decryptAll(final PrivateKey privateKey, final List<CipherTextTuple> ciphertexts) {
+        return client.decryptAll(privateKey, ciphertexts);
+    }
+
+    /**
+     * Decrypts the ciphertexts of many private keys, preparing every key once. See
+     * {@link IbeClient#decryptAll(Map, Executor)}.
+     * @param ciphertexts the ciphertexts to decrypt, grouped by the private key decrypting them
+     * @param executor the executor performing the decryptions
+     * @return the results of the decryptions, grouped by private key
+     */
+    public Map<PrivateKey, List<Optional<byte[]>>> decryptAll(final Map<PrivateKey, List<CipherTextTuple>> ciphertexts,
+                                                              final Executor executor) {
+        return client.decryptAll(ciphertexts, executor);
+    }
+
     /**
      * Extracts the private key corresponding to the specified identity.
      * @param identity the identity whose private key should be extracted
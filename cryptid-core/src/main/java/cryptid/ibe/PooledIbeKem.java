@@ -0,0 +1,196 @@
+package cryptid.ibe;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.EncapsulationRandomness;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Key encapsulation mechanism splitting encapsulations into an offline and an online phase. A background thread
+ * computes the identity independent randomness of encapsulations (the random scalar r and {@code U = [r]P}) into a
+ * bounded pool ahead of time, so that {@link #encapsulate(String)} only performs the identity dependent pairing
+ * exponentiation and the key derivation. If the pool is empty, the randomness is computed on the spot.
+ *
+ * The producer refills the pool up to its capacity whenever its size drops to the refill threshold, and it runs
+ * with the lowest priority, so that the pool is mostly refilled while the service is idle. As the pooled scalars
+ * are secret, the pool lives in memory only. {@link #close()} empties the pool, dropping the references to the
+ * pooled randomness, but it cannot overwrite the scalars, as {@link java.math.BigInteger} is immutable: they remain
+ * in memory until they are garbage collected. Instances are thread-safe, and can be used with the hybrid ciphers
+ * like any other {@link IbeKem}.
+ *
+ * The class is final, as the producer thread is started by the constructor, and it must not observe an instance
+ * whose construction is completed by a subclass.
+ */
+public final class PooledIbeKem extends IbeKem implements AutoCloseable {
+    private static final AtomicInteger PRODUCER_COUNTER = new AtomicInteger();
+
+    private final IbeKem kem;
+    private final BlockingQueue<EncapsulationRandomness> pool;
+    private final int capacity;
+    private final int refillThreshold;
+    private final Thread producer;
+    private final Object producerLock = new Object();
+    private volatile boolean closed;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong produced = new AtomicLong();
+
+    /**
+     * Constructs a new instance and starts its producer thread.
+     * @param kem the mechanism performing the encapsulations
+     * @param capacity the maximum number of pooled encapsulations
+     * @param refillThreshold the size of the pool at or below which the producer starts refilling it
+     * @throws NullPointerException if the mechanism is {@code null}
+     * @throws IllegalArgumentException if the capacity is not positive or the threshold is not in the range
+     *                                  {@code [0, capacity)}
+     */
+    public PooledIbeKem(final IbeKem kem, final int capacity, final int refillThreshold) {
+        super(Objects.requireNonNull(kem).getPublicParameters());
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive!");
+        }
+
+        if (refillThreshold < 0 || refillThreshold >= capacity) {
+            throw new IllegalArgumentException("The refill threshold must be in the range [0, capacity)!");
+        }
+
+        this.kem = kem;
+        this.capacity = capacity;
+        this.refillThreshold = refillThreshold;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+
+        this.producer = new Thread(this::produce, "cryptid-kem-pool-" + PRODUCER_COUNTER.incrementAndGet());
+        this.producer.setDaemon(true);
+        this.producer.setPriority(Thread.MIN_PRIORITY);
+        this.producer.start();
+    }
+
+    /**
+     * Encapsulates a fresh key for the specified identity, using pooled randomness if there is any.
+     * @param identity the identity of the receiver
+     * @return the key and its encapsulation
+     */
+    @Override
+    public KeyEncapsulation encapsulate(final String identity) {
+        return kem.encapsulate(identity, precomputeRandomness());
+    }
+
+    /**
+     * Takes randomness from the pool, or computes it on the spot if the pool is empty.
+     * @return fresh randomness for a single encapsulation
+     */
+    @Override
+    public EncapsulationRandomness precomputeRandomness() {
+        final EncapsulationRandomness randomness = pool.poll();
+
+        if (pool.size() <= refillThreshold) {
+            wakeProducer();
+        }
+
+        if (randomness == null) {
+            misses.incrementAndGet();
+            return kem.precomputeRandomness();
+        }
+
+        hits.incrementAndGet();
+        return randomness;
+    }
+
+    @Override
+    public KeyEncapsulation encapsulate(final String identity, final EncapsulationRandomness randomness) {
+        return kem.encapsulate(identity, randomness);
+    }
+
+    @Override
+    public Optional<byte[]> decapsulate(final PrivateKey privateKey, final AffinePoint encapsulation) {
+        return kem.decapsulate(privateKey, encapsulation);
+    }
+
+    /**
+     * Gets the number of encapsulations currently in the pool.
+     * @return the size of the pool
+     */
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getRefillThreshold() {
+        return refillThreshold;
+    }
+
+    /**
+     * Gets the number of encapsulations that used pooled randomness.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of encapsulations that found the pool empty and computed the randomness on the spot.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of encapsulations computed by the producer so far.
+     * @return the number of produced encapsulations
+     */
+    public long getProduced() {
+        return produced.get();
+    }
+
+    /**
+     * Stops the producer and empties the pool, dropping the references to the pooled randomness. Encapsulations can
+     * still be performed afterwards, computing the randomness on the spot.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        pool.clear();
+    }
+
+    private void produce() {
+        try {
+            while (!closed) {
+                while (!closed && pool.size() < capacity) {
+                    if (pool.offer(kem.precomputeRandomness())) {
+                        produced.incrementAndGet();
+                    }
+                }
+
+                synchronized (producerLock) {
+                    while (!closed && pool.size() > refillThreshold) {
+                        producerLock.wait();
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.clear();
+        }
+    }
+
+    private void wakeProducer() {
+        synchronized (producerLock) {
+            producerLock.notifyAll();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package cryptid.ibe;
 
+import cryptid.ibe.domain.IdentityPrivateKey;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.domain.PublicParameters;
 
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Base class for private key generators that can extract private keys for corresponding identities.
+ *
+ * Implementations are required to be thread-safe, extraction being a pure function of the master secret and the
+ * identity.
  */
 public abstract class PrivateKeyGenerator {
     protected final PublicParameters publicParameters;
@@ -29,6 +36,23 @@ public abstract class PrivateKeyGenerator {
      */
     public abstract PrivateKey extract(String identity);
 
+    /**
+     * Extracts the private keys corresponding to the specified identities. The extraction is performed lazily and in
+     * parallel, that is, the keys are computed as the returned stream is consumed, and they are not retained
+     * afterwards. The order of the results is unspecified.
+     *
+     * The default implementation calls {@link #extract(String)} for each identity.
+     * @param identities the identities to get the private keys of
+     * @throws NullPointerException if the collection is {@code null}
+     * @return a parallel stream of the identities paired with their private keys
+     */
+    public Stream<IdentityPrivateKey> extractAll(Collection<String> identities) {
+        Objects.requireNonNull(identities);
+
+        return identities.parallelStream()
+                .map(identity -> new IdentityPrivateKey(identity, extract(identity)));
+    }
+
     /**
      * Gets the public parameters.
      * @return the public parameters
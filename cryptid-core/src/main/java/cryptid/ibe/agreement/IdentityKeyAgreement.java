@@ -0,0 +1,197 @@
+package cryptid.ibe.agreement;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ellipticcurve.pairing.tate.TatePairingFactory;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.IdentityPrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.CanonicalUtils;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Non-interactive identity-based key agreement (Sakai-Ohgishi-Kasahara) between users enrolled in the same
+ * Boneh-Franklin setup. As the private key of an identity is {@code d_id = [s]Q_id}, the pairing of the own private
+ * key and the point of the peer identity is the same on both sides:
+ * <pre>
+ * {@code
+ * Pairing(E, p, q, d_A, Q_B) = Pairing(E, p, q, Q_A, Q_B)^s = Pairing(E, p, q, Q_A, d_B)
+ * }
+ * </pre>
+ * The shared key is derived from this value and both identities, ordered so that the peers derive the same key:
+ * <pre>
+ * {@code
+ * key = HashBytes(KEY_LENGTH, Canonical(p, k, 0, theta) || len(id_1) || id_1 || len(id_2) || id_2, hashfcn)
+ * }
+ * </pre>
+ * No message has to be exchanged, and the key only changes if the setup does, thus it is computed once per peer
+ * and kept until it is forgotten. The private key generator can compute every shared key too, just like it can
+ * decrypt every ciphertext.
+ *
+ * Sakai-Kasahara private keys are not of the form {@code [s]Q_id}, so they cannot be used for the agreement.
+ * Instances are thread-safe.
+ */
+public final class IdentityKeyAgreement {
+    /**
+     * The length of the shared keys in octets.
+     */
+    public static final int KEY_LENGTH = 32;
+
+    private final PublicParameters publicParameters;
+    private final IdentityPrivateKey identityPrivateKey;
+    private final TatePairing tatePairing;
+    private final MessageDigestFactory messageDigestFactory;
+    private final ConcurrentMap<String, SharedKey> sharedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance.
+     * @param publicParameters the public parameters of the Boneh-Franklin setup
+     * @param identityPrivateKey the own identity and its private key
+     * @throws NoSuchAlgorithmException if the hash function of the public parameters is not available
+     */
+    public IdentityKeyAgreement(final PublicParameters publicParameters, final IdentityPrivateKey identityPrivateKey)
+            throws NoSuchAlgorithmException {
+        this.publicParameters = Objects.requireNonNull(publicParameters);
+        this.identityPrivateKey = Objects.requireNonNull(identityPrivateKey);
+        this.messageDigestFactory = MessageDigestFactory.forAlgorithm(publicParameters.getHashFunction());
+        this.tatePairing = TatePairingFactory.INSTANCE.typeOneTatePairing(publicParameters.getEllipticCurve(),
+                publicParameters.getQ());
+    }
+
+    /**
+     * Gets the key shared with the specified identity, computing it with a pairing on the first call for the
+     * identity.
+     * @param peerIdentity the identity of the peer
+     * @return a copy of the shared key
+     * @throws IllegalArgumentException if the identity of the peer is empty
+     */
+    public byte[] sharedKey(final String peerIdentity) {
+        Objects.requireNonNull(peerIdentity);
+
+        if (peerIdentity.isEmpty()) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+
+        while (true) {
+            SharedKey sharedKey = sharedKeys.get(peerIdentity);
+
+            if (sharedKey == null) {
+                // The pairing is computed outside of the map, so that agreeing with different peers does not block.
+                // Concurrent computations for the same peer yield the same key, only the first one is kept.
+                final SharedKey computed = new SharedKey(computeSharedKey(peerIdentity));
+                sharedKey = sharedKeys.putIfAbsent(peerIdentity, computed);
+
+                if (sharedKey == null) {
+                    sharedKey = computed;
+                } else {
+                    computed.destroy();
+                }
+            }
+
+            // The key may have been forgotten concurrently, in which case it is computed again.
+            final byte[] copy = sharedKey.copy();
+
+            if (copy != null) {
+                return copy;
+            }
+        }
+    }
+
+    /**
+     * Removes the key shared with the specified identity, so that it is computed again when it is needed next.
+     * The removed key is zeroed.
+     * @param peerIdentity the identity of the peer
+     */
+    public void forget(final String peerIdentity) {
+        final SharedKey sharedKey = sharedKeys.remove(Objects.requireNonNull(peerIdentity));
+
+        if (sharedKey != null) {
+            sharedKey.destroy();
+        }
+    }
+
+    /**
+     * Removes and zeroes every shared key.
+     */
+    public void forgetAll() {
+        sharedKeys.keySet().forEach(this::forget);
+    }
+
+    /**
+     * Gets the number of peers whose shared key is currently kept.
+     * @return the number of peers
+     */
+    public int getPeerCount() {
+        return sharedKeys.size();
+    }
+
+    public String getIdentity() {
+        return identityPrivateKey.getIdentity();
+    }
+
+    public PublicParameters getPublicParameters() {
+        return publicParameters;
+    }
+
+    private byte[] computeSharedKey(final String peerIdentity) {
+        final TypeOneEllipticCurve ellipticCurve = publicParameters.getEllipticCurve();
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        // Q_B = HashToPoint(E, p, q, id_B, hashfcn)
+        final AffinePoint peerPoint = HashUtils.hashToPoint(ellipticCurve, ellipticCurve.getFieldOrder(),
+                publicParameters.getQ(), peerIdentity, messageDigest);
+
+        // theta = Pairing(E, p, q, d_A, Q_B)
+        final Complex theta = tatePairing.performPairing(identityPrivateKey.getPrivateKey().getData(), peerPoint);
+
+        final ByteArrayOutputStream seed = new ByteArrayOutputStream();
+        final byte[] z = CanonicalUtils.canonical(ellipticCurve.getFieldOrder(),
+                CanonicalUtils.CanonicalOrdering.IMAGINARY_FIRST, theta);
+        seed.write(z, 0, z.length);
+
+        final String ownIdentity = identityPrivateKey.getIdentity();
+        final boolean ownFirst = ownIdentity.compareTo(peerIdentity) <= 0;
+        writeIdentity(seed, ownFirst ? ownIdentity : peerIdentity);
+        writeIdentity(seed, ownFirst ? peerIdentity : ownIdentity);
+
+        return HashUtils.hashBytes(KEY_LENGTH, seed.toByteArray(), messageDigest);
+    }
+
+    private static void writeIdentity(final ByteArrayOutputStream seed, final String identity) {
+        final byte[] encoded = identity.getBytes(StandardCharsets.UTF_8);
+        final byte[] length = ByteBuffer.allocate(Integer.BYTES).putInt(encoded.length).array();
+
+        seed.write(length, 0, length.length);
+        seed.write(encoded, 0, encoded.length);
+    }
+
+    private static final class SharedKey {
+        private final byte[] value;
+        private boolean destroyed;
+
+        SharedKey(final byte[] value) {
+            this.value = value;
+        }
+
+        synchronized byte[] copy() {
+            return destroyed ? null : value.clone();
+        }
+
+        synchronized void destroy() {
+            destroyed = true;
+            Arrays.fill(value, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Non-interactive identity-based key agreement between users of the same setup.
+ */
+package cryptid.ibe.agreement;
@@ -1,31 +1,69 @@
 package cryptid.ibe.bonehfranklin;
 
 import cryptid.complex.Complex;
+import cryptid.ellipticcurve.SubgroupValidator;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
 import cryptid.ibe.*;
+import cryptid.ibe.cache.HashToPointCache;
+import cryptid.ellipticcurve.pairing.tate.PreparedTatePairing;
 import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ibe.domain.BatchResult;
+import cryptid.ibe.domain.CipherTextHeader;
 import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.EncryptionRequest;
+import cryptid.ibe.domain.MaskGenerationMode;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.store.IdentityPrecomputationStore;
 import cryptid.ibe.util.CanonicalUtils;
+import cryptid.ibe.util.ChannelChunks;
 import cryptid.ibe.util.HashUtils;
+import cryptid.ibe.util.MaskGenerator;
 import cryptid.util.MessageDigestFactory;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static cryptid.util.BigIntegerUtils.randomBigInteger;
 
 /**
  * Boneh-Franklin (RFC 5091) implementation of {@link IbeClient}.
  */
 final class BonehFranklinIbeClientImpl extends IbeClient {
     private static final String EMPTY_STRING = "";
+    private static final int BATCH_CHALLENGE_BITS = 64;
 
     private final SecureRandom secureRandom;
     private final MessageDigestFactory messageDigestFactory;
+    private final int digestLength;
     private final TatePairing tatePairing;
+    private final SubgroupValidator subgroupValidator;
+    private final MaskGenerationMode maskGenerationMode;
+    private final Executor lowLatencyExecutor;
+    private final BonehFranklinIdentityPairing identityPairing;
 
     /**
      * Constructs a new instance.
@@ -33,53 +71,264 @@ final class BonehFranklinIbeClientImpl extends IbeClient {
      * @param secureRandom a cryptographically strong random source
      * @param messageDigestFactory an appropriate message digest source
      * @param tatePairing a Tate-pairing instance
+     * @param subgroupValidator a validator for the subgroup of order q
+     * @param hashToPointCache a cache of identity points or {@code null} to disable caching
+     * @param maskGenerationMode the mask generation mode of the produced ciphertexts
+     * @param precomputationStore a store of precomputed identity values or {@code null} to compute them on demand
+     * @param lowLatencyExecutor the executor running the independent branches of an operation concurrently or
+     *                           {@code null} to run them sequentially
      */
     BonehFranklinIbeClientImpl(final PublicParameters publicParameters, final SecureRandom secureRandom,
-                               final MessageDigestFactory messageDigestFactory, final TatePairing tatePairing) {
+                               final MessageDigestFactory messageDigestFactory, final TatePairing tatePairing,
+                               final SubgroupValidator subgroupValidator, final HashToPointCache hashToPointCache,
+                               final MaskGenerationMode maskGenerationMode,
+                               final IdentityPrecomputationStore precomputationStore,
+                               final Executor lowLatencyExecutor) {
         super(publicParameters);
 
         this.secureRandom = secureRandom;
         this.messageDigestFactory = messageDigestFactory;
+        this.digestLength = messageDigestFactory.obtainInstance().getDigestLength();
         this.tatePairing = tatePairing;
+        this.subgroupValidator = subgroupValidator;
+        this.maskGenerationMode = maskGenerationMode;
+        this.lowLatencyExecutor = lowLatencyExecutor;
+        this.identityPairing = new BonehFranklinIdentityPairing(publicParameters, tatePairing, hashToPointCache,
+                precomputationStore);
     }
 
     @Override
-    public CipherTextTuple encrypt(final String message, final String identity) {
+    public CipherTextTuple encrypt(final ByteBuffer message, final String identity) {
         checkEncryptArguments(message, identity);
 
-        byte[] messageBytes = message.getBytes();
+        final int messageStart = message.position();
+        final int messageLength = message.remaining();
+
+        // The identity branch (hashing to a point and the pairing) is independent of the message branch.
+        final Supplier<Complex> theta = thetaBranch(identity);
 
-        // Let hashlen be the length of the output of the cryptographic hash function hashfcn from the public parameters.
         final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
-        int hashLen = messageDigest.getDigestLength();
 
-        // Q_id = HashToPoint(E, p, q, id, hashfcn), using Algorithm 4.4.1 (HashToPoint), which results in a point of
-        // order q in E(F_p).
-        AffinePoint pointQId = HashUtils.hashToPoint(publicParameters.getEllipticCurve(),
-                publicParameters.getEllipticCurve().getFieldOrder(), publicParameters.getQ(), identity, messageDigest);
+        // Let t = hashfcn(m), a hashlen-octet string resulting from applying the hashfcn algorithm to the input m
+        messageDigest.update(message.duplicate());
+        byte[] t = messageDigest.digest();
+
+        final CipherTextTuple ciphertext = encryptWithTheta(message, t, theta, messageDigest);
+        message.position(messageStart + messageLength);
+
+        return ciphertext;
+    }
+
+    @Override
+    public List<BatchResult<CipherTextTuple>> encryptAll(final List<EncryptionRequest> requests) {
+        Objects.requireNonNull(requests);
+
+        @SuppressWarnings("unchecked")
+        final BatchResult<CipherTextTuple>[] results = new BatchResult[requests.size()];
+
+        // The indices of the requests, grouped by identity.
+        final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); ++i) {
+            final EncryptionRequest request = requests.get(i);
+
+            if (request == null) {
+                results[i] = BatchResult.failure(new NullPointerException("The request must not be null!"));
+            } else {
+                groups.computeIfAbsent(request.getIdentity(), identity -> new ArrayList<>()).add(i);
+            }
+        }
+
+        groups.entrySet().parallelStream().forEach(group -> {
+            final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+            // The identity point and the base pairing are computed once for the whole group.
+            final Complex theta;
+            try {
+                theta = theta(group.getKey(), messageDigest);
+            } catch (final RuntimeException e) {
+                group.getValue().forEach(i -> results[i] = BatchResult.failure(e));
+                return;
+            }
+
+            for (final int i : group.getValue()) {
+                try {
+                    final ByteBuffer message = ByteBuffer.wrap(requests.get(i).getMessage());
+                    checkEncryptArguments(message, group.getKey());
+
+                    messageDigest.update(message.duplicate());
+                    final byte[] t = messageDigest.digest();
+
+                    results[i] = BatchResult.success(encryptWithTheta(message, t, () -> theta, messageDigest));
+                } catch (final RuntimeException e) {
+                    messageDigest.reset();
+                    results[i] = BatchResult.failure(e);
+                }
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks the identity and computes theta = Pairing(E, p, q, P_pub, Q_id), which is an element of the extension
+     * field F_p^2 obtained using the modified Tate pairing of Algorithm 4.5.1 (Pairing).
+     */
+    private Complex theta(final String identity, final MessageDigest messageDigest) {
+        if (identity.equals(EMPTY_STRING)) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+
+        return identityPairing.theta(identity, messageDigest);
+    }
+
+    /**
+     * Starts the identity branch of the encryption. In low-latency mode theta is computed concurrently on the
+     * executor, otherwise it is computed when it is first needed.
+     */
+    private Supplier<Complex> thetaBranch(final String identity) {
+        if (lowLatencyExecutor == null) {
+            return () -> theta(identity, messageDigestFactory.obtainInstance());
+        }
+
+        final CompletableFuture<Complex> theta = CompletableFuture.supplyAsync(
+                () -> theta(identity, messageDigestFactory.obtainInstance()), lowLatencyExecutor);
+
+        return () -> join(theta);
+    }
+
+    /**
+     * Performs the steps of the encryption following t = hashfcn(m). Theta is only requested once everything
+     * independent of it is done. The position of the message is not changed.
+     */
+    private CipherTextTuple encryptWithTheta(final ByteBuffer message, final byte[] t, final Supplier<Complex> theta,
+                                             final MessageDigest messageDigest) {
+        final int messageStart = message.position();
+        final int messageLength = message.remaining();
+
+        byte[] rho = randomRho(messageDigest);
+
+        // Let W = HashBytes(|m|, rho, hashfcn) XOR m, which is the bit-wise XOR of m with the first |m| octets of the
+        // pseudo-random bytes produced by Algorithm 4.2.1 (HashBytes) with seed rho
+        byte[] cipherW = generateMask(messageLength, rho, maskGenerationMode, messageDigest);
+        for(int i = 0; i < messageLength; i++) {
+            cipherW[i] ^= message.get(messageStart + i);
+        }
+
+        final CipherTextHeader header = encryptHeader(rho, t, messageLength, theta, messageDigest);
+
+        // The ciphertext is the triple (U, V, W)
+        return header.withCipherW(cipherW);
+    }
+
+    @Override
+    public CipherTextHeader encrypt(final SeekableByteChannel message, final String identity,
+                                    final WritableByteChannel cipherW) throws IOException {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(cipherW);
+
+        final long messageStart = message.position();
+        final long messageLength = message.size() - messageStart;
+
+        if (messageLength <= 0) {
+            throw new IllegalArgumentException("The message must not be empty!");
+        }
+
+        if (identity.equals(EMPTY_STRING)) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
 
+        final Supplier<Complex> theta = thetaBranch(identity);
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        // First pass: t = hashfcn(m)
+        ChannelChunks.forEachChunk(message, messageStart, messageLength, (chunk, length) -> messageDigest.update(chunk, 0, length));
+        final byte[] t = messageDigest.digest();
+
+        final byte[] rho = randomRho(messageDigest);
+        final CipherTextHeader header = encryptHeader(rho, t, messageLength, theta, messageDigest);
+
+        // Second pass: W = mask XOR m
+        final MaskGenerator maskGenerator = MaskGenerator.forMode(maskGenerationMode, rho, messageDigest);
+        ChannelChunks.forEachChunk(message, messageStart, messageLength, (chunk, length) -> {
+            maskGenerator.xorInto(chunk, 0, length);
+            ChannelChunks.writeFully(cipherW, chunk, length);
+        });
+
+        message.position(messageStart + messageLength);
+
+        return header;
+    }
+
+    @Override
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextHeader header, final SeekableByteChannel cipherW,
+                           final WritableByteChannel output, final Path stagingDirectory) throws IOException {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(header);
+        Objects.requireNonNull(cipherW);
+        Objects.requireNonNull(output);
+        Objects.requireNonNull(stagingDirectory);
+
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        if (!subgroupValidator.isValid(header.getCipherU())) {
+            return false;
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        if (header.getCipherV().length != messageDigest.getDigestLength()) {
+            return false;
+        }
+
+        final byte[] rho = recoverRho(tatePairing.performPairing(header.getCipherU(), privateKey.getData()),
+                header.getCipherV(), messageDigest);
+        final MaskGenerator maskGenerator = MaskGenerator.forMode(header.getMaskGenerationMode(), rho,
+                messageDigestFactory.obtainInstance());
+
+        return ChannelChunks.decryptStaged(cipherW, header.getCipherWLength(), maskGenerator, messageDigest, t -> {
+            // Let l = HashToRange(rho || t, q, hashfcn), where t = hashfcn(m)
+            final BigInteger l = HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t);
+
+            // Verify that U = [l]P, otherwise the staged plaintext is discarded.
+            return header.getCipherU().equals(publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), l));
+        }, output, stagingDirectory);
+    }
+
+    /**
+     * Selects a random hashlen-bit vector rho.
+     */
+    private byte[] randomRho(final MessageDigest messageDigest) {
         // Select a random hashlen-bit vector rho, represented as (hashlen / 8)-octet string in big-endian convention
         // I think the comment above is wrong.
-        byte[] rho = new byte[hashLen];
+        final byte[] rho = new byte[messageDigest.getDigestLength()];
         secureRandom.nextBytes(rho);
 
-        // Let t = hashfcn(m), a hashlen-octet string resulting from applying the hashfcn algorithm to the input m
-        messageDigest.update(messageBytes);
-        byte[] t = messageDigest.digest();
+        return rho;
+    }
 
+    /**
+     * Performs the steps of the encryption producing U and V from rho and t = hashfcn(m).
+     */
+    private CipherTextHeader encryptHeader(final byte[] rho, final byte[] t, final long messageLength,
+                                           final Supplier<Complex> theta, final MessageDigest messageDigest) {
         // Let l = HashToRange(rho || t, q, hashfcn), an integer in the range 0 to q - 1 resulting from applying
         // Algorithm 4.1.1 (HashToRange) to the (2 * hashlen)-octet concatenation of rho and t
-        byte[] concat = new byte[rho.length + t.length];
-        System.arraycopy(rho, 0, concat, 0, rho.length);
-        System.arraycopy(t, 0, concat, rho.length, t.length);
-        BigInteger l = HashUtils.hashToRange(concat, publicParameters.getQ(), messageDigest);
+        BigInteger l = HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t);
 
         // Let U = [l]P, which is a point of order q in E(F_p)
-        AffinePoint cipherPointU = publicParameters.getPointP().multiply(l, publicParameters.getEllipticCurve());
+        AffinePoint cipherPointU = publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), l);
+
+        byte[] cipherV = encryptRho(rho, l, theta.get(), messageDigest);
+
+        return new CipherTextHeader(cipherPointU, cipherV, messageLength, maskGenerationMode);
+    }
 
-        // Let theta = Pairing(E, p, q, P_pub, Q_id), which is an element of the extension field F_p^2 obtained using
-        // the modified Tate pairing of Algorithm 4.5.1 (Pairing).
-        Complex theta = tatePairing.performPairing(publicParameters.getPointPpublic(), pointQId);
+    /**
+     * Performs the steps of the encryption producing V, the only component depending on the identity, from
+     * theta = Pairing(E, p, q, P_pub, Q_id).
+     */
+    private byte[] encryptRho(final byte[] rho, final BigInteger l, final Complex theta,
+                              final MessageDigest messageDigest) {
+        int hashLen = messageDigest.getDigestLength();
 
         // Let theta' = theta^l, which is theta raised to the power of l in F_p^2
         Complex thetaPrime = theta.modPow(l, publicParameters.getEllipticCurve().getFieldOrder());
@@ -98,28 +347,302 @@ final class BonehFranklinIbeClientImpl extends IbeClient {
             cipherV[i] = (byte)(w[i] ^ rho[i]);
         }
 
-        // Let W = HashBytes(|m|, rho, hashfcn) XOR m, which is the bit-wise XOR of m with the first |m| octets of the
-        // pseudo-random bytes produced by Algorithm 4.2.1 (HashBytes) with seed rho
-        byte[] cipherW = new byte[messageBytes.length];
-        byte[] hashBytes = HashUtils.hashBytes(messageBytes.length, rho, messageDigest);
-        for(int i = 0; i < messageBytes.length; i++) {
-            cipherW[i] = (byte)(hashBytes[i] ^ messageBytes[i]);
+        return cipherV;
+    }
+
+    @Override
+    public List<CipherTextTuple> encryptForAll(final byte[] message, final List<String> identities) {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(identities);
+
+        if (message.length == 0) {
+            throw new IllegalArgumentException("The message must not be empty!");
         }
 
-        // The ciphertext is the triple (U, V, W)
-        return new CipherTextTuple(cipherPointU, cipherV, cipherW);
+        for (final String identity : identities) {
+            if (Objects.requireNonNull(identity).equals(EMPTY_STRING)) {
+                throw new IllegalArgumentException("The identity must not be empty!");
+            }
+        }
+
+        if (identities.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        // t, rho, l, U and W do not depend on the identity, thus they are computed once for all the recipients.
+        messageDigest.update(message);
+        final byte[] t = messageDigest.digest();
+
+        final byte[] rho = randomRho(messageDigest);
+        final BigInteger l = HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t);
+        final AffinePoint cipherPointU = publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), l);
+
+        final byte[] cipherW = generateMask(message.length, rho, maskGenerationMode, messageDigest);
+        for(int i = 0; i < message.length; i++) {
+            cipherW[i] ^= message[i];
+        }
+
+        // Only V has to be computed per recipient, the pairings are independent of each other. Every ciphertext gets
+        // its own copy of W, as the tuples expose their arrays.
+        return identities.parallelStream()
+                .map(identity -> {
+                    final MessageDigest recipientDigest = messageDigestFactory.obtainInstance();
+                    return encryptRho(rho, l, identityPairing.theta(identity, recipientDigest), recipientDigest);
+                })
+                .map(cipherV -> new CipherTextTuple(cipherPointU, cipherV, cipherW.clone(), maskGenerationMode))
+                .collect(Collectors.toList());
     }
 
     @Override
-    public Optional<String> decrypt(final PrivateKey privateKey, final CipherTextTuple ciphertext) {
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextTuple ciphertext, final ByteBuffer destination) {
         checkDecryptArguments(privateKey, ciphertext);
+        Objects.requireNonNull(destination);
+
+        final int start = destination.position();
+        final int length = ciphertext.getCipherW().length;
+
+        if (destination.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (!hasValidCipherV(ciphertext)) {
+            return false;
+        }
+
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        // This holds in the low-latency mode as well: the only branch independent of the pairing is this check, and
+        // running them concurrently would spend a pairing on every forged U and expose its unchecked plaintext.
+        if (!subgroupValidator.isValid(ciphertext.getCipherU())) {
+            return false;
+        }
+
+        final BigInteger l = recoverCandidate(tatePairing.performPairing(ciphertext.getCipherU(), privateKey.getData()),
+                ciphertext, destination);
+
+        // Verify that U = [l]P
+        // If this is the case, then the decrypted plaintext m is returned
+        if (ciphertext.getCipherU().equals(publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), l))) {
+            destination.position(start + length);
+
+            return true;
+        }
+
+        // Otherwise, the ciphertext is rejected and no plaintext is returned.
+        zero(destination, start, length);
+
+        return false;
+    }
+
+    private static void zero(final ByteBuffer destination, final int start, final int length) {
+        for (int i = 0; i < length; ++i) {
+            destination.put(start + i, (byte) 0);
+        }
+    }
+
+    /**
+     * Waits for the result of a branch, rethrowing its failure as it is.
+     */
+    private static <T> T join(final CompletableFuture<T> branch) {
+        try {
+            return branch.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Decrypts the specified ciphertexts, replacing the individual {@code U = [l]P} checks with a single randomized
+     * batch check: {@code sum(r_i * U_i) = [sum(r_i * l_i)]P}, where the {@code r_i} values are short random
+     * scalars. The individual checks are only performed if the batch check fails, in order to find the offending
+     * ciphertexts.
+     *
+     * Ciphertexts whose {@code U} component is not a point of order {@code q} are rejected upfront and are left out
+     * of the batch check. This guarantees that the batch check is equivalent to the individual checks (except with
+     * probability {@code 2^-64}).
+     *
+     * The batch only replaces the {@code [l_i]P} multiplications: one full-size multiplication and an interleaved
+     * multiplication with 64-bit scalars (in affine coordinates, thus with an inversion per addition) are performed
+     * instead of one full-size multiplication per ciphertext. The subgroup check of every {@code U} still costs
+     * about a full-size multiplication per ciphertext, and the pairings dominate either way, so the saving is a
+     * fraction of the total cost of the batch rather than a change of its order.
+     * @param privateKey the private key
+     * @param ciphertexts the ciphertexts to decrypt
+     * @return the results of the decryptions
+     */
+    @Override
+    public List<Optional<String>> decryptAll(final PrivateKey privateKey, final List<CipherTextTuple> ciphertexts) {
+        Objects.requireNonNull(ciphertexts);
+
+        if (ciphertexts.size() < 2) {
+            return super.decryptAll(privateKey, ciphertexts);
+        }
+
+        for (final CipherTextTuple ciphertext : ciphertexts) {
+            checkDecryptArguments(privateKey, ciphertext);
+        }
+
+        final List<DecryptionCandidate> candidates = new ArrayList<>(ciphertexts.size());
+        for (final CipherTextTuple ciphertext : ciphertexts) {
+            candidates.add(recoverCandidate(ciphertext, u -> tatePairing.performPairing(u, privateKey.getData())));
+        }
+
+        return checkCandidates(ciphertexts, candidates).stream()
+                .map(m -> m.map(bytes -> new String(bytes, StandardCharsets.UTF_8)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<PrivateKey, List<Optional<byte[]>>> decryptAll(final Map<PrivateKey, List<CipherTextTuple>> ciphertexts,
+                                                              final Executor executor) {
+        Objects.requireNonNull(ciphertexts);
+        Objects.requireNonNull(executor);
+
+        for (final Map.Entry<PrivateKey, List<CipherTextTuple>> entry : ciphertexts.entrySet()) {
+            for (final CipherTextTuple ciphertext : Objects.requireNonNull(entry.getValue())) {
+                checkDecryptArguments(entry.getKey(), ciphertext);
+            }
+        }
+
+        final Map<PrivateKey, CompletableFuture<List<Optional<byte[]>>>> futures = new LinkedHashMap<>();
+        for (final Map.Entry<PrivateKey, List<CipherTextTuple>> entry : ciphertexts.entrySet()) {
+            final List<CipherTextTuple> keyCiphertexts = entry.getValue();
+
+            // The pairing is symmetric, thus Pairing(U, S_id) = Pairing(S_id, U), and the lines of Miller's algorithm
+            // only depend on the first point. Having S_id as the first point, they are computed once per key.
+            final CompletableFuture<PreparedTatePairing> pairing = CompletableFuture.supplyAsync(
+                    () -> tatePairing.prepare(entry.getKey().getData()), executor);
+
+            final List<CompletableFuture<DecryptionCandidate>> candidates = keyCiphertexts.stream()
+                    .map(ciphertext -> pairing.thenApplyAsync(
+                            prepared -> recoverCandidate(ciphertext, prepared::performPairing), executor))
+                    .collect(Collectors.toList());
+
+            futures.put(entry.getKey(), CompletableFuture.allOf(candidates.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> checkCandidates(keyCiphertexts, candidates.stream()
+                            .map(CompletableFuture::join)
+                            .collect(Collectors.toList())), executor));
+        }
+
+        final Map<PrivateKey, List<Optional<byte[]>>> result = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<PrivateKey, CompletableFuture<List<Optional<byte[]>>>> entry : futures.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+
+        return result;
+    }
 
+    /**
+     * Recovers the candidate plaintext and l of the ciphertext using the specified function computing
+     * {@code Pairing(U, S_id)}, or returns {@code null} if U is not a point of order q or V is malformed.
+     */
+    private DecryptionCandidate recoverCandidate(final CipherTextTuple ciphertext,
+                                                 final Function<AffinePoint, Complex> pairing) {
+        if (!subgroupValidator.isValid(ciphertext.getCipherU()) || !hasValidCipherV(ciphertext)) {
+            return null;
+        }
+
+        final byte[] m = new byte[ciphertext.getCipherW().length];
+        final BigInteger l = recoverCandidate(pairing.apply(ciphertext.getCipherU()), ciphertext, ByteBuffer.wrap(m));
+
+        return new DecryptionCandidate(m, l);
+    }
+
+    /**
+     * Performs the {@code U = [l]P} checks of the candidates, at first in a single batch. A {@code null} candidate
+     * stands for a ciphertext which has already been rejected. The plaintexts of rejected candidates are zeroed out.
+     */
+    private List<Optional<byte[]>> checkCandidates(final List<CipherTextTuple> ciphertexts,
+                                                   final List<DecryptionCandidate> candidates) {
+        // Only the ciphertexts with a valid U take part in the batch, the others are rejected right away.
+        final List<CipherTextTuple> batch = new ArrayList<>(ciphertexts.size());
+        final List<DecryptionCandidate> batchCandidates = new ArrayList<>(ciphertexts.size());
+        for (int i = 0; i < ciphertexts.size(); ++i) {
+            if (candidates.get(i) != null) {
+                batch.add(ciphertexts.get(i));
+                batchCandidates.add(candidates.get(i));
+            }
+        }
+
+        final boolean batchValid = batch.size() > 1 && isBatchValid(batch, batchCandidates);
+
+        final List<Optional<byte[]>> result = new ArrayList<>(ciphertexts.size());
+        for (int i = 0; i < ciphertexts.size(); ++i) {
+            final CipherTextTuple ciphertext = ciphertexts.get(i);
+            final DecryptionCandidate candidate = candidates.get(i);
+
+            if (candidate == null) {
+                result.add(Optional.empty());
+                continue;
+            }
+
+            // If the batch check failed, at least one of the ciphertexts is invalid, fall back to the individual checks.
+            if (batchValid || ciphertext.getCipherU().equals(publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), candidate.l))) {
+                result.add(Optional.of(candidate.m));
+            } else {
+                Arrays.fill(candidate.m, (byte) 0);
+                result.add(Optional.empty());
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isBatchValid(final List<CipherTextTuple> ciphertexts, final List<DecryptionCandidate> candidates) {
+        final BigInteger q = publicParameters.getQ();
+        final BigInteger challengeBound = BigInteger.ONE.shiftLeft(BATCH_CHALLENGE_BITS);
+
+        final List<BigInteger> challenges = new ArrayList<>(candidates.size());
+        final List<AffinePoint> cipherPoints = new ArrayList<>(candidates.size());
+
+        // sum(r_i * l_i) mod q
+        BigInteger combinedL = BigInteger.ZERO;
+
+        for (int i = 0; i < candidates.size(); ++i) {
+            final BigInteger r = randomBigInteger(BigInteger.ONE, challengeBound, secureRandom);
+
+            challenges.add(r);
+            cipherPoints.add(ciphertexts.get(i).getCipherU());
+
+            combinedL = combinedL.add(r.multiply(candidates.get(i).l)).mod(q);
+        }
+
+        // sum(r_i * U_i)
+        final AffinePoint lhs = AffinePoint.linearCombination(challenges, cipherPoints, publicParameters.getEllipticCurve());
+
+        // [sum(r_i * l_i)]P
+        final AffinePoint rhs = publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), combinedL);
+
+        // Both sides might be infinity which can only be compared by identity.
+        return lhs.equals(rhs) || (AffinePoint.isInfinity(lhs) && AffinePoint.isInfinity(rhs));
+    }
+
+    /**
+     * Performs the steps of the decryption recovering rho from U and V.
+     */
+    private byte[] recoverRho(final Complex theta, final byte[] cipherV, final MessageDigest messageDigest) {
         // Let hashlen be the length of the output of the hash function hashlen measured in octets
-        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
         int hashLen = messageDigest.getDigestLength();
 
-        // Let theta = Pairing(E, p ,q, U, S_id) by applying the modified Tate pairing of Algorithm 4.5.1 (Pairing).
-        Complex theta = tatePairing.performPairing(ciphertext.getCipherU(), privateKey.getData());
+        // theta = Pairing(E, p ,q, U, S_id) is computed by the caller by applying the modified Tate pairing of
+        // Algorithm 4.5.1 (Pairing).
 
         // Let z = Canonical(p, k, 0, theta) using Algorithm 4.3.1 (Canonical), the result of which is a canonical string
         // representation of theta.
@@ -132,43 +655,58 @@ final class BonehFranklinIbeClientImpl extends IbeClient {
         // Let rho = w XOR V, the bit-wise XOR of w and V
         byte[] rho = new byte[hashLen];
         for(int i = 0; i < hashLen; i++) {
-            rho[i] = (byte)(w[i] ^ ciphertext.getCipherV()[i]);
+            rho[i] = (byte)(w[i] ^ cipherV[i]);
         }
 
+        return rho;
+    }
+
+    /**
+     * Performs the steps of the decryption up to (but not including) the {@code U = [l]P} check. The candidate
+     * plaintext is written at the position of the destination, without advancing it, and l is returned.
+     */
+    private BigInteger recoverCandidate(final Complex theta, final CipherTextTuple ciphertext,
+                                        final ByteBuffer destination) {
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        final byte[] rho = recoverRho(theta, ciphertext.getCipherV(), messageDigest);
+
         // Let m = HashBytes(|W|, rho, hashfcn) XOR W, which is the bit-wise XOR of m with the first |W| octets of the
         // pseudo-random bytes produced by Algorithm 4.2.1 (HashBytes) with seed rho.
-        byte[] m = new byte[ciphertext.getCipherW().length];
-        byte[] hashBytes = HashUtils.hashBytes(ciphertext.getCipherW().length, rho, messageDigest);
-        for(int i = 0; i < ciphertext.getCipherW().length; i++) {
-            m[i] = (byte)(hashBytes[i] ^ ciphertext.getCipherW()[i]);
+        final int start = destination.position();
+        final byte[] cipherW = ciphertext.getCipherW();
+        byte[] hashBytes = generateMask(cipherW.length, rho, ciphertext.getMaskGenerationMode(), messageDigest);
+        for(int i = 0; i < cipherW.length; i++) {
+            destination.put(start + i, (byte)(hashBytes[i] ^ cipherW[i]));
         }
 
         // Let t = hashfcn(m) using the hashfcn algorithm
+        final ByteBuffer m = destination.duplicate();
+        m.limit(start + cipherW.length);
         messageDigest.update(m);
         byte[] t = messageDigest.digest();
 
         // Let l = HashToRange(rho || t, q, hashfcn) using Algorithm 4.1.1 (HashToRange) on the (2 * hashlen)-octet
         // concatenation of rho and t.
-        byte[] concat = new byte[rho.length + t.length];
-        System.arraycopy(rho, 0, concat, 0, rho.length);
-        System.arraycopy(t, 0, concat, rho.length, t.length);
-        BigInteger l = HashUtils.hashToRange(concat, publicParameters.getQ(), messageDigest);
+        return HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t);
+    }
 
-        // Verify that U = [l]P
-        // If this is the case, then the decrypted plaintext m is returned
-        if(ciphertext.getCipherU().equals(publicParameters.getPointP().multiply(l, publicParameters.getEllipticCurve()))) {
-            return Optional.of(new String(m));
+    /**
+     * Generates the mask of the message from the seed rho, either with HashBytes or in counter mode.
+     */
+    private byte[] generateMask(final int length, final byte[] rho, final MaskGenerationMode mode,
+                                final MessageDigest messageDigest) {
+        if (mode == MaskGenerationMode.COUNTER) {
+            return HashUtils.counterHashBytes(length, rho, messageDigestFactory);
         }
 
-        // Otherwise, the ciphertext is rejected and no plaintext is returned.
-        return Optional.empty();
+        return HashUtils.hashBytes(length, rho, messageDigest);
     }
 
-    private void checkEncryptArguments(final String message, final String identity) {
+    private void checkEncryptArguments(final ByteBuffer message, final String identity) {
         Objects.requireNonNull(message);
         Objects.requireNonNull(identity);
 
-        if (message.equals(EMPTY_STRING)) {
+        if (!message.hasRemaining()) {
             throw new IllegalArgumentException("The message must not be empty!");
         }
 
@@ -177,8 +715,28 @@ final class BonehFranklinIbeClientImpl extends IbeClient {
         }
     }
 
+    /**
+     * V is the XOR of rho and a digest, thus it must be exactly as long as the output of the hash function.
+     */
+    private boolean hasValidCipherV(final CipherTextTuple ciphertext) {
+        return ciphertext.getCipherV().length == digestLength;
+    }
+
     private void checkDecryptArguments(final PrivateKey privateKey, final CipherTextTuple ciphertext) {
         Objects.requireNonNull(privateKey);
         Objects.requireNonNull(ciphertext);
     }
+
+    /**
+     * The plaintext and the l value recovered from a ciphertext, which are not yet verified.
+     */
+    private static final class DecryptionCandidate {
+        private final byte[] m;
+        private final BigInteger l;
+
+        private DecryptionCandidate(final byte[] m, final BigInteger l) {
+            this.m = m;
+            this.l = l;
+        }
+    }
 }
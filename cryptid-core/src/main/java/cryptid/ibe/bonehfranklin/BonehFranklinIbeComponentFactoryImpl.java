@@ -1,8 +1,13 @@
 package cryptid.ibe.bonehfranklin;
 
+import cryptid.ellipticcurve.SubgroupValidator;
 import cryptid.ibe.*;
+import cryptid.ibe.cache.DecapsulationCache;
+import cryptid.ibe.cache.HashToPointCache;
+import cryptid.ibe.domain.MaskGenerationMode;
 import cryptid.ibe.domain.PublicParameters;
 import cryptid.ibe.exception.ComponentConstructionException;
+import cryptid.ibe.store.IdentityPrecomputationStore;
 import cryptid.ellipticcurve.pairing.tate.TatePairing;
 import cryptid.ellipticcurve.pairing.tate.TatePairingFactory;
 import cryptid.util.MessageDigestFactory;
@@ -10,24 +15,117 @@ import cryptid.util.MessageDigestFactory;
 import java.math.BigInteger;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * Boneh-Franklin (RFC 5091) implementation of {@link IbeComponentFactory}.
+ *
+ * Every obtained component uses the random source passed to the factory. If a component is shared by many threads,
+ * a {@link cryptid.util.StripedSecureRandom} gives each of them its own generator.
  */
 public class BonehFranklinIbeComponentFactoryImpl implements IbeComponentFactory {
     private final SecureRandom secureRandom;
+    private final HashToPointCache hashToPointCache;
+    private final MaskGenerationMode maskGenerationMode;
+    private final IdentityPrecomputationStore precomputationStore;
+    private final Executor lowLatencyExecutor;
+    private final DecapsulationCache decapsulationCache;
 
     /**
      * Constructs a new instance.
      * @param secureRandom a cryptographically strong random source
      */
     public BonehFranklinIbeComponentFactoryImpl(final SecureRandom secureRandom) {
-        this.secureRandom = Objects.requireNonNull(secureRandom);
+        this(Objects.requireNonNull(secureRandom), null, MaskGenerationMode.HASH_CHAIN, null, null, null);
+    }
+
+    private BonehFranklinIbeComponentFactoryImpl(final SecureRandom secureRandom, final HashToPointCache hashToPointCache,
+                                                 final MaskGenerationMode maskGenerationMode,
+                                                 final IdentityPrecomputationStore precomputationStore,
+                                                 final Executor lowLatencyExecutor,
+                                                 final DecapsulationCache decapsulationCache) {
+        this.secureRandom = secureRandom;
+        this.hashToPointCache = hashToPointCache;
+        this.maskGenerationMode = maskGenerationMode;
+        this.precomputationStore = precomputationStore;
+        this.lowLatencyExecutor = lowLatencyExecutor;
+        this.decapsulationCache = decapsulationCache;
+    }
+
+    /**
+     * Returns a new factory whose clients and private key generators share the specified identity point cache.
+     * The same cache can be shared across factories and public parameters.
+     * @param hashToPointCache the cache to use
+     * @throws NullPointerException if the cache is {@code null}
+     * @return a new factory using the cache
+     */
+    public BonehFranklinIbeComponentFactoryImpl withHashToPointCache(final HashToPointCache hashToPointCache) {
+        return new BonehFranklinIbeComponentFactoryImpl(secureRandom, Objects.requireNonNull(hashToPointCache),
+                maskGenerationMode, precomputationStore, lowLatencyExecutor, decapsulationCache);
+    }
+
+    /**
+     * Returns a new factory whose clients encrypt using the specified mask generation mode. Clients can decrypt
+     * ciphertexts of any mode, as the mode is recorded in the ciphertext. The default is
+     * {@link MaskGenerationMode#HASH_CHAIN}, as specified by RFC 5091.
+     * @param maskGenerationMode the mask generation mode to use
+     * @throws NullPointerException if the mode is {@code null}
+     * @return a new factory using the mode
+     */
+    public BonehFranklinIbeComponentFactoryImpl withMaskGenerationMode(final MaskGenerationMode maskGenerationMode) {
+        return new BonehFranklinIbeComponentFactoryImpl(secureRandom, hashToPointCache,
+                Objects.requireNonNull(maskGenerationMode), precomputationStore, lowLatencyExecutor, decapsulationCache);
+    }
+
+    /**
+     * Returns a new factory whose clients and key encapsulation mechanisms take the pairing used by encryption from
+     * the specified store, computing only the identities missing from it. Clients and key encapsulation mechanisms
+     * can only be obtained for the public parameters the store was built for. Private key generators always compute
+     * the points of the identities, and ignore the store.
+     * @param precomputationStore the store to use
+     * @throws NullPointerException if the store is {@code null}
+     * @return a new factory using the store
+     */
+    public BonehFranklinIbeComponentFactoryImpl withPrecomputationStore(final IdentityPrecomputationStore precomputationStore) {
+        return new BonehFranklinIbeComponentFactoryImpl(secureRandom, hashToPointCache, maskGenerationMode,
+                Objects.requireNonNull(precomputationStore), lowLatencyExecutor, decapsulationCache);
+    }
+
+    /**
+     * Returns a new factory whose clients run the independent branches of a single operation concurrently, using
+     * the specified executor. Encryption computes the pairing of the identity while the message is hashed and
+     * {@code U} is computed. Decryption is not affected, as {@code U} has to be checked before the pairing, and
+     * nothing else is independent of the pairing. This lowers the latency of an encryption if there are idle cores,
+     * at the cost of some overhead, therefore it is disabled by default.
+     * @param lowLatencyExecutor the executor running the branches
+     * @throws NullPointerException if the executor is {@code null}
+     * @return a new factory using the executor
+     */
+    public BonehFranklinIbeComponentFactoryImpl withLowLatencyMode(final Executor lowLatencyExecutor) {
+        return new BonehFranklinIbeComponentFactoryImpl(secureRandom, hashToPointCache, maskGenerationMode,
+                precomputationStore, Objects.requireNonNull(lowLatencyExecutor), decapsulationCache);
+    }
+
+    /**
+     * Returns a new factory whose key encapsulation mechanisms keep the keys recovered by decapsulation in the
+     * specified cache, so that an encapsulation shared by many messages (for example by the messages of a session)
+     * is only decapsulated once while it is cached. The same cache can be shared across factories and public
+     * parameters.
+     * @param decapsulationCache the cache to use
+     * @throws NullPointerException if the cache is {@code null}
+     * @return a new factory using the cache
+     */
+    public BonehFranklinIbeComponentFactoryImpl withDecapsulationCache(final DecapsulationCache decapsulationCache) {
+        return new BonehFranklinIbeComponentFactoryImpl(secureRandom, hashToPointCache, maskGenerationMode,
+                precomputationStore, lowLatencyExecutor, Objects.requireNonNull(decapsulationCache));
     }
 
     @Override
     public IbeClient obtainClient(final PublicParameters publicParameters) throws ComponentConstructionException {
+        checkPrecomputationStore(publicParameters);
+
         final MessageDigestFactory messageDigestFactory;
 
         try {
@@ -38,7 +136,30 @@ public class BonehFranklinIbeComponentFactoryImpl implements IbeComponentFactory
 
         TatePairing tatePairing = TatePairingFactory.INSTANCE.typeOneTatePairing(publicParameters.getEllipticCurve(), publicParameters.getQ());
 
-        return new BonehFranklinIbeClientImpl(publicParameters, secureRandom, messageDigestFactory, tatePairing);
+        SubgroupValidator subgroupValidator = SubgroupValidator.forSubgroup(publicParameters.getEllipticCurve(), publicParameters.getQ());
+
+        return new BonehFranklinIbeClientImpl(publicParameters, secureRandom, messageDigestFactory, tatePairing, subgroupValidator,
+                hashToPointCache, maskGenerationMode, precomputationStore, lowLatencyExecutor);
+    }
+
+    @Override
+    public IbeKem obtainKem(final PublicParameters publicParameters) throws ComponentConstructionException {
+        checkPrecomputationStore(publicParameters);
+
+        final MessageDigestFactory messageDigestFactory;
+
+        try {
+            messageDigestFactory = MessageDigestFactory.forAlgorithm(publicParameters.getHashFunction());
+        } catch (NoSuchAlgorithmException e) {
+            throw new ComponentConstructionException(e);
+        }
+
+        TatePairing tatePairing = TatePairingFactory.INSTANCE.typeOneTatePairing(publicParameters.getEllipticCurve(), publicParameters.getQ());
+
+        SubgroupValidator subgroupValidator = SubgroupValidator.forSubgroup(publicParameters.getEllipticCurve(), publicParameters.getQ());
+
+        return new BonehFranklinIbeKemImpl(publicParameters, secureRandom, messageDigestFactory, tatePairing, subgroupValidator,
+                hashToPointCache, precomputationStore, decapsulationCache);
     }
 
     @Override
@@ -51,6 +172,13 @@ public class BonehFranklinIbeComponentFactoryImpl implements IbeComponentFactory
             throw new ComponentConstructionException(e);
         }
 
-        return new BonehFranklinPrivateKeyGeneratorImpl(publicParameters, masterSecret, messageDigestFactory);
+        return new BonehFranklinPrivateKeyGeneratorImpl(publicParameters, masterSecret, messageDigestFactory, hashToPointCache);
+    }
+
+    private void checkPrecomputationStore(final PublicParameters publicParameters) throws ComponentConstructionException {
+        if (precomputationStore != null
+                && !Arrays.equals(precomputationStore.getFingerprint(), publicParameters.getFingerprint())) {
+            throw new ComponentConstructionException("The precomputation store was built for different public parameters!");
+        }
     }
 }
@@ -1,6 +1,8 @@
 package cryptid.ibe.bonehfranklin;
 
 import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.multiplier.AffineScalarMultiplier;
+import cryptid.ellipticcurve.multiplier.ScalarMultiplierFactory;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
 import cryptid.ellipticcurve.point.affine.generator.AffinePointGenerationStrategy;
 import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
@@ -11,7 +13,10 @@ import cryptid.ibe.domain.SecurityLevel;
 import cryptid.ibe.exception.SetupException;
 import cryptid.ibe.util.SolinasPrimeFactory;
 
+import cryptid.util.MessageDigestFactory;
+
 import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Objects;
 import java.util.Optional;
@@ -29,16 +34,53 @@ public class BonehFranklinIbeInitializer implements IbeInitializer {
     private final SecureRandom secureRandom;
     private final SolinasPrimeFactory primeFactory;
     private final GenerationStrategyFactory<?> generationStrategyFactory;
+    private final ScalarMultiplierFactory<?> scalarMultiplierFactory;
 
     public BonehFranklinIbeInitializer(final SecureRandom secureRandom, final SolinasPrimeFactory solinasPrimeFactory,
                                        final GenerationStrategyFactory<?> generationStrategyFactory) {
+        this(secureRandom, solinasPrimeFactory, generationStrategyFactory, AffineScalarMultiplier::new);
+    }
+
+    /**
+     * Constructs a new initializer whose curves use the specified scalar multiplication backend.
+     * @param secureRandom a cryptographically strong random source
+     * @param solinasPrimeFactory a source of Solinas primes
+     * @param generationStrategyFactory factory producing random point generators
+     * @param scalarMultiplierFactory factory producing the scalar multiplication backend of the generated curves
+     */
+    public BonehFranklinIbeInitializer(final SecureRandom secureRandom, final SolinasPrimeFactory solinasPrimeFactory,
+                                       final GenerationStrategyFactory<?> generationStrategyFactory,
+                                       final ScalarMultiplierFactory<?> scalarMultiplierFactory) {
         this.secureRandom = Objects.requireNonNull(secureRandom);
         this.primeFactory = Objects.requireNonNull(solinasPrimeFactory);
         this.generationStrategyFactory = generationStrategyFactory;
+        this.scalarMultiplierFactory = Objects.requireNonNull(scalarMultiplierFactory);
     }
 
     @Override
     public IbeSetup setup(final SecurityLevel securityLevel) throws SetupException {
+        return setup(securityLevel, securityLevel.getHashFunction());
+    }
+
+    /**
+     * Constructs a new configuration with the curve sizes of the specified security level, but using the specified
+     * hash function instead of the default one of the level. The hash function can be any algorithm supported by
+     * an installed provider or by {@link cryptid.provider.CryptIdProvider}, for example {@code BLAKE2B-512}.
+     * @param securityLevel the desired security level
+     * @param hashFunction the name of the hash function to record in the public parameters
+     * @return a new set of IBE configuration
+     * @throws SetupException if the settings can not be produced or the hash function is not available
+     */
+    public IbeSetup setup(final SecurityLevel securityLevel, final String hashFunction) throws SetupException {
+        Objects.requireNonNull(securityLevel);
+        Objects.requireNonNull(hashFunction);
+
+        try {
+            MessageDigestFactory.forAlgorithm(hashFunction);
+        } catch (NoSuchAlgorithmException e) {
+            throw new SetupException("The hash function " + hashFunction + " is not available!", e);
+        }
+
         // Construct the elliptic curve and its subgroup of interest
         // Select a random n_q-bit Solinas prime q
         Optional<BigInteger> qOptional = primeFactory.generate(securityLevel.getqLength(), PRIME_GENERATION_ATTEMPTS);
@@ -58,7 +100,7 @@ public class BonehFranklinIbeInitializer implements IbeInitializer {
             p = BigInteger.valueOf(12L).multiply(r).multiply(q).subtract(BigInteger.ONE);
         } while (!p.isProbablePrime(PRIME_CERTAINTY));
 
-        TypeOneEllipticCurve ec = TypeOneEllipticCurve.ofOrder(p);
+        TypeOneEllipticCurve ec = TypeOneEllipticCurve.ofOrder(p, scalarMultiplierFactory);
 
         final AffinePointGenerationStrategy pointGenerationStrategy = generationStrategyFactory.newInstance(ec);
 
@@ -72,15 +114,15 @@ public class BonehFranklinIbeInitializer implements IbeInitializer {
             }
 
             AffinePoint pointPprime = pointOpt.get();
-            pointP = pointPprime.multiply(BigInteger.valueOf(12L).multiply(r), ec);
+            pointP = ec.multiply(pointPprime, BigInteger.valueOf(12L).multiply(r));
         } while (AffinePoint.isInfinity(pointP));
 
         // Determine the master secret
         BigInteger s = randomBigInteger(BigInteger.valueOf(2L), q, secureRandom);
 
         // Determine the public parameters
-        AffinePoint pointPpublic = pointP.multiply(s, ec);
+        AffinePoint pointPpublic = ec.multiply(pointP, s);
 
-        return new IbeSetup(new PublicParameters(ec, q, pointP, pointPpublic, securityLevel.getHashFunction()), s);
+        return new IbeSetup(new PublicParameters(ec, q, pointP, pointPpublic, hashFunction), s);
     }
 }
@@ -0,0 +1,153 @@
+package cryptid.ibe.bonehfranklin;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.SubgroupValidator;
+import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.cache.DecapsulationCache;
+import cryptid.ibe.cache.HashToPointCache;
+import cryptid.ibe.domain.EncapsulationRandomness;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.store.IdentityPrecomputationStore;
+import cryptid.ibe.util.CanonicalUtils;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.Optional;
+
+import static cryptid.util.BigIntegerUtils.randomBigInteger;
+
+/**
+ * Boneh-Franklin implementation of {@link IbeKem}. The encapsulation of a key is the point {@code U = [r]P} for a
+ * random r, and the key is derived from the shared pairing value, which is computed by the sender as
+ * {@code Pairing(E, p, q, P_pub, Q_id)^r} and by the receiver as {@code Pairing(E, p, q, U, S_id)}:
+ * <pre>
+ * {@code
+ * key = HashBytes(KEY_LENGTH, Canonical(p, k, 0, theta') || U, hashfcn)
+ * }
+ * </pre>
+ * Binding U into the key makes the encapsulation non-malleable, and as the key is only used with an authenticated
+ * cipher, no Fujisaki-Okamoto re-encryption check is needed on decapsulation.
+ */
+final class BonehFranklinIbeKemImpl extends IbeKem {
+    /**
+     * The length of the generated keys in octets.
+     */
+    static final int KEY_LENGTH = 32;
+
+    private final SecureRandom secureRandom;
+    private final MessageDigestFactory messageDigestFactory;
+    private final TatePairing tatePairing;
+    private final SubgroupValidator subgroupValidator;
+    private final BonehFranklinIdentityPairing identityPairing;
+    private final DecapsulationCache decapsulationCache;
+
+    /**
+     * Constructs a new instance.
+     * @param publicParameters the public parameters of the IBE setup
+     * @param secureRandom a cryptographically strong random source
+     * @param messageDigestFactory an appropriate message digest source
+     * @param tatePairing a Tate-pairing instance
+     * @param subgroupValidator a validator for the subgroup of order q
+     * @param hashToPointCache a cache of identity points or {@code null} to disable caching
+     * @param precomputationStore a store of precomputed identity values or {@code null} to compute them on demand
+     * @param decapsulationCache a cache of recovered keys or {@code null} to disable caching
+     */
+    BonehFranklinIbeKemImpl(final PublicParameters publicParameters, final SecureRandom secureRandom,
+                            final MessageDigestFactory messageDigestFactory, final TatePairing tatePairing,
+                            final SubgroupValidator subgroupValidator, final HashToPointCache hashToPointCache,
+                            final IdentityPrecomputationStore precomputationStore,
+                            final DecapsulationCache decapsulationCache) {
+        super(publicParameters);
+
+        this.secureRandom = secureRandom;
+        this.messageDigestFactory = messageDigestFactory;
+        this.tatePairing = tatePairing;
+        this.subgroupValidator = subgroupValidator;
+        this.identityPairing = new BonehFranklinIdentityPairing(publicParameters, tatePairing, hashToPointCache,
+                precomputationStore);
+        this.decapsulationCache = decapsulationCache;
+    }
+
+    @Override
+    public KeyEncapsulation encapsulate(final String identity) {
+        Objects.requireNonNull(identity);
+
+        return encapsulate(identity, precomputeRandomness());
+    }
+
+    @Override
+    public EncapsulationRandomness precomputeRandomness() {
+        // r is a random integer in the range 1 to q - 1
+        final BigInteger r = randomBigInteger(BigInteger.ONE, publicParameters.getQ(), secureRandom);
+
+        // U = [r]P
+        final AffinePoint cipherPointU = publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(), r);
+
+        return new EncapsulationRandomness(r, cipherPointU);
+    }
+
+    @Override
+    public KeyEncapsulation encapsulate(final String identity, final EncapsulationRandomness randomness) {
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(randomness);
+
+        if (identity.isEmpty()) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        final BigInteger p = publicParameters.getEllipticCurve().getFieldOrder();
+        final BigInteger r = randomness.consume();
+
+        // theta' = Pairing(E, p, q, P_pub, Q_id)^r
+        final Complex thetaPrime = identityPairing.theta(identity, messageDigest).modPow(r, p);
+
+        return new KeyEncapsulation(randomness.getEncapsulation(),
+                deriveKey(thetaPrime, randomness.getEncapsulation(), messageDigest));
+    }
+
+    @Override
+    public Optional<byte[]> decapsulate(final PrivateKey privateKey, final AffinePoint encapsulation) {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(encapsulation);
+
+        if (decapsulationCache != null) {
+            return decapsulationCache.obtain(publicParameters, privateKey, encapsulation,
+                    () -> performDecapsulation(privateKey, encapsulation));
+        }
+
+        return performDecapsulation(privateKey, encapsulation);
+    }
+
+    private Optional<byte[]> performDecapsulation(final PrivateKey privateKey, final AffinePoint encapsulation) {
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        if (!subgroupValidator.isValid(encapsulation)) {
+            return Optional.empty();
+        }
+
+        // theta' = Pairing(E, p, q, U, S_id)
+        final Complex thetaPrime = tatePairing.performPairing(encapsulation, privateKey.getData());
+
+        return Optional.of(deriveKey(thetaPrime, encapsulation, messageDigestFactory.obtainInstance()));
+    }
+
+    private byte[] deriveKey(final Complex thetaPrime, final AffinePoint cipherPointU, final MessageDigest messageDigest) {
+        final byte[] z = CanonicalUtils.canonical(publicParameters.getEllipticCurve().getFieldOrder(),
+                CanonicalUtils.CanonicalOrdering.IMAGINARY_FIRST, thetaPrime);
+        final byte[] u = cipherPointU.toCompressedBytes(publicParameters.getEllipticCurve());
+
+        final byte[] seed = new byte[z.length + u.length];
+        System.arraycopy(z, 0, seed, 0, z.length);
+        System.arraycopy(u, 0, seed, z.length, u.length);
+
+        return HashUtils.hashBytes(KEY_LENGTH, seed, messageDigest);
+    }
+}
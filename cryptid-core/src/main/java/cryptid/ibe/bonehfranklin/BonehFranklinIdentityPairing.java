@@ -0,0 +1,68 @@
+package cryptid.ibe.bonehfranklin;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.cache.HashToPointCache;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.store.IdentityPrecomputation;
+import cryptid.ibe.store.IdentityPrecomputationStore;
+import cryptid.ibe.util.HashUtils;
+
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Computes the pairing of the public point and the point of an identity, which is needed by every operation on the
+ * sender side, taking the values from the precomputation store or the cache when possible.
+ */
+final class BonehFranklinIdentityPairing {
+    private final PublicParameters publicParameters;
+    private final TatePairing tatePairing;
+    private final HashToPointCache hashToPointCache;
+    private final IdentityPrecomputationStore precomputationStore;
+
+    /**
+     * Constructs a new instance.
+     * @param publicParameters the public parameters of the IBE setup
+     * @param tatePairing a Tate-pairing instance
+     * @param hashToPointCache a cache of identity points or {@code null} to disable caching
+     * @param precomputationStore a store of precomputed identity values or {@code null} to compute them on demand
+     */
+    BonehFranklinIdentityPairing(final PublicParameters publicParameters, final TatePairing tatePairing,
+                                 final HashToPointCache hashToPointCache,
+                                 final IdentityPrecomputationStore precomputationStore) {
+        this.publicParameters = publicParameters;
+        this.tatePairing = tatePairing;
+        this.hashToPointCache = hashToPointCache;
+        this.precomputationStore = precomputationStore;
+    }
+
+    /**
+     * Computes theta = Pairing(E, p, q, P_pub, Q_id) for the identity, where Q_id = HashToPoint(E, p, q, id, hashfcn),
+     * or takes it from the precomputation store if the identity is stored there.
+     */
+    Complex theta(final String identity, final MessageDigest messageDigest) {
+        if (precomputationStore != null) {
+            final Optional<IdentityPrecomputation> precomputation = precomputationStore.lookup(identity);
+
+            if (precomputation.isPresent()) {
+                return precomputation.get().getTheta();
+            }
+        }
+
+        // Q_id = HashToPoint(E, p, q, id, hashfcn), using Algorithm 4.4.1 (HashToPoint), which results in a point of
+        // order q in E(F_p).
+        final AffinePoint pointQId = hashIdentityToPoint(identity, messageDigest);
+
+        return tatePairing.performPairing(publicParameters.getPointPpublic(), pointQId);
+    }
+
+    private AffinePoint hashIdentityToPoint(final String identity, final MessageDigest messageDigest) {
+        final Supplier<AffinePoint> hashToPoint = () -> HashUtils.hashToPoint(publicParameters.getEllipticCurve(),
+                publicParameters.getEllipticCurve().getFieldOrder(), publicParameters.getQ(), identity, messageDigest);
+
+        return hashToPointCache == null ? hashToPoint.get() : hashToPointCache.obtain(publicParameters, identity, hashToPoint);
+    }
+}
@@ -1,27 +1,47 @@
 package cryptid.ibe.bonehfranklin;
 
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.multiplier.BatchAffineScalarMultiplier;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.cache.HashToPointCache;
+import cryptid.ibe.domain.IdentityPrivateKey;
 import cryptid.util.MessageDigestFactory;
 import cryptid.ibe.domain.PrivateKey;
 import cryptid.ibe.PrivateKeyGenerator;
 import cryptid.ibe.domain.PublicParameters;
 
 import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static cryptid.ibe.util.HashUtils.hashToPoint;
+import static cryptid.ibe.util.HashUtils.hashToRange;
 
 /**
  * Boneh-Franklin (RFC 5091) implementation of {@link PrivateKeyGenerator}.
  */
 final class BonehFranklinPrivateKeyGeneratorImpl extends PrivateKeyGenerator {
+    /*
+     * The number of identities processed in lockstep by a single worker in extractAll.
+     */
+    private static final int EXTRACTION_BATCH_SIZE = 64;
+
     private final MessageDigestFactory messageDigestFactory;
+    private final HashToPointCache hashToPointCache;
 
     BonehFranklinPrivateKeyGeneratorImpl(final PublicParameters publicParameters, final BigInteger masterSecret,
-                                         final MessageDigestFactory messageDigestFactory) {
+                                         final MessageDigestFactory messageDigestFactory,
+                                         final HashToPointCache hashToPointCache) {
         super(publicParameters, masterSecret);
 
         this.messageDigestFactory = messageDigestFactory;
+        this.hashToPointCache = hashToPointCache;
     }
 
     @Override
@@ -29,10 +49,69 @@ final class BonehFranklinPrivateKeyGeneratorImpl extends PrivateKeyGenerator {
         Objects.requireNonNull(identity);
 
         //Let Q_id = HashToPoint(E, p, q, id, hashfcn)
-        final AffinePoint qId = hashToPoint(publicParameters.getEllipticCurve(),
-                publicParameters.getEllipticCurve().getFieldOrder(), publicParameters.getQ(), identity, messageDigestFactory.obtainInstance());
+        final AffinePoint qId = identityPoint(identity);
 
         //Let S_id = [s]Q_id
-        return new PrivateKey(qId.multiply(masterSecret, publicParameters.getEllipticCurve()));
+        return new PrivateKey(publicParameters.getEllipticCurve().multiply(qId, masterSecret));
+    }
+
+    /**
+     * Gets Q_id from the cache or computes it. Precomputation stores are never used here, as a point replaced in
+     * the store would make the generator extract the private key of another identity.
+     */
+    private AffinePoint identityPoint(final String identity) {
+        final Supplier<AffinePoint> hashToPoint = () -> hashToPoint(publicParameters.getEllipticCurve(),
+                publicParameters.getEllipticCurve().getFieldOrder(), publicParameters.getQ(), identity, messageDigestFactory.obtainInstance());
+
+        return hashToPointCache == null
+                ? hashToPoint.get() : hashToPointCache.obtain(publicParameters, identity, hashToPoint);
+    }
+
+    /**
+     * Extracts the private keys in batches of {@value #EXTRACTION_BATCH_SIZE} identities, each batch being processed
+     * by a worker of the common fork-join pool. Within a batch, the scalar multiplications are run in lockstep with
+     * {@link BatchAffineScalarMultiplier}, sharing the field inversions across the batch.
+     * @param identities the identities to get the private keys of
+     * @return a parallel stream of the identities paired with their private keys
+     */
+    @Override
+    public Stream<IdentityPrivateKey> extractAll(final Collection<String> identities) {
+        Objects.requireNonNull(identities);
+
+        final List<String> identityList = new ArrayList<>(identities);
+        final int batchCount = (identityList.size() + EXTRACTION_BATCH_SIZE - 1) / EXTRACTION_BATCH_SIZE;
+
+        return IntStream.range(0, batchCount)
+                .parallel()
+                .mapToObj(batch -> identityList.subList(batch * EXTRACTION_BATCH_SIZE,
+                        Math.min((batch + 1) * EXTRACTION_BATCH_SIZE, identityList.size())))
+                .flatMap(batch -> extractBatch(batch).stream());
+    }
+
+    private List<IdentityPrivateKey> extractBatch(final List<String> identities) {
+        final TypeOneEllipticCurve ellipticCurve = publicParameters.getEllipticCurve();
+        final BigInteger p = ellipticCurve.getFieldOrder();
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        // Let Q' = (x, y), where y = HashToRange(id, p, hashfcn) and x = (y^2 - 1)^((2 * p - 1) / 3), that is, the
+        // steps of HashToPoint before the cofactor multiplication.
+        final List<AffinePoint> points = new ArrayList<>(identities.size());
+        for (final String identity : identities) {
+            Objects.requireNonNull(identity);
+
+            final BigInteger y = hashToRange(identity.getBytes(), p, messageDigest);
+            points.add(new AffinePoint(ellipticCurve.solveForX(y), y));
+        }
+
+        // S_id = [s]Q_id = [s * (p + 1) / q]Q', the two multiplications of extract are merged into one.
+        final BigInteger scalar = p.add(BigInteger.ONE).divide(publicParameters.getQ()).multiply(masterSecret);
+        final List<AffinePoint> keys = new BatchAffineScalarMultiplier(ellipticCurve).multiplyAll(points, scalar);
+
+        final List<IdentityPrivateKey> result = new ArrayList<>(identities.size());
+        for (int i = 0; i < identities.size(); ++i) {
+            result.add(new IdentityPrivateKey(identities.get(i), new PrivateKey(keys.get(i))));
+        }
+
+        return result;
     }
 }
@@ -0,0 +1,319 @@
+package cryptid.ibe.cache;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe, bounded cache of the symmetric keys recovered from key encapsulations on the receiver side. Session
+ * style traffic carries the same encapsulation on many messages, and with this cache only the first of them pays
+ * for the subgroup check and the pairing.
+ *
+ * The entries are keyed by a SHA-256 digest of the fingerprint of the public parameters, the encapsulation and the
+ * private key, thus neither the private keys nor the encapsulations are retained by the cache, and a key recovered
+ * with one private key is never returned for another one. Only successful decapsulations are cached. Entries expire
+ * after their time to live, and once the cache holds the maximum number of entries, the entries selected by the
+ * {@link EvictionPolicy} are evicted. The cached keys are zeroed whenever they are removed from the cache, and
+ * callers are always handed copies.
+ */
+public final class DecapsulationCache {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final int maximumSize;
+    private final Duration timeToLive;
+    private final EvictionPolicy<? super Key> evictionPolicy;
+    private final Clock clock;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /*
+     * Guards insertions and removals, so the cache never exceeds its maximum size. Lookups do not need it.
+     */
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Constructs a new cache evicting the least recently used entries.
+     * @param maximumSize the maximum number of entries
+     * @param timeToLive the time after which an entry expires
+     * @throws IllegalArgumentException if the maximum size or the time to live is not positive
+     * @throws NullPointerException if the time to live is {@code null}
+     */
+    public DecapsulationCache(final int maximumSize, final Duration timeToLive) {
+        this(maximumSize, timeToLive, new LeastRecentlyUsedEvictionPolicy<>());
+    }
+
+    /**
+     * Constructs a new cache using the specified eviction policy. The policy should not be shared between caches.
+     * @param maximumSize the maximum number of entries
+     * @param timeToLive the time after which an entry expires
+     * @param evictionPolicy the eviction policy
+     * @throws IllegalArgumentException if the maximum size or the time to live is not positive
+     * @throws NullPointerException if the time to live or the eviction policy is {@code null}
+     */
+    public DecapsulationCache(final int maximumSize, final Duration timeToLive,
+                              final EvictionPolicy<? super Key> evictionPolicy) {
+        this(maximumSize, timeToLive, evictionPolicy, Clock.systemUTC());
+    }
+
+    DecapsulationCache(final int maximumSize, final Duration timeToLive, final EvictionPolicy<? super Key> evictionPolicy,
+                       final Clock clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive!");
+        }
+
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("The time to live must be positive!");
+        }
+
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.evictionPolicy = Objects.requireNonNull(evictionPolicy);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Returns a copy of the cached key of the specified encapsulation or recovers and caches it, if it is not
+     * present or has expired. The decapsulation is performed outside of any lock, thus concurrent misses for the
+     * same encapsulation might decapsulate it more than once.
+     * @param publicParameters the public parameters the encapsulation belongs to
+     * @param privateKey the private key of the receiver
+     * @param encapsulation the encapsulation of the key
+     * @param decapsulation recovers the key if it is not cached
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return an Optional with the key or an empty Optional if the decapsulation failed
+     */
+    public Optional<byte[]> obtain(final PublicParameters publicParameters, final PrivateKey privateKey,
+                                   final AffinePoint encapsulation, final Supplier<Optional<byte[]>> decapsulation) {
+        Objects.requireNonNull(decapsulation);
+
+        final Key key = Key.of(publicParameters, privateKey, encapsulation);
+        final Instant now = clock.instant();
+
+        final Entry cached = entries.get(key);
+        if (cached != null) {
+            final byte[] value = cached.copy(now);
+
+            if (value != null) {
+                hitCount.increment();
+                evictionPolicy.recordAccess(key);
+
+                return Optional.of(value);
+            }
+
+            remove(key, cached);
+        }
+
+        missCount.increment();
+
+        final Optional<byte[]> recovered = Objects.requireNonNull(decapsulation.get());
+        recovered.ifPresent(value -> insert(key, new Entry(value.clone(), now.plus(timeToLive))));
+
+        return recovered;
+    }
+
+    /**
+     * Removes and zeroes every expired entry. Expired entries are also removed when they are looked up.
+     */
+    public void purgeExpired() {
+        final Instant now = clock.instant();
+
+        entries.forEach((key, entry) -> {
+            if (entry.isExpired(now)) {
+                remove(key, entry);
+            }
+        });
+    }
+
+    /**
+     * Removes and zeroes all entries of the cache. The hit and miss counts are left intact.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            entries.values().forEach(Entry::destroy);
+            entries.clear();
+            evictionPolicy.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entries currently in the cache, including the expired ones that have not been removed yet.
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the maximum number of entries in the cache.
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Gets the number of lookups that found the key in the cache.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to decapsulate the key.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private void insert(final Key key, final Entry entry) {
+        synchronized (evictionLock) {
+            final Entry previous = entries.put(key, entry);
+
+            if (previous != null) {
+                previous.destroy();
+            } else {
+                evictionPolicy.recordInsertion(key);
+            }
+
+            while (entries.size() > maximumSize) {
+                final Object victim = evictionPolicy.selectVictim();
+                if (victim == null) {
+                    break;
+                }
+
+                final Entry evicted = entries.remove(victim);
+                if (evicted != null) {
+                    evicted.destroy();
+                }
+
+                evictionPolicy.recordRemoval((Key) victim);
+            }
+        }
+    }
+
+    private void remove(final Key key, final Entry entry) {
+        synchronized (evictionLock) {
+            if (entries.remove(key, entry)) {
+                entry.destroy();
+                evictionPolicy.recordRemoval(key);
+            }
+        }
+    }
+
+    /**
+     * A cached key and its expiry. Copying and zeroing are mutually exclusive, so a lookup racing with an eviction
+     * never observes a partially zeroed key.
+     */
+    private static final class Entry {
+        private final byte[] value;
+        private final Instant expiresAt;
+        private boolean destroyed;
+
+        private Entry(final byte[] value, final Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+
+        /**
+         * Returns a copy of the key or {@code null} if the entry has expired or has been destroyed.
+         */
+        private synchronized byte[] copy(final Instant now) {
+            return destroyed || isExpired(now) ? null : value.clone();
+        }
+
+        private synchronized void destroy() {
+            destroyed = true;
+            Arrays.fill(value, (byte) 0);
+        }
+    }
+
+    /**
+     * Key of a cache entry: the digest of the fingerprint of the public parameters, the encapsulation and the
+     * private key.
+     */
+    public static final class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private Key(final byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        private static Key of(final PublicParameters publicParameters, final PrivateKey privateKey,
+                              final AffinePoint encapsulation) {
+            final MessageDigest messageDigest;
+
+            try {
+                messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256.
+                throw new IllegalStateException(e);
+            }
+
+            messageDigest.update(publicParameters.getFingerprint());
+            update(messageDigest, encapsulation);
+            update(messageDigest, privateKey.getData());
+
+            return new Key(messageDigest.digest());
+        }
+
+        /**
+         * Digests both coordinates as they are, so that an unreduced encoding of a point never maps to the entry
+         * of the reduced point.
+         */
+        private static void update(final MessageDigest messageDigest, final AffinePoint point) {
+            if (AffinePoint.isInfinity(point)) {
+                messageDigest.update((byte) 0);
+                return;
+            }
+
+            final byte[] x = point.getX().toByteArray();
+            final byte[] y = point.getY().toByteArray();
+
+            messageDigest.update(ByteBuffer.allocate(2 * Integer.BYTES).putInt(x.length).putInt(y.length).array());
+            messageDigest.update(x);
+            messageDigest.update(y);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return MessageDigest.isEqual(digest, that.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
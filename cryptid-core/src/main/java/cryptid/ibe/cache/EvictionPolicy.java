@@ -0,0 +1,40 @@
+package cryptid.ibe.cache;
+
+/**
+ * Policy deciding which entry should be evicted from a bounded cache. The cache notifies the policy about insertions,
+ * accesses and removals of keys, and asks it for a victim whenever the cache exceeds its maximum size.
+ *
+ * Implementations must be thread-safe, as the cache might be notified from multiple threads concurrently.
+ * @param <K> the type of the keys
+ */
+public interface EvictionPolicy<K> {
+    /**
+     * Called after a new key has been inserted into the cache.
+     * @param key the inserted key
+     */
+    void recordInsertion(K key);
+
+    /**
+     * Called after a key has been found in the cache.
+     * @param key the accessed key
+     */
+    void recordAccess(K key);
+
+    /**
+     * Called after a key has been removed from the cache.
+     * @param key the removed key
+     */
+    void recordRemoval(K key);
+
+    /**
+     * Selects the key which should be evicted next. The returned key should be one that has been inserted but has
+     * not been removed yet.
+     * @return the key to evict or {@code null} if there are no keys to evict
+     */
+    K selectVictim();
+
+    /**
+     * Called after all keys have been removed from the cache.
+     */
+    void clear();
+}
@@ -0,0 +1,179 @@
+package cryptid.ibe.cache;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.PublicParameters;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe, bounded cache mapping identities to the points {@code Q_id = HashToPoint(E, p, q, id, hashfcn)}.
+ *
+ * As {@code Q_id} only depends on the identity and the public parameters, the entries are keyed by the identity
+ * bytes together with the fingerprint of the public parameters (see {@link PublicParameters#getFingerprint()}),
+ * thus a single cache can be shared by clients and private key generators of different setups. Once the cache holds
+ * the maximum number of entries, the entries selected by the {@link EvictionPolicy} are evicted.
+ */
+public final class HashToPointCache {
+    private final int maximumSize;
+    private final EvictionPolicy<? super Key> evictionPolicy;
+
+    private final ConcurrentMap<Key, AffinePoint> entries = new ConcurrentHashMap<>();
+
+    /*
+     * Guards insertions and evictions, so the cache never exceeds its maximum size. Lookups do not need it.
+     */
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Constructs a new cache evicting the least recently used entries.
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public HashToPointCache(final int maximumSize) {
+        this(maximumSize, new LeastRecentlyUsedEvictionPolicy<>());
+    }
+
+    /**
+     * Constructs a new cache using the specified eviction policy. The policy should not be shared between caches.
+     * @param maximumSize the maximum number of entries
+     * @param evictionPolicy the eviction policy
+     * @throws IllegalArgumentException if the maximum size is not positive
+     * @throws NullPointerException if the eviction policy is {@code null}
+     */
+    public HashToPointCache(final int maximumSize, final EvictionPolicy<? super Key> evictionPolicy) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive!");
+        }
+
+        this.maximumSize = maximumSize;
+        this.evictionPolicy = Objects.requireNonNull(evictionPolicy);
+    }
+
+    /**
+     * Returns the cached point of the specified identity or computes and caches it, if it is not present. The
+     * computation is performed outside of any lock, thus concurrent misses for the same identity might compute the
+     * point more than once.
+     * @param publicParameters the public parameters the point belongs to
+     * @param identity the identity
+     * @param hashToPoint computes the point if it is not cached
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return the point of the identity
+     */
+    public AffinePoint obtain(final PublicParameters publicParameters, final String identity,
+                              final Supplier<AffinePoint> hashToPoint) {
+        Objects.requireNonNull(hashToPoint);
+
+        final Key key = new Key(publicParameters.getFingerprint(), identity.getBytes());
+
+        final AffinePoint cached = entries.get(key);
+        if (cached != null) {
+            hitCount.increment();
+            evictionPolicy.recordAccess(key);
+
+            return cached;
+        }
+
+        missCount.increment();
+
+        final AffinePoint point = Objects.requireNonNull(hashToPoint.get());
+
+        synchronized (evictionLock) {
+            final AffinePoint previous = entries.putIfAbsent(key, point);
+            if (previous != null) {
+                return previous;
+            }
+
+            evictionPolicy.recordInsertion(key);
+
+            while (entries.size() > maximumSize) {
+                final Object victim = evictionPolicy.selectVictim();
+                if (victim == null) {
+                    break;
+                }
+
+                entries.remove(victim);
+                evictionPolicy.recordRemoval((Key) victim);
+            }
+        }
+
+        return point;
+    }
+
+    /**
+     * Removes all entries from the cache. The hit and miss counts are left intact.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            entries.clear();
+            evictionPolicy.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entries currently in the cache.
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the maximum number of entries in the cache.
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the number of lookups that found the point in the cache.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to compute the point.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Key of a cache entry: the fingerprint of the public parameters and the identity bytes.
+     */
+    public static final class Key {
+        private final byte[] fingerprint;
+        private final byte[] identity;
+        private final int hashCode;
+
+        private Key(final byte[] fingerprint, final byte[] identity) {
+            this.fingerprint = fingerprint;
+            this.identity = identity;
+            this.hashCode = 31 * Arrays.hashCode(fingerprint) + Arrays.hashCode(identity);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return Arrays.equals(fingerprint, that.fingerprint) && Arrays.equals(identity, that.identity);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
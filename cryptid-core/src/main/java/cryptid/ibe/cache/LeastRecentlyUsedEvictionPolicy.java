@@ -0,0 +1,73 @@
+package cryptid.ibe.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eviction policy that evicts the least recently used key.
+ *
+ * Accesses are recorded without locking, so that the hits of a cache shared by many threads do not serialize: every
+ * key carries the value of an access-order counter at its last insertion or access. The victim is the key with the
+ * lowest value, found by scanning the keys, which takes time linear in the size of the cache. A victim is only
+ * selected when an insertion overflows the cache, that is after a miss, whose computation outweighs the scan.
+ * @param <K> the type of the keys
+ */
+public final class LeastRecentlyUsedEvictionPolicy<K> implements EvictionPolicy<K> {
+    private final ConcurrentMap<K, Stamp> stamps = new ConcurrentHashMap<>();
+    private final AtomicLong accessCounter = new AtomicLong();
+
+    @Override
+    public void recordInsertion(final K key) {
+        stamps.put(key, new Stamp(accessCounter.incrementAndGet()));
+    }
+
+    @Override
+    public void recordAccess(final K key) {
+        final Stamp stamp = stamps.get(key);
+
+        // The key might have been removed concurrently, in which case the access is ignored.
+        if (stamp != null) {
+            stamp.lastAccess = accessCounter.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void recordRemoval(final K key) {
+        stamps.remove(key);
+    }
+
+    @Override
+    public K selectVictim() {
+        K victim = null;
+        long oldest = Long.MAX_VALUE;
+
+        for (final Map.Entry<K, Stamp> entry : stamps.entrySet()) {
+            final long lastAccess = entry.getValue().lastAccess;
+
+            if (lastAccess < oldest) {
+                oldest = lastAccess;
+                victim = entry.getKey();
+            }
+        }
+
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        stamps.clear();
+    }
+
+    /**
+     * The value of the access-order counter at the last insertion or access of a key.
+     */
+    private static final class Stamp {
+        private volatile long lastAccess;
+
+        private Stamp(final long lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Caches that can be shared between IBE components.
+ */
+package cryptid.ibe.cache;
@@ -0,0 +1,55 @@
+package cryptid.ibe.domain;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of a single record of a batch operation: either a value or the exception the record failed with.
+ * @param <T> the type of the value
+ */
+public final class BatchResult<T> {
+    private final T value;
+    private final RuntimeException failure;
+
+    private BatchResult(T value, RuntimeException failure) {
+        this.value = value;
+        this.failure = failure;
+    }
+
+    /**
+     * Creates a successful result.
+     * @param value the value
+     * @param <T> the type of the value
+     * @return a result holding the value
+     */
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(Objects.requireNonNull(value), null);
+    }
+
+    /**
+     * Creates a failed result.
+     * @param failure the exception the record failed with
+     * @param <T> the type of the value
+     * @return a result holding the exception
+     */
+    public static <T> BatchResult<T> failure(RuntimeException failure) {
+        return new BatchResult<>(null, Objects.requireNonNull(failure));
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    public Optional<T> getValue() {
+        return Optional.ofNullable(value);
+    }
+
+    public Optional<RuntimeException> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "BatchResult{value=" + value + "}" : "BatchResult{failure=" + failure + "}";
+    }
+}
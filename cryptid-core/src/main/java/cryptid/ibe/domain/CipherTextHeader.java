@@ -0,0 +1,91 @@
+package cryptid.ibe.domain;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code U} and {@code V} components of a ciphertext whose {@code W} component is streamed separately, along
+ * with the length of {@code W} and the mask generation mode. Together with {@code W}, it is equivalent to a
+ * {@link CipherTextTuple}.
+ */
+public class CipherTextHeader {
+    private final AffinePoint cipherU;
+    private final byte[] cipherV;
+    private final long cipherWLength;
+    private final MaskGenerationMode maskGenerationMode;
+
+    public CipherTextHeader(AffinePoint cipherU, byte[] cipherV, long cipherWLength, MaskGenerationMode maskGenerationMode) {
+        if (cipherWLength < 0) {
+            throw new IllegalArgumentException("The length of W must not be negative!");
+        }
+
+        this.cipherU = Objects.requireNonNull(cipherU);
+        this.cipherV = Objects.requireNonNull(cipherV);
+        this.cipherWLength = cipherWLength;
+        this.maskGenerationMode = Objects.requireNonNull(maskGenerationMode);
+    }
+
+    /**
+     * Combines the header with the specified {@code W} component.
+     * @param cipherW the {@code W} component
+     * @throws IllegalArgumentException if the length of {@code W} does not match the header
+     * @return the complete ciphertext
+     */
+    public CipherTextTuple withCipherW(byte[] cipherW) {
+        if (cipherW.length != cipherWLength) {
+            throw new IllegalArgumentException("The length of W does not match the header!");
+        }
+
+        return new CipherTextTuple(cipherU, cipherV, cipherW, maskGenerationMode);
+    }
+
+    public AffinePoint getCipherU() {
+        return cipherU;
+    }
+
+    public byte[] getCipherV() {
+        return cipherV;
+    }
+
+    public long getCipherWLength() {
+        return cipherWLength;
+    }
+
+    public MaskGenerationMode getMaskGenerationMode() {
+        return maskGenerationMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CipherTextHeader that = (CipherTextHeader) o;
+
+        if (cipherWLength != that.cipherWLength) return false;
+        if (!cipherU.equals(that.cipherU)) return false;
+        if (!Arrays.equals(cipherV, that.cipherV)) return false;
+        return maskGenerationMode == that.maskGenerationMode;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cipherU.hashCode();
+        result = 31 * result + Arrays.hashCode(cipherV);
+        result = 31 * result + Long.hashCode(cipherWLength);
+        result = 31 * result + maskGenerationMode.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CipherTextHeader{" +
+                "cipherU=" + cipherU +
+                ", cipherV=" + Arrays.toString(cipherV) +
+                ", cipherWLength=" + cipherWLength +
+                ", maskGenerationMode=" + maskGenerationMode +
+                '}';
+    }
+}
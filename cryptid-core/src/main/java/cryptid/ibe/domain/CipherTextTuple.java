@@ -12,11 +12,20 @@ public class CipherTextTuple {
     private final AffinePoint cipherU;
     private final byte[] cipherV;
     private final byte[] cipherW;
+    private final MaskGenerationMode maskGenerationMode;
 
+    /**
+     * Constructs a new ciphertext whose mask was generated in {@link MaskGenerationMode#HASH_CHAIN} mode.
+     */
     public CipherTextTuple(AffinePoint cipherU, byte[] cipherV, byte[] cipherW) {
+        this(cipherU, cipherV, cipherW, MaskGenerationMode.HASH_CHAIN);
+    }
+
+    public CipherTextTuple(AffinePoint cipherU, byte[] cipherV, byte[] cipherW, MaskGenerationMode maskGenerationMode) {
         this.cipherU = Objects.requireNonNull(cipherU);
         this.cipherV = Objects.requireNonNull(cipherV);
         this.cipherW = Objects.requireNonNull(cipherW);
+        this.maskGenerationMode = Objects.requireNonNull(maskGenerationMode);
     }
 
     public AffinePoint getCipherU() {
@@ -31,6 +40,10 @@ public class CipherTextTuple {
         return cipherW;
     }
 
+    public MaskGenerationMode getMaskGenerationMode() {
+        return maskGenerationMode;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -40,7 +53,8 @@ public class CipherTextTuple {
 
         if (!cipherU.equals(that.cipherU)) return false;
         if (!Arrays.equals(cipherV, that.cipherV)) return false;
-        return Arrays.equals(cipherW, that.cipherW);
+        if (!Arrays.equals(cipherW, that.cipherW)) return false;
+        return maskGenerationMode == that.maskGenerationMode;
     }
 
     @Override
@@ -48,6 +62,7 @@ public class CipherTextTuple {
         int result = cipherU.hashCode();
         result = 31 * result + Arrays.hashCode(cipherV);
         result = 31 * result + Arrays.hashCode(cipherW);
+        result = 31 * result + maskGenerationMode.hashCode();
         return result;
     }
 
@@ -57,6 +72,7 @@ public class CipherTextTuple {
                 "cipherU=" + cipherU +
                 ", cipherV=" + Arrays.toString(cipherV) +
                 ", cipherW=" + Arrays.toString(cipherW) +
+                ", maskGenerationMode=" + maskGenerationMode +
                 '}';
     }
 }
@@ -0,0 +1,45 @@
+package cryptid.ibe.domain;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The message and identity independent part of a key encapsulation: a random scalar r and a point derived from it,
+ * which can be computed ahead of time. For Boneh-Franklin, the point is the encapsulation {@code U = [r]P} itself,
+ * for Sakai-Kasahara it is {@code [r]P_pub}. The scalar is secret and can be used for a single encapsulation only.
+ */
+public final class EncapsulationRandomness {
+    private final BigInteger r;
+    private final AffinePoint encapsulation;
+    private final AtomicBoolean consumed;
+
+    public EncapsulationRandomness(BigInteger r, AffinePoint encapsulation) {
+        this.r = Objects.requireNonNull(r);
+        this.encapsulation = Objects.requireNonNull(encapsulation);
+        this.consumed = new AtomicBoolean();
+    }
+
+    /**
+     * Gets the scalar for an encapsulation, marking it as used.
+     * @throws IllegalStateException if the scalar has already been used
+     * @return the scalar r
+     */
+    public BigInteger consume() {
+        if (consumed.getAndSet(true)) {
+            throw new IllegalStateException("The encapsulation randomness has already been used!");
+        }
+
+        return r;
+    }
+
+    public AffinePoint getEncapsulation() {
+        return encapsulation;
+    }
+
+    public boolean isConsumed() {
+        return consumed.get();
+    }
+}
@@ -0,0 +1,39 @@
+package cryptid.ibe.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A message to be encrypted for an identity, a single record of a batch encryption.
+ */
+public final class EncryptionRequest {
+    private final String identity;
+    private final byte[] message;
+
+    /**
+     * Constructs a new request.
+     * @param identity the identity of the recipient
+     * @param message the binary message
+     */
+    public EncryptionRequest(String identity, byte[] message) {
+        this.identity = Objects.requireNonNull(identity);
+        this.message = Objects.requireNonNull(message);
+    }
+
+    /**
+     * Constructs a new request for a text message, which is encoded as UTF-8.
+     * @param identity the identity of the recipient
+     * @param message the text message
+     */
+    public EncryptionRequest(String identity, String message) {
+        this(identity, Objects.requireNonNull(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public byte[] getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,43 @@
+package cryptid.ibe.domain;
+
+import java.util.Objects;
+
+/**
+ * Immutable class pairing an identity with its private key.
+ */
+public final class IdentityPrivateKey {
+    private final String identity;
+    private final PrivateKey privateKey;
+
+    /**
+     * Constructs a new instance.
+     * @param identity the identity
+     * @param privateKey the private key of the identity
+     */
+    public IdentityPrivateKey(String identity, PrivateKey privateKey) {
+        this.identity = Objects.requireNonNull(identity);
+        this.privateKey = Objects.requireNonNull(privateKey);
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdentityPrivateKey that = (IdentityPrivateKey) o;
+        return Objects.equals(identity, that.identity) &&
+                Objects.equals(privateKey, that.privateKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identity, privateKey);
+    }
+}
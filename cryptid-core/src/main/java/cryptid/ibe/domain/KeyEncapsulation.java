@@ -0,0 +1,26 @@
+package cryptid.ibe.domain;
+
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.util.Objects;
+
+/**
+ * The result of a key encapsulation: a fresh symmetric key and its encapsulation, which is sent to the receiver.
+ */
+public final class KeyEncapsulation {
+    private final AffinePoint encapsulation;
+    private final byte[] key;
+
+    public KeyEncapsulation(AffinePoint encapsulation, byte[] key) {
+        this.encapsulation = Objects.requireNonNull(encapsulation);
+        this.key = Objects.requireNonNull(key);
+    }
+
+    public AffinePoint getEncapsulation() {
+        return encapsulation;
+    }
+
+    public byte[] getKey() {
+        return key;
+    }
+}
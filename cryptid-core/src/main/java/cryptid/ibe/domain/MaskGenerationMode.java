@@ -0,0 +1,20 @@
+package cryptid.ibe.domain;
+
+/**
+ * Specifies how the mask hiding the message in the {@code W} component of a ciphertext is generated from the seed
+ * {@code rho}.
+ */
+public enum MaskGenerationMode {
+    /**
+     * The mask is generated by Algorithm 4.2.1 (HashBytes) of RFC 5091, where every block depends on the previous
+     * one, thus the blocks must be generated sequentially.
+     */
+    HASH_CHAIN,
+
+    /**
+     * Having {@code K = hashfcn(rho)}, the i-th block of the mask is {@code hashfcn(K || i)}, where i is a 32-bit
+     * big-endian counter starting at 1. The blocks are independent of each other, thus they can be generated in
+     * parallel.
+     */
+    COUNTER
+}
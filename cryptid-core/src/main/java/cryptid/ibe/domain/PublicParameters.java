@@ -4,17 +4,23 @@ import cryptid.ellipticcurve.TypeOneEllipticCurve;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
 
 /**
  * Immutable class holding the public parameters of an IBE setup.
  */
 public final class PublicParameters {
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
     private final TypeOneEllipticCurve ellipticCurve;
     private final BigInteger q;
     private final AffinePoint pointP;
     private final AffinePoint pointPpublic;
     private final String hashFunction;
+    private final byte[] fingerprint;
 
     public PublicParameters(TypeOneEllipticCurve ellipticCurve, BigInteger q, AffinePoint pointP, AffinePoint pointPpublic, String hashFunction) {
         this.ellipticCurve = Objects.requireNonNull(ellipticCurve);
@@ -22,6 +28,7 @@ public final class PublicParameters {
         this.pointP = Objects.requireNonNull(pointP);
         this.pointPpublic = Objects.requireNonNull(pointPpublic);
         this.hashFunction = Objects.requireNonNull(hashFunction);
+        this.fingerprint = computeFingerprint();
     }
 
     public TypeOneEllipticCurve getEllipticCurve() {
@@ -41,4 +48,41 @@ public final class PublicParameters {
     }
 
     public String getHashFunction() { return hashFunction; }
+
+    /**
+     * Gets the fingerprint of the public parameters, that is, the SHA-256 digest of the hash function, the field
+     * order, the subgroup order and the compressed points P and P_pub. Public parameters describing the same setup
+     * have the same fingerprint.
+     * @return the fingerprint
+     */
+    public byte[] getFingerprint() {
+        return fingerprint.clone();
+    }
+
+    private byte[] computeFingerprint() {
+        final MessageDigest messageDigest;
+
+        try {
+            messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+
+        final byte[] hashFunctionBytes = hashFunction.getBytes(StandardCharsets.UTF_8);
+        final byte[] fieldOrderBytes = ellipticCurve.getFieldOrder().toByteArray();
+        final byte[] qBytes = q.toByteArray();
+
+        // Length-prefixed, so that different parameters cannot produce the same input.
+        for (final byte[] field : new byte[][] { hashFunctionBytes, fieldOrderBytes, qBytes }) {
+            messageDigest.update((byte) (field.length >>> 8));
+            messageDigest.update((byte) field.length);
+            messageDigest.update(field);
+        }
+
+        messageDigest.update(pointP.toCompressedBytes(ellipticCurve));
+        messageDigest.update(pointPpublic.toCompressedBytes(ellipticCurve));
+
+        return messageDigest.digest();
+    }
 }
@@ -0,0 +1,14 @@
+package cryptid.ibe.exception;
+
+/**
+ * Exception produced when a ciphertext is rejected during decryption.
+ */
+public class DecryptionException extends Exception {
+    public DecryptionException(String message) {
+        super(message);
+    }
+
+    public DecryptionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
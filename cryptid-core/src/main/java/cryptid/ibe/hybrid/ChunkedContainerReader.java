@@ -0,0 +1,147 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ibe.exception.DecryptionException;
+import cryptid.ibe.util.ChannelChunks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static cryptid.ibe.hybrid.HybridChunks.TAG_LENGTH;
+
+/**
+ * Random-access reader of a container produced by {@link ParallelHybridCipher}, obtained from
+ * {@link ParallelHybridCipher#open}. Only the chunks overlapping the requested range are read and decrypted, in
+ * parallel. Every chunk is authenticated before any of its plaintext is written.
+ *
+ * Instances are not thread-safe, as they move the position of the underlying channel. Closing the reader erases
+ * the symmetric key, but does not close the channel.
+ */
+public final class ChunkedContainerReader implements Closeable {
+    private final ParallelHybridCipher cipher;
+    private final SeekableByteChannel container;
+    private final byte[] key;
+    private final byte[] header;
+    private final int chunkSize;
+    private final long size;
+
+    ChunkedContainerReader(final ParallelHybridCipher cipher, final SeekableByteChannel container, final byte[] key,
+                           final byte[] header, final int chunkSize, final long size) {
+        this.cipher = cipher;
+        this.container = container;
+        this.key = key;
+        this.header = header;
+        this.chunkSize = chunkSize;
+        this.size = size;
+    }
+
+    /**
+     * Gets the length of the plaintext.
+     * @return the length of the plaintext in octets
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Decrypts the specified range of the plaintext into the output channel. The output channel must be in blocking
+     * mode, an output that stops accepting data fails the decryption with an {@link IOException}.
+     * @param offset the offset of the first octet to decrypt
+     * @param length the number of octets to decrypt
+     * @param output the channel to write the plaintext into
+     * @throws IndexOutOfBoundsException if the range is not within the plaintext
+     * @throws DecryptionException if a chunk within the range was tampered with; the plaintext of the preceding
+     *         chunks has already been written in this case
+     * @throws IOException if reading the container or writing the output fails
+     */
+    public void decrypt(final long offset, final long length, final WritableByteChannel output) throws IOException, DecryptionException {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("The range is not within the plaintext!");
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        final long firstChunk = offset / chunkSize;
+        final long lastChunk = (offset + length - 1) / chunkSize;
+        final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+        long chunk = firstChunk;
+        long nextToWrite = firstChunk;
+
+        try {
+            while (nextToWrite <= lastChunk) {
+                if (chunk <= lastChunk && pending.size() < cipher.getMaximumPendingChunks()) {
+                    final long index = chunk++;
+                    final int ciphertextLength = (int) Math.min(chunkSize, size - index * chunkSize) + TAG_LENGTH;
+                    final byte[] ciphertext = new byte[ciphertextLength];
+
+                    ParallelHybridCipher.readFully(container, header.length + index * (chunkSize + TAG_LENGTH),
+                            ciphertext, ciphertextLength);
+
+                    pending.addLast(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return ParallelHybridCipher.openChunk(key, index, header, ciphertext, ciphertextLength);
+                        } catch (DecryptionException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, cipher.getExecutor()));
+
+                    continue;
+                }
+
+                final byte[] plaintext = join(pending.removeFirst());
+                final long chunkStart = nextToWrite++ * chunkSize;
+
+                try {
+                    final int from = (int) (Math.max(offset, chunkStart) - chunkStart);
+                    final int to = (int) (Math.min(offset + length, chunkStart + plaintext.length) - chunkStart);
+
+                    ChannelChunks.writeFully(output, plaintext, from, to - from);
+                } finally {
+                    Arrays.fill(plaintext, (byte) 0);
+                }
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
+    }
+
+    /**
+     * Decrypts the whole plaintext into the output channel, which must be in blocking mode.
+     * @param output the channel to write the plaintext into
+     * @throws DecryptionException if a chunk was tampered with
+     * @throws IOException if reading the container or writing the output fails
+     */
+    public void decryptAll(final WritableByteChannel output) throws IOException, DecryptionException {
+        decrypt(0, size, output);
+    }
+
+    @Override
+    public void close() {
+        Arrays.fill(key, (byte) 0);
+    }
+
+    private static byte[] join(final CompletableFuture<byte[]> future) throws DecryptionException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DecryptionException) {
+                throw (DecryptionException) e.getCause();
+            }
+
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cryptid.ibe.hybrid;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * AES-GCM helpers shared by the hybrid formats.
+ */
+final class HybridChunks {
+    static final int TAG_LENGTH = 16;
+
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final String KEY_ALGORITHM = "AES";
+    private static final int NONCE_LENGTH = 12;
+
+    private HybridChunks() {
+        // Cannot be constructed.
+    }
+
+    static Cipher obtainCipher() {
+        try {
+            return Cipher.getInstance(CIPHER_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            // Every Java platform is required to support AES/GCM/NoPadding.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Initializes the cipher for a record. The nonce is the 64-bit big-endian index of the record followed by
+     * three zero octets and a format specific flag octet.
+     */
+    static void initCipher(final Cipher cipher, final int mode, final byte[] key, final long index, final byte flag,
+                           final byte[] header) throws GeneralSecurityException {
+        final byte[] nonce = ByteBuffer.allocate(NONCE_LENGTH)
+                .putLong(index)
+                .put(NONCE_LENGTH - 1, flag)
+                .array();
+
+        cipher.init(mode, new SecretKeySpec(key, KEY_ALGORITHM), new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce));
+        cipher.updateAAD(header);
+    }
+
+    /**
+     * Reads into the buffer until it holds the specified number of octets or the end of the stream is reached.
+     * @return the number of octets read
+     */
+    static int readChunk(final InputStream input, final byte[] buffer, final int length) throws IOException {
+        int read = 0;
+
+        while (read < length) {
+            final int count = input.read(buffer, read, length - read);
+
+            if (count < 0) {
+                break;
+            }
+
+            read += count;
+        }
+
+        return read;
+    }
+}
@@ -0,0 +1,95 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.exception.DecryptionException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * The header shared by the hybrid formats: a format specific magic number, the version, the chunk size and the
+ * compressed encapsulation of the key. The serialized header is authenticated by every chunk.
+ */
+final class HybridHeader {
+    private static final int VERSION = 1;
+
+    private final int magic;
+    private final int chunkSize;
+    private final byte[] encapsulation;
+
+    HybridHeader(final int magic, final int chunkSize, final byte[] encapsulation) {
+        this.magic = magic;
+        this.chunkSize = chunkSize;
+        this.encapsulation = encapsulation;
+    }
+
+    /**
+     * Reads and validates a header.
+     * @throws DecryptionException if the header is malformed or truncated
+     */
+    static HybridHeader read(final InputStream input, final int magic, final TypeOneEllipticCurve ellipticCurve)
+            throws IOException, DecryptionException {
+        final DataInputStream headerInput = new DataInputStream(input);
+        final byte[] encapsulation = new byte[AffinePoint.compressedLength(ellipticCurve)];
+
+        try {
+            if (headerInput.readInt() != magic || headerInput.readUnsignedByte() != VERSION) {
+                throw new DecryptionException("Unsupported ciphertext format!");
+            }
+
+            final int chunkSize = headerInput.readInt();
+            if (chunkSize < StreamingHybridCipher.MIN_CHUNK_SIZE || chunkSize > StreamingHybridCipher.MAX_CHUNK_SIZE
+                    || headerInput.readUnsignedShort() != encapsulation.length) {
+                throw new DecryptionException("Malformed ciphertext header!");
+            }
+
+            headerInput.readFully(encapsulation);
+
+            return new HybridHeader(magic, chunkSize, encapsulation);
+        } catch (EOFException e) {
+            throw new DecryptionException("Truncated ciphertext header!", e);
+        }
+    }
+
+    /**
+     * Recovers the symmetric key from the encapsulation.
+     * @throws DecryptionException if the encapsulation is rejected
+     */
+    byte[] decapsulate(final IbeKem kem, final PrivateKey privateKey) throws DecryptionException {
+        final Optional<byte[]> key;
+
+        try {
+            key = kem.decapsulate(privateKey,
+                    AffinePoint.fromCompressedBytes(encapsulation, kem.getPublicParameters().getEllipticCurve()));
+        } catch (RuntimeException e) {
+            throw new DecryptionException("Malformed key encapsulation!", e);
+        }
+
+        return key.orElseThrow(() -> new DecryptionException("Invalid key encapsulation!"));
+    }
+
+    byte[] toBytes() {
+        return ByteBuffer.allocate(length())
+                .putInt(magic)
+                .put((byte) VERSION)
+                .putInt(chunkSize)
+                .putShort((short) encapsulation.length)
+                .put(encapsulation)
+                .array();
+    }
+
+    int length() {
+        return Integer.BYTES + 1 + Integer.BYTES + Short.BYTES + encapsulation.length;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+}
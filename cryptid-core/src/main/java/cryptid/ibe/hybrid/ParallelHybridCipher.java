@@ -0,0 +1,307 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.exception.DecryptionException;
+import cryptid.ibe.util.ChannelChunks;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static cryptid.ibe.hybrid.HybridChunks.TAG_LENGTH;
+import static cryptid.ibe.hybrid.HybridChunks.initCipher;
+import static cryptid.ibe.hybrid.HybridChunks.obtainCipher;
+import static cryptid.ibe.hybrid.HybridChunks.readChunk;
+
+/**
+ * Hybrid cipher producing seekable containers, whose chunks are encrypted and decrypted in parallel. Like
+ * {@link StreamingHybridCipher}, it encapsulates a fresh AES key for the identity and encrypts the data with
+ * AES-GCM in fixed-size chunks, but every chunk is independent of the others, so any byte range can be decrypted
+ * without touching the rest of the container.
+ *
+ * The container consists of
+ * <ul>
+ *     <li>the header (magic, version, chunk size and the encapsulation of the key),</li>
+ *     <li>the chunks, all of them holding exactly chunk size octets of plaintext except for the last one, each
+ *     followed by its authentication tag, with the nonce derived from the index of the chunk,</li>
+ *     <li>the trailing index: the length of the plaintext and the number of chunks, encrypted as a separate record
+ *     with its own nonce.</li>
+ * </ul>
+ * As the chunks have a fixed size, the offset of every chunk follows from its index, so the index only has to
+ * record the extent of the data. Being authenticated, it lets the reader detect truncated or extended containers
+ * before decrypting anything. The header is authenticated by every record.
+ *
+ * The input is read and the output is written by the calling thread, while the chunks are processed on the
+ * executor, with a bounded number of chunks in flight, so the memory used is independent of the length of the
+ * data. Instances are thread-safe if the underlying key encapsulation mechanism is.
+ */
+public final class ParallelHybridCipher {
+    private static final int MAGIC = 0x43494443;
+
+    /*
+     * The flags distinguishing the nonces of the chunks from the nonce of the index.
+     */
+    private static final byte CHUNK = 0;
+    private static final byte INDEX = 1;
+
+    /*
+     * The index holds the plaintext length and the chunk count, both 64-bit integers.
+     */
+    private static final int INDEX_PLAINTEXT_LENGTH = 2 * Long.BYTES;
+    static final int INDEX_LENGTH = INDEX_PLAINTEXT_LENGTH + TAG_LENGTH;
+
+    private final IbeKem kem;
+    private final int chunkSize;
+    private final Executor executor;
+    private final int maximumPendingChunks;
+
+    /**
+     * Constructs a new cipher with the default chunk size, running on the common fork-join pool with twice as many
+     * chunks in flight as there are processors.
+     * @param kem the key encapsulation mechanism to use
+     */
+    public ParallelHybridCipher(final IbeKem kem) {
+        this(kem, StreamingHybridCipher.DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(),
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new cipher.
+     * @param kem the key encapsulation mechanism to use
+     * @param chunkSize the number of plaintext octets in a chunk, between
+     *                  {@value StreamingHybridCipher#MIN_CHUNK_SIZE} and {@value StreamingHybridCipher#MAX_CHUNK_SIZE}
+     * @param executor the executor processing the chunks
+     * @param maximumPendingChunks the maximum number of chunks being processed at the same time
+     * @throws IllegalArgumentException if the chunk size is out of range or the number of pending chunks is not
+     *         positive
+     * @throws NullPointerException if the key encapsulation mechanism or the executor is {@code null}
+     */
+    public ParallelHybridCipher(final IbeKem kem, final int chunkSize, final Executor executor, final int maximumPendingChunks) {
+        if (chunkSize < StreamingHybridCipher.MIN_CHUNK_SIZE || chunkSize > StreamingHybridCipher.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("The chunk size must be between " + StreamingHybridCipher.MIN_CHUNK_SIZE
+                    + " and " + StreamingHybridCipher.MAX_CHUNK_SIZE + "!");
+        }
+
+        if (maximumPendingChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk must be allowed to be pending!");
+        }
+
+        this.kem = Objects.requireNonNull(kem);
+        this.chunkSize = chunkSize;
+        this.executor = Objects.requireNonNull(executor);
+        this.maximumPendingChunks = maximumPendingChunks;
+    }
+
+    /**
+     * Encrypts the contents of the input channel for the specified identity, writing the container into the output
+     * channel. Neither channel is closed. The output channel must be in blocking mode, an output that stops accepting
+     * data fails the encryption with an {@link IOException}.
+     * @param identity the identity of the receiver
+     * @param input the plaintext
+     * @param output the channel to write the container into
+     * @throws IOException if reading or writing fails
+     */
+    public void encrypt(final String identity, final ReadableByteChannel input, final WritableByteChannel output) throws IOException {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(output);
+
+        final KeyEncapsulation keyEncapsulation = kem.encapsulate(identity);
+        final byte[] key = keyEncapsulation.getKey();
+        final byte[] header = new HybridHeader(MAGIC, chunkSize,
+                keyEncapsulation.getEncapsulation().toCompressedBytes(kem.getPublicParameters().getEllipticCurve()))
+                .toBytes();
+
+        ChannelChunks.writeFully(output, header, header.length);
+
+        final InputStream inputStream = Channels.newInputStream(input);
+        final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+        long plaintextLength = 0;
+        long chunkCount = 0;
+
+        try {
+            while (true) {
+                final byte[] plaintext = new byte[chunkSize];
+                final int length = readChunk(inputStream, plaintext, chunkSize);
+
+                if (length == 0) {
+                    break;
+                }
+
+                final long index = chunkCount++;
+                plaintextLength += length;
+
+                pending.addLast(CompletableFuture.supplyAsync(
+                        () -> seal(key, index, CHUNK, header, plaintext, length), executor));
+
+                if (pending.size() >= maximumPendingChunks) {
+                    final byte[] ciphertext = join(pending.removeFirst());
+                    ChannelChunks.writeFully(output, ciphertext, ciphertext.length);
+                }
+
+                if (length < chunkSize) {
+                    break;
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                final byte[] ciphertext = join(pending.removeFirst());
+                ChannelChunks.writeFully(output, ciphertext, ciphertext.length);
+            }
+
+            final byte[] index = ByteBuffer.allocate(INDEX_PLAINTEXT_LENGTH)
+                    .putLong(plaintextLength)
+                    .putLong(chunkCount)
+                    .array();
+
+            final byte[] sealedIndex = seal(key, 0, INDEX, header, index, index.length);
+            ChannelChunks.writeFully(output, sealedIndex, sealedIndex.length);
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    /**
+     * Opens the specified container for random-access decryption with the specified private key. The trailing
+     * index is authenticated right away, so truncated or extended containers, and containers encrypted for another
+     * identity are rejected here.
+     * @param privateKey the private key of the receiver
+     * @param container the container, which must remain open while the returned reader is used
+     * @throws DecryptionException if the container is malformed, was tampered with or was not encrypted for the
+     *         identity of the private key
+     * @throws IOException if reading the container fails
+     * @return a reader of the plaintext
+     */
+    public ChunkedContainerReader open(final PrivateKey privateKey, final SeekableByteChannel container)
+            throws IOException, DecryptionException {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(container);
+
+        container.position(0);
+        final HybridHeader hybridHeader = HybridHeader.read(Channels.newInputStream(container), MAGIC,
+                kem.getPublicParameters().getEllipticCurve());
+        final byte[] key = hybridHeader.decapsulate(kem, privateKey);
+        final byte[] header = hybridHeader.toBytes();
+
+        final long containerLength = container.size();
+        if (containerLength < header.length + INDEX_LENGTH) {
+            throw new DecryptionException("Truncated container!");
+        }
+
+        final byte[] sealedIndex = new byte[INDEX_LENGTH];
+        readFully(container, containerLength - INDEX_LENGTH, sealedIndex, INDEX_LENGTH);
+
+        final ByteBuffer index = ByteBuffer.wrap(openRecord(key, 0, INDEX, header, sealedIndex, INDEX_LENGTH));
+        final long plaintextLength = index.getLong();
+        final long chunkCount = index.getLong();
+
+        final long chunkSize = hybridHeader.getChunkSize();
+        if (plaintextLength < 0 || chunkCount != (plaintextLength + chunkSize - 1) / chunkSize
+                || containerLength != header.length + plaintextLength + chunkCount * TAG_LENGTH + INDEX_LENGTH) {
+            throw new DecryptionException("The container does not match its index!");
+        }
+
+        return new ChunkedContainerReader(this, container, key, header, hybridHeader.getChunkSize(), plaintextLength);
+    }
+
+    /**
+     * Gets the number of plaintext octets in a chunk.
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    int getMaximumPendingChunks() {
+        return maximumPendingChunks;
+    }
+
+    /**
+     * Encrypts the plaintext of a chunk, zeroing out the plaintext afterwards.
+     */
+    private static byte[] seal(final byte[] key, final long index, final byte flag, final byte[] header,
+                               final byte[] plaintext, final int length) {
+        try {
+            final Cipher cipher = obtainCipher();
+            initCipher(cipher, Cipher.ENCRYPT_MODE, key, index, flag, header);
+
+            return cipher.doFinal(plaintext, 0, length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypts and authenticates a chunk of the specified container.
+     * @throws DecryptionException if the chunk cannot be authenticated
+     */
+    static byte[] openChunk(final byte[] key, final long index, final byte[] header,
+                            final byte[] ciphertext, final int length) throws DecryptionException {
+        return openRecord(key, index, CHUNK, header, ciphertext, length);
+    }
+
+    private static byte[] openRecord(final byte[] key, final long index, final byte flag, final byte[] header,
+                                     final byte[] ciphertext, final int length) throws DecryptionException {
+        try {
+            final Cipher cipher = obtainCipher();
+            initCipher(cipher, Cipher.DECRYPT_MODE, key, index, flag, header);
+
+            return cipher.doFinal(ciphertext, 0, length);
+        } catch (AEADBadTagException e) {
+            throw new DecryptionException("The container could not be authenticated!", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Waits for the result of a chunk, rethrowing the exception of the chunk if it failed.
+     */
+    static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    static void readFully(final SeekableByteChannel channel, final long position, final byte[] destination,
+                          final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(destination, 0, length);
+
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of the container!");
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ibe.agreement.IdentityKeyAgreement;
+import cryptid.ibe.exception.DecryptionException;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Authenticated encryption of messages between two users of the same setup, using the key they share through an
+ * {@link IdentityKeyAgreement}. Only the first message to or from a peer needs a pairing, every other one is
+ * encrypted with AES-GCM alone, and no key encapsulation is sent along with the messages.
+ *
+ * Every message holds a random salt, its key is {@code HashBytes(32, sharedKey || salt, hashfcn)}, and the header
+ * of the message, the identity of the sender and the identity of the receiver are authenticated as additional
+ * data, so a message is only accepted by the peer it was sent to, and not by its sender. Messages are not protected
+ * against being replayed or reordered, which is left to the application. Instances are thread-safe.
+ */
+public final class PeerMessageCipher {
+    private static final int MAGIC = 0x43494450;
+    private static final int VERSION = 1;
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH = 32;
+    private static final int HEADER_LENGTH = Integer.BYTES + 1 + SALT_LENGTH;
+    private static final long INDEX = 0L;
+    private static final byte MESSAGE = 0;
+
+    private final IdentityKeyAgreement keyAgreement;
+    private final SecureRandom secureRandom;
+    private final MessageDigestFactory messageDigestFactory;
+
+    /**
+     * Constructs a new cipher.
+     * @param keyAgreement the key agreement of the own identity
+     * @param secureRandom the source of the salts
+     */
+    public PeerMessageCipher(final IdentityKeyAgreement keyAgreement, final SecureRandom secureRandom) {
+        this.keyAgreement = Objects.requireNonNull(keyAgreement);
+        this.secureRandom = Objects.requireNonNull(secureRandom);
+
+        try {
+            this.messageDigestFactory = MessageDigestFactory.forAlgorithm(
+                    keyAgreement.getPublicParameters().getHashFunction());
+        } catch (NoSuchAlgorithmException e) {
+            // The key agreement could not have been constructed without the hash function.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encrypts a message for the specified peer.
+     * @param peerIdentity the identity of the receiver
+     * @param message the message to encrypt
+     * @return the encrypted message
+     * @throws IllegalArgumentException if the identity of the peer is empty
+     */
+    public byte[] encrypt(final String peerIdentity, final byte[] message) {
+        Objects.requireNonNull(peerIdentity);
+        Objects.requireNonNull(message);
+
+        final byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+
+        final byte[] header = ByteBuffer.allocate(HEADER_LENGTH)
+                .putInt(MAGIC)
+                .put((byte) VERSION)
+                .put(salt)
+                .array();
+        final byte[] messageKey = deriveMessageKey(keyAgreement.sharedKey(peerIdentity), salt);
+        final ByteBuffer output = ByteBuffer.allocate(header.length + message.length + HybridChunks.TAG_LENGTH);
+
+        try {
+            final Cipher cipher = HybridChunks.obtainCipher();
+            HybridChunks.initCipher(cipher, Cipher.ENCRYPT_MODE, messageKey, INDEX, MESSAGE, header);
+            cipher.updateAAD(direction(keyAgreement.getIdentity(), peerIdentity));
+
+            output.put(header);
+            cipher.doFinal(ByteBuffer.wrap(message), output);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(messageKey, (byte) 0);
+        }
+
+        return output.array();
+    }
+
+    /**
+     * Decrypts a message received from the specified peer.
+     * @param peerIdentity the identity of the sender
+     * @param ciphertext the encrypted message
+     * @return the message
+     * @throws DecryptionException if the message is malformed, was tampered with or was not sent by the peer to
+     *         the own identity
+     * @throws IllegalArgumentException if the identity of the peer is empty
+     */
+    public byte[] decrypt(final String peerIdentity, final byte[] ciphertext) throws DecryptionException {
+        Objects.requireNonNull(peerIdentity);
+        Objects.requireNonNull(ciphertext);
+
+        final ByteBuffer input = ByteBuffer.wrap(ciphertext);
+        final byte[] salt = new byte[SALT_LENGTH];
+
+        try {
+            if (input.getInt() != MAGIC || Byte.toUnsignedInt(input.get()) != VERSION) {
+                throw new DecryptionException("Unsupported ciphertext format!");
+            }
+
+            input.get(salt);
+        } catch (BufferUnderflowException e) {
+            throw new DecryptionException("Truncated ciphertext header!", e);
+        }
+
+        if (input.remaining() < HybridChunks.TAG_LENGTH) {
+            throw new DecryptionException("Malformed ciphertext!");
+        }
+
+        final byte[] messageKey = deriveMessageKey(keyAgreement.sharedKey(peerIdentity), salt);
+
+        try {
+            final Cipher cipher = HybridChunks.obtainCipher();
+            HybridChunks.initCipher(cipher, Cipher.DECRYPT_MODE, messageKey, INDEX, MESSAGE,
+                    Arrays.copyOf(ciphertext, HEADER_LENGTH));
+            cipher.updateAAD(direction(peerIdentity, keyAgreement.getIdentity()));
+
+            return cipher.doFinal(ciphertext, HEADER_LENGTH, input.remaining());
+        } catch (AEADBadTagException e) {
+            throw new DecryptionException("The ciphertext could not be authenticated!", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(messageKey, (byte) 0);
+        }
+    }
+
+    /**
+     * The key of a message is {@code HashBytes(32, sharedKey || salt, hashfcn)}.
+     */
+    private byte[] deriveMessageKey(final byte[] sharedKey, final byte[] salt) {
+        final byte[] seed = ByteBuffer.allocate(sharedKey.length + salt.length)
+                .put(sharedKey)
+                .put(salt)
+                .array();
+
+        try {
+            return HashUtils.hashBytes(KEY_LENGTH, seed, messageDigestFactory.obtainInstance());
+        } finally {
+            Arrays.fill(sharedKey, (byte) 0);
+            Arrays.fill(seed, (byte) 0);
+        }
+    }
+
+    /**
+     * Encodes the direction of a message as {@code len(sender) || sender || len(receiver) || receiver}.
+     */
+    private static byte[] direction(final String sender, final String receiver) {
+        final byte[] encodedSender = sender.getBytes(StandardCharsets.UTF_8);
+        final byte[] encodedReceiver = receiver.getBytes(StandardCharsets.UTF_8);
+
+        return ByteBuffer.allocate(2 * Integer.BYTES + encodedSender.length + encodedReceiver.length)
+                .putInt(encodedSender.length)
+                .put(encodedSender)
+                .putInt(encodedReceiver.length)
+                .put(encodedReceiver)
+                .array();
+    }
+}
@@ -0,0 +1,376 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.exception.DecryptionException;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hybrid cipher for sending many short messages to the same identities. Instead of encapsulating a fresh key for
+ * every message, a session key is encapsulated once per receiver identity and reused for the following messages,
+ * until the session expires or its maximum number of messages is reached. Thus, only the first message of a
+ * session needs a pairing, the rest are encrypted with AES-GCM alone.
+ *
+ * Every message is self-contained: it holds the encapsulation of the session key, the index of the message within
+ * the session and the ciphertext. The key of a message is derived from the session key and the index, and the
+ * header of the message is authenticated as additional data. Sessions are kept per instance, so an instance
+ * corresponds to a single sender; messages of different instances never share a session key.
+ *
+ * Reusing a session key means that compromising it exposes every message of the session, which is bounded by the
+ * window lifetime and the maximum number of messages. Session keys are zeroed once their session is replaced or
+ * closed, and {@link #purgeExpiredSessions()} ends the sessions that can no longer be used, so that keys of idle
+ * identities do not linger. Instances are thread-safe if the underlying key encapsulation mechanism is.
+ */
+public final class SessionHybridCipher {
+    /**
+     * The default lifetime of a session.
+     */
+    public static final Duration DEFAULT_WINDOW_LIFETIME = Duration.ofMinutes(5);
+
+    /**
+     * The default maximum number of messages encrypted with a session key.
+     */
+    public static final long DEFAULT_MAXIMUM_MESSAGES = 10000L;
+
+    private static final int MAGIC = 0x43494453;
+    private static final int VERSION = 1;
+    private static final int KEY_LENGTH = 32;
+    private static final byte MESSAGE = 0;
+
+    private final IbeKem kem;
+    private final Duration windowLifetime;
+    private final long maximumMessages;
+    private final Clock clock;
+    private final MessageDigestFactory messageDigestFactory;
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new cipher with the default window lifetime and maximum number of messages.
+     * @param kem the key encapsulation mechanism to use
+     */
+    public SessionHybridCipher(final IbeKem kem) {
+        this(kem, DEFAULT_WINDOW_LIFETIME, DEFAULT_MAXIMUM_MESSAGES);
+    }
+
+    /**
+     * Constructs a new cipher.
+     * @param kem the key encapsulation mechanism to use
+     * @param windowLifetime the time after which a new session key is encapsulated for an identity
+     * @param maximumMessages the number of messages after which a new session key is encapsulated for an identity
+     * @throws NullPointerException if the mechanism or the lifetime is {@code null}
+     * @throws IllegalArgumentException if the lifetime or the maximum number of messages is not positive
+     */
+    public SessionHybridCipher(final IbeKem kem, final Duration windowLifetime, final long maximumMessages) {
+        this(kem, windowLifetime, maximumMessages, Clock.systemUTC());
+    }
+
+    SessionHybridCipher(final IbeKem kem, final Duration windowLifetime, final long maximumMessages, final Clock clock) {
+        if (windowLifetime.isNegative() || windowLifetime.isZero()) {
+            throw new IllegalArgumentException("The window lifetime must be positive!");
+        }
+
+        if (maximumMessages < 1) {
+            throw new IllegalArgumentException("The maximum number of messages must be positive!");
+        }
+
+        this.kem = Objects.requireNonNull(kem);
+        this.windowLifetime = windowLifetime;
+        this.maximumMessages = maximumMessages;
+        this.clock = Objects.requireNonNull(clock);
+
+        try {
+            this.messageDigestFactory = MessageDigestFactory.forAlgorithm(kem.getPublicParameters().getHashFunction());
+        } catch (NoSuchAlgorithmException e) {
+            // The mechanism could not have been constructed without the hash function.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encrypts a message for the specified identity, reusing the current session of the identity, or starting a
+     * new one if there is none or it has expired or is exhausted.
+     * @param identity the identity of the receiver
+     * @param message the message to encrypt
+     * @return the encrypted message
+     */
+    public byte[] encrypt(final String identity, final byte[] message) {
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(message);
+
+        Session session;
+        long index;
+        byte[] sessionKey;
+
+        do {
+            session = obtainSession(identity, clock.instant());
+            index = session.counter.getAndIncrement();
+            // The key is null if the session has been replaced or closed concurrently.
+            sessionKey = index < maximumMessages ? session.copyKey() : null;
+        } while (sessionKey == null);
+
+        final byte[] header = header(session.encapsulation, index);
+        final byte[] messageKey;
+
+        try {
+            messageKey = deriveMessageKey(sessionKey, index);
+        } finally {
+            Arrays.fill(sessionKey, (byte) 0);
+        }
+
+        final ByteBuffer output = ByteBuffer.allocate(header.length + message.length + HybridChunks.TAG_LENGTH);
+
+        try {
+            final Cipher cipher = HybridChunks.obtainCipher();
+            HybridChunks.initCipher(cipher, Cipher.ENCRYPT_MODE, messageKey, index, MESSAGE, header);
+
+            output.put(header);
+            cipher.doFinal(ByteBuffer.wrap(message), output);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(messageKey, (byte) 0);
+        }
+
+        return output.array();
+    }
+
+    /**
+     * Decrypts a message with the specified private key.
+     * @param privateKey the private key of the receiver
+     * @param ciphertext the encrypted message
+     * @return the message
+     * @throws DecryptionException if the message is malformed, was tampered with or was not encrypted for the
+     *         identity of the private key
+     */
+    public byte[] decrypt(final PrivateKey privateKey, final byte[] ciphertext) throws DecryptionException {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(ciphertext);
+
+        final TypeOneEllipticCurve ellipticCurve = kem.getPublicParameters().getEllipticCurve();
+        final byte[] encapsulation = new byte[AffinePoint.compressedLength(ellipticCurve)];
+        final ByteBuffer input = ByteBuffer.wrap(ciphertext);
+        final long index;
+
+        try {
+            if (input.getInt() != MAGIC || Byte.toUnsignedInt(input.get()) != VERSION) {
+                throw new DecryptionException("Unsupported ciphertext format!");
+            }
+
+            if (Short.toUnsignedInt(input.getShort()) != encapsulation.length) {
+                throw new DecryptionException("Malformed ciphertext header!");
+            }
+
+            input.get(encapsulation);
+            index = input.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new DecryptionException("Truncated ciphertext header!", e);
+        }
+
+        if (index < 0 || input.remaining() < HybridChunks.TAG_LENGTH) {
+            throw new DecryptionException("Malformed ciphertext!");
+        }
+
+        final byte[] sessionKey = decapsulate(privateKey, encapsulation, ellipticCurve);
+        final byte[] messageKey = deriveMessageKey(sessionKey, index);
+
+        try {
+            final Cipher cipher = HybridChunks.obtainCipher();
+            HybridChunks.initCipher(cipher, Cipher.DECRYPT_MODE, messageKey, index, MESSAGE,
+                    Arrays.copyOf(ciphertext, input.position()));
+
+            return cipher.doFinal(ciphertext, input.position(), input.remaining());
+        } catch (AEADBadTagException e) {
+            throw new DecryptionException("The ciphertext could not be authenticated!", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(sessionKey, (byte) 0);
+            Arrays.fill(messageKey, (byte) 0);
+        }
+    }
+
+    /**
+     * Ends the session of the specified identity, so that the next message to it starts a new session.
+     * @param identity the identity of the receiver
+     */
+    public void closeSession(final String identity) {
+        final Session session = sessions.remove(Objects.requireNonNull(identity));
+
+        if (session != null) {
+            session.destroy();
+        }
+    }
+
+    /**
+     * Ends every session, so that the next message to any identity starts a new session.
+     */
+    public void closeAllSessions() {
+        sessions.keySet().forEach(this::closeSession);
+    }
+
+    /**
+     * Ends the expired and exhausted sessions, zeroing their keys. Such sessions are also replaced when their
+     * identities are sent a message.
+     */
+    public void purgeExpiredSessions() {
+        final Instant now = clock.instant();
+
+        sessions.forEach((identity, session) -> {
+            if (!session.isUsable(now) && sessions.remove(identity, session)) {
+                session.destroy();
+            }
+        });
+    }
+
+    /**
+     * Gets the number of sessions that have not been closed yet, including the expired and exhausted ones whose
+     * identities have not been sent a message since, unless they have been purged.
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public Duration getWindowLifetime() {
+        return windowLifetime;
+    }
+
+    public long getMaximumMessages() {
+        return maximumMessages;
+    }
+
+    /**
+     * Gets the usable session of the identity, or starts a new one. The key is encapsulated outside of the map, so
+     * that starting a session does not block the other identities. Concurrent starts for the same identity may
+     * encapsulate more than one key, only the first one installed is kept.
+     */
+    private Session obtainSession(final String identity, final Instant now) {
+        Session started = null;
+
+        while (true) {
+            final Session current = sessions.get(identity);
+
+            if (current != null && current.isUsable(now)) {
+                if (started != null) {
+                    started.destroy();
+                }
+
+                return current;
+            }
+
+            if (started == null) {
+                started = newSession(identity, now);
+            }
+
+            final boolean installed = current == null
+                    ? sessions.putIfAbsent(identity, started) == null
+                    : sessions.replace(identity, current, started);
+
+            if (installed) {
+                if (current != null) {
+                    current.destroy();
+                }
+
+                return started;
+            }
+        }
+    }
+
+    private Session newSession(final String identity, final Instant now) {
+        final KeyEncapsulation keyEncapsulation = kem.encapsulate(identity);
+
+        return new Session(keyEncapsulation.getEncapsulation().toCompressedBytes(kem.getPublicParameters().getEllipticCurve()),
+                keyEncapsulation.getKey(), now.plus(windowLifetime));
+    }
+
+    private byte[] decapsulate(final PrivateKey privateKey, final byte[] encapsulation,
+                               final TypeOneEllipticCurve ellipticCurve) throws DecryptionException {
+        final Optional<byte[]> key;
+
+        try {
+            key = kem.decapsulate(privateKey, AffinePoint.fromCompressedBytes(encapsulation, ellipticCurve));
+        } catch (RuntimeException e) {
+            throw new DecryptionException("Malformed key encapsulation!", e);
+        }
+
+        return key.orElseThrow(() -> new DecryptionException("Invalid key encapsulation!"));
+    }
+
+    /**
+     * The key of a message is {@code HashBytes(32, sessionKey || index, hashfcn)}.
+     */
+    private byte[] deriveMessageKey(final byte[] sessionKey, final long index) {
+        final byte[] seed = ByteBuffer.allocate(sessionKey.length + Long.BYTES)
+                .put(sessionKey)
+                .putLong(index)
+                .array();
+
+        try {
+            return HashUtils.hashBytes(KEY_LENGTH, seed, messageDigestFactory.obtainInstance());
+        } finally {
+            Arrays.fill(seed, (byte) 0);
+        }
+    }
+
+    private static byte[] header(final byte[] encapsulation, final long index) {
+        return ByteBuffer.allocate(Integer.BYTES + 1 + Short.BYTES + encapsulation.length + Long.BYTES)
+                .putInt(MAGIC)
+                .put((byte) VERSION)
+                .putShort((short) encapsulation.length)
+                .put(encapsulation)
+                .putLong(index)
+                .array();
+    }
+
+    /**
+     * The state of a session: the encapsulated key, its expiry and the index of the next message. The index may
+     * run past the maximum number of messages when used concurrently, such indices are never used. The key is only
+     * read through {@link #copyKey()}, so that it is never used after it has been zeroed.
+     */
+    private final class Session {
+        private final byte[] encapsulation;
+        private final byte[] key;
+        private final Instant expiresAt;
+        private final AtomicLong counter = new AtomicLong();
+        private boolean destroyed;
+
+        private Session(final byte[] encapsulation, final byte[] key, final Instant expiresAt) {
+            this.encapsulation = encapsulation;
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isUsable(final Instant now) {
+            return now.isBefore(expiresAt) && counter.get() < maximumMessages;
+        }
+
+        private synchronized byte[] copyKey() {
+            return destroyed ? null : key.clone();
+        }
+
+        private synchronized void destroy() {
+            destroyed = true;
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package cryptid.ibe.hybrid;
+
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.exception.DecryptionException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static cryptid.ibe.hybrid.HybridChunks.TAG_LENGTH;
+import static cryptid.ibe.hybrid.HybridChunks.initCipher;
+import static cryptid.ibe.hybrid.HybridChunks.obtainCipher;
+import static cryptid.ibe.hybrid.HybridChunks.readChunk;
+
+/**
+ * Hybrid cipher that encrypts streams of any length for an identity. The identity-based part only encapsulates a
+ * fresh AES key (a single pairing per message), and the data is encrypted with AES-GCM in fixed-size chunks, so
+ * the memory used is independent of the length of the data.
+ *
+ * The output starts with a header holding the format version, the chunk size and the encapsulation of the key. It
+ * is followed by the chunks, each of which is encrypted and authenticated separately, using the header as
+ * additional authenticated data. The nonce of a chunk is derived from its index and a flag marking the final
+ * chunk (which is always shorter than the chunk size, possibly empty), thus reordering, dropping or truncating
+ * chunks is detected. Decryption only releases the plaintext of a chunk once it has been authenticated.
+ *
+ * Instances are thread-safe if the underlying key encapsulation mechanism is.
+ */
+public final class StreamingHybridCipher {
+    /**
+     * The default chunk size in octets.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The smallest and largest supported chunk sizes in octets. The upper bound also protects decryption from
+     * allocating huge buffers because of a forged header.
+     */
+    public static final int MIN_CHUNK_SIZE = 1024;
+    public static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final int MAGIC = 0x43494448;
+
+    /*
+     * The flags distinguishing the nonces of the final chunk from the others.
+     */
+    private static final byte CHUNK = 0;
+    private static final byte FINAL_CHUNK = 1;
+
+    private final IbeKem kem;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new cipher using the default chunk size.
+     * @param kem the key encapsulation mechanism to use
+     */
+    public StreamingHybridCipher(final IbeKem kem) {
+        this(kem, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new cipher.
+     * @param kem the key encapsulation mechanism to use
+     * @param chunkSize the number of plaintext octets in a chunk, between {@value #MIN_CHUNK_SIZE} and
+     *                  {@value #MAX_CHUNK_SIZE}
+     * @throws IllegalArgumentException if the chunk size is out of range
+     * @throws NullPointerException if the key encapsulation mechanism is {@code null}
+     */
+    public StreamingHybridCipher(final IbeKem kem, final int chunkSize) {
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("The chunk size must be between " + MIN_CHUNK_SIZE + " and "
+                    + MAX_CHUNK_SIZE + "!");
+        }
+
+        this.kem = Objects.requireNonNull(kem);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Encrypts the contents of the input stream for the specified identity, writing the result into the output
+     * stream. Neither stream is closed.
+     * @param identity the identity of the receiver
+     * @param input the plaintext
+     * @param output the stream to write the ciphertext into
+     * @throws IOException if reading or writing fails
+     */
+    public void encrypt(final String identity, final InputStream input, final OutputStream output) throws IOException {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(output);
+
+        final KeyEncapsulation keyEncapsulation = kem.encapsulate(identity);
+        final byte[] header = new HybridHeader(MAGIC, chunkSize,
+                keyEncapsulation.getEncapsulation().toCompressedBytes(kem.getPublicParameters().getEllipticCurve()))
+                .toBytes();
+
+        output.write(header);
+
+        final Cipher cipher = obtainCipher();
+        final byte[] plaintext = new byte[chunkSize];
+        final byte[] ciphertext = new byte[chunkSize + TAG_LENGTH];
+
+        try {
+            for (long index = 0; ; ++index) {
+                final int length = readChunk(input, plaintext, chunkSize);
+                final boolean last = length < chunkSize;
+
+                initCipher(cipher, Cipher.ENCRYPT_MODE, keyEncapsulation.getKey(), index, last ? FINAL_CHUNK : CHUNK, header);
+                final int written = cipher.doFinal(plaintext, 0, length, ciphertext, 0);
+
+                output.write(ciphertext, 0, written);
+
+                if (last) {
+                    return;
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+            Arrays.fill(keyEncapsulation.getKey(), (byte) 0);
+        }
+    }
+
+    /**
+     * Encrypts the contents of the input channel for the specified identity, writing the result into the output
+     * channel. Neither channel is closed.
+     * @param identity the identity of the receiver
+     * @param input the plaintext
+     * @param output the channel to write the ciphertext into
+     * @throws IOException if reading or writing fails
+     */
+    public void encrypt(final String identity, final ReadableByteChannel input, final WritableByteChannel output) throws IOException {
+        encrypt(identity, Channels.newInputStream(input), Channels.newOutputStream(output));
+    }
+
+    /**
+     * Decrypts the contents of the input stream with the specified private key, writing the plaintext into the
+     * output stream. Neither stream is closed. If the ciphertext is rejected, the chunks preceding the offending
+     * chunk have already been written into the output, therefore the output must be discarded on failure.
+     * @param privateKey the private key of the receiver
+     * @param input the ciphertext
+     * @param output the stream to write the plaintext into
+     * @throws DecryptionException if the ciphertext is malformed, truncated, was tampered with or was not encrypted
+     *         for the identity of the private key
+     * @throws IOException if reading or writing fails
+     */
+    public void decrypt(final PrivateKey privateKey, final InputStream input, final OutputStream output) throws IOException, DecryptionException {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(output);
+
+        final HybridHeader hybridHeader = HybridHeader.read(input, MAGIC, kem.getPublicParameters().getEllipticCurve());
+        final byte[] key = hybridHeader.decapsulate(kem, privateKey);
+        final byte[] header = hybridHeader.toBytes();
+        final int chunkLength = hybridHeader.getChunkSize();
+
+        final Cipher cipher = obtainCipher();
+        final byte[] ciphertext = new byte[chunkLength + TAG_LENGTH];
+        final byte[] plaintext = new byte[chunkLength];
+
+        try {
+            for (long index = 0; ; ++index) {
+                final int length = readChunk(input, ciphertext, ciphertext.length);
+                final boolean last = length < ciphertext.length;
+
+                if (length < TAG_LENGTH) {
+                    throw new DecryptionException("Truncated ciphertext!");
+                }
+
+                final int written;
+                try {
+                    initCipher(cipher, Cipher.DECRYPT_MODE, key, index, last ? FINAL_CHUNK : CHUNK, header);
+                    written = cipher.doFinal(ciphertext, 0, length, plaintext, 0);
+                } catch (AEADBadTagException e) {
+                    throw new DecryptionException("The ciphertext could not be authenticated!", e);
+                }
+
+                output.write(plaintext, 0, written);
+
+                if (last) {
+                    return;
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypts the contents of the input channel with the specified private key, writing the plaintext into the
+     * output channel. See {@link #decrypt(PrivateKey, InputStream, OutputStream)} for details.
+     * @param privateKey the private key of the receiver
+     * @param input the ciphertext
+     * @param output the channel to write the plaintext into
+     * @throws DecryptionException if the ciphertext is rejected
+     * @throws IOException if reading or writing fails
+     */
+    public void decrypt(final PrivateKey privateKey, final ReadableByteChannel input, final WritableByteChannel output) throws IOException, DecryptionException {
+        decrypt(privateKey, Channels.newInputStream(input), Channels.newOutputStream(output));
+    }
+
+    /**
+     * Gets the number of plaintext octets in a chunk.
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
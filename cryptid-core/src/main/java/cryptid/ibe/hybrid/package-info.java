@@ -0,0 +1,4 @@
+/**
+ * Hybrid encryption of arbitrarily large data, combining identity-based key encapsulation with a symmetric cipher.
+ */
+package cryptid.ibe.hybrid;
@@ -0,0 +1,76 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.HashUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * The group operations shared by the Sakai-Kasahara components. The pairing {@code g = Pairing(E, p, q, P, P)} is
+ * computed once, so the sender side needs no pairing at all: an identity is hashed to the integer
+ * {@code h_id = HashToRange(id, q, hashfcn)}, and everything else is a scalar multiplication on the curve or an
+ * exponentiation of g.
+ */
+final class SakaiKasaharaGroup {
+    private static final String EMPTY_STRING = "";
+
+    private final PublicParameters publicParameters;
+    private final TatePairing tatePairing;
+    private final Complex g;
+
+    SakaiKasaharaGroup(final PublicParameters publicParameters, final TatePairing tatePairing) {
+        this.publicParameters = publicParameters;
+        this.tatePairing = tatePairing;
+
+        // g = Pairing(E, p, q, P, P), which is not 1 thanks to the distortion map of the modified pairing.
+        this.g = tatePairing.performPairing(publicParameters.getPointP(), publicParameters.getPointP());
+    }
+
+    /**
+     * Computes h_id = HashToRange(id, q, hashfcn).
+     * @throws IllegalArgumentException if the identity is empty
+     */
+    BigInteger hashIdentity(final String identity, final MessageDigest messageDigest) {
+        if (identity.equals(EMPTY_STRING)) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+
+        return HashUtils.hashToRange(identity.getBytes(StandardCharsets.UTF_8), publicParameters.getQ(), messageDigest);
+    }
+
+    /**
+     * Computes {@code U = [l]Q_id}, where {@code Q_id = [h_id]P + P_pub}, as the single interleaved multiplication
+     * {@code [l * h_id]P + [l]P_pub}.
+     */
+    AffinePoint multiplyIdentityPoint(final BigInteger hId, final BigInteger l) {
+        final BigInteger q = publicParameters.getQ();
+
+        return AffinePoint.linearCombination(Arrays.asList(l.multiply(hId).mod(q), l),
+                Arrays.asList(publicParameters.getPointP(), publicParameters.getPointPpublic()),
+                publicParameters.getEllipticCurve());
+    }
+
+    /**
+     * Computes g^l, which is what the receiver obtains as {@code Pairing(E, p, q, [l]Q_id, S_id)}.
+     */
+    Complex powerOfG(final BigInteger l) {
+        return g.modPow(l, publicParameters.getEllipticCurve().getFieldOrder());
+    }
+
+    /**
+     * Computes {@code Pairing(E, p, q, U, S_id)}.
+     */
+    Complex pairing(final AffinePoint cipherPointU, final AffinePoint privateKey) {
+        return tatePairing.performPairing(cipherPointU, privateKey);
+    }
+
+    TatePairing getTatePairing() {
+        return tatePairing;
+    }
+}
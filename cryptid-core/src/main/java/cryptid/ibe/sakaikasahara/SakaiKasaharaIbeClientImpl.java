@@ -0,0 +1,480 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.SubgroupValidator;
+import cryptid.ellipticcurve.pairing.tate.PreparedTatePairing;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.IbeClient;
+import cryptid.ibe.domain.BatchResult;
+import cryptid.ibe.domain.CipherTextHeader;
+import cryptid.ibe.domain.CipherTextTuple;
+import cryptid.ibe.domain.EncryptionRequest;
+import cryptid.ibe.domain.MaskGenerationMode;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.CanonicalUtils;
+import cryptid.ibe.util.ChannelChunks;
+import cryptid.ibe.util.HashUtils;
+import cryptid.ibe.util.MaskGenerator;
+import cryptid.util.MessageDigestFactory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sakai-Kasahara implementation of {@link IbeClient}, using the Fujisaki-Okamoto transformation in the same way as
+ * the Boneh-Franklin FullIdent scheme of RFC 5091, thus the ciphertexts have the same {@code (U, V, W)} form:
+ * <pre>
+ * {@code
+ * t = hashfcn(m), l = HashToRange(rho || t, q, hashfcn)
+ * U = [l]([h_id]P + P_pub)
+ * V = hashfcn(Canonical(p, k, 0, g^l)) XOR rho, where g = Pairing(E, p, q, P, P)
+ * W = HashBytes(|m|, rho, hashfcn) XOR m
+ * }
+ * </pre>
+ * As g is computed once, encryption performs no pairing, only an interleaved scalar multiplication and an
+ * exponentiation in {@code F_p^2}. Decryption computes {@code Pairing(E, p, q, U, S_id) = g^l}, and instead of
+ * recomputing U (which would need the identity), the recovered l is checked by comparing g^l to the pairing. As U is
+ * checked to be a point of order q, and pairing with {@code S_id} is injective on the subgroup, this is equivalent to
+ * checking {@code U = [l]Q_id}.
+ */
+final class SakaiKasaharaIbeClientImpl extends IbeClient {
+    private final SecureRandom secureRandom;
+    private final MessageDigestFactory messageDigestFactory;
+    private final SakaiKasaharaGroup group;
+    private final SubgroupValidator subgroupValidator;
+    private final MaskGenerationMode maskGenerationMode;
+
+    /**
+     * Constructs a new instance.
+     * @param publicParameters the public parameters of the IBE setup
+     * @param secureRandom a cryptographically strong random source
+     * @param messageDigestFactory an appropriate message digest source
+     * @param group the group operations of the setup
+     * @param subgroupValidator a validator for the subgroup of order q
+     * @param maskGenerationMode the mask generation mode of the produced ciphertexts
+     */
+    SakaiKasaharaIbeClientImpl(final PublicParameters publicParameters, final SecureRandom secureRandom,
+                               final MessageDigestFactory messageDigestFactory, final SakaiKasaharaGroup group,
+                               final SubgroupValidator subgroupValidator, final MaskGenerationMode maskGenerationMode) {
+        super(publicParameters);
+
+        this.secureRandom = secureRandom;
+        this.messageDigestFactory = messageDigestFactory;
+        this.group = group;
+        this.subgroupValidator = subgroupValidator;
+        this.maskGenerationMode = maskGenerationMode;
+    }
+
+    @Override
+    public CipherTextTuple encrypt(final ByteBuffer message, final String identity) {
+        checkEncryptArguments(message, identity);
+
+        final int messageStart = message.position();
+        final int messageLength = message.remaining();
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        final BigInteger hId = group.hashIdentity(identity, messageDigest);
+
+        messageDigest.update(message.duplicate());
+        final byte[] t = messageDigest.digest();
+
+        final CipherTextTuple ciphertext = encryptWithIdentity(message, t, hId, messageDigest);
+        message.position(messageStart + messageLength);
+
+        return ciphertext;
+    }
+
+    @Override
+    public List<BatchResult<CipherTextTuple>> encryptAll(final List<EncryptionRequest> requests) {
+        Objects.requireNonNull(requests);
+
+        @SuppressWarnings("unchecked")
+        final BatchResult<CipherTextTuple>[] results = new BatchResult[requests.size()];
+
+        // The indices of the requests, grouped by identity.
+        final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); ++i) {
+            final EncryptionRequest request = requests.get(i);
+
+            if (request == null) {
+                results[i] = BatchResult.failure(new NullPointerException("The request must not be null!"));
+            } else {
+                groups.computeIfAbsent(request.getIdentity(), identity -> new ArrayList<>()).add(i);
+            }
+        }
+
+        groups.entrySet().parallelStream().forEach(identityGroup -> {
+            final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+            final BigInteger hId;
+            try {
+                hId = group.hashIdentity(identityGroup.getKey(), messageDigest);
+            } catch (final RuntimeException e) {
+                identityGroup.getValue().forEach(i -> results[i] = BatchResult.failure(e));
+                return;
+            }
+
+            for (final int i : identityGroup.getValue()) {
+                try {
+                    final ByteBuffer message = ByteBuffer.wrap(requests.get(i).getMessage());
+                    checkEncryptArguments(message, identityGroup.getKey());
+
+                    messageDigest.update(message.duplicate());
+                    final byte[] t = messageDigest.digest();
+
+                    results[i] = BatchResult.success(encryptWithIdentity(message, t, hId, messageDigest));
+                } catch (final RuntimeException e) {
+                    messageDigest.reset();
+                    results[i] = BatchResult.failure(e);
+                }
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Performs the steps of the encryption following t = hashfcn(m). The position of the message is not changed.
+     */
+    private CipherTextTuple encryptWithIdentity(final ByteBuffer message, final byte[] t, final BigInteger hId,
+                                                final MessageDigest messageDigest) {
+        final int messageStart = message.position();
+        final int messageLength = message.remaining();
+
+        final byte[] rho = randomRho(messageDigest);
+
+        // W = HashBytes(|m|, rho, hashfcn) XOR m
+        final byte[] cipherW = generateMask(messageLength, rho, maskGenerationMode, messageDigest);
+        for (int i = 0; i < messageLength; i++) {
+            cipherW[i] ^= message.get(messageStart + i);
+        }
+
+        return encryptHeader(rho, t, messageLength, hId, messageDigest).withCipherW(cipherW);
+    }
+
+    /**
+     * Performs the steps of the encryption producing U and V from rho and t = hashfcn(m).
+     */
+    private CipherTextHeader encryptHeader(final byte[] rho, final byte[] t, final long messageLength,
+                                           final BigInteger hId, final MessageDigest messageDigest) {
+        // l = HashToRange(rho || t, q, hashfcn)
+        final BigInteger l = HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t);
+
+        // U = [l]Q_id
+        final AffinePoint cipherPointU = group.multiplyIdentityPoint(hId, l);
+
+        return new CipherTextHeader(cipherPointU, encryptRho(rho, l, messageDigest), messageLength, maskGenerationMode);
+    }
+
+    /**
+     * Computes V = hashfcn(Canonical(p, k, 0, g^l)) XOR rho.
+     */
+    private byte[] encryptRho(final byte[] rho, final BigInteger l, final MessageDigest messageDigest) {
+        final byte[] w = hashPairingValue(group.powerOfG(l), messageDigest);
+
+        final byte[] cipherV = new byte[w.length];
+        for (int i = 0; i < w.length; i++) {
+            cipherV[i] = (byte) (w[i] ^ rho[i]);
+        }
+
+        return cipherV;
+    }
+
+    @Override
+    public List<CipherTextTuple> encryptForAll(final byte[] message, final List<String> identities) {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(identities);
+
+        if (message.length == 0) {
+            throw new IllegalArgumentException("The message must not be empty!");
+        }
+
+        for (final String identity : identities) {
+            if (Objects.requireNonNull(identity).isEmpty()) {
+                throw new IllegalArgumentException("The identity must not be empty!");
+            }
+        }
+
+        if (identities.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+
+        // Only t is shared. Unlike the single U of Boneh-Franklin, every U depends on the identity, and as the h_id are
+        // public, U_1 - U_2 = [l(h_1 - h_2)]P would reveal [l]P, thus g^l = Pairing([l]P, P), if l were shared.
+        messageDigest.update(message);
+        final byte[] t = messageDigest.digest();
+
+        return identities.parallelStream()
+                .map(identity -> {
+                    final MessageDigest recipientDigest = messageDigestFactory.obtainInstance();
+                    final BigInteger hId = group.hashIdentity(identity, recipientDigest);
+
+                    return encryptWithIdentity(ByteBuffer.wrap(message), t, hId, recipientDigest);
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CipherTextHeader encrypt(final SeekableByteChannel message, final String identity,
+                                    final WritableByteChannel cipherW) throws IOException {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(cipherW);
+
+        final long messageStart = message.position();
+        final long messageLength = message.size() - messageStart;
+
+        if (messageLength <= 0) {
+            throw new IllegalArgumentException("The message must not be empty!");
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        final BigInteger hId = group.hashIdentity(identity, messageDigest);
+
+        // First pass: t = hashfcn(m)
+        ChannelChunks.forEachChunk(message, messageStart, messageLength, (chunk, length) -> messageDigest.update(chunk, 0, length));
+        final byte[] t = messageDigest.digest();
+
+        final byte[] rho = randomRho(messageDigest);
+        final CipherTextHeader header = encryptHeader(rho, t, messageLength, hId, messageDigest);
+
+        // Second pass: W = mask XOR m
+        final MaskGenerator maskGenerator = MaskGenerator.forMode(maskGenerationMode, rho, messageDigest);
+        ChannelChunks.forEachChunk(message, messageStart, messageLength, (chunk, length) -> {
+            maskGenerator.xorInto(chunk, 0, length);
+            ChannelChunks.writeFully(cipherW, chunk, length);
+        });
+
+        message.position(messageStart + messageLength);
+
+        return header;
+    }
+
+    @Override
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextHeader header, final SeekableByteChannel cipherW,
+                           final WritableByteChannel output, final Path stagingDirectory) throws IOException {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(header);
+        Objects.requireNonNull(cipherW);
+        Objects.requireNonNull(output);
+        Objects.requireNonNull(stagingDirectory);
+
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        if (!subgroupValidator.isValid(header.getCipherU())) {
+            return false;
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        if (header.getCipherV().length != messageDigest.getDigestLength()) {
+            return false;
+        }
+
+        final Complex theta = group.pairing(header.getCipherU(), privateKey.getData());
+        final byte[] rho = recoverRho(theta, header.getCipherV(), messageDigest);
+        final MaskGenerator maskGenerator = MaskGenerator.forMode(header.getMaskGenerationMode(), rho,
+                messageDigestFactory.obtainInstance());
+
+        return ChannelChunks.decryptStaged(cipherW, header.getCipherWLength(), maskGenerator, messageDigest,
+                t -> theta.equals(group.powerOfG(HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, t))),
+                output, stagingDirectory);
+    }
+
+    @Override
+    public boolean decrypt(final PrivateKey privateKey, final CipherTextTuple ciphertext, final ByteBuffer destination) {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(ciphertext);
+        Objects.requireNonNull(destination);
+
+        final int start = destination.position();
+        final int length = ciphertext.getCipherW().length;
+
+        if (destination.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (!decryptInto(ciphertext, u -> group.pairing(u, privateKey.getData()), destination)) {
+            return false;
+        }
+
+        destination.position(start + length);
+
+        return true;
+    }
+
+    @Override
+    public Map<PrivateKey, List<Optional<byte[]>>> decryptAll(final Map<PrivateKey, List<CipherTextTuple>> ciphertexts,
+                                                              final Executor executor) {
+        Objects.requireNonNull(ciphertexts);
+        Objects.requireNonNull(executor);
+
+        for (final Map.Entry<PrivateKey, List<CipherTextTuple>> entry : ciphertexts.entrySet()) {
+            Objects.requireNonNull(entry.getKey());
+
+            for (final CipherTextTuple ciphertext : Objects.requireNonNull(entry.getValue())) {
+                Objects.requireNonNull(ciphertext);
+            }
+        }
+
+        final Map<PrivateKey, List<CompletableFuture<Optional<byte[]>>>> futures = new LinkedHashMap<>();
+        for (final Map.Entry<PrivateKey, List<CipherTextTuple>> entry : ciphertexts.entrySet()) {
+            // The pairing is symmetric, so the lines of Miller's algorithm are computed once per key, using S_id as
+            // the first point.
+            final CompletableFuture<PreparedTatePairing> pairing = CompletableFuture.supplyAsync(
+                    () -> group.getTatePairing().prepare(entry.getKey().getData()), executor);
+
+            futures.put(entry.getKey(), entry.getValue().stream()
+                    .map(ciphertext -> pairing.thenApplyAsync(prepared -> {
+                        final byte[] m = new byte[ciphertext.getCipherW().length];
+
+                        return decryptInto(ciphertext, prepared::performPairing, ByteBuffer.wrap(m))
+                                ? Optional.of(m) : Optional.<byte[]>empty();
+                    }, executor))
+                    .collect(Collectors.toList()));
+        }
+
+        final Map<PrivateKey, List<Optional<byte[]>>> result = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<PrivateKey, List<CompletableFuture<Optional<byte[]>>>> entry : futures.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+            }
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Decrypts the ciphertext at the position of the destination without advancing it, using the specified function
+     * computing {@code Pairing(E, p, q, U, S_id)}. On failure, the written octets are zeroed out.
+     */
+    private boolean decryptInto(final CipherTextTuple ciphertext, final Function<AffinePoint, Complex> pairing,
+                                final ByteBuffer destination) {
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        if (!subgroupValidator.isValid(ciphertext.getCipherU())) {
+            return false;
+        }
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        if (ciphertext.getCipherV().length != messageDigest.getDigestLength()) {
+            return false;
+        }
+
+        final Complex theta = pairing.apply(ciphertext.getCipherU());
+        final byte[] rho = recoverRho(theta, ciphertext.getCipherV(), messageDigest);
+
+        // m = HashBytes(|W|, rho, hashfcn) XOR W
+        final int start = destination.position();
+        final byte[] cipherW = ciphertext.getCipherW();
+        final byte[] mask = generateMask(cipherW.length, rho, ciphertext.getMaskGenerationMode(), messageDigest);
+        for (int i = 0; i < cipherW.length; i++) {
+            destination.put(start + i, (byte) (mask[i] ^ cipherW[i]));
+        }
+
+        // t = hashfcn(m), l = HashToRange(rho || t, q, hashfcn)
+        final ByteBuffer m = destination.duplicate();
+        m.limit(start + cipherW.length);
+        messageDigest.update(m);
+        final BigInteger l = HashUtils.hashToRange(publicParameters.getQ(), messageDigest, rho, messageDigest.digest());
+
+        // Verify that Pairing(E, p, q, U, S_id) = g^l, that is, U = [l]Q_id
+        if (theta.equals(group.powerOfG(l))) {
+            return true;
+        }
+
+        for (int i = 0; i < cipherW.length; ++i) {
+            destination.put(start + i, (byte) 0);
+        }
+
+        return false;
+    }
+
+    /**
+     * Recovers rho = hashfcn(Canonical(p, k, 0, theta)) XOR V.
+     */
+    private byte[] recoverRho(final Complex theta, final byte[] cipherV, final MessageDigest messageDigest) {
+        final byte[] w = hashPairingValue(theta, messageDigest);
+
+        final byte[] rho = new byte[w.length];
+        for (int i = 0; i < w.length; i++) {
+            rho[i] = (byte) (w[i] ^ cipherV[i]);
+        }
+
+        return rho;
+    }
+
+    private byte[] hashPairingValue(final Complex theta, final MessageDigest messageDigest) {
+        final byte[] z = CanonicalUtils.canonical(publicParameters.getEllipticCurve().getFieldOrder(),
+                CanonicalUtils.CanonicalOrdering.IMAGINARY_FIRST, theta);
+
+        messageDigest.update(z);
+
+        return messageDigest.digest();
+    }
+
+    private byte[] randomRho(final MessageDigest messageDigest) {
+        final byte[] rho = new byte[messageDigest.getDigestLength()];
+        secureRandom.nextBytes(rho);
+
+        return rho;
+    }
+
+    /**
+     * Generates the mask of the message from the seed rho, either with HashBytes or in counter mode.
+     */
+    private byte[] generateMask(final int length, final byte[] rho, final MaskGenerationMode mode,
+                                final MessageDigest messageDigest) {
+        if (mode == MaskGenerationMode.COUNTER) {
+            return HashUtils.counterHashBytes(length, rho, messageDigestFactory);
+        }
+
+        return HashUtils.hashBytes(length, rho, messageDigest);
+    }
+
+    private void checkEncryptArguments(final ByteBuffer message, final String identity) {
+        Objects.requireNonNull(message);
+        Objects.requireNonNull(identity);
+
+        if (!message.hasRemaining()) {
+            throw new IllegalArgumentException("The message must not be empty!");
+        }
+
+        if (identity.isEmpty()) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.ellipticcurve.SubgroupValidator;
+import cryptid.ellipticcurve.pairing.tate.TatePairingFactory;
+import cryptid.ibe.IbeClient;
+import cryptid.ibe.IbeComponentFactory;
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.PrivateKeyGenerator;
+import cryptid.ibe.domain.MaskGenerationMode;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.exception.ComponentConstructionException;
+import cryptid.util.MessageDigestFactory;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Objects;
+
+/**
+ * Sakai-Kasahara implementation of {@link IbeComponentFactory}. Clients and key encapsulation mechanisms compute
+ * the pairing {@code g = Pairing(E, p, q, P, P)} when they are obtained, thus they should be reused.
+ */
+public class SakaiKasaharaIbeComponentFactoryImpl implements IbeComponentFactory {
+    private final SecureRandom secureRandom;
+    private final MaskGenerationMode maskGenerationMode;
+
+    /**
+     * Constructs a new instance.
+     * @param secureRandom a cryptographically strong random source
+     */
+    public SakaiKasaharaIbeComponentFactoryImpl(final SecureRandom secureRandom) {
+        this(Objects.requireNonNull(secureRandom), MaskGenerationMode.HASH_CHAIN);
+    }
+
+    private SakaiKasaharaIbeComponentFactoryImpl(final SecureRandom secureRandom,
+                                                 final MaskGenerationMode maskGenerationMode) {
+        this.secureRandom = secureRandom;
+        this.maskGenerationMode = maskGenerationMode;
+    }
+
+    /**
+     * Returns a new factory whose clients encrypt using the specified mask generation mode. Clients can decrypt
+     * ciphertexts of any mode, as the mode is recorded in the ciphertext.
+     * @param maskGenerationMode the mask generation mode to use
+     * @throws NullPointerException if the mode is {@code null}
+     * @return a new factory using the mode
+     */
+    public SakaiKasaharaIbeComponentFactoryImpl withMaskGenerationMode(final MaskGenerationMode maskGenerationMode) {
+        return new SakaiKasaharaIbeComponentFactoryImpl(secureRandom, Objects.requireNonNull(maskGenerationMode));
+    }
+
+    @Override
+    public IbeClient obtainClient(final PublicParameters publicParameters) throws ComponentConstructionException {
+        return new SakaiKasaharaIbeClientImpl(publicParameters, secureRandom, messageDigestFactory(publicParameters),
+                group(publicParameters), subgroupValidator(publicParameters), maskGenerationMode);
+    }
+
+    @Override
+    public IbeKem obtainKem(final PublicParameters publicParameters) throws ComponentConstructionException {
+        return new SakaiKasaharaIbeKemImpl(publicParameters, secureRandom, messageDigestFactory(publicParameters),
+                group(publicParameters), subgroupValidator(publicParameters));
+    }
+
+    @Override
+    public PrivateKeyGenerator obtainPrivateKeyGenerator(final PublicParameters publicParameters, final BigInteger masterSecret) throws ComponentConstructionException {
+        return new SakaiKasaharaPrivateKeyGeneratorImpl(publicParameters, masterSecret,
+                messageDigestFactory(publicParameters));
+    }
+
+    private static MessageDigestFactory messageDigestFactory(final PublicParameters publicParameters)
+            throws ComponentConstructionException {
+        try {
+            return MessageDigestFactory.forAlgorithm(publicParameters.getHashFunction());
+        } catch (NoSuchAlgorithmException e) {
+            throw new ComponentConstructionException(e);
+        }
+    }
+
+    private static SakaiKasaharaGroup group(final PublicParameters publicParameters) {
+        return new SakaiKasaharaGroup(publicParameters,
+                TatePairingFactory.INSTANCE.typeOneTatePairing(publicParameters.getEllipticCurve(), publicParameters.getQ()));
+    }
+
+    private static SubgroupValidator subgroupValidator(final PublicParameters publicParameters) {
+        return SubgroupValidator.forSubgroup(publicParameters.getEllipticCurve(), publicParameters.getQ());
+    }
+}
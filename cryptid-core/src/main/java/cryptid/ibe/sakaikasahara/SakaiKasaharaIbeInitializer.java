@@ -0,0 +1,59 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.ellipticcurve.multiplier.ScalarMultiplierFactory;
+import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
+import cryptid.ibe.IbeInitializer;
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer;
+import cryptid.ibe.domain.IbeSetup;
+import cryptid.ibe.domain.SecurityLevel;
+import cryptid.ibe.exception.SetupException;
+import cryptid.ibe.util.SolinasPrimeFactory;
+
+import java.security.SecureRandom;
+
+/**
+ * Sakai-Kasahara implementation of {@link IbeInitializer}. The setup has the same form as the one of Boneh-Franklin
+ * (a Type-1 curve, a point P of order q, the master secret s and {@code P_pub = [s]P}), thus the curves and the
+ * points are generated the same way. The public parameters do not record the scheme, so they must only be used
+ * with the components of {@link SakaiKasaharaIbeComponentFactoryImpl}.
+ */
+public class SakaiKasaharaIbeInitializer implements IbeInitializer {
+    private final BonehFranklinIbeInitializer parameterGenerator;
+
+    public SakaiKasaharaIbeInitializer(final SecureRandom secureRandom, final SolinasPrimeFactory solinasPrimeFactory,
+                                       final GenerationStrategyFactory<?> generationStrategyFactory) {
+        this.parameterGenerator = new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory,
+                generationStrategyFactory);
+    }
+
+    /**
+     * Constructs a new initializer whose curves use the specified scalar multiplication backend.
+     * @param secureRandom a cryptographically strong random source
+     * @param solinasPrimeFactory a source of Solinas primes
+     * @param generationStrategyFactory factory producing random point generators
+     * @param scalarMultiplierFactory factory producing the scalar multiplication backend of the generated curves
+     */
+    public SakaiKasaharaIbeInitializer(final SecureRandom secureRandom, final SolinasPrimeFactory solinasPrimeFactory,
+                                       final GenerationStrategyFactory<?> generationStrategyFactory,
+                                       final ScalarMultiplierFactory<?> scalarMultiplierFactory) {
+        this.parameterGenerator = new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory,
+                generationStrategyFactory, scalarMultiplierFactory);
+    }
+
+    @Override
+    public IbeSetup setup(final SecurityLevel securityLevel) throws SetupException {
+        return parameterGenerator.setup(securityLevel);
+    }
+
+    /**
+     * Constructs a new configuration with the curve sizes of the specified security level, but using the specified
+     * hash function instead of the default one of the level.
+     * @param securityLevel the desired security level
+     * @param hashFunction the name of the hash function to record in the public parameters
+     * @return a new set of IBE configuration
+     * @throws SetupException if the settings can not be produced or the hash function is not available
+     */
+    public IbeSetup setup(final SecurityLevel securityLevel, final String hashFunction) throws SetupException {
+        return parameterGenerator.setup(securityLevel, hashFunction);
+    }
+}
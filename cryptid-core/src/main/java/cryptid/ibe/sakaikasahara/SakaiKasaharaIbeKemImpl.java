@@ -0,0 +1,117 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.SubgroupValidator;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.IbeKem;
+import cryptid.ibe.domain.EncapsulationRandomness;
+import cryptid.ibe.domain.KeyEncapsulation;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.CanonicalUtils;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.Optional;
+
+import static cryptid.util.BigIntegerUtils.randomBigInteger;
+
+/**
+ * Sakai-Kasahara implementation of {@link IbeKem}. The encapsulation of a key is the point
+ * {@code U = [r]Q_id = [r * h_id]P + [r]P_pub} for a random r, and the key is derived from {@code g^r}, which is
+ * computed by the sender without a pairing, and by the receiver as {@code Pairing(E, p, q, U, S_id)}:
+ * <pre>
+ * {@code
+ * key = HashBytes(KEY_LENGTH, Canonical(p, k, 0, g^r) || U, hashfcn)
+ * }
+ * </pre>
+ * The precomputed randomness holds r and {@code [r]P_pub}, so the online part of an encapsulation is a single
+ * scalar multiplication of P and an exponentiation of g.
+ */
+final class SakaiKasaharaIbeKemImpl extends IbeKem {
+    /**
+     * The length of the generated keys in octets.
+     */
+    static final int KEY_LENGTH = 32;
+
+    private final SecureRandom secureRandom;
+    private final MessageDigestFactory messageDigestFactory;
+    private final SakaiKasaharaGroup group;
+    private final SubgroupValidator subgroupValidator;
+
+    SakaiKasaharaIbeKemImpl(final PublicParameters publicParameters, final SecureRandom secureRandom,
+                            final MessageDigestFactory messageDigestFactory, final SakaiKasaharaGroup group,
+                            final SubgroupValidator subgroupValidator) {
+        super(publicParameters);
+
+        this.secureRandom = secureRandom;
+        this.messageDigestFactory = messageDigestFactory;
+        this.group = group;
+        this.subgroupValidator = subgroupValidator;
+    }
+
+    @Override
+    public KeyEncapsulation encapsulate(final String identity) {
+        Objects.requireNonNull(identity);
+
+        return encapsulate(identity, precomputeRandomness());
+    }
+
+    @Override
+    public EncapsulationRandomness precomputeRandomness() {
+        // r is a random integer in the range 1 to q - 1
+        final BigInteger r = randomBigInteger(BigInteger.ONE, publicParameters.getQ(), secureRandom);
+
+        return new EncapsulationRandomness(r,
+                publicParameters.getEllipticCurve().multiply(publicParameters.getPointPpublic(), r));
+    }
+
+    @Override
+    public KeyEncapsulation encapsulate(final String identity, final EncapsulationRandomness randomness) {
+        Objects.requireNonNull(identity);
+        Objects.requireNonNull(randomness);
+
+        final MessageDigest messageDigest = messageDigestFactory.obtainInstance();
+        final BigInteger hId = group.hashIdentity(identity, messageDigest);
+        final BigInteger r = randomness.consume();
+
+        // U = [r * h_id]P + [r]P_pub
+        final AffinePoint cipherPointU = publicParameters.getEllipticCurve()
+                .multiply(publicParameters.getPointP(), r.multiply(hId).mod(publicParameters.getQ()))
+                .add(randomness.getEncapsulation(), publicParameters.getEllipticCurve());
+
+        return new KeyEncapsulation(cipherPointU, deriveKey(group.powerOfG(r), cipherPointU, messageDigest));
+    }
+
+    @Override
+    public Optional<byte[]> decapsulate(final PrivateKey privateKey, final AffinePoint encapsulation) {
+        Objects.requireNonNull(privateKey);
+        Objects.requireNonNull(encapsulation);
+
+        // U comes from an untrusted source, thus it is rejected before the pairing if it is not a point of order q.
+        if (!subgroupValidator.isValid(encapsulation)) {
+            return Optional.empty();
+        }
+
+        // g^r = Pairing(E, p, q, U, S_id)
+        final Complex theta = group.pairing(encapsulation, privateKey.getData());
+
+        return Optional.of(deriveKey(theta, encapsulation, messageDigestFactory.obtainInstance()));
+    }
+
+    private byte[] deriveKey(final Complex theta, final AffinePoint cipherPointU, final MessageDigest messageDigest) {
+        final byte[] z = CanonicalUtils.canonical(publicParameters.getEllipticCurve().getFieldOrder(),
+                CanonicalUtils.CanonicalOrdering.IMAGINARY_FIRST, theta);
+        final byte[] u = cipherPointU.toCompressedBytes(publicParameters.getEllipticCurve());
+
+        final byte[] seed = new byte[z.length + u.length];
+        System.arraycopy(z, 0, seed, 0, z.length);
+        System.arraycopy(u, 0, seed, z.length, u.length);
+
+        return HashUtils.hashBytes(KEY_LENGTH, seed, messageDigest);
+    }
+}
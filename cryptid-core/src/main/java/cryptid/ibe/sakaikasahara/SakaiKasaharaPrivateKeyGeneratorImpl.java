@@ -0,0 +1,56 @@
+package cryptid.ibe.sakaikasahara;
+
+import cryptid.ibe.PrivateKeyGenerator;
+import cryptid.ibe.domain.PrivateKey;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Sakai-Kasahara implementation of {@link PrivateKeyGenerator}.
+ */
+final class SakaiKasaharaPrivateKeyGeneratorImpl extends PrivateKeyGenerator {
+    private final MessageDigestFactory messageDigestFactory;
+
+    SakaiKasaharaPrivateKeyGeneratorImpl(final PublicParameters publicParameters, final BigInteger masterSecret,
+                                         final MessageDigestFactory messageDigestFactory) {
+        super(publicParameters, masterSecret);
+
+        this.messageDigestFactory = messageDigestFactory;
+    }
+
+    /**
+     * Extracts {@code S_id = [1 / (s + h_id)]P}, where {@code h_id = HashToRange(id, q, hashfcn)}.
+     * @param identity the identity to get the private key of
+     * @throws IllegalArgumentException if the identity is empty or {@code s + h_id = 0 (mod q)}, which only
+     *                                  happens if the identity was crafted with the knowledge of the master secret
+     * @return the private key of the identity
+     */
+    @Override
+    public PrivateKey extract(final String identity) {
+        Objects.requireNonNull(identity);
+
+        if (identity.isEmpty()) {
+            throw new IllegalArgumentException("The identity must not be empty!");
+        }
+
+        final BigInteger q = publicParameters.getQ();
+
+        // Let h_id = HashToRange(id, q, hashfcn)
+        final BigInteger hId = HashUtils.hashToRange(identity.getBytes(StandardCharsets.UTF_8), q,
+                messageDigestFactory.obtainInstance());
+
+        final BigInteger exponent = masterSecret.add(hId).mod(q);
+        if (exponent.signum() == 0) {
+            throw new IllegalArgumentException("No private key exists for the identity!");
+        }
+
+        // Let S_id = [1 / (s + h_id)]P
+        return new PrivateKey(publicParameters.getEllipticCurve().multiply(publicParameters.getPointP(),
+                exponent.modInverse(q)));
+    }
+}
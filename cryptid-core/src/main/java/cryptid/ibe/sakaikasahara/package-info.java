@@ -0,0 +1,4 @@
+/**
+ * Sakai-Kasahara IBE implementation, whose encryption needs no pairing.
+ */
+package cryptid.ibe.sakaikasahara;
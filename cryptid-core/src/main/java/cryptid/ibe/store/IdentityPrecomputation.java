@@ -0,0 +1,55 @@
+package cryptid.ibe.store;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable class holding the values precomputed for an identity: {@code Q_id = HashToPoint(E, p, q, id, hashfcn)}
+ * and {@code theta = Pairing(E, p, q, P_pub, Q_id)}. The point is kept in compressed form and is only decompressed
+ * (which costs a modular exponentiation) when it is requested, as encryption needs theta alone.
+ */
+public final class IdentityPrecomputation {
+    private final byte[] compressedPointQId;
+    private final TypeOneEllipticCurve ellipticCurve;
+    private final Complex theta;
+
+    IdentityPrecomputation(final byte[] compressedPointQId, final TypeOneEllipticCurve ellipticCurve, final Complex theta) {
+        this.compressedPointQId = compressedPointQId;
+        this.ellipticCurve = ellipticCurve;
+        this.theta = theta;
+    }
+
+    /**
+     * Gets the point of the identity, decompressing it.
+     * @return the point Q_id
+     */
+    public AffinePoint getPointQId() {
+        return AffinePoint.fromCompressedBytes(compressedPointQId, ellipticCurve);
+    }
+
+    /**
+     * Gets the pairing of the public point of the setup and the point of the identity.
+     * @return theta
+     */
+    public Complex getTheta() {
+        return theta;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdentityPrecomputation that = (IdentityPrecomputation) o;
+        return Arrays.equals(compressedPointQId, that.compressedPointQId) &&
+                Objects.equals(theta, that.theta);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(compressedPointQId) + theta.hashCode();
+    }
+}
@@ -0,0 +1,164 @@
+package cryptid.ibe.store;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.TypeOneEllipticCurve;
+import cryptid.ibe.domain.PublicParameters;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-only, memory-mapped store of values precomputed for identities (see {@link IdentityPrecomputation}) under a
+ * single set of public parameters. Stores are created by {@link IdentityPrecomputationStoreBuilder}.
+ *
+ * The file is mapped read-only, thus any number of threads and JVMs can read the same store concurrently, sharing
+ * the page cache. As builders replace store files atomically, a store that is open keeps reading the file it was
+ * opened with.
+ *
+ * Encryption takes theta from the store instead of computing it, so whoever can write the file could make the
+ * ciphertexts of a stored identity decryptable with a key of their own choosing. Therefore every slot is
+ * authenticated with a secret key shared by the builder and the readers of the store, and bound to the fingerprint
+ * of the public parameters. Lookups ignore slots whose tag does not match, and the values of such identities are
+ * computed on demand as if they were not stored. The store key must be kept as secret as the integrity of the
+ * encrypting process, but it is not needed for decryption. Private key generators never use stores, as a replaced
+ * Q_id would make them extract the private key of another identity.
+ */
+public final class IdentityPrecomputationStore implements Closeable {
+    private final StoreLayout layout;
+    private final TypeOneEllipticCurve ellipticCurve;
+    private final StoreLayout.TagKey tagKey;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int entryCount;
+
+    private IdentityPrecomputationStore(final StoreLayout layout, final TypeOneEllipticCurve ellipticCurve,
+                                        final StoreLayout.TagKey tagKey, final FileChannel channel,
+                                        final MappedByteBuffer[] segments, final int entryCount) {
+        this.layout = layout;
+        this.ellipticCurve = ellipticCurve;
+        this.tagKey = tagKey;
+        this.channel = channel;
+        this.segments = segments;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Opens the specified store for the specified public parameters.
+     * @param path the store file
+     * @param publicParameters the public parameters the store was built for
+     * @param storeKey the secret key the store was built with
+     * @throws IOException if the file cannot be read, it is not a valid store or it was built for different public
+     *         parameters
+     * @throws IllegalArgumentException if the key is too short
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return the opened store
+     */
+    public static IdentityPrecomputationStore open(final Path path, final PublicParameters publicParameters,
+                                                   final byte[] storeKey) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(publicParameters);
+
+        final StoreLayout.TagKey tagKey = StoreLayout.tagKey(Objects.requireNonNull(storeKey));
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            final StoreLayout layout = StoreLayout.readHeader(channel);
+
+            if (!layout.matchesParameters(publicParameters)) {
+                throw new IOException("The store was built for different public parameters!");
+            }
+
+            final MappedByteBuffer[] segments = layout.mapSegments(channel, FileChannel.MapMode.READ_ONLY);
+
+            return new IdentityPrecomputationStore(layout, publicParameters.getEllipticCurve(), tagKey, channel,
+                    segments, StoreLayout.readEntryCount(channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up the precomputed values of the specified identity.
+     * @param identity the identity
+     * @throws NullPointerException if the identity is {@code null}
+     * @return an Optional with the precomputed values or an empty Optional if the identity is not in the store or
+     *         its slot cannot be authenticated
+     */
+    public Optional<IdentityPrecomputation> lookup(final String identity) {
+        final byte[] key = StoreLayout.key(Objects.requireNonNull(identity));
+        final byte[] slotKey = new byte[StoreLayout.KEY_LENGTH];
+        final byte[] entry = new byte[layout.entryLength];
+        final byte[] tag = new byte[StoreLayout.TAG_LENGTH];
+
+        int slot = layout.firstSlot(key);
+        for (int probes = 0; probes < layout.slotCount; ++probes) {
+            final ByteBuffer buffer = layout.slot(segments, slot);
+            final int start = buffer.position();
+            buffer.get(slotKey);
+
+            if (StoreLayout.isEmpty(slotKey)) {
+                return Optional.empty();
+            }
+
+            if (Arrays.equals(key, slotKey)) {
+                buffer.position(start);
+                buffer.get(entry);
+                buffer.get(tag);
+
+                if (!MessageDigest.isEqual(tag, layout.tag(tagKey, entry))) {
+                    // Forged or corrupted slot, the values are computed by the caller instead.
+                    return Optional.empty();
+                }
+
+                final ByteBuffer values = ByteBuffer.wrap(entry, StoreLayout.KEY_LENGTH, layout.entryLength - StoreLayout.KEY_LENGTH);
+                final byte[] compressedPoint = new byte[layout.pointLength];
+                values.get(compressedPoint);
+                final Complex theta = layout.readTheta(values);
+
+                return Optional.of(new IdentityPrecomputation(compressedPoint, ellipticCurve, theta));
+            }
+
+            slot = layout.nextSlot(slot);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the number of identities in the store.
+     * @return the number of identities
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the fingerprint of the public parameters the store was built for.
+     * @return the fingerprint
+     */
+    public byte[] getFingerprint() {
+        return layout.fingerprint.clone();
+    }
+
+    /**
+     * Closes the underlying file. Note, that the mapping itself is only released once the store is garbage
+     * collected, and lookups must not be performed after closing.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
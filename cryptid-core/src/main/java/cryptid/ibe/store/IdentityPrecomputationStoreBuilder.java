@@ -0,0 +1,172 @@
+package cryptid.ibe.store;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.pairing.tate.TatePairing;
+import cryptid.ellipticcurve.pairing.tate.TatePairingFactory;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.PublicParameters;
+import cryptid.ibe.util.HashUtils;
+import cryptid.util.MessageDigestFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Builds {@link IdentityPrecomputationStore} files. The values are computed in parallel, written into a temporary
+ * file next to the target, and the temporary file is then atomically moved in place of the target, so readers never
+ * observe a partially written store. Every slot is authenticated with the secret key of the store, which the
+ * readers of the store need to know (see {@link IdentityPrecomputationStore}).
+ */
+public final class IdentityPrecomputationStoreBuilder {
+    private final PublicParameters publicParameters;
+    private final MessageDigestFactory messageDigestFactory;
+    private final TatePairing tatePairing;
+    private final StoreLayout.TagKey tagKey;
+
+    /**
+     * Constructs a new builder for stores of the specified public parameters.
+     * @param publicParameters the public parameters
+     * @param storeKey the secret key authenticating the slots, at least 16 octets long
+     * @throws NoSuchAlgorithmException if the hash function of the public parameters is not available
+     * @throws IllegalArgumentException if the key is too short
+     * @throws NullPointerException if any of the arguments is {@code null}
+     */
+    public IdentityPrecomputationStoreBuilder(final PublicParameters publicParameters, final byte[] storeKey)
+            throws NoSuchAlgorithmException {
+        this.publicParameters = Objects.requireNonNull(publicParameters);
+        this.tagKey = StoreLayout.tagKey(Objects.requireNonNull(storeKey));
+        this.messageDigestFactory = MessageDigestFactory.forAlgorithm(publicParameters.getHashFunction());
+        this.tatePairing = TatePairingFactory.INSTANCE.typeOneTatePairing(publicParameters.getEllipticCurve(), publicParameters.getQ());
+    }
+
+    /**
+     * Computes the values of the specified identities and writes them into a new store, replacing the target file
+     * if it exists. Duplicate identities are stored once.
+     * @param identities the identities to precompute the values of
+     * @param target the store file to create
+     * @throws IOException if the store cannot be written
+     * @throws NullPointerException if any of the arguments or identities is {@code null}
+     * @return the number of identities in the store
+     */
+    public int build(final Collection<String> identities, final Path target) throws IOException {
+        Objects.requireNonNull(identities);
+
+        final Path absoluteTarget = target.toAbsolutePath();
+        final StoreLayout layout = StoreLayout.forParameters(publicParameters, identities.size());
+        final Path temporary = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".tmp");
+
+        try {
+            final int entryCount;
+
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Extending the file with a single octet at the end, the table reads as zeros, that is, empty slots.
+                channel.write(ByteBuffer.allocate(1), layout.fileLength() - 1);
+
+                final MappedByteBuffer[] segments = layout.mapSegments(channel, FileChannel.MapMode.READ_WRITE);
+                final Inserter inserter = new Inserter(layout, segments);
+
+                identities.parallelStream()
+                        .forEach(identity -> inserter.insert(compute(layout, Objects.requireNonNull(identity))));
+
+                for (final MappedByteBuffer segment : segments) {
+                    segment.force();
+                }
+
+                entryCount = inserter.entryCount;
+
+                final ByteBuffer header = ByteBuffer.allocate(StoreLayout.HEADER_LENGTH);
+                layout.writeHeader(header, entryCount);
+                header.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+
+                channel.force(true);
+            }
+
+            Files.move(temporary, absoluteTarget, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            return entryCount;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Computes the contents of the slot of an identity.
+     */
+    private byte[] compute(final StoreLayout layout, final String identity) {
+        // Q_id = HashToPoint(E, p, q, id, hashfcn)
+        final AffinePoint pointQId = HashUtils.hashToPoint(publicParameters.getEllipticCurve(),
+                publicParameters.getEllipticCurve().getFieldOrder(), publicParameters.getQ(), identity,
+                messageDigestFactory.obtainInstance());
+
+        // theta = Pairing(E, p, q, P_pub, Q_id)
+        final Complex theta = tatePairing.performPairing(publicParameters.getPointPpublic(), pointQId);
+
+        final ByteBuffer entry = ByteBuffer.allocate(layout.entryLength)
+                .put(StoreLayout.key(identity))
+                .put(pointQId.toCompressedBytes(publicParameters.getEllipticCurve()));
+        layout.writeTheta(entry, theta);
+
+        return ByteBuffer.allocate(layout.slotLength)
+                .put(entry.array())
+                .put(layout.tag(tagKey, entry.array()))
+                .array();
+    }
+
+    /**
+     * Inserts the computed entries into the table. Probing and writing are cheap compared to the computation, so
+     * the insertions are simply serialized.
+     */
+    private static final class Inserter {
+        private final StoreLayout layout;
+        private final MappedByteBuffer[] segments;
+        private final byte[] slotKey = new byte[StoreLayout.KEY_LENGTH];
+
+        private int entryCount;
+
+        private Inserter(final StoreLayout layout, final MappedByteBuffer[] segments) {
+            this.layout = layout;
+            this.segments = segments;
+        }
+
+        private synchronized void insert(final byte[] contents) {
+            final byte[] key = Arrays.copyOf(contents, StoreLayout.KEY_LENGTH);
+
+            int slot = layout.firstSlot(key);
+
+            while (true) {
+                final ByteBuffer buffer = layout.slot(segments, slot);
+                final int start = buffer.position();
+                buffer.get(slotKey);
+
+                if (Arrays.equals(key, slotKey)) {
+                    // Duplicate identity.
+                    return;
+                }
+
+                if (StoreLayout.isEmpty(slotKey)) {
+                    buffer.position(start);
+                    buffer.put(contents);
+
+                    ++entryCount;
+
+                    return;
+                }
+
+                slot = layout.nextSlot(slot);
+            }
+        }
+    }
+}
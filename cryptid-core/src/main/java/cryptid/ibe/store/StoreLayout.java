@@ -0,0 +1,327 @@
+package cryptid.ibe.store;
+
+import cryptid.complex.Complex;
+import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.ibe.domain.PublicParameters;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static cryptid.util.BigIntegerUtils.byteLength;
+import static cryptid.util.BigIntegerUtils.writePositiveBigInteger;
+
+/**
+ * The on-disk layout of an identity precomputation store, shared by the reader and the builder.
+ *
+ * The file starts with a fixed-size header (magic, version, slot count, entry count, point length, theta length and
+ * the fingerprint of the public parameters), followed by an open-addressed table of fixed-size slots. A slot holds
+ * the SHA-256 digest of the identity (all zeros for empty slots), the compressed point Q_id and theta as two
+ * fixed-length big-endian integers (real part first), followed by the tag of the slot,
+ * {@code HMAC-SHA256(storeKey, fingerprint || digest || Q_id || theta)}. Collisions are resolved by linear probing, starting at the
+ * slot selected by the first eight octets of the digest. All integers are big-endian.
+ *
+ * As a single buffer cannot map more than 2 GiB, the table is mapped in segments of whole slots.
+ */
+final class StoreLayout {
+    static final long MAGIC = 0x4352595054494453L;
+    static final int VERSION = 2;
+    static final int HEADER_LENGTH = 64;
+    static final int KEY_LENGTH = 32;
+    static final int TAG_LENGTH = 32;
+    static final int MIN_STORE_KEY_LENGTH = 16;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+    private static final int ENTRY_COUNT_OFFSET = 16;
+    private static final int POINT_LENGTH_OFFSET = 20;
+    private static final int THETA_LENGTH_OFFSET = 24;
+    private static final int FINGERPRINT_OFFSET = 32;
+
+    private static final String KEY_ALGORITHM = "SHA-256";
+    private static final String TAG_ALGORITHM = "HmacSHA256";
+
+    final int slotCount;
+    final int pointLength;
+    final int thetaLength;
+    final int entryLength;
+    final int slotLength;
+    final int slotsPerSegment;
+    final byte[] fingerprint;
+
+    StoreLayout(final int slotCount, final int pointLength, final int thetaLength, final byte[] fingerprint) {
+        this.slotCount = slotCount;
+        this.pointLength = pointLength;
+        this.thetaLength = thetaLength;
+        this.entryLength = KEY_LENGTH + pointLength + thetaLength;
+        this.slotLength = entryLength + TAG_LENGTH;
+        this.slotsPerSegment = Integer.MAX_VALUE / slotLength;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Creates the layout of a new store for the specified public parameters, sized for the specified number of
+     * entries with a load factor of at most one half.
+     */
+    static StoreLayout forParameters(final PublicParameters publicParameters, final int expectedEntries) {
+        int slotCount = 16;
+        while (slotCount < 2L * expectedEntries) {
+            if (slotCount == 1 << 30) {
+                throw new IllegalArgumentException("Too many identities!");
+            }
+
+            slotCount <<= 1;
+        }
+
+        final int coordinateLength = byteLength(publicParameters.getEllipticCurve().getFieldOrder());
+
+        return new StoreLayout(slotCount, AffinePoint.compressedLength(publicParameters.getEllipticCurve()),
+                2 * coordinateLength, publicParameters.getFingerprint());
+    }
+
+    /**
+     * Reads and validates the header of a store.
+     * @throws IOException if the header is malformed
+     */
+    static StoreLayout readHeader(final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated store header!");
+            }
+        }
+
+        if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Not an identity precomputation store or unsupported version!");
+        }
+
+        final int slotCount = header.getInt(SLOT_COUNT_OFFSET);
+        final int pointLength = header.getInt(POINT_LENGTH_OFFSET);
+        final int thetaLength = header.getInt(THETA_LENGTH_OFFSET);
+
+        if (Integer.bitCount(slotCount) != 1 || pointLength < 2 || thetaLength < 2 || thetaLength % 2 != 0) {
+            throw new IOException("Malformed store header!");
+        }
+
+        final byte[] fingerprint = new byte[KEY_LENGTH];
+        header.position(FINGERPRINT_OFFSET);
+        header.get(fingerprint);
+
+        final StoreLayout layout = new StoreLayout(slotCount, pointLength, thetaLength, fingerprint);
+
+        if (channel.size() < layout.fileLength()) {
+            throw new IOException("Truncated store!");
+        }
+
+        return layout;
+    }
+
+    /**
+     * Reads the number of entries from the header of a store that has already been validated.
+     */
+    static int readEntryCount(final FileChannel channel) throws IOException {
+        final ByteBuffer entryCount = ByteBuffer.allocate(Integer.BYTES);
+        while (entryCount.hasRemaining()) {
+            if (channel.read(entryCount, ENTRY_COUNT_OFFSET + entryCount.position()) < 0) {
+                throw new IOException("Truncated store header!");
+            }
+        }
+
+        return entryCount.getInt(0);
+    }
+
+    void writeHeader(final ByteBuffer header, final int entryCount) {
+        header.putLong(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(SLOT_COUNT_OFFSET, slotCount);
+        header.putInt(ENTRY_COUNT_OFFSET, entryCount);
+        header.putInt(POINT_LENGTH_OFFSET, pointLength);
+        header.putInt(THETA_LENGTH_OFFSET, thetaLength);
+
+        header.position(FINGERPRINT_OFFSET);
+        header.put(fingerprint);
+    }
+
+    long fileLength() {
+        return HEADER_LENGTH + (long) slotCount * slotLength;
+    }
+
+    int segmentCount() {
+        return (slotCount + slotsPerSegment - 1) / slotsPerSegment;
+    }
+
+    /**
+     * Maps the segments of the table in the specified mode.
+     */
+    MappedByteBuffer[] mapSegments(final FileChannel channel, final FileChannel.MapMode mode) throws IOException {
+        final MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount()];
+
+        for (int i = 0; i < segments.length; ++i) {
+            final long firstSlot = (long) i * slotsPerSegment;
+            final long slots = Math.min(slotsPerSegment, slotCount - firstSlot);
+
+            segments[i] = channel.map(mode, HEADER_LENGTH + firstSlot * slotLength, slots * slotLength);
+        }
+
+        return segments;
+    }
+
+    /**
+     * Returns a buffer positioned at the start of the specified slot. The returned buffer is a private view, so
+     * concurrent lookups do not interfere.
+     */
+    ByteBuffer slot(final MappedByteBuffer[] segments, final int slot) {
+        final ByteBuffer buffer = segments[slot / slotsPerSegment].duplicate();
+        buffer.position((slot % slotsPerSegment) * slotLength);
+
+        return buffer;
+    }
+
+    int firstSlot(final byte[] key) {
+        return (int) (ByteBuffer.wrap(key).getLong() & (slotCount - 1));
+    }
+
+    int nextSlot(final int slot) {
+        return (slot + 1) & (slotCount - 1);
+    }
+
+    boolean matchesParameters(final PublicParameters publicParameters) {
+        return Arrays.equals(fingerprint, publicParameters.getFingerprint());
+    }
+
+    void writeTheta(final ByteBuffer buffer, final Complex theta) {
+        final int coordinateLength = thetaLength / 2;
+
+        final byte[] bytes = new byte[thetaLength];
+        writePositiveBigInteger(theta.getReal(), bytes, 0, coordinateLength);
+        writePositiveBigInteger(theta.getImaginary(), bytes, coordinateLength, coordinateLength);
+
+        buffer.put(bytes);
+    }
+
+    Complex readTheta(final ByteBuffer buffer) {
+        final int coordinateLength = thetaLength / 2;
+
+        final byte[] bytes = new byte[thetaLength];
+        buffer.get(bytes);
+
+        return new Complex(new BigInteger(1, Arrays.copyOfRange(bytes, 0, coordinateLength)),
+                new BigInteger(1, Arrays.copyOfRange(bytes, coordinateLength, thetaLength)));
+    }
+
+    /**
+     * Creates the key of the slot tags from the secret of the store.
+     * @throws IllegalArgumentException if the secret is shorter than {@value #MIN_STORE_KEY_LENGTH} octets
+     */
+    static TagKey tagKey(final byte[] storeKey) {
+        if (storeKey.length < MIN_STORE_KEY_LENGTH) {
+            throw new IllegalArgumentException("The store key must be at least " + MIN_STORE_KEY_LENGTH + " octets long!");
+        }
+
+        return new TagKey(new SecretKeySpec(storeKey, TAG_ALGORITHM));
+    }
+
+    /**
+     * Computes the tag of a slot, binding its entry (the digest of the identity, Q_id and theta) to the public
+     * parameters of the store.
+     */
+    byte[] tag(final TagKey tagKey, final byte[] entry) {
+        final Mac mac = tagKey.obtainMac();
+        mac.update(fingerprint);
+
+        return mac.doFinal(entry);
+    }
+
+    /**
+     * The key of the slot tags.
+     *
+     * Tags are computed on every lookup, so instead of looking up the provider and initializing a new {@code Mac}
+     * each time, an initialized prototype, which is never updated itself, is cloned if the implementation supports
+     * it. Instances are thread-safe.
+     */
+    static final class TagKey {
+        private final Key key;
+
+        /*
+         * Initialized instance that is cloned by obtainMac or null if the implementation is not cloneable.
+         */
+        private final Mac prototype;
+
+        private TagKey(final Key key) {
+            this.key = key;
+
+            final Mac mac = newMac(key);
+            this.prototype = isCloneable(mac) ? mac : null;
+        }
+
+        /**
+         * Returns a fresh {@code Mac} initialized with the key.
+         */
+        Mac obtainMac() {
+            if (prototype != null) {
+                try {
+                    return (Mac) prototype.clone();
+                } catch (CloneNotSupportedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            return newMac(key);
+        }
+
+        private static Mac newMac(final Key key) {
+            try {
+                final Mac mac = Mac.getInstance(TAG_ALGORITHM);
+                mac.init(key);
+
+                return mac;
+            } catch (GeneralSecurityException e) {
+                // Every Java platform is required to support HmacSHA256, and the key was created for it.
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static boolean isCloneable(final Mac mac) {
+            try {
+                mac.clone();
+
+                return true;
+            } catch (CloneNotSupportedException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Computes the key of an identity, the SHA-256 digest of its UTF-8 encoding.
+     */
+    static byte[] key(final String identity) {
+        try {
+            return MessageDigest.getInstance(KEY_ALGORITHM).digest(identity.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean isEmpty(final byte[] key) {
+        for (final byte b : key) {
+            if (b != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
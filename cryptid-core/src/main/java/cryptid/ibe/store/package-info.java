@@ -0,0 +1,4 @@
+/**
+ * Persistent, memory-mapped storage of precomputed per-identity values.
+ */
+package cryptid.ibe.store;
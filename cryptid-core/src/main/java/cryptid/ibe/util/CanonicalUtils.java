@@ -5,7 +5,7 @@ import cryptid.complex.Complex;
 import java.math.BigInteger;
 
 import static cryptid.util.BigIntegerUtils.byteLength;
-import static cryptid.util.BigIntegerUtils.convertPositiveBigIntegerToByteArray;
+import static cryptid.util.BigIntegerUtils.writePositiveBigInteger;
 
 /**
  * Utility class producing canonical field element representations.
@@ -30,18 +30,13 @@ public class CanonicalUtils {
     public static byte[] canonical(BigInteger p, CanonicalOrdering ordering, Complex v) {
         final int outputSize = byteLength(p);
 
-        final byte[] realBytes = convertPositiveBigIntegerToByteArray(v.getReal(), outputSize);
-        final byte[] imagBytes = convertPositiveBigIntegerToByteArray(v.getImaginary(), outputSize);
-
         final byte[] result = new byte[outputSize * 2];
 
-        if (ordering == CanonicalOrdering.REAL_FIRST) {
-            System.arraycopy(realBytes, 0, result, 0, outputSize);
-            System.arraycopy(imagBytes, 0, result, outputSize, outputSize);
-        } else {
-            System.arraycopy(imagBytes, 0, result, 0, outputSize);
-            System.arraycopy(realBytes, 0, result, outputSize, outputSize);
-        }
+        final int realOffset = ordering == CanonicalOrdering.REAL_FIRST ? 0 : outputSize;
+        final int imagOffset = outputSize - realOffset;
+
+        writePositiveBigInteger(v.getReal(), result, realOffset, outputSize);
+        writePositiveBigInteger(v.getImaginary(), result, imagOffset, outputSize);
 
         return result;
     }
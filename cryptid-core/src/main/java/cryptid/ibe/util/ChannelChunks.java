@@ -0,0 +1,183 @@
+package cryptid.ibe.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Helpers for processing channels chunk by chunk, shared by the streaming implementations of the IBE schemes. File
+ * channels are memory-mapped in large segments, other channels are read through a buffer. Channels written into
+ * must be in blocking mode, a write making no progress is reported as an {@link IOException}.
+ */
+public final class ChannelChunks {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final long MAPPING_SIZE = 1L << 30;
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        /**
+         * Processes the first {@code length} octets of the chunk. The array is reused for the next chunk.
+         */
+        void accept(byte[] chunk, int length) throws IOException;
+    }
+
+    private ChannelChunks() {
+        // Cannot be constructed.
+    }
+
+    /**
+     * Feeds the specified range of the channel to the consumer, chunk by chunk, and zeroes out the chunk buffer
+     * afterwards.
+     * @param channel the channel to read
+     * @param start the position of the range
+     * @param length the length of the range
+     * @param consumer the consumer of the chunks
+     * @throws EOFException if the channel ends before the range
+     * @throws IOException if reading fails or the consumer throws it
+     */
+    public static void forEachChunk(final SeekableByteChannel channel, final long start, final long length,
+                             final ChunkConsumer consumer) throws IOException {
+        final byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, Math.max(length, 1))];
+
+        try {
+            if (channel instanceof FileChannel) {
+                forEachMappedChunk((FileChannel) channel, start, length, chunk, consumer);
+            } else {
+                forEachReadChunk(channel, start, length, chunk, consumer);
+            }
+        } finally {
+            Arrays.fill(chunk, (byte) 0);
+        }
+    }
+
+    private static void forEachMappedChunk(final FileChannel channel, final long start, final long length,
+                                           final byte[] chunk, final ChunkConsumer consumer) throws IOException {
+        if (channel.size() - start < length) {
+            throw new EOFException("The channel is shorter than expected!");
+        }
+
+        for (long done = 0; done < length; ) {
+            final long mappingLength = Math.min(MAPPING_SIZE, length - done);
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, start + done, mappingLength);
+
+            while (mapping.hasRemaining()) {
+                final int chunkLength = Math.min(chunk.length, mapping.remaining());
+                mapping.get(chunk, 0, chunkLength);
+
+                consumer.accept(chunk, chunkLength);
+            }
+
+            done += mappingLength;
+        }
+    }
+
+    private static void forEachReadChunk(final SeekableByteChannel channel, final long start, final long length,
+                                         final byte[] chunk, final ChunkConsumer consumer) throws IOException {
+        channel.position(start);
+
+        for (long done = 0; done < length; ) {
+            final ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, (int) Math.min(chunk.length, length - done));
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("The channel is shorter than expected!");
+                }
+            }
+
+            consumer.accept(chunk, buffer.position());
+            done += buffer.position();
+        }
+    }
+
+    /**
+     * Unmasks the specified number of octets of W, read from the current position of the channel, and releases
+     * the plaintext into the output only if the check accepts {@code t = hashfcn(m)}. The plaintext is staged in a
+     * temporary file within the staging directory, as W might change while it is being read, and only the
+     * plaintext that has actually been checked may be released. The staging file is deleted in both cases, and the
+     * position of the channel is moved past W.
+     * @param cipherW the channel holding W
+     * @param length the length of W
+     * @param maskGenerator the generator of the mask
+     * @param messageDigest the digest hashing the plaintext
+     * @param check the check of the ciphertext, given t
+     * @param output the channel to write the plaintext into
+     * @param stagingDirectory the directory to stage the plaintext in
+     * @throws IOException if reading, staging or writing fails
+     * @return whether the check accepted the plaintext
+     */
+    public static boolean decryptStaged(final SeekableByteChannel cipherW, final long length,
+                                        final MaskGenerator maskGenerator, final MessageDigest messageDigest,
+                                        final Predicate<byte[]> check, final WritableByteChannel output,
+                                        final Path stagingDirectory) throws IOException {
+        final long start = cipherW.position();
+        final Path staging = Files.createTempFile(stagingDirectory, "cryptid", ".tmp");
+
+        try (FileChannel stagingChannel = FileChannel.open(staging, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A single pass: m = mask XOR W, written into the staging file and hashed at the same time.
+            forEachChunk(cipherW, start, length, (chunk, chunkLength) -> {
+                maskGenerator.xorInto(chunk, 0, chunkLength);
+                messageDigest.update(chunk, 0, chunkLength);
+                writeFully(stagingChannel, chunk, chunkLength);
+            });
+            cipherW.position(start + length);
+
+            if (!check.test(messageDigest.digest())) {
+                return false;
+            }
+
+            for (long transferred = 0; transferred < length; ) {
+                final long count = stagingChannel.transferTo(transferred, length - transferred, output);
+
+                if (count == 0) {
+                    throw new IOException("The output channel accepts no more data, it must be in blocking mode!");
+                }
+
+                transferred += count;
+            }
+
+            return true;
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * Writes the first {@code length} octets of the array into the channel.
+     * @param channel the channel to write into, in blocking mode
+     * @param source the octets to write
+     * @param length the number of octets to write
+     * @throws IOException if writing fails or makes no progress
+     */
+    public static void writeFully(final WritableByteChannel channel, final byte[] source, final int length) throws IOException {
+        writeFully(channel, source, 0, length);
+    }
+
+    /**
+     * Writes {@code length} octets of the array, starting at the specified offset, into the channel.
+     * @param channel the channel to write into, in blocking mode
+     * @param source the octets to write
+     * @param offset the offset of the first octet to write
+     * @param length the number of octets to write
+     * @throws IOException if writing fails or makes no progress
+     */
+    public static void writeFully(final WritableByteChannel channel, final byte[] source, final int offset,
+                                  final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(source, offset, length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                throw new IOException("The channel accepts no more data, it must be in blocking mode!");
+            }
+        }
+    }
+}
@@ -2,14 +2,23 @@ package cryptid.ibe.util;
 
 import cryptid.ellipticcurve.TypeOneEllipticCurve;
 import cryptid.ellipticcurve.point.affine.AffinePoint;
+import cryptid.util.MessageDigestFactory;
 
 import java.math.BigInteger;
+import java.security.DigestException;
 import java.security.MessageDigest;
+import java.util.stream.IntStream;
 
 /**
  * Utility class providing hash operations as described in the RFC 5091.
  */
 public class HashUtils {
+    /*
+     * The size of the mask segments generated by a single worker in counterHashBytes. Masks not longer than this
+     * are generated on the calling thread.
+     */
+    private static final int COUNTER_SEGMENT_SIZE = 1 << 16;
+
     private HashUtils() {
         /*
          * Cannot be constructed.
@@ -32,16 +41,13 @@ public class HashUtils {
         BigInteger y = hashToRange(id.getBytes(), p, hashFunction);
 
         //Let x = (y^2 - 1)^((2 * p - 1) / 3) modulo p, an element of F_p
-        BigInteger x = y.pow(2).subtract(BigInteger.ONE).modPow(
-                BigInteger.valueOf(2L).multiply(p).subtract(BigInteger.ONE).divide(BigInteger.valueOf(3L)),
-                p
-        );
+        BigInteger x = ec.solveForX(y);
 
         //Let Q' = (x, y), a non-zero point in E(F_p)
         AffinePoint qPrime = new AffinePoint(x, y);
 
         //Let Q = [(p + 1) / q ]Q', a point of order q in E(F_p)
-        return qPrime.multiply(p.add(BigInteger.ONE).divide(q), ec);
+        return ec.multiply(qPrime, p.add(BigInteger.ONE).divide(q));
     }
 
     /**
@@ -56,6 +62,18 @@ public class HashUtils {
      * @see <a href="https://tools.ietf.org/html/rfc5091#section-4.1.1" target="_blank">RFC 5091 - Algorithm 4.1.1</a>
      */
     public static BigInteger hashToRange(byte[] s, BigInteger p, MessageDigest hashFunction) {
+        return hashToRange(p, hashFunction, s);
+    }
+
+    /**
+     * Computes HashToRange on the concatenation of the specified segments, without actually concatenating them.
+     * @param p a positive integer
+     * @param hashFunction a cryptographically strong hash function
+     * @param segments the segments of the string s
+     * @return returns an integer in the appropriate range
+     * @see #hashToRange(byte[], BigInteger, MessageDigest)
+     */
+    public static BigInteger hashToRange(BigInteger p, MessageDigest hashFunction, byte[]... segments) {
         //Let hashlen be the number of octets comprising the output of hashfcn
         int hashLen = hashFunction.getDigestLength();
 
@@ -69,14 +87,13 @@ public class HashUtils {
         for(int i = 1; i < 3; i++) {
             //Let t_i = h_(i - 1) || s, which is the (|s| + hashlen)- octet
             //string concatenation of the strings h_(i - 1) and s
-            byte[] t = new byte[h.length + s.length];
-            System.arraycopy(h, 0, t, 0, h.length);
-            System.arraycopy(s, 0, t, h.length, s.length);
-
             //Let h_i = hashfcn(t_i), which is a hashlen-octet string
             //resulting from the hash algorithm hashfcn on the input t_i
-            hashFunction.update(t);
-            h = hashFunction.digest();
+            hashFunction.update(h);
+            for (byte[] segment : segments) {
+                hashFunction.update(segment);
+            }
+            digestInto(hashFunction, h, 0);
 
             //Let a_i = Value(h_i) be the integer in the range 0 to
             //256^hashlen - 1 denoted by the raw octet string h_i
@@ -84,7 +101,7 @@ public class HashUtils {
             BigInteger a = new BigInteger(1, h);
 
             //Let v_i = 256^hashlen * v_(i - 1) + a_i
-            v = BigInteger.valueOf(256L).pow(hashLen).multiply(v).add(a);
+            v = v.shiftLeft(8 * hashLen).add(a);
         }
 
         return v.mod(p);
@@ -115,36 +132,107 @@ public class HashUtils {
         byte[] h = new byte[hashLen];
 
         //Let l = Ceiling(b / hashlen)
-        int l = (int)Math.ceil((double)b / (double)hashLen);
-
-        int generatedOctets = 0;
-        boolean didGenerateEnough = false;
         //For each i in 1 to l
-        for(int i = 1; i <= l && !didGenerateEnough; i++) {
+        for(int generatedOctets = 0; generatedOctets < b; generatedOctets += hashLen) {
             //Let h_i = hashfcn(h_(i - 1))
             hashFunction.update(h);
-            h = hashFunction.digest();
+            digestInto(hashFunction, h, 0);
 
             //Let r_i = hashfcn(h_i || K), where h_i || K is the (2 *
             //hashlen)-octet concatenation of h_i and K
+            hashFunction.update(h);
+            hashFunction.update(k);
+
             //Let r = LeftmostOctets(b, r_1 || ... || r_l), i.e., r is formed as
             //the concatenation of the r_i, truncated to the desired number of octets
-            byte[] concat = new byte[2 * hashLen];
-            System.arraycopy(h, 0, concat, 0, h.length);
-            System.arraycopy(k, 0, concat, h.length, k.length);
-            hashFunction.update(concat);
-            byte[] resultPart = hashFunction.digest();
-            for(int j = 0; j < resultPart.length; j++) {
-                if(generatedOctets + j < b) {
-                    result[generatedOctets + j] = resultPart[j];
-                } else {
-                    didGenerateEnough = true;
-                    break;
-                }
+            if (b - generatedOctets >= hashLen) {
+                digestInto(hashFunction, result, generatedOctets);
+            } else {
+                byte[] resultPart = hashFunction.digest();
+                System.arraycopy(resultPart, 0, result, generatedOctets, b - generatedOctets);
             }
-            generatedOctets += resultPart.length;
         }
 
         return result;
     }
+
+    /**
+     * Counter-mode alternative of {@link #hashBytes(int, byte[], MessageDigest)}: having {@code K = hashfcn(p)}, it
+     * returns the first b octets of {@code hashfcn(K || 1) || hashfcn(K || 2) || ...}, where the counters are 32-bit
+     * big-endian integers. As the blocks are independent of each other, long outputs are generated in parallel
+     * segments, each using its own message digest instance.
+     * @param b the length of the output
+     * @param p a string
+     * @param messageDigestFactory the source of the cryptographically strong hash function instances
+     * @return pseudorandom bytes
+     * @see cryptid.ibe.domain.MaskGenerationMode#COUNTER
+     */
+    public static byte[] counterHashBytes(int b, byte[] p, MessageDigestFactory messageDigestFactory) {
+        final byte[] result = new byte[b];
+
+        final MessageDigest hashFunction = messageDigestFactory.obtainInstance();
+        final int hashLen = hashFunction.getDigestLength();
+
+        //Let K = hashfcn(p)
+        hashFunction.update(p);
+        final byte[] k = hashFunction.digest();
+
+        if (b <= COUNTER_SEGMENT_SIZE) {
+            counterHashSegment(k, 0, b, result, hashFunction);
+
+            return result;
+        }
+
+        // The segment size is rounded down to a multiple of hashlen, so every block belongs to a single segment.
+        final int segmentSize = COUNTER_SEGMENT_SIZE - COUNTER_SEGMENT_SIZE % hashLen;
+        final int segmentCount = (b + segmentSize - 1) / segmentSize;
+
+        IntStream.range(0, segmentCount).parallel().forEach(segment -> {
+            final int from = segment * segmentSize;
+
+            counterHashSegment(k, from, Math.min(from + segmentSize, b), result,
+                    messageDigestFactory.obtainInstance());
+        });
+
+        return result;
+    }
+
+    /**
+     * Writes the octets of the counter-mode output in {@code [from, to)} into the result, {@code from} being a
+     * multiple of hashlen.
+     */
+    private static void counterHashSegment(byte[] k, int from, int to, byte[] result, MessageDigest hashFunction) {
+        final int hashLen = hashFunction.getDigestLength();
+        final byte[] counter = new byte[4];
+
+        for (int offset = from; offset < to; offset += hashLen) {
+            final int i = offset / hashLen + 1;
+            counter[0] = (byte) (i >>> 24);
+            counter[1] = (byte) (i >>> 16);
+            counter[2] = (byte) (i >>> 8);
+            counter[3] = (byte) i;
+
+            hashFunction.update(k);
+            hashFunction.update(counter);
+
+            if (to - offset >= hashLen) {
+                digestInto(hashFunction, result, offset);
+            } else {
+                final byte[] resultPart = hashFunction.digest();
+                System.arraycopy(resultPart, 0, result, offset, to - offset);
+            }
+        }
+    }
+
+    /**
+     * Completes the hash computation, writing the digest into the specified buffer at the specified offset.
+     */
+    private static void digestInto(MessageDigest hashFunction, byte[] buffer, int offset) {
+        try {
+            hashFunction.digest(buffer, offset, hashFunction.getDigestLength());
+        } catch (DigestException e) {
+            // The buffers are always large enough.
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package cryptid.ibe.util;
+
+import cryptid.ibe.domain.MaskGenerationMode;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * Incremental generator of the mask hiding the message, producing the same octets as
+ * {@link HashUtils#hashBytes(int, byte[], MessageDigest)} or
+ * {@link HashUtils#counterHashBytes(int, byte[], cryptid.util.MessageDigestFactory)}, but block by block, so masks
+ * of any length can be applied to streamed data. Instances are not thread-safe.
+ */
+public final class MaskGenerator {
+    private final MaskGenerationMode mode;
+    private final MessageDigest hashFunction;
+    private final byte[] k;
+
+    /*
+     * h_i in HASH_CHAIN mode, the big-endian counter in COUNTER mode.
+     */
+    private final byte[] state;
+
+    private final byte[] block;
+    private int blockPosition;
+    private long blockCount;
+
+    private MaskGenerator(final MaskGenerationMode mode, final byte[] seed, final MessageDigest hashFunction) {
+        this.mode = mode;
+        this.hashFunction = hashFunction;
+
+        //Let K = hashfcn(p)
+        hashFunction.update(seed);
+        this.k = hashFunction.digest();
+
+        //Let h_0 = 0x00...00, a string of null octets with a length of hashlen
+        this.state = mode == MaskGenerationMode.HASH_CHAIN ? new byte[hashFunction.getDigestLength()] : new byte[4];
+
+        this.block = new byte[hashFunction.getDigestLength()];
+        this.blockPosition = block.length;
+    }
+
+    /**
+     * Creates a new generator.
+     * @param mode the mask generation mode
+     * @param seed the seed of the mask, rho
+     * @param hashFunction the hash function, which is used exclusively by the generator from now on
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @return a generator positioned at the start of the mask
+     */
+    public static MaskGenerator forMode(final MaskGenerationMode mode, final byte[] seed, final MessageDigest hashFunction) {
+        return new MaskGenerator(Objects.requireNonNull(mode), Objects.requireNonNull(seed), Objects.requireNonNull(hashFunction));
+    }
+
+    /**
+     * XORs the next octets of the mask into the specified range of the array.
+     * @param data the array to mask
+     * @param offset the start of the range
+     * @param length the length of the range
+     */
+    public void xorInto(final byte[] data, final int offset, final int length) {
+        for (int i = 0; i < length; ++i) {
+            if (blockPosition == block.length) {
+                nextBlock();
+            }
+
+            data[offset + i] ^= block[blockPosition++];
+        }
+    }
+
+    private void nextBlock() {
+        if (mode == MaskGenerationMode.HASH_CHAIN) {
+            //Let h_i = hashfcn(h_(i - 1))
+            hashFunction.update(state);
+            digestInto(state);
+
+            //Let r_i = hashfcn(h_i || K)
+            hashFunction.update(state);
+            hashFunction.update(k);
+        } else {
+            if (++blockCount > 0xFFFFFFFFL) {
+                throw new IllegalStateException("The counter-mode mask is exhausted!");
+            }
+
+            // hashfcn(K || i), where i is a 32-bit big-endian counter starting at 1
+            state[0] = (byte) (blockCount >>> 24);
+            state[1] = (byte) (blockCount >>> 16);
+            state[2] = (byte) (blockCount >>> 8);
+            state[3] = (byte) blockCount;
+
+            hashFunction.update(k);
+            hashFunction.update(state);
+        }
+
+        digestInto(block);
+        blockPosition = 0;
+    }
+
+    private void digestInto(final byte[] buffer) {
+        try {
+            hashFunction.digest(buffer, 0, buffer.length);
+        } catch (DigestException e) {
+            // The buffers are always large enough.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package cryptid.provider;
+
+import java.security.MessageDigestSpi;
+import java.util.Arrays;
+
+/**
+ * Unkeyed BLAKE2b message digest (RFC 7693), a 64-bit design producing digests of up to 64 octets. The subclasses
+ * are the variants registered by {@link CryptIdProvider}.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7693" target="_blank">RFC 7693 - The BLAKE2 Cryptographic Hash and Message Authentication Code (MAC)</a>
+ */
+public abstract class Blake2bMessageDigest extends MessageDigestSpi implements Cloneable {
+    private static final int BLOCK_LENGTH = 128;
+    private static final int ROUNDS = 12;
+
+    private static final long[] IV = {
+            0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+            0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+    };
+
+    static final byte[][] SIGMA = {
+            { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 },
+            { 14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3 },
+            { 11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4 },
+            { 7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8 },
+            { 9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13 },
+            { 2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9 },
+            { 12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11 },
+            { 13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10 },
+            { 6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5 },
+            { 10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0 }
+    };
+
+    private final int digestLength;
+
+    private long[] h = new long[8];
+    private byte[] buffer = new byte[BLOCK_LENGTH];
+    private int bufferLength;
+
+    /*
+     * The number of octets compressed so far, as a 128-bit counter.
+     */
+    private long counterLow;
+    private long counterHigh;
+
+    /*
+     * Scratch space of the compression function.
+     */
+    private long[] m = new long[16];
+
+    /**
+     * Constructs a new digest producing the specified number of octets.
+     * @param digestLength the length of the digest, between 1 and 64
+     */
+    protected Blake2bMessageDigest(final int digestLength) {
+        if (digestLength < 1 || digestLength > 64) {
+            throw new IllegalArgumentException("The digest length must be between 1 and 64!");
+        }
+
+        this.digestLength = digestLength;
+
+        engineReset();
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+        if (bufferLength == BLOCK_LENGTH) {
+            compressBuffer(false);
+        }
+
+        buffer[bufferLength++] = input;
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, int offset, int length) {
+        while (length > 0) {
+            // The last block must be compressed with the final flag, so a full buffer is kept until more data arrives.
+            if (bufferLength == BLOCK_LENGTH) {
+                compressBuffer(false);
+            }
+
+            final int chunk = Math.min(length, BLOCK_LENGTH - bufferLength);
+            System.arraycopy(input, offset, buffer, bufferLength, chunk);
+
+            bufferLength += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        Arrays.fill(buffer, bufferLength, BLOCK_LENGTH, (byte) 0);
+        compressBuffer(true);
+
+        final byte[] result = new byte[digestLength];
+        for (int i = 0; i < digestLength; ++i) {
+            result[i] = (byte) (h[i >>> 3] >>> (8 * (i & 7)));
+        }
+
+        engineReset();
+
+        return result;
+    }
+
+    @Override
+    protected void engineReset() {
+        System.arraycopy(IV, 0, h, 0, IV.length);
+
+        // Parameter block: digest length, no key, fanout and depth of 1.
+        h[0] ^= 0x01010000L ^ digestLength;
+
+        Arrays.fill(buffer, (byte) 0);
+        bufferLength = 0;
+        counterLow = 0L;
+        counterHigh = 0L;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        final Blake2bMessageDigest copy = (Blake2bMessageDigest) super.clone();
+
+        copy.h = h.clone();
+        copy.buffer = buffer.clone();
+        copy.m = new long[16];
+
+        return copy;
+    }
+
+    private void compressBuffer(final boolean isFinal) {
+        counterLow += bufferLength;
+        if (Long.compareUnsigned(counterLow, bufferLength) < 0) {
+            ++counterHigh;
+        }
+
+        for (int i = 0; i < 16; ++i) {
+            m[i] = readLong(buffer, i * 8);
+        }
+
+        // The working vector is kept in local variables, which is considerably faster than an array.
+        long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7];
+        long v8 = IV[0], v9 = IV[1], v10 = IV[2], v11 = IV[3];
+        long v12 = IV[4] ^ counterLow, v13 = IV[5] ^ counterHigh;
+        long v14 = isFinal ? ~IV[6] : IV[6], v15 = IV[7];
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            final byte[] s = SIGMA[round % 10];
+
+            v0 += v4 + m[s[0]];
+            v12 = Long.rotateRight(v12 ^ v0, 32);
+            v8 += v12;
+            v4 = Long.rotateRight(v4 ^ v8, 24);
+            v0 += v4 + m[s[1]];
+            v12 = Long.rotateRight(v12 ^ v0, 16);
+            v8 += v12;
+            v4 = Long.rotateRight(v4 ^ v8, 63);
+
+            v1 += v5 + m[s[2]];
+            v13 = Long.rotateRight(v13 ^ v1, 32);
+            v9 += v13;
+            v5 = Long.rotateRight(v5 ^ v9, 24);
+            v1 += v5 + m[s[3]];
+            v13 = Long.rotateRight(v13 ^ v1, 16);
+            v9 += v13;
+            v5 = Long.rotateRight(v5 ^ v9, 63);
+
+            v2 += v6 + m[s[4]];
+            v14 = Long.rotateRight(v14 ^ v2, 32);
+            v10 += v14;
+            v6 = Long.rotateRight(v6 ^ v10, 24);
+            v2 += v6 + m[s[5]];
+            v14 = Long.rotateRight(v14 ^ v2, 16);
+            v10 += v14;
+            v6 = Long.rotateRight(v6 ^ v10, 63);
+
+            v3 += v7 + m[s[6]];
+            v15 = Long.rotateRight(v15 ^ v3, 32);
+            v11 += v15;
+            v7 = Long.rotateRight(v7 ^ v11, 24);
+            v3 += v7 + m[s[7]];
+            v15 = Long.rotateRight(v15 ^ v3, 16);
+            v11 += v15;
+            v7 = Long.rotateRight(v7 ^ v11, 63);
+
+            v0 += v5 + m[s[8]];
+            v15 = Long.rotateRight(v15 ^ v0, 32);
+            v10 += v15;
+            v5 = Long.rotateRight(v5 ^ v10, 24);
+            v0 += v5 + m[s[9]];
+            v15 = Long.rotateRight(v15 ^ v0, 16);
+            v10 += v15;
+            v5 = Long.rotateRight(v5 ^ v10, 63);
+
+            v1 += v6 + m[s[10]];
+            v12 = Long.rotateRight(v12 ^ v1, 32);
+            v11 += v12;
+            v6 = Long.rotateRight(v6 ^ v11, 24);
+            v1 += v6 + m[s[11]];
+            v12 = Long.rotateRight(v12 ^ v1, 16);
+            v11 += v12;
+            v6 = Long.rotateRight(v6 ^ v11, 63);
+
+            v2 += v7 + m[s[12]];
+            v13 = Long.rotateRight(v13 ^ v2, 32);
+            v8 += v13;
+            v7 = Long.rotateRight(v7 ^ v8, 24);
+            v2 += v7 + m[s[13]];
+            v13 = Long.rotateRight(v13 ^ v2, 16);
+            v8 += v13;
+            v7 = Long.rotateRight(v7 ^ v8, 63);
+
+            v3 += v4 + m[s[14]];
+            v14 = Long.rotateRight(v14 ^ v3, 32);
+            v9 += v14;
+            v4 = Long.rotateRight(v4 ^ v9, 24);
+            v3 += v4 + m[s[15]];
+            v14 = Long.rotateRight(v14 ^ v3, 16);
+            v9 += v14;
+            v4 = Long.rotateRight(v4 ^ v9, 63);
+        }
+
+        h[0] ^= v0 ^ v8;
+        h[1] ^= v1 ^ v9;
+        h[2] ^= v2 ^ v10;
+        h[3] ^= v3 ^ v11;
+        h[4] ^= v4 ^ v12;
+        h[5] ^= v5 ^ v13;
+        h[6] ^= v6 ^ v14;
+        h[7] ^= v7 ^ v15;
+
+        bufferLength = 0;
+    }
+
+    private static long readLong(final byte[] bytes, final int offset) {
+        long result = 0L;
+
+        for (int i = 7; i >= 0; --i) {
+            result = (result << 8) | (bytes[offset + i] & 0xffL);
+        }
+
+        return result;
+    }
+
+    /**
+     * BLAKE2b with a 256-bit digest.
+     */
+    public static final class Blake2b256 extends Blake2bMessageDigest {
+        public Blake2b256() {
+            super(32);
+        }
+    }
+
+    /**
+     * BLAKE2b with a 384-bit digest.
+     */
+    public static final class Blake2b384 extends Blake2bMessageDigest {
+        public Blake2b384() {
+            super(48);
+        }
+    }
+
+    /**
+     * BLAKE2b with a 512-bit digest.
+     */
+    public static final class Blake2b512 extends Blake2bMessageDigest {
+        public Blake2b512() {
+            super(64);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package cryptid.provider;
+
+import java.security.MessageDigestSpi;
+import java.util.Arrays;
+
+import static cryptid.provider.Blake2bMessageDigest.SIGMA;
+
+/**
+ * Unkeyed BLAKE2s message digest (RFC 7693), a 32-bit design producing digests of up to 32 octets. The subclasses
+ * are the variants registered by {@link CryptIdProvider}.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7693" target="_blank">RFC 7693 - The BLAKE2 Cryptographic Hash and Message Authentication Code (MAC)</a>
+ */
+public abstract class Blake2sMessageDigest extends MessageDigestSpi implements Cloneable {
+    private static final int BLOCK_LENGTH = 64;
+    private static final int ROUNDS = 10;
+
+    private static final int[] IV = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private final int digestLength;
+
+    private int[] h = new int[8];
+    private byte[] buffer = new byte[BLOCK_LENGTH];
+    private int bufferLength;
+
+    /*
+     * The number of octets compressed so far, as a 64-bit counter.
+     */
+    private long counter;
+
+    /*
+     * Scratch space of the compression function.
+     */
+    private int[] m = new int[16];
+
+    /**
+     * Constructs a new digest producing the specified number of octets.
+     * @param digestLength the length of the digest, between 1 and 32
+     */
+    protected Blake2sMessageDigest(final int digestLength) {
+        if (digestLength < 1 || digestLength > 32) {
+            throw new IllegalArgumentException("The digest length must be between 1 and 32!");
+        }
+
+        this.digestLength = digestLength;
+
+        engineReset();
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+        if (bufferLength == BLOCK_LENGTH) {
+            compressBuffer(false);
+        }
+
+        buffer[bufferLength++] = input;
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, int offset, int length) {
+        while (length > 0) {
+            // The last block must be compressed with the final flag, so a full buffer is kept until more data arrives.
+            if (bufferLength == BLOCK_LENGTH) {
+                compressBuffer(false);
+            }
+
+            final int chunk = Math.min(length, BLOCK_LENGTH - bufferLength);
+            System.arraycopy(input, offset, buffer, bufferLength, chunk);
+
+            bufferLength += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        Arrays.fill(buffer, bufferLength, BLOCK_LENGTH, (byte) 0);
+        compressBuffer(true);
+
+        final byte[] result = new byte[digestLength];
+        for (int i = 0; i < digestLength; ++i) {
+            result[i] = (byte) (h[i >>> 2] >>> (8 * (i & 3)));
+        }
+
+        engineReset();
+
+        return result;
+    }
+
+    @Override
+    protected void engineReset() {
+        System.arraycopy(IV, 0, h, 0, IV.length);
+
+        // Parameter block: digest length, no key, fanout and depth of 1.
+        h[0] ^= 0x01010000 ^ digestLength;
+
+        Arrays.fill(buffer, (byte) 0);
+        bufferLength = 0;
+        counter = 0L;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        final Blake2sMessageDigest copy = (Blake2sMessageDigest) super.clone();
+
+        copy.h = h.clone();
+        copy.buffer = buffer.clone();
+        copy.m = new int[16];
+
+        return copy;
+    }
+
+    private void compressBuffer(final boolean isFinal) {
+        counter += bufferLength;
+
+        for (int i = 0; i < 16; ++i) {
+            m[i] = readInt(buffer, i * 4);
+        }
+
+        // The working vector is kept in local variables, which is considerably faster than an array.
+        int v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7];
+        int v8 = IV[0], v9 = IV[1], v10 = IV[2], v11 = IV[3];
+        int v12 = IV[4] ^ (int) counter, v13 = IV[5] ^ (int) (counter >>> 32);
+        int v14 = isFinal ? ~IV[6] : IV[6], v15 = IV[7];
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            final byte[] s = SIGMA[round];
+
+            v0 += v4 + m[s[0]];
+            v12 = Integer.rotateRight(v12 ^ v0, 16);
+            v8 += v12;
+            v4 = Integer.rotateRight(v4 ^ v8, 12);
+            v0 += v4 + m[s[1]];
+            v12 = Integer.rotateRight(v12 ^ v0, 8);
+            v8 += v12;
+            v4 = Integer.rotateRight(v4 ^ v8, 7);
+
+            v1 += v5 + m[s[2]];
+            v13 = Integer.rotateRight(v13 ^ v1, 16);
+            v9 += v13;
+            v5 = Integer.rotateRight(v5 ^ v9, 12);
+            v1 += v5 + m[s[3]];
+            v13 = Integer.rotateRight(v13 ^ v1, 8);
+            v9 += v13;
+            v5 = Integer.rotateRight(v5 ^ v9, 7);
+
+            v2 += v6 + m[s[4]];
+            v14 = Integer.rotateRight(v14 ^ v2, 16);
+            v10 += v14;
+            v6 = Integer.rotateRight(v6 ^ v10, 12);
+            v2 += v6 + m[s[5]];
+            v14 = Integer.rotateRight(v14 ^ v2, 8);
+            v10 += v14;
+            v6 = Integer.rotateRight(v6 ^ v10, 7);
+
+            v3 += v7 + m[s[6]];
+            v15 = Integer.rotateRight(v15 ^ v3, 16);
+            v11 += v15;
+            v7 = Integer.rotateRight(v7 ^ v11, 12);
+            v3 += v7 + m[s[7]];
+            v15 = Integer.rotateRight(v15 ^ v3, 8);
+            v11 += v15;
+            v7 = Integer.rotateRight(v7 ^ v11, 7);
+
+            v0 += v5 + m[s[8]];
+            v15 = Integer.rotateRight(v15 ^ v0, 16);
+            v10 += v15;
+            v5 = Integer.rotateRight(v5 ^ v10, 12);
+            v0 += v5 + m[s[9]];
+            v15 = Integer.rotateRight(v15 ^ v0, 8);
+            v10 += v15;
+            v5 = Integer.rotateRight(v5 ^ v10, 7);
+
+            v1 += v6 + m[s[10]];
+            v12 = Integer.rotateRight(v12 ^ v1, 16);
+            v11 += v12;
+            v6 = Integer.rotateRight(v6 ^ v11, 12);
+            v1 += v6 + m[s[11]];
+            v12 = Integer.rotateRight(v12 ^ v1, 8);
+            v11 += v12;
+            v6 = Integer.rotateRight(v6 ^ v11, 7);
+
+            v2 += v7 + m[s[12]];
+            v13 = Integer.rotateRight(v13 ^ v2, 16);
+            v8 += v13;
+            v7 = Integer.rotateRight(v7 ^ v8, 12);
+            v2 += v7 + m[s[13]];
+            v13 = Integer.rotateRight(v13 ^ v2, 8);
+            v8 += v13;
+            v7 = Integer.rotateRight(v7 ^ v8, 7);
+
+            v3 += v4 + m[s[14]];
+            v14 = Integer.rotateRight(v14 ^ v3, 16);
+            v9 += v14;
+            v4 = Integer.rotateRight(v4 ^ v9, 12);
+            v3 += v4 + m[s[15]];
+            v14 = Integer.rotateRight(v14 ^ v3, 8);
+            v9 += v14;
+            v4 = Integer.rotateRight(v4 ^ v9, 7);
+        }
+
+        h[0] ^= v0 ^ v8;
+        h[1] ^= v1 ^ v9;
+        h[2] ^= v2 ^ v10;
+        h[3] ^= v3 ^ v11;
+        h[4] ^= v4 ^ v12;
+        h[5] ^= v5 ^ v13;
+        h[6] ^= v6 ^ v14;
+        h[7] ^= v7 ^ v15;
+
+        bufferLength = 0;
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xff)
+                | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16
+                | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * BLAKE2s with a 224-bit digest.
+     */
+    public static final class Blake2s224 extends Blake2sMessageDigest {
+        public Blake2s224() {
+            super(28);
+        }
+    }
+
+    /**
+     * BLAKE2s with a 256-bit digest.
+     */
+    public static final class Blake2s256 extends Blake2sMessageDigest {
+        public Blake2s256() {
+            super(32);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cryptid.provider;
+
+import java.security.Provider;
+
+/**
+ * JCA security provider offering the BLAKE2 message digests. The provider does not need to be installed:
+ * {@link cryptid.util.MessageDigestFactory} falls back to it if no installed provider supports an algorithm.
+ * It can also be installed with {@link java.security.Security#addProvider(Provider)}.
+ */
+public final class CryptIdProvider extends Provider {
+    /**
+     * The name of the provider.
+     */
+    public static final String NAME = "CryptID";
+
+    /**
+     * A shared instance of the provider.
+     */
+    public static final CryptIdProvider INSTANCE = new CryptIdProvider();
+
+    private static final double VERSION = 1.0;
+
+    public CryptIdProvider() {
+        super(NAME, VERSION, "CryptID provider (BLAKE2b and BLAKE2s message digests)");
+
+        put("MessageDigest.BLAKE2B-256", Blake2bMessageDigest.Blake2b256.class.getName());
+        put("MessageDigest.BLAKE2B-384", Blake2bMessageDigest.Blake2b384.class.getName());
+        put("MessageDigest.BLAKE2B-512", Blake2bMessageDigest.Blake2b512.class.getName());
+        put("MessageDigest.BLAKE2S-224", Blake2sMessageDigest.Blake2s224.class.getName());
+        put("MessageDigest.BLAKE2S-256", Blake2sMessageDigest.Blake2s256.class.getName());
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * A JCA security provider with message digest algorithms that are not shipped with every Java runtime.
+ */
+package cryptid.provider;
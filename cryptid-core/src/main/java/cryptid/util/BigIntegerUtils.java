@@ -1,6 +1,10 @@
 package cryptid.util;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -34,6 +38,22 @@ public final class BigIntegerUtils {
     public static byte[] convertPositiveBigIntegerToByteArray(final BigInteger i, final int length) {
         byte[] result = new byte[length];
 
+        writePositiveBigInteger(i, result, 0, length);
+
+        return result;
+    }
+
+    /**
+     * Writes the specified positive BigInteger into a region of the destination array, as a zero-padded big-endian
+     * octet string of the specified length.
+     * @param i the BigInteger to write
+     * @param destination the array to write into
+     * @param offset the start of the region
+     * @param length the length of the region
+     * @throws IllegalArgumentException if {@code length} is smaller than the minimum number of bytes needed to represent
+     *         the BigInteger
+     */
+    public static void writePositiveBigInteger(final BigInteger i, final byte[] destination, final int offset, final int length) {
         int effectiveLength = byteLength(i);
 
         if (effectiveLength > length) {
@@ -42,11 +62,10 @@ public final class BigIntegerUtils {
 
         byte[] intBytes = i.toByteArray();
         int fullLength = intBytes.length;
-        int startOffset = length - effectiveLength;
-
-        System.arraycopy(intBytes, fullLength - effectiveLength, result, startOffset, effectiveLength);
+        int startOffset = offset + length - effectiveLength;
 
-        return result;
+        Arrays.fill(destination, offset, startOffset, (byte) 0);
+        System.arraycopy(intBytes, fullLength - effectiveLength, destination, startOffset, effectiveLength);
     }
 
     /**
@@ -59,4 +78,41 @@ public final class BigIntegerUtils {
     public static BigInteger randomBigInteger(BigInteger from, BigInteger to, Random random) {
         return (new BigInteger(to.bitLength(), random)).mod(to.subtract(from)).add(from);
     }
+
+    /**
+     * Computes the modular inverses of the specified values using Montgomery's trick, that is, with a single modular
+     * inversion and {@code 3(n - 1)} modular multiplications instead of {@code n} inversions.
+     * @param values the values to invert, none of them may be congruent to zero
+     * @param modulus the modulus
+     * @throws ArithmeticException if any of the values is not invertible
+     * @return the inverses of the values, in the same order
+     */
+    public static List<BigInteger> batchModInverse(final List<BigInteger> values, final BigInteger modulus) {
+        final int n = values.size();
+
+        if (n == 0) {
+            return Collections.emptyList();
+        }
+
+        // prefix[i] = values[0] * ... * values[i]
+        final BigInteger[] prefix = new BigInteger[n];
+        prefix[0] = values.get(0).mod(modulus);
+        for (int i = 1; i < n; ++i) {
+            prefix[i] = prefix[i - 1].multiply(values.get(i)).mod(modulus);
+        }
+
+        BigInteger inverse = prefix[n - 1].modInverse(modulus);
+
+        final BigInteger[] result = new BigInteger[n];
+        for (int i = n - 1; i > 0; --i) {
+            result[i] = inverse.multiply(prefix[i - 1]).mod(modulus);
+            inverse = inverse.multiply(values.get(i)).mod(modulus);
+        }
+        result[0] = inverse;
+
+        final List<BigInteger> list = new ArrayList<>(n);
+        Collections.addAll(list, result);
+
+        return list;
+    }
 }
@@ -1,14 +1,37 @@
 package cryptid.util;
 
+import cryptid.provider.CryptIdProvider;
+
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 
 /**
  * Factory class that can provide instances of the specified message digest algorithm.
+ *
+ * Looking up a provider on every request is relatively costly, thus, if the implementation supports it, new
+ * instances are produced by cloning a prototype which is never updated itself.
+ *
+ * Algorithms not supported by any of the installed providers (for example BLAKE2b) are looked up in
+ * {@link CryptIdProvider}.
+ *
+ * Factories are thread-safe, while the returned instances are not: they hold the state of a single computation, and
+ * must not be shared between threads. Cloning the prototype takes no lock, so concurrent operations that each obtain
+ * their own instance do not contend.
  */
 public final class MessageDigestFactory {
     private final String algorithm;
 
+    /*
+     * The provider to look up the algorithm in or null if any of the installed providers can be used.
+     */
+    private final Provider provider;
+
+    /*
+     * Pristine instance that is cloned by obtainInstance or null if the implementation is not cloneable.
+     */
+    private final MessageDigest prototype;
+
     /**
      * Constructs a new factory that can provide instances of the specified message digest algorithm.
      * @param algorithm the message digest algorithm
@@ -16,15 +39,25 @@ public final class MessageDigestFactory {
      * @throws NoSuchAlgorithmException if there is no provider for the specified algorithm
      */
     public static MessageDigestFactory forAlgorithm(String algorithm) throws NoSuchAlgorithmException {
-        // If it throws, it throws, that's it.
-        MessageDigest.getInstance(algorithm);
+        Provider provider = null;
+        MessageDigest prototype;
+
+        try {
+            prototype = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // If it throws, it throws, that's it.
+            provider = CryptIdProvider.INSTANCE;
+            prototype = MessageDigest.getInstance(algorithm, provider);
+        }
 
         // Otherwise, we can safely assume, that subsequent calls will not throw either.
-        return new MessageDigestFactory(algorithm);
+        return new MessageDigestFactory(algorithm, provider, isCloneable(prototype) ? prototype : null);
     }
 
-    private MessageDigestFactory(String algorithm) {
+    private MessageDigestFactory(String algorithm, Provider provider, MessageDigest prototype) {
         this.algorithm = algorithm;
+        this.provider = provider;
+        this.prototype = prototype;
     }
 
     /**
@@ -34,8 +67,12 @@ public final class MessageDigestFactory {
      */
     public MessageDigest obtainInstance() {
         try {
-            return MessageDigest.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
+            if (prototype != null) {
+                return (MessageDigest) prototype.clone();
+            }
+
+            return provider == null ? MessageDigest.getInstance(algorithm) : MessageDigest.getInstance(algorithm, provider);
+        } catch (CloneNotSupportedException | NoSuchAlgorithmException e) {
             throw new IllegalStateException("Could not get message digest instance for the desired hash function!", e);
         }
     }
@@ -47,4 +84,14 @@ public final class MessageDigestFactory {
     public String getAlgorithm() {
         return algorithm;
     }
+
+    private static boolean isCloneable(MessageDigest messageDigest) {
+        try {
+            messageDigest.clone();
+
+            return true;
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+    }
 }
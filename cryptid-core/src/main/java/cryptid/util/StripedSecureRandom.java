@@ -0,0 +1,162 @@
+package cryptid.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.SecureRandomSpi;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link SecureRandom} that gives every thread its own generator, so that threads sharing a client or a private key
+ * generator do not contend for a single instance. Several providers synchronize {@code nextBytes}, and so does
+ * {@link SecureRandom} itself on Java 8, which serializes the random scalars of concurrent encryptions.
+ *
+ * The generator of a thread is an instance of the specified algorithm, created on its first use and seeded with
+ * {@value #SEED_LENGTH} octets of the master source, which is only used for seeding afterwards. Seeds passed to
+ * {@link #setSeed(byte[])} supplement the master source, thus they only affect the generators created after
+ * the call, and {@link #generateSeed(int)} is answered by the master source.
+ *
+ * The generators determine the entropy of the random scalars, thus their state must not be smaller than the
+ * security level they serve. That is why the generators default to DRBG, whose state is 440 bits with SHA-256, or
+ * to the algorithm of the master source, but never to SHA1PRNG, whose state is only 160 bits.
+ */
+public final class StripedSecureRandom extends SecureRandom {
+    /**
+     * The preferred algorithm of the per-thread generators, available since Java 9. Its mechanism and nominal
+     * strength are set by the {@code securerandom.drbg.config} security property.
+     */
+    public static final String DEFAULT_ALGORITHM = "DRBG";
+
+    /**
+     * The number of octets seeding a per-thread generator.
+     */
+    public static final int SEED_LENGTH = 32;
+
+    private static final long serialVersionUID = 1L;
+
+    private final StripedSpi spi;
+
+    /**
+     * Constructs a new instance with {@link #DEFAULT_ALGORITHM} generators or, if that is not available, with
+     * generators of the algorithm of the master source. If neither is available, every thread uses the master
+     * source itself.
+     * @param master the source the per-thread generators are seeded from
+     */
+    public StripedSecureRandom(final SecureRandom master) {
+        this(new StripedSpi(master, defaultAlgorithm(master)));
+    }
+
+    /**
+     * Constructs a new instance.
+     * @param master the source the per-thread generators are seeded from
+     * @param algorithm the algorithm of the per-thread generators
+     * @throws NoSuchAlgorithmException if there is no provider for the specified algorithm
+     */
+    public StripedSecureRandom(final SecureRandom master, final String algorithm) throws NoSuchAlgorithmException {
+        this(checkedSpi(master, algorithm));
+    }
+
+    private StripedSecureRandom(final StripedSpi spi) {
+        super(spi, null);
+
+        this.spi = spi;
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        // Bypasses the lock SecureRandom holds around nextBytes on Java 8.
+        spi.engineNextBytes(bytes);
+    }
+
+    @Override
+    public byte[] generateSeed(final int numBytes) {
+        return spi.engineGenerateSeed(numBytes);
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return "Striped" + (spi.algorithm == null ? spi.master.getAlgorithm() : spi.algorithm);
+    }
+
+    /**
+     * Selects the algorithm of the per-thread generators seeded from the specified master source, returning
+     * {@code null} if no algorithm is available.
+     */
+    private static String defaultAlgorithm(final SecureRandom master) {
+        // Falls back to the algorithm of the master source rather than to SHA1PRNG, which would cap the entropy of
+        // the generators at 160 bits.
+        for (final String algorithm : new String[]{DEFAULT_ALGORITHM, Objects.requireNonNull(master).getAlgorithm()}) {
+            try {
+                SecureRandom.getInstance(algorithm);
+
+                return algorithm;
+            } catch (NoSuchAlgorithmException e) {
+                // Tries the next algorithm.
+            }
+        }
+
+        return null;
+    }
+
+    private static StripedSpi checkedSpi(final SecureRandom master, final String algorithm)
+            throws NoSuchAlgorithmException {
+        // Fails early if the algorithm is not available, so that creating a generator later cannot fail.
+        SecureRandom.getInstance(Objects.requireNonNull(algorithm));
+
+        return new StripedSpi(master, algorithm);
+    }
+
+    private static final class StripedSpi extends SecureRandomSpi {
+        private static final long serialVersionUID = 1L;
+
+        private final SecureRandom master;
+
+        /*
+         * The algorithm of the per-thread generators or null if every thread uses the master source.
+         */
+        private final String algorithm;
+        private final ThreadLocal<SecureRandom> generators;
+
+        private StripedSpi(final SecureRandom master, final String algorithm) {
+            this.master = Objects.requireNonNull(master);
+            this.algorithm = algorithm;
+            this.generators = algorithm == null ? ThreadLocal.withInitial(() -> master)
+                    : ThreadLocal.withInitial(this::newGenerator);
+        }
+
+        @Override
+        protected void engineSetSeed(final byte[] seed) {
+            master.setSeed(seed);
+        }
+
+        @Override
+        protected void engineNextBytes(final byte[] bytes) {
+            generators.get().nextBytes(bytes);
+        }
+
+        @Override
+        protected byte[] engineGenerateSeed(final int numBytes) {
+            return master.generateSeed(numBytes);
+        }
+
+        private SecureRandom newGenerator() {
+            final byte[] seed = new byte[SEED_LENGTH];
+
+            try {
+                final SecureRandom generator = SecureRandom.getInstance(algorithm);
+
+                // Seeding before the first use makes the generator rely on the master source only, or in the case
+                // of DRBG, on the master source in addition to its own entropy input.
+                master.nextBytes(seed);
+                generator.setSeed(seed);
+
+                return generator;
+            } catch (NoSuchAlgorithmException e) {
+                // The availability of the algorithm is checked on construction.
+                throw new IllegalStateException(e);
+            } finally {
+                Arrays.fill(seed, (byte) 0);
+            }
+        }
+    }
+}
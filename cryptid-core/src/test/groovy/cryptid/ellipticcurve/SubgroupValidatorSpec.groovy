@@ -0,0 +1,47 @@
+package cryptid.ellipticcurve
+
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Tests for {@link SubgroupValidator}
+ */
+class SubgroupValidatorSpec extends Specification {
+    @Unroll
+    def "Validation should agree with [q]U = infinity on every point of a small curve for q = #q."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+        def validator = SubgroupValidator.forSubgroup(ec, BigInteger.valueOf(q))
+        def points = (0..22).collect { new AffinePoint(ec.solveForX(BigInteger.valueOf(it)), BigInteger.valueOf(it)) }
+
+        expect:
+        points.every { point ->
+            validator.isValid(point) == AffinePoint.isInfinity(point.multiply(BigInteger.valueOf(q), ec))
+        }
+
+        where:
+        // 3 = 2^3 - 2^2 - 1 and 5 = 2^3 - 2^1 - 1 are Solinas primes, 11 is not.
+        q << [3L, 5L, 11L]
+    }
+
+    def "Validation should accept subgroup members and reject other points on the RFC 5091 curve."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(new BigInteger("a6a0ffd016103ffffffffff595f002fe9ef195f002fe9efb", 16))
+        def q = BigInteger.valueOf(2L).pow(140).subtract(BigInteger.valueOf(2L).pow(48)).subtract(BigInteger.ONE)
+        def validator = SubgroupValidator.forSubgroup(ec, q)
+        def pointP = new AffinePoint(
+                new BigInteger("6924c354256acf5a0ff7f61be4f0495b54540a5bf6395b3d", 16),
+                new BigInteger("024fd8e2eb7c09104bca116f41c035219955237c0eac19ab", 16))
+        def notInSubgroup = new AffinePoint(ec.solveForX(BigInteger.TEN), BigInteger.TEN)
+
+        expect:
+        validator.isValid(pointP)
+        validator.isValid(pointP.multiply(BigInteger.valueOf(12345L), ec))
+        !validator.isValid(notInSubgroup)
+        !validator.isValid(pointP.add(new AffinePoint(ec.getFieldOrder().subtract(BigInteger.ONE), BigInteger.ZERO), ec))
+        !validator.isValid(new AffinePoint(pointP.x, pointP.y.add(BigInteger.ONE)))
+        !validator.isValid(new AffinePoint(pointP.x.add(ec.getFieldOrder()), pointP.y))
+        !validator.isValid(AffinePoint.INFINITY)
+    }
+}
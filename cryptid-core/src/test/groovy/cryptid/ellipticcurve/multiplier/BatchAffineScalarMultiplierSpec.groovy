@@ -0,0 +1,32 @@
+package cryptid.ellipticcurve.multiplier
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import spock.lang.Specification
+
+/**
+ * Tests for {@link BatchAffineScalarMultiplier}
+ */
+class BatchAffineScalarMultiplierSpec extends Specification {
+    def "Batch multiplication should agree with affine multiplication on every point of a small curve."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+        def multiplier = new BatchAffineScalarMultiplier(ec)
+        def points = (0..22).collect { new AffinePoint(ec.solveForX(BigInteger.valueOf(it)), BigInteger.valueOf(it)) }
+        points << AffinePoint.INFINITY
+
+        expect:
+        (0..50).every { n ->
+            def s = BigInteger.valueOf(n)
+            def results = multiplier.multiplyAll(points, s)
+
+            results.size() == points.size() && (0..<points.size()).every { i ->
+                sameResult(points[i].multiply(s, ec), results[i])
+            }
+        }
+    }
+
+    private static boolean sameResult(AffinePoint expected, AffinePoint actual) {
+        return AffinePoint.isInfinity(expected) ? AffinePoint.isInfinity(actual) : expected == actual
+    }
+}
@@ -0,0 +1,63 @@
+package cryptid.ellipticcurve.multiplier
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.security.SecureRandom
+
+/**
+ * Tests for {@link MontgomeryLadderScalarMultiplier}
+ */
+class MontgomeryLadderScalarMultiplierSpec extends Specification {
+    def "The ladder should agree with affine multiplication on every point of a small curve."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+        def ladder = new MontgomeryLadderScalarMultiplier(ec)
+        def points = (0..22).collect { new AffinePoint(ec.solveForX(BigInteger.valueOf(it)), BigInteger.valueOf(it)) }
+
+        expect:
+        points.every { point ->
+            (0..50).every { n ->
+                def s = BigInteger.valueOf(n)
+
+                sameResult(point.multiply(s, ec), ladder.multiply(point, s))
+            }
+        }
+    }
+
+    @Unroll
+    def "The ladder should agree with affine multiplication on the RFC 5091 curve for #scalar."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(new BigInteger("a6a0ffd016103ffffffffff595f002fe9ef195f002fe9efb", 16))
+        def pointP = new AffinePoint(
+                new BigInteger("6924c354256acf5a0ff7f61be4f0495b54540a5bf6395b3d", 16),
+                new BigInteger("024fd8e2eb7c09104bca116f41c035219955237c0eac19ab", 16))
+        def ladder = new MontgomeryLadderScalarMultiplier(ec)
+
+        expect:
+        sameResult(pointP.multiply(scalar, ec), ladder.multiply(pointP, scalar))
+
+        where:
+        scalar << [
+                BigInteger.ONE,
+                BigInteger.valueOf(2L),
+                solinas(140, 48).subtract(BigInteger.ONE),
+                solinas(140, 48),
+                solinas(140, 48).add(BigInteger.ONE),
+                new BigInteger(140, new SecureRandom()),
+                new BigInteger(192, new SecureRandom())
+        ]
+    }
+
+    private static boolean sameResult(AffinePoint expected, AffinePoint actual) {
+        return AffinePoint.isInfinity(expected) ? AffinePoint.isInfinity(actual) : expected == actual
+    }
+
+    private static BigInteger solinas(int a, int b) {
+        return BigInteger.valueOf(2L).pow(a)
+                .subtract(BigInteger.valueOf(2L).pow(b))
+                .subtract(BigInteger.ONE)
+    }
+}
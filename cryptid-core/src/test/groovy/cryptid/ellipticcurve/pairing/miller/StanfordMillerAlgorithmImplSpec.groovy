@@ -70,5 +70,21 @@ class StanfordMillerAlgorithmImplSpec extends Specification {
         then:
         result == expected
     }
-}
 
+    def "A prepared pairing should give the same results, and the pairing should be symmetric."() {
+        given:
+        def qprime = new BigInteger("fffffffffffffffffffffffffffbffff", 16)
+        def pprime = new BigInteger("bffffffffffffffffffffffffffcffff3", 16)
+        def ec = TypeOneEllipticCurve.ofOrder(pprime)
+
+        def a = new AffinePoint(new BigInteger("489a03c58dcf7fcfc97e99ffef0bb4634", 16), new BigInteger("510c6972d795ec0c2b081b81de767f808", 16))
+        def b = new AffinePoint(new BigInteger("40e98b9382e0b1fa6747dcb1655f54f75", 16), new BigInteger("b497a6a02e7611511d0db2ff133b32a3f", 16))
+        def pairing = new TatePairing(new StanfordMillerAlgorithmImpl(ec, qprime), new XiDistortionMap(ec), 2)
+        def prepared = pairing.prepare(b)
+
+        expect:
+        [a, b, a.multiply(BigInteger.valueOf(12345L), ec)].every { point ->
+            prepared.performPairing(point) == pairing.performPairing(b, point) && pairing.performPairing(point, b) == pairing.performPairing(b, point)
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cryptid.ellipticcurve.point.affine
 
 import cryptid.ellipticcurve.EllipticCurve
+import cryptid.ellipticcurve.TypeOneEllipticCurve
 import cryptid.ellipticcurve.point.affine.AffinePoint
 import spock.lang.Specification
 
@@ -72,4 +73,34 @@ class AffinePointSpec extends Specification {
         new AffinePoint(2, 2) | new AffinePoint(0, 4) | new AffinePoint(4, 0)
         new AffinePoint(0, 4) | new AffinePoint(2, 2) | new AffinePoint(4, 0)
     }
+
+    def "Compressed encoding should round-trip every point of the curve."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+
+        expect:
+        (0..22).every { y ->
+            def point = new AffinePoint(ec.solveForX(BigInteger.valueOf(y)), BigInteger.valueOf(y))
+            def bytes = point.toCompressedBytes(ec)
+
+            ec.isOnCurve(point) &&
+                    bytes.length == AffinePoint.compressedLength(ec) &&
+                    AffinePoint.fromCompressedBytes(bytes, ec) == point
+        }
+        AffinePoint.isInfinity(AffinePoint.fromCompressedBytes(AffinePoint.INFINITY.toCompressedBytes(ec), ec))
+    }
+
+    def "Decompression should reject invalid encodings."() {
+        given:
+        def ec = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+
+        when:
+        AffinePoint.fromCompressedBytes(bytes as byte[], ec)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        bytes << [[0x01], [0x01, 23], [0x02, 1], [0x00, 1]]
+    }
 }
@@ -0,0 +1,101 @@
+package cryptid.ibe
+
+import cryptid.CryptID
+import cryptid.ibe.domain.PrivateKey
+import cryptid.ibe.domain.SecurityLevel
+import spock.lang.Specification
+
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class AsyncIdentityBasedEncryptionSpec extends Specification {
+    def "Operations should complete on the pool."() {
+        given:
+        def async = new AsyncIdentityBasedEncryption(CryptID.setupBonehFranklin(SecurityLevel.LOWEST))
+
+        when:
+        def ciphertext = async.encrypt("message", "alice").join()
+        def privateKey = async.extract("alice").join()
+
+        then:
+        async.decrypt(privateKey, ciphertext).join().get() == "message"
+        async.decryptBytes(privateKey, ciphertext).join().get() == "message".getBytes("UTF-8")
+
+        when:
+        async.encrypt("message", "").join()
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof IllegalArgumentException
+
+        cleanup:
+        async.close()
+    }
+
+    def "Operations beyond the capacity of the queue should be handled by the rejection policy."() {
+        given:
+        def release = new CountDownLatch(1)
+        def ibe = CryptID.setupBonehFranklin(SecurityLevel.LOWEST)
+        def blocking = new BlockingIdentityBasedEncryption(ibe.@client, ibe.@privateKeyGenerator, release)
+        def async = new AsyncIdentityBasedEncryption(blocking, 1, 2, policy)
+
+        when:
+        def running = async.extract("a")
+        while (async.activeCount == 0) {
+            Thread.sleep(10)
+        }
+        def queued = [async.extract("b"), async.extract("c")]
+        def depth = async.queueDepth
+        def overflow = async.encrypt("message", "d")
+
+        then:
+        depth == 2
+        async.queueCapacity == 2
+        policy == AsyncIdentityBasedEncryption.RejectionPolicy.REJECT
+                ? overflow.isCompletedExceptionally()
+                : overflow.isDone() && !overflow.isCompletedExceptionally()
+
+        when:
+        release.countDown()
+        ([running] + queued)*.join()
+        async.close()
+
+        then:
+        async.awaitTermination(10, TimeUnit.SECONDS)
+        async.extract("e").isCompletedExceptionally()
+
+        when:
+        if (policy == AsyncIdentityBasedEncryption.RejectionPolicy.REJECT) {
+            overflow.join()
+        } else {
+            throw new CompletionException(new RejectedExecutionException())
+        }
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof RejectedExecutionException
+
+        where:
+        policy << AsyncIdentityBasedEncryption.RejectionPolicy.values()
+    }
+
+    /**
+     * Extraction blocks until the latch is released, so that the pool can be filled up.
+     */
+    static class BlockingIdentityBasedEncryption extends IdentityBasedEncryption {
+        private final CountDownLatch release
+
+        BlockingIdentityBasedEncryption(IbeClient client, PrivateKeyGenerator privateKeyGenerator, CountDownLatch release) {
+            super(client, privateKeyGenerator)
+            this.release = release
+        }
+
+        @Override
+        PrivateKey extract(String identity) {
+            release.await()
+            return super.extract(identity)
+        }
+    }
+}
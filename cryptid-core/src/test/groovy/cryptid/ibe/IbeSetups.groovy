@@ -0,0 +1,50 @@
+package cryptid.ibe
+
+import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory
+import cryptid.ellipticcurve.point.affine.generator.Mod3GenerationStrategy
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeInitializer
+import cryptid.ibe.domain.IbeSetup
+import cryptid.ibe.domain.SecurityLevel
+import cryptid.ibe.sakaikasahara.SakaiKasaharaIbeInitializer
+import cryptid.ibe.util.SolinasPrimeFactory
+
+import java.security.SecureRandom
+
+/**
+ * Initializers and setups shared by the specifications. Generating a setup takes a while, thus specifications that
+ * only need a setup of the lowest security level should use {@link #BONEH_FRANKLIN} or {@link #SAKAI_KASAHARA},
+ * which are generated once per test run.
+ */
+final class IbeSetups {
+    static final SecureRandom SECURE_RANDOM = new SecureRandom()
+
+    static final IbeSetup BONEH_FRANKLIN = bonehFranklinInitializer(SECURE_RANDOM).setup(SecurityLevel.LOWEST)
+
+    static final IbeSetup SAKAI_KASAHARA = sakaiKasaharaInitializer(SECURE_RANDOM).setup(SecurityLevel.LOWEST)
+
+    private IbeSetups() {
+        // Cannot be constructed.
+    }
+
+    static BonehFranklinIbeInitializer bonehFranklinInitializer(SecureRandom secureRandom) {
+        return new BonehFranklinIbeInitializer(secureRandom, new SolinasPrimeFactory(secureRandom),
+                generationStrategyFactory(secureRandom))
+    }
+
+    static SakaiKasaharaIbeInitializer sakaiKasaharaInitializer(SecureRandom secureRandom) {
+        return new SakaiKasaharaIbeInitializer(secureRandom, new SolinasPrimeFactory(secureRandom),
+                generationStrategyFactory(secureRandom))
+    }
+
+    /**
+     * Generates a new Boneh-Franklin setup of the lowest security level, for specifications needing a setup
+     * different from {@link #BONEH_FRANKLIN}.
+     */
+    static IbeSetup newBonehFranklinSetup() {
+        return bonehFranklinInitializer(SECURE_RANDOM).setup(SecurityLevel.LOWEST)
+    }
+
+    private static GenerationStrategyFactory<Mod3GenerationStrategy> generationStrategyFactory(SecureRandom secureRandom) {
+        return { ec -> new Mod3GenerationStrategy(ec, secureRandom) } as GenerationStrategyFactory<Mod3GenerationStrategy>
+    }
+}
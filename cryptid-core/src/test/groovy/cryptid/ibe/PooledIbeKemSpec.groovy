@@ -0,0 +1,124 @@
+package cryptid.ibe
+
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import cryptid.ibe.domain.EncapsulationRandomness
+import cryptid.ibe.domain.KeyEncapsulation
+import cryptid.ibe.domain.PrivateKey
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Tests for {@link PooledIbeKem}
+ */
+class PooledIbeKemSpec extends Specification {
+    private static final long TIMEOUT = 60000
+
+    def "The pool should only be refilled once its size drops to the refill threshold."() {
+        given:
+        def kem = new CountingKem()
+        def pooled = new PooledIbeKem(kem, 8, 3)
+
+        when:
+        awaitProduced(pooled, 8)
+        def taken = (1..4).collect { pooled.precomputeRandomness() }
+        Thread.sleep(200)
+
+        then:
+        pooled.poolSize == 4
+        pooled.produced == 8
+        pooled.hits == 4
+        pooled.misses == 0
+
+        when:
+        taken << pooled.precomputeRandomness()
+        awaitProduced(pooled, 13)
+
+        then:
+        pooled.poolSize == 8
+        pooled.produced == 13
+        pooled.hits == 5
+        pooled.misses == 0
+        kem.computed.get() == 13
+        taken*.encapsulation.unique().size() == 5
+
+        cleanup:
+        pooled.close()
+    }
+
+    def "Closing should stop the producer, empty the pool and leave encapsulations working."() {
+        given:
+        def kem = new CountingKem()
+        def pooled = new PooledIbeKem(kem, 4, 1)
+        awaitProduced(pooled, 4)
+
+        when:
+        pooled.close()
+        pooled.@producer.join(TIMEOUT)
+        def produced = pooled.produced
+        def encapsulation = pooled.encapsulate("alice@example.com")
+
+        then:
+        !pooled.@producer.alive
+        pooled.poolSize == 0
+        pooled.hits == 0
+        pooled.misses == 1
+        pooled.produced == produced
+        kem.computed.get() == produced + 1
+        encapsulation.key == [(byte) (produced + 1)] as byte[]
+    }
+
+    def "Invalid pool sizes should be rejected."() {
+        when:
+        new PooledIbeKem(new CountingKem(), capacity, refillThreshold)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        capacity | refillThreshold
+        0        | 0
+        4        | 4
+        4        | -1
+    }
+
+    private static void awaitProduced(PooledIbeKem pooled, long produced) {
+        def deadline = System.currentTimeMillis() + TIMEOUT
+        while (pooled.produced < produced && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+    }
+
+    /**
+     * Counts the computed randomness, which is told apart by the x coordinate of its point.
+     */
+    static class CountingKem extends IbeKem {
+        final AtomicLong computed = new AtomicLong()
+
+        CountingKem() {
+            super(null)
+        }
+
+        @Override
+        KeyEncapsulation encapsulate(String identity) {
+            return encapsulate(identity, precomputeRandomness())
+        }
+
+        @Override
+        EncapsulationRandomness precomputeRandomness() {
+            def index = computed.incrementAndGet()
+
+            return new EncapsulationRandomness(BigInteger.valueOf(index), new AffinePoint(index, 0L))
+        }
+
+        @Override
+        KeyEncapsulation encapsulate(String identity, EncapsulationRandomness randomness) {
+            return new KeyEncapsulation(randomness.encapsulation, [randomness.consume().byteValue()] as byte[])
+        }
+
+        @Override
+        Optional<byte[]> decapsulate(PrivateKey privateKey, AffinePoint encapsulation) {
+            return Optional.empty()
+        }
+    }
+}
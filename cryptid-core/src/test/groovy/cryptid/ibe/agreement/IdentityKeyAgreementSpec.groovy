@@ -0,0 +1,119 @@
+package cryptid.ibe.agreement
+
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.domain.IbeSetup
+import cryptid.ibe.domain.IdentityPrivateKey
+import cryptid.ibe.exception.DecryptionException
+import cryptid.ibe.hybrid.PeerMessageCipher
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.security.SecureRandom
+
+/**
+ * Tests for {@link IdentityKeyAgreement}
+ */
+class IdentityKeyAgreementSpec extends Specification {
+    @Shared
+    private SecureRandom secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    private IbeSetup setup = IbeSetups.BONEH_FRANKLIN
+
+    def "Peers should agree on the same key without interaction."() {
+        given:
+        def alice = agreement("alice@example.com")
+        def bob = agreement("bob@example.com")
+        def carol = agreement("carol@example.com")
+
+        when:
+        def aliceBob = alice.sharedKey("bob@example.com")
+
+        then:
+        aliceBob.length == IdentityKeyAgreement.KEY_LENGTH
+        bob.sharedKey("alice@example.com") == aliceBob
+        carol.sharedKey("alice@example.com") != aliceBob
+        alice.sharedKey("carol@example.com") == carol.sharedKey("alice@example.com")
+        alice.sharedKey("carol@example.com") != aliceBob
+    }
+
+    def "Shared keys should be kept until they are forgotten."() {
+        given:
+        def alice = agreement("alice@example.com")
+
+        when:
+        def first = alice.sharedKey("bob@example.com")
+        first[0] ^= 1
+        def second = alice.sharedKey("bob@example.com")
+        alice.sharedKey("carol@example.com")
+
+        then:
+        second != first
+        alice.peerCount == 2
+
+        when:
+        def kept = alice.@sharedKeys.get("bob@example.com").@value
+        alice.forget("bob@example.com")
+
+        then:
+        kept == new byte[IdentityKeyAgreement.KEY_LENGTH]
+        alice.peerCount == 1
+        alice.sharedKey("bob@example.com") == second
+
+        when:
+        alice.forgetAll()
+
+        then:
+        alice.peerCount == 0
+    }
+
+    def "Messages should only be accepted by their receiver."() {
+        given:
+        def alice = new PeerMessageCipher(agreement("alice@example.com"), secureRandom)
+        def bob = new PeerMessageCipher(agreement("bob@example.com"), secureRandom)
+        def carol = new PeerMessageCipher(agreement("carol@example.com"), secureRandom)
+        def message = "Hello, Bob!".bytes
+
+        when:
+        def ciphertext = alice.encrypt("bob@example.com", message)
+
+        then:
+        bob.decrypt("alice@example.com", ciphertext) == message
+        alice.encrypt("bob@example.com", message) != ciphertext
+
+        when:
+        alice.decrypt("bob@example.com", ciphertext)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        carol.decrypt("alice@example.com", ciphertext)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        def tampered = ciphertext.clone()
+        tampered[tampered.length - 1] ^= 1
+        bob.decrypt("alice@example.com", tampered)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        bob.decrypt("alice@example.com", ciphertext[0..<10] as byte[])
+
+        then:
+        thrown(DecryptionException)
+    }
+
+    private IdentityKeyAgreement agreement(String identity) {
+        def privateKey = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+                .obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+                .extract(identity)
+
+        return new IdentityKeyAgreement(setup.publicParameters, new IdentityPrivateKey(identity, privateKey))
+    }
+}
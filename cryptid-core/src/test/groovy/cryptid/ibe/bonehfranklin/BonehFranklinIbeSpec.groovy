@@ -3,16 +3,27 @@ package cryptid.ibe.bonehfranklin
 import groovy.transform.Immutable
 import cryptid.ellipticcurve.TypeOneEllipticCurve
 import cryptid.ellipticcurve.point.affine.AffinePoint
-import cryptid.ellipticcurve.point.affine.generator.GenerationStrategyFactory;
-import cryptid.ellipticcurve.point.affine.generator.Mod3GenerationStrategy;
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.domain.CipherTextHeader
+import cryptid.ibe.domain.CipherTextTuple
+import cryptid.ibe.domain.EncryptionRequest
 import cryptid.ibe.domain.IbeSetup
+import cryptid.ibe.domain.MaskGenerationMode
 import cryptid.ibe.domain.PublicParameters
 import cryptid.ibe.domain.SecurityLevel
-import cryptid.ibe.util.SolinasPrimeFactory
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.SeekableByteChannel
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption
 import java.security.SecureRandom
+import java.util.stream.Collectors
 
 class BonehFranklinIbeSpec extends Specification {
     private enum MessageLength {
@@ -125,11 +136,387 @@ class BonehFranklinIbeSpec extends Specification {
         ].flatten()
     }
 
+    def "Batch decryption should only reject the ciphertexts that fail the check."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def messages = (1..5).collect { generateRandomString(MessageLength.MEDIUM.length) }
+        def ciphertexts = messages.collect { components.client.encrypt(it, identity) }
+        ciphertexts[2] = components.client.encrypt(messages[2], identity + "x")
+        def privateKey = components.pkg.extract(identity)
+
+        when:
+        def result = components.client.decryptAll(privateKey, ciphertexts)
+
+        then:
+        result.size() == messages.size()
+        result[0].get() == messages[0]
+        result[1].get() == messages[1]
+        !result[2].isPresent()
+        result[3].get() == messages[3]
+        result[4].get() == messages[4]
+    }
+
+    def "Decryption should reject ciphertexts whose U is not a point of order q."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = generateRandomString(MessageLength.MEDIUM.length)
+        def ciphertext = components.client.encrypt(message, identity)
+        def ec = components.client.publicParameters.ellipticCurve
+        def tampered = new CipherTextTuple(
+                ciphertext.cipherU.add(new AffinePoint(ec.fieldOrder.subtract(BigInteger.ONE), BigInteger.ZERO), ec),
+                ciphertext.cipherV, ciphertext.cipherW)
+        def privateKey = components.pkg.extract(identity)
+
+        expect:
+        !components.client.decrypt(privateKey, tampered).isPresent()
+        components.client.decryptAll(privateKey, [ciphertext, tampered, ciphertext]).collect { it.orElse(null) } == [message, null, message]
+    }
+
+    def "Batch extraction should produce the same keys as individual extraction."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identities = (1..150).collect { generateRandomString(IdLength.SHORT.length) + it }
+
+        when:
+        def result = components.pkg.extractAll(identities).collect(Collectors.toList())
+
+        then:
+        result.size() == identities.size()
+        result.collect { it.identity } as Set == identities as Set
+        result.every { it.privateKey == components.pkg.extract(it.identity) }
+    }
+
+    def "Counter mode ciphertexts should decrypt and record their mode."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def counterClient = new BonehFranklinIbeComponentFactoryImpl(new SecureRandom())
+                .withMaskGenerationMode(MaskGenerationMode.COUNTER)
+                .obtainClient(components.client.publicParameters)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = generateRandomString(length)
+        def privateKey = components.pkg.extract(identity)
+
+        when:
+        def ciphertext = counterClient.encrypt(message, identity)
+        def relabeled = new CipherTextTuple(ciphertext.cipherU, ciphertext.cipherV, ciphertext.cipherW, MaskGenerationMode.HASH_CHAIN)
+
+        then:
+        ciphertext.maskGenerationMode == MaskGenerationMode.COUNTER
+        components.client.decrypt(privateKey, ciphertext).get() == message
+        !components.client.decrypt(privateKey, relabeled).isPresent()
+
+        where:
+        length << [MessageLength.MEDIUM.length, 200000]
+    }
+
+    def "Setups using a BLAKE2 hash function should work correctly."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST, hashFunction)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = generateRandomString(MessageLength.MEDIUM.length)
+
+        expect:
+        components.client.publicParameters.hashFunction == hashFunction
+        components.client.decrypt(components.pkg.extract(identity), components.client.encrypt(message, identity)).get() == message
+
+        where:
+        hashFunction << ["BLAKE2B-512", "BLAKE2S-256"]
+    }
+
+    def "Binary messages should round-trip through the byte and buffer API."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = new byte[1000]
+        new SecureRandom().nextBytes(message)
+        def privateKey = components.pkg.extract(identity)
+        def input = ByteBuffer.allocateDirect(message.length + 8)
+        input.position(8)
+        input.put(message)
+        input.position(8)
+
+        when:
+        def ciphertext = components.client.encrypt(input, identity)
+        def wrongKey = components.pkg.extract(identity + "x")
+        def output = ByteBuffer.allocate(message.length + 4)
+        output.position(4)
+        def rejected = ByteBuffer.allocate(message.length)
+        Arrays.fill(rejected.array(), (byte) 7)
+
+        then:
+        !input.hasRemaining()
+        components.client.decryptBytes(privateKey, ciphertext).get() == message
+        components.client.decrypt(privateKey, ciphertext, output)
+        output.position() == message.length + 4
+        Arrays.copyOfRange(output.array(), 4, message.length + 4) == message
+        !components.client.decrypt(wrongKey, ciphertext, rejected)
+        rejected.position() == 0
+        rejected.array().every { it == 0 }
+
+        when:
+        components.client.decrypt(privateKey, ciphertext, ByteBuffer.allocate(message.length - 1))
+
+        then:
+        thrown(BufferOverflowException)
+    }
+
+    def "Low-latency clients should interoperate with sequential ones and reject invalid U."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def executor = java.util.concurrent.Executors.newFixedThreadPool(2)
+        def client = new BonehFranklinIbeComponentFactoryImpl(new SecureRandom())
+                .withLowLatencyMode(executor)
+                .obtainClient(components.client.publicParameters)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = generateRandomString(MessageLength.LONG.length)
+        def privateKey = components.pkg.extract(identity)
+        def ciphertext = client.encrypt(message, identity)
+        def ec = components.client.publicParameters.ellipticCurve
+        def tampered = new CipherTextTuple(
+                ciphertext.cipherU.add(new AffinePoint(ec.fieldOrder.subtract(BigInteger.ONE), BigInteger.ZERO), ec),
+                ciphertext.cipherV, ciphertext.cipherW)
+        def rejected = ByteBuffer.wrap(([(byte) 0x55] * ciphertext.cipherW.length) as byte[])
+
+        expect:
+        components.client.decrypt(privateKey, ciphertext).get() == message
+        client.decrypt(privateKey, components.client.encrypt(message, identity)).get() == message
+        !client.decrypt(privateKey, tampered, rejected)
+        rejected.position() == 0
+        rejected.array().every { it == (byte) 0x55 }
+
+        when:
+        client.encrypt(message, "")
+
+        then:
+        thrown(IllegalArgumentException)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Keyed batch decryption should prepare every key and keep per-item results."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identities = (1..3).collect { generateRandomString(IdLength.SHORT.length) }
+        def keys = identities.collect { components.pkg.extract(it) }
+        def messages = identities.collect { identity -> (1..4).collect { generateRandomString(MessageLength.SHORT.length) } }
+        def ciphertexts = (0..<3).collect { i -> messages[i].collect { components.client.encrypt(it, identities[i]) } }
+        def tampered = ciphertexts[1][2]
+        ciphertexts[1][2] = new CipherTextTuple(tampered.cipherU, tampered.cipherV, tampered.cipherW.collect { (byte) (it ^ 1) } as byte[])
+        def executor = java.util.concurrent.Executors.newFixedThreadPool(4)
+
+        when:
+        def results = components.client.decryptAll([(keys[0]): ciphertexts[0], (keys[1]): ciphertexts[1], (keys[2]): []], executor)
+
+        then:
+        results.keySet() as List == keys
+        results[keys[0]].collect { new String(it.get(), "UTF-8") } == messages[0]
+        results[keys[1]]*.present == [true, true, false, true]
+        results[keys[1]][3].get() == messages[1][3].getBytes("UTF-8")
+        results[keys[2]].isEmpty()
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Keyed batch decryption should reject a malformed V without failing the batch."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def key = components.pkg.extract(identity)
+        def messages = (1..4).collect { generateRandomString(MessageLength.SHORT.length) }
+        def ciphertexts = messages.collect { components.client.encrypt(it, identity) }
+        def valid = ciphertexts[1]
+        ciphertexts[1] = new CipherTextTuple(valid.cipherU, Arrays.copyOf(valid.cipherV, valid.cipherV.length - 1), valid.cipherW)
+        def executor = java.util.concurrent.Executors.newFixedThreadPool(4)
+
+        when:
+        def results = components.client.decryptAll([(key): ciphertexts], executor)
+
+        then:
+        results[key]*.present == [true, false, true, true]
+        [0, 2, 3].every { new String(results[key][it].get(), "UTF-8") == messages[it] }
+        !components.client.decrypt(key, ciphertexts[1]).isPresent()
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "Batch encryption should keep the order and isolate failing records."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def alice = generateRandomString(IdLength.SHORT.length)
+        def bob = generateRandomString(IdLength.SHORT.length)
+        def requests = [
+                new EncryptionRequest(alice, "first"),
+                new EncryptionRequest(bob, "second"),
+                new EncryptionRequest(alice, new byte[0]),
+                new EncryptionRequest("", "fourth"),
+                null,
+                new EncryptionRequest(alice, "sixth")
+        ]
+
+        when:
+        def results = components.client.encryptAll(requests)
+        def decrypt = { String identity, int i -> components.client.decrypt(components.pkg.extract(identity), results[i].value.get()).get() }
+
+        then:
+        results*.success == [true, true, false, false, false, true]
+        decrypt(alice, 0) == "first"
+        decrypt(bob, 1) == "second"
+        decrypt(alice, 5) == "sixth"
+        results[2].failure.get() instanceof IllegalArgumentException
+        results[3].failure.get() instanceof IllegalArgumentException
+        results[4].failure.get() instanceof NullPointerException
+    }
+
+    def "Multi-recipient encryption should share U and W and decrypt for every recipient."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identities = (1..5).collect { generateRandomString(IdLength.SHORT.length) }
+        def message = generateRandomString(MessageLength.LONG.length).getBytes("UTF-8")
+
+        when:
+        def ciphertexts = components.client.encryptForAll(message, identities)
+        def keys = identities.collect { components.pkg.extract(it) }
+
+        then:
+        ciphertexts.size() == identities.size()
+        ciphertexts.collect { it.cipherU }.unique().size() == 1
+        ciphertexts.collect { it.cipherW as List }.unique().size() == 1
+        ciphertexts.collect { System.identityHashCode(it.cipherW) }.unique().size() == identities.size()
+        (0..<identities.size()).every { components.client.decryptBytes(keys[it], ciphertexts[it]).get() == message }
+        !components.client.decryptBytes(keys[0], ciphertexts[1]).isPresent()
+        components.client.encryptForAll(message, []).isEmpty()
+
+        when:
+        ciphertexts[0].cipherW[0] ^= 1
+
+        then:
+        !components.client.decryptBytes(keys[0], ciphertexts[0]).isPresent()
+        (1..<identities.size()).every { components.client.decryptBytes(keys[it], ciphertexts[it]).get() == message }
+    }
+
+    @Unroll
+    def "Streamed ciphertexts should be identical to in-memory ones | Mode: #mode"() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def client = new BonehFranklinIbeComponentFactoryImpl(new SecureRandom())
+                .withMaskGenerationMode(mode)
+                .obtainClient(components.client.publicParameters)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = new byte[200000]
+        new SecureRandom().nextBytes(message)
+        def privateKey = components.pkg.extract(identity)
+        def directory = Files.createTempDirectory("cryptid-spec")
+        def messageFile = Files.write(directory.resolve("message"), message)
+        def cipherWFile = directory.resolve("w")
+
+        when:
+        def header = FileChannel.open(messageFile).withCloseable { input ->
+            FileChannel.open(cipherWFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE).withCloseable { output ->
+                client.encrypt(input, identity, output)
+            }
+        }
+        def ciphertext = header.withCipherW(Files.readAllBytes(cipherWFile))
+        def inMemory = client.encrypt(message, identity)
+        def streamedOutput = new ByteArrayOutputStream()
+        def streamed = FileChannel.open(cipherWFile).withCloseable { input ->
+            client.decrypt(privateKey, header, input, Channels.newChannel(streamedOutput), directory)
+        }
+        def inMemoryHeader = new CipherTextHeader(inMemory.cipherU, inMemory.cipherV, inMemory.cipherW.length, mode)
+        def inMemoryOutput = new ByteArrayOutputStream()
+        def fromMemory = client.decrypt(privateKey, inMemoryHeader,
+                new InMemoryChannel(inMemory.cipherW), Channels.newChannel(inMemoryOutput), directory)
+
+        then:
+        header.maskGenerationMode == mode
+        header.cipherWLength == message.length
+        components.client.decryptBytes(privateKey, ciphertext).get() == message
+        streamed
+        streamedOutput.toByteArray() == message
+        fromMemory
+        inMemoryOutput.toByteArray() == message
+        directory.toFile().list().sort() == ["message", "w"]
+
+        cleanup:
+        directory.toFile().deleteDir()
+
+        where:
+        mode << MaskGenerationMode.values()
+    }
+
+    def "Streamed decryption should not write anything for tampered ciphertexts."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = new byte[1000]
+        new SecureRandom().nextBytes(message)
+        def privateKey = components.pkg.extract(identity)
+        def ciphertext = components.client.encrypt(message, identity)
+        def header = new CipherTextHeader(ciphertext.cipherU, ciphertext.cipherV, ciphertext.cipherW.length, ciphertext.maskGenerationMode)
+        def cipherW = ciphertext.cipherW
+        cipherW[500] ^= 1
+        def output = new ByteArrayOutputStream()
+
+        expect:
+        !components.client.decrypt(privateKey, header, new InMemoryChannel(cipherW), Channels.newChannel(output))
+        output.size() == 0
+    }
+
+    def "Streamed decryption should fail on an output that accepts no data instead of spinning."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def ciphertext = components.client.encrypt(new byte[1000], identity)
+        def header = new CipherTextHeader(ciphertext.cipherU, ciphertext.cipherV, ciphertext.cipherW.length, ciphertext.maskGenerationMode)
+
+        when:
+        components.client.decrypt(components.pkg.extract(identity), header, new InMemoryChannel(ciphertext.cipherW), new FullChannel())
+
+        then:
+        thrown(IOException)
+    }
+
+    def "Batch decryption should reject ciphertexts whose U is not a point of order q."() {
+        given:
+        def components = freshComponents(SecurityLevel.LOWEST)
+        def identity = generateRandomString(IdLength.SHORT.length)
+        def message = generateRandomString(MessageLength.MEDIUM.length)
+        def ciphertext = components.client.encrypt(message, identity)
+        def ec = components.client.publicParameters.ellipticCurve
+        def tampered = new CipherTextTuple(
+                ciphertext.cipherU.add(new AffinePoint(ec.fieldOrder.subtract(BigInteger.ONE), BigInteger.ZERO), ec),
+                ciphertext.cipherV, ciphertext.cipherW)
+        def privateKey = components.pkg.extract(identity)
+
+        expect:
+        (0..<16).every {
+            components.client.decryptAll(privateKey, [ciphertext, tampered, ciphertext]).collect { it.orElse(null) } == [message, null, message]
+        }
+    }
+
+    def freshComponents(SecurityLevel securityLevel) {
+        return freshComponents(securityLevel, securityLevel.hashFunction)
+    }
+
+    def freshComponents(SecurityLevel securityLevel, String hashFunction) {
+        final SecureRandom secureRandom = new SecureRandom()
+        def initializer = IbeSetups.bonehFranklinInitializer(secureRandom)
+        def setup = initializer.setup(securityLevel, hashFunction)
+        def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+
+        return [
+                client: componentFactory.obtainClient(setup.publicParameters),
+                pkg: componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+        ]
+    }
+
     def runFreshIbe(SecurityLevel securityLevel, String message, String encryptId, String decryptId) {
         final SecureRandom secureRandom = new SecureRandom()
-        def solinasPrimeFactory = new SolinasPrimeFactory(secureRandom)
-        GenerationStrategyFactory<Mod3GenerationStrategy> factory = { ec -> new Mod3GenerationStrategy(ec, secureRandom) }
-        def initializer = new BonehFranklinIbeInitializer(secureRandom, solinasPrimeFactory, factory)
+        def initializer = IbeSetups.bonehFranklinInitializer(secureRandom)
         def setup = initializer.setup(securityLevel)
         def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
 
@@ -181,4 +568,43 @@ class BonehFranklinIbeSpec extends Specification {
             return new IbeTestParameters(securityLevel, message, encryptId, decryptId)
         }
     }
+
+    /**
+     * Non-blocking channel whose buffer is full, thus it accepts no data.
+     */
+    private static class FullChannel implements WritableByteChannel {
+        int write(ByteBuffer source) { 0 }
+        boolean isOpen() { true }
+        void close() {}
+    }
+
+    /**
+     * Read-only channel over an array, so that the non-mapped path is exercised as well.
+     */
+    private static class InMemoryChannel implements SeekableByteChannel {
+        private final byte[] data
+        private long position
+
+        InMemoryChannel(byte[] data) {
+            this.data = data
+        }
+
+        int read(ByteBuffer destination) {
+            if (position >= data.length) {
+                return -1
+            }
+            int length = Math.min(destination.remaining(), data.length - (int) position)
+            destination.put(data, (int) position, length)
+            position += length
+            return length
+        }
+
+        int write(ByteBuffer source) { throw new UnsupportedOperationException() }
+        long position() { position }
+        SeekableByteChannel position(long newPosition) { position = newPosition; this }
+        long size() { data.length }
+        SeekableByteChannel truncate(long size) { throw new UnsupportedOperationException() }
+        boolean isOpen() { true }
+        void close() {}
+    }
 }
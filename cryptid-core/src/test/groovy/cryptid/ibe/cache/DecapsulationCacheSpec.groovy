@@ -0,0 +1,131 @@
+package cryptid.ibe.cache
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.domain.PrivateKey
+import cryptid.ibe.domain.PublicParameters
+import cryptid.ibe.hybrid.SessionHybridCipher
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+/**
+ * Tests for {@link DecapsulationCache}
+ */
+class DecapsulationCacheSpec extends Specification {
+    private static final TypeOneEllipticCurve EC = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+    private static final PublicParameters PUBLIC_PARAMETERS = new PublicParameters(EC, BigInteger.valueOf(3L),
+            new AffinePoint(EC.solveForX(BigInteger.ONE), BigInteger.ONE), AffinePoint.INFINITY, "SHA-256")
+    private static final PrivateKey ALICE = new PrivateKey(new AffinePoint(EC.solveForX(BigInteger.ONE), BigInteger.ONE))
+    private static final PrivateKey BOB = new PrivateKey(new AffinePoint(EC.solveForX(BigInteger.valueOf(2L)), BigInteger.valueOf(2L)))
+    private static final AffinePoint U = new AffinePoint(EC.solveForX(BigInteger.valueOf(3L)), BigInteger.valueOf(3L))
+
+    def "The cache should return copies and separate private keys."() {
+        given:
+        def cache = new DecapsulationCache(10, Duration.ofMinutes(1))
+        def decapsulations = 0
+        def decapsulate = { decapsulations++; Optional.of([1, 2, 3] as byte[]) }
+
+        when:
+        def first = cache.obtain(PUBLIC_PARAMETERS, ALICE, U, decapsulate).get()
+        first[0] = 0
+        def second = cache.obtain(PUBLIC_PARAMETERS, ALICE, U, decapsulate).get()
+        cache.obtain(PUBLIC_PARAMETERS, BOB, U, decapsulate)
+
+        then:
+        second == [1, 2, 3] as byte[]
+        decapsulations == 2
+        cache.hitCount == 1
+        cache.missCount == 2
+    }
+
+    def "Failed decapsulations should not be cached."() {
+        given:
+        def cache = new DecapsulationCache(10, Duration.ofMinutes(1))
+        def decapsulations = 0
+        def decapsulate = { decapsulations++; Optional.empty() }
+
+        when:
+        cache.obtain(PUBLIC_PARAMETERS, ALICE, AffinePoint.INFINITY, decapsulate)
+        def result = cache.obtain(PUBLIC_PARAMETERS, ALICE, AffinePoint.INFINITY, decapsulate)
+
+        then:
+        !result.present
+        decapsulations == 2
+        cache.size() == 0
+    }
+
+    def "Expired and evicted entries should be removed and zeroed."() {
+        given:
+        def clock = new MutableClock()
+        def cache = new DecapsulationCache(1, Duration.ofMinutes(1), new LeastRecentlyUsedEvictionPolicy<>(), clock)
+        def decapsulate = { Optional.of([1, 2, 3] as byte[]) }
+
+        when:
+        cache.obtain(PUBLIC_PARAMETERS, ALICE, U, decapsulate)
+        def aliceValue = cache.@entries.values().first().@value
+        cache.obtain(PUBLIC_PARAMETERS, BOB, U, decapsulate)
+
+        then:
+        aliceValue == new byte[3]
+        cache.size() == 1
+
+        when:
+        def bobValue = cache.@entries.values().first().@value
+        clock.advance(Duration.ofMinutes(2))
+        cache.purgeExpired()
+
+        then:
+        bobValue == new byte[3]
+        cache.size() == 0
+    }
+
+    def "Session messages should be decapsulated once while cached."() {
+        given:
+        def secureRandom = IbeSetups.SECURE_RANDOM
+        def setup = IbeSetups.BONEH_FRANKLIN
+        def cache = new DecapsulationCache(16, Duration.ofMinutes(5))
+        def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom).withDecapsulationCache(cache)
+        def cipher = new SessionHybridCipher(componentFactory.obtainKem(setup.publicParameters))
+        def privateKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+                .extract("alice@example.com")
+        def messages = (0..<4).collect { "message ${it}".bytes }
+
+        when:
+        def decrypted = messages.collect { cipher.decrypt(privateKey, cipher.encrypt("alice@example.com", it)) }
+
+        then:
+        decrypted == messages
+        cache.missCount == 1
+        cache.hitCount == 3
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant = Instant.EPOCH
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration)
+        }
+
+        @Override
+        ZoneId getZone() {
+            return ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            return this
+        }
+
+        @Override
+        Instant instant() {
+            return instant
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cryptid.ibe.cache
+
+import cryptid.ellipticcurve.TypeOneEllipticCurve
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.domain.PublicParameters
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for {@link HashToPointCache}
+ */
+class HashToPointCacheSpec extends Specification {
+    private static final TypeOneEllipticCurve EC = TypeOneEllipticCurve.ofOrder(BigInteger.valueOf(23L))
+    private static final PublicParameters FIRST = new PublicParameters(EC, BigInteger.valueOf(3L),
+            new AffinePoint(EC.solveForX(BigInteger.ONE), BigInteger.ONE), AffinePoint.INFINITY, "SHA-256")
+    private static final PublicParameters SECOND = new PublicParameters(EC, BigInteger.valueOf(3L),
+            new AffinePoint(EC.solveForX(BigInteger.ONE), BigInteger.ONE), AffinePoint.INFINITY, "SHA-1")
+
+    def "The cache should count hits and misses and separate different public parameters."() {
+        given:
+        def cache = new HashToPointCache(10)
+        def computations = 0
+        def point = new AffinePoint(1L, 2L)
+        def loader = { computations++; point }
+
+        when:
+        cache.obtain(FIRST, "alice", loader)
+        cache.obtain(FIRST, "alice", loader)
+        cache.obtain(SECOND, "alice", loader)
+        cache.obtain(FIRST, "bob", loader)
+
+        then:
+        computations == 3
+        cache.hitCount == 1
+        cache.missCount == 3
+        cache.size() == 3
+    }
+
+    def "The least recently used entry should be evicted when the cache is full."() {
+        given:
+        def cache = new HashToPointCache(2)
+        def point = new AffinePoint(1L, 2L)
+        def computations = 0
+        def loader = { computations++; point }
+
+        when:
+        cache.obtain(FIRST, "a", loader)
+        cache.obtain(FIRST, "b", loader)
+        cache.obtain(FIRST, "a", loader)
+        cache.obtain(FIRST, "c", loader)
+        cache.obtain(FIRST, "a", loader)
+        cache.obtain(FIRST, "b", loader)
+
+        then:
+        cache.size() == 2
+        computations == 4
+    }
+
+    def "Hits should not wait for a lock held on the eviction policy."() {
+        given:
+        def policy = new LeastRecentlyUsedEvictionPolicy()
+        def cache = new HashToPointCache(10, policy)
+        def point = new AffinePoint(1L, 2L)
+        cache.obtain(FIRST, "a", { point })
+        def hits = new AtomicInteger()
+
+        when:
+        synchronized (policy) {
+            def threads = (1..4).collect {
+                Thread.start { 100.times { cache.obtain(FIRST, "a", { point }); hits.incrementAndGet() } }
+            }
+            threads*.join(10000)
+        }
+
+        then:
+        hits.get() == 400
+        cache.hitCount == 400
+    }
+
+    def "The cache should consult the pluggable eviction policy."() {
+        given:
+        def policy = Mock(EvictionPolicy)
+        def cache = new HashToPointCache(1, policy)
+        def point = new AffinePoint(1L, 2L)
+
+        when:
+        cache.obtain(FIRST, "a", { point })
+        cache.obtain(FIRST, "b", { point })
+
+        then:
+        2 * policy.recordInsertion(_)
+        1 * policy.selectVictim() >> null
+        cache.size() == 2
+    }
+
+    def "A cache shared by the client and the PKG should be hit on repeated identities."() {
+        given:
+        def secureRandom = IbeSetups.SECURE_RANDOM
+        def setup = IbeSetups.BONEH_FRANKLIN
+        def cache = new HashToPointCache(100)
+        def factory = new BonehFranklinIbeComponentFactoryImpl(secureRandom).withHashToPointCache(cache)
+        def client = factory.obtainClient(setup.publicParameters)
+        def pkg = factory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+
+        when:
+        def ciphertext = client.encrypt("message", "alice@example.com")
+        client.encrypt("other message", "alice@example.com")
+        def privateKey = pkg.extract("alice@example.com")
+
+        then:
+        client.decrypt(privateKey, ciphertext).get() == "message"
+        cache.missCount == 1
+        cache.hitCount == 2
+    }
+}
@@ -0,0 +1,213 @@
+package cryptid.ibe.hybrid
+
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.exception.DecryptionException
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.Executors
+
+/**
+ * Tests for {@link ParallelHybridCipher} and {@link ChunkedContainerReader}
+ */
+class ParallelHybridCipherSpec extends Specification {
+    private static final int CHUNK_SIZE = StreamingHybridCipher.MIN_CHUNK_SIZE
+    private static final String IDENTITY = "alice@example.com"
+
+    @Shared
+    def secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    def setup = IbeSetups.BONEH_FRANKLIN
+
+    @Shared
+    def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+
+    @Shared
+    def executor = Executors.newFixedThreadPool(4)
+
+    @Shared
+    def cipher = new ParallelHybridCipher(componentFactory.obtainKem(setup.publicParameters), CHUNK_SIZE, executor, 3)
+
+    @Shared
+    def privateKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret).extract(IDENTITY)
+
+    def cleanupSpec() {
+        executor.shutdown()
+    }
+
+    @Unroll
+    def "A message of #length octets should survive the round trip."() {
+        given:
+        def message = randomBytes(length)
+        def container = encrypt(message)
+
+        when:
+        def plaintext = withReader(container) { reader ->
+            assert reader.size() == length
+            decrypt(reader, 0, length)
+        }
+
+        then:
+        plaintext == message
+
+        cleanup:
+        Files.deleteIfExists(container)
+
+        where:
+        length << [0, 1, CHUNK_SIZE, CHUNK_SIZE + 1, 10 * CHUNK_SIZE + 123]
+    }
+
+    def "Arbitrary ranges should be decrypted without the rest of the container."() {
+        given:
+        def message = randomBytes(20 * CHUNK_SIZE + 77)
+        def container = encrypt(message)
+        def random = new Random(42)
+        def ranges = (1..30).collect {
+            def offset = random.nextInt(message.length)
+            [offset, random.nextInt(message.length - offset + 1)]
+        } + [[CHUNK_SIZE - 1, 2], [message.length - 1, 1], [5 * CHUNK_SIZE, CHUNK_SIZE]]
+
+        expect:
+        withReader(container) { reader ->
+            ranges.every { range ->
+                decrypt(reader, range[0], range[1]) == Arrays.copyOfRange(message, range[0], range[0] + range[1])
+            }
+        }
+
+        cleanup:
+        Files.deleteIfExists(container)
+    }
+
+    def "Tampering with a chunk should only affect the ranges containing it."() {
+        given:
+        def message = randomBytes(10 * CHUNK_SIZE)
+        def container = encrypt(message)
+        def bytes = Files.readAllBytes(container)
+        def headerLength = bytes.length - 10 * (CHUNK_SIZE + 16) - ParallelHybridCipher.INDEX_LENGTH
+        bytes[headerLength + 4 * (CHUNK_SIZE + 16) + 10] ^= 1
+        Files.write(container, bytes)
+
+        expect:
+        withReader(container) { reader ->
+            assert decrypt(reader, 0, 4 * CHUNK_SIZE) == Arrays.copyOf(message, 4 * CHUNK_SIZE)
+            assert decrypt(reader, 5 * CHUNK_SIZE, CHUNK_SIZE) == Arrays.copyOfRange(message, 5 * CHUNK_SIZE, 6 * CHUNK_SIZE)
+
+            try {
+                decrypt(reader, 3 * CHUNK_SIZE, 2 * CHUNK_SIZE)
+                return false
+            } catch (DecryptionException e) {
+                return true
+            }
+        }
+
+        cleanup:
+        Files.deleteIfExists(container)
+    }
+
+    @Unroll
+    def "Opening should reject #description."() {
+        given:
+        def container = encrypt(randomBytes(5 * CHUNK_SIZE + 9))
+        def bytes = Files.readAllBytes(container)
+        Files.write(container, modification(bytes) as byte[])
+
+        when:
+        withReader(container) { it.size() }
+
+        then:
+        thrown(DecryptionException)
+
+        cleanup:
+        Files.deleteIfExists(container)
+
+        where:
+        description             | modification
+        "a truncated container" | { byte[] c -> Arrays.copyOf(c, c.length - CHUNK_SIZE - 16 - 1) }
+        "an extended container" | { byte[] c -> ((c as List) + [0, 0, 0]) as byte[] }
+        "a tampered index"      | { byte[] c -> c[c.length - 20] ^= 1; c }
+        "a tampered header"     | { byte[] c -> c[20] ^= 1; c }
+    }
+
+    def "Opening with the key of another identity should fail."() {
+        given:
+        def container = encrypt(randomBytes(100))
+        def otherKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret).extract("bob@example.com")
+
+        when:
+        FileChannel.open(container).withCloseable { cipher.open(otherKey, it) }
+
+        then:
+        thrown(DecryptionException)
+
+        cleanup:
+        Files.deleteIfExists(container)
+    }
+
+    def "Encrypting or decrypting into an output that accepts no data should fail instead of spinning."() {
+        given:
+        def container = encrypt(randomBytes(2 * CHUNK_SIZE))
+
+        when:
+        cipher.encrypt(IDENTITY, Channels.newChannel(new ByteArrayInputStream(randomBytes(100))), new FullChannel())
+
+        then:
+        thrown(IOException)
+
+        when:
+        withReader(container) { reader -> reader.decrypt(0, CHUNK_SIZE, new FullChannel()) }
+
+        then:
+        thrown(IOException)
+
+        cleanup:
+        Files.deleteIfExists(container)
+    }
+
+    def encrypt(byte[] message) {
+        def container = Files.createTempFile("container", ".bin")
+
+        FileChannel.open(container, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).withCloseable {
+            cipher.encrypt(IDENTITY, Channels.newChannel(new ByteArrayInputStream(message)), it)
+        }
+
+        return container
+    }
+
+    def withReader(container, Closure action) {
+        return FileChannel.open(container).withCloseable { channel ->
+            cipher.open(privateKey, channel).withCloseable { action(it) }
+        }
+    }
+
+    def decrypt(ChunkedContainerReader reader, long offset, long length) {
+        def output = new ByteArrayOutputStream()
+        reader.decrypt(offset, length, Channels.newChannel(output))
+
+        return output.toByteArray()
+    }
+
+    def randomBytes(int length) {
+        def bytes = new byte[length]
+        secureRandom.nextBytes(bytes)
+
+        return bytes
+    }
+
+    /**
+     * Non-blocking channel whose buffer is full, thus it accepts no data.
+     */
+    private static class FullChannel implements WritableByteChannel {
+        int write(ByteBuffer source) { 0 }
+        boolean isOpen() { true }
+        void close() {}
+    }
+}
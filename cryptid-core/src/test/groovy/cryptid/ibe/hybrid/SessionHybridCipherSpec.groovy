@@ -0,0 +1,173 @@
+package cryptid.ibe.hybrid
+
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.exception.DecryptionException
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+/**
+ * Tests for {@link SessionHybridCipher}
+ */
+class SessionHybridCipherSpec extends Specification {
+    private static final String IDENTITY = "alice@example.com"
+
+    @Shared
+    def secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    def setup = IbeSetups.BONEH_FRANKLIN
+
+    @Shared
+    def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+
+    @Shared
+    def kem = componentFactory.obtainKem(setup.publicParameters)
+
+    @Shared
+    def privateKeyGenerator = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+
+    @Shared
+    def privateKey = privateKeyGenerator.extract(IDENTITY)
+
+    def "Messages of a session should share the encapsulation and decrypt."() {
+        given:
+        def cipher = new SessionHybridCipher(kem)
+        def messages = (0..<5).collect { "message ${it}".bytes }
+
+        when:
+        def ciphertexts = messages.collect { cipher.encrypt(IDENTITY, it) }
+
+        then:
+        ciphertexts.collect { encapsulation(it) }.unique().size() == 1
+        ciphertexts.collect { cipher.decrypt(privateKey, it) } == messages
+        cipher.sessionCount == 1
+    }
+
+    def "A new session should be started when the session is exhausted or expired."() {
+        given:
+        def clock = new MutableClock()
+        def cipher = new SessionHybridCipher(kem, Duration.ofMinutes(1), 2, clock)
+
+        when:
+        def first = cipher.encrypt(IDENTITY, new byte[3])
+        def second = cipher.encrypt(IDENTITY, new byte[3])
+        def exhausted = cipher.encrypt(IDENTITY, new byte[3])
+        clock.advance(Duration.ofMinutes(2))
+        def expired = cipher.encrypt(IDENTITY, new byte[3])
+
+        then:
+        encapsulation(first) == encapsulation(second)
+        [first, exhausted, expired].collect { encapsulation(it) }.unique().size() == 3
+        [first, second, exhausted, expired].every { cipher.decrypt(privateKey, it) == new byte[3] }
+    }
+
+    def "Keys of replaced, purged and closed sessions should be zeroed."() {
+        given:
+        def clock = new MutableClock()
+        def cipher = new SessionHybridCipher(kem, Duration.ofMinutes(1), 2, clock)
+        def isZeroed = { session -> session.@key == new byte[session.@key.length] }
+
+        when:
+        (1..2).each { cipher.encrypt(IDENTITY, new byte[3]) }
+        def exhausted = cipher.@sessions[IDENTITY]
+        def ciphertext = cipher.encrypt(IDENTITY, new byte[3])
+
+        then:
+        isZeroed(exhausted)
+        !cipher.@sessions[IDENTITY].is(exhausted)
+        !isZeroed(cipher.@sessions[IDENTITY])
+        cipher.decrypt(privateKey, ciphertext) == new byte[3]
+
+        when:
+        cipher.encrypt("bob@example.com", new byte[3])
+        clock.advance(Duration.ofSeconds(30))
+        cipher.encrypt("carol@example.com", new byte[3])
+        clock.advance(Duration.ofSeconds(40))
+        def sessions = new HashMap(cipher.@sessions)
+        cipher.purgeExpiredSessions()
+
+        then:
+        cipher.sessionCount == 1
+        isZeroed(sessions[IDENTITY])
+        isZeroed(sessions["bob@example.com"])
+        !isZeroed(sessions["carol@example.com"])
+
+        when:
+        cipher.closeAllSessions()
+
+        then:
+        cipher.sessionCount == 0
+        isZeroed(sessions["carol@example.com"])
+    }
+
+    def "Tampered messages and messages for other identities should be rejected."() {
+        given:
+        def cipher = new SessionHybridCipher(kem)
+        def ciphertext = cipher.encrypt(IDENTITY, "Hello".bytes)
+        def otherKey = privateKeyGenerator.extract("bob@example.com")
+        def tampered = ciphertext.clone()
+        tampered[tampered.length - 1] ^= 1
+        def reindexed = ciphertext.clone()
+        reindexed[7 + AffinePoint.compressedLength(setup.publicParameters.ellipticCurve) + 7] ^= 1
+
+        when:
+        cipher.decrypt(privateKey, tampered)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        cipher.decrypt(privateKey, reindexed)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        cipher.decrypt(otherKey, ciphertext)
+
+        then:
+        thrown(DecryptionException)
+
+        when:
+        cipher.decrypt(privateKey, Arrays.copyOf(ciphertext, 10))
+
+        then:
+        thrown(DecryptionException)
+    }
+
+    def encapsulation(byte[] ciphertext) {
+        def length = AffinePoint.compressedLength(setup.publicParameters.ellipticCurve)
+        return Arrays.copyOfRange(ciphertext, 7, 7 + length)
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant = Instant.EPOCH
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration)
+        }
+
+        @Override
+        ZoneId getZone() {
+            return ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            return this
+        }
+
+        @Override
+        Instant instant() {
+            return instant
+        }
+    }
+}
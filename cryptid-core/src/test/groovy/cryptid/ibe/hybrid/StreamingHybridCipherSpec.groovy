@@ -0,0 +1,165 @@
+package cryptid.ibe.hybrid
+
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.PooledIbeKem
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.exception.DecryptionException
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.channels.Channels
+
+/**
+ * Tests for {@link StreamingHybridCipher}
+ */
+class StreamingHybridCipherSpec extends Specification {
+    private static final int CHUNK_SIZE = StreamingHybridCipher.MIN_CHUNK_SIZE
+    private static final String IDENTITY = "alice@example.com"
+
+    @Shared
+    def secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    def setup = IbeSetups.BONEH_FRANKLIN
+
+    @Shared
+    def componentFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+
+    @Shared
+    def cipher = new StreamingHybridCipher(componentFactory.obtainKem(setup.publicParameters), CHUNK_SIZE)
+
+    @Shared
+    def privateKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret).extract(IDENTITY)
+
+    def "Encapsulation and decapsulation should yield the same key."() {
+        given:
+        def kem = componentFactory.obtainKem(setup.publicParameters)
+
+        when:
+        def keyEncapsulation = kem.encapsulate(IDENTITY)
+
+        then:
+        keyEncapsulation.key.length == 32
+        kem.decapsulate(privateKey, keyEncapsulation.encapsulation).get() == keyEncapsulation.key
+    }
+
+    def "Pooled encapsulations should decapsulate, and randomness should be single-use."() {
+        given:
+        def kem = componentFactory.obtainKem(setup.publicParameters)
+        def pooled = new PooledIbeKem(kem, 8, 2)
+        def deadline = System.currentTimeMillis() + 60000
+        while (pooled.poolSize < 8 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+
+        when:
+        def encapsulations = (1..10).collect { pooled.encapsulate(IDENTITY) }
+
+        then:
+        pooled.produced >= 8
+        pooled.hits + pooled.misses == 10
+        pooled.hits >= 8
+        encapsulations*.encapsulation.unique().size() == 10
+        encapsulations.every { kem.decapsulate(privateKey, it.encapsulation).get() == it.key }
+
+        when:
+        def randomness = kem.precomputeRandomness()
+        kem.encapsulate(IDENTITY, randomness)
+        kem.encapsulate(IDENTITY, randomness)
+
+        then:
+        thrown(IllegalStateException)
+
+        when:
+        def stream = new ByteArrayOutputStream()
+        new StreamingHybridCipher(pooled, CHUNK_SIZE).encrypt(IDENTITY, new ByteArrayInputStream("data".bytes), stream)
+        def decrypted = new ByteArrayOutputStream()
+        cipher.decrypt(privateKey, new ByteArrayInputStream(stream.toByteArray()), decrypted)
+
+        then:
+        decrypted.toString() == "data"
+
+        cleanup:
+        pooled?.close()
+    }
+
+    @Unroll
+    def "A message of #length octets should survive the round trip."() {
+        given:
+        def message = randomBytes(length)
+
+        expect:
+        decrypt(encrypt(message)) == message
+
+        where:
+        length << [0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 5 * CHUNK_SIZE + 17]
+    }
+
+    def "Channels should be supported as well."() {
+        given:
+        def message = randomBytes(3 * CHUNK_SIZE)
+        def ciphertext = new ByteArrayOutputStream()
+        def plaintext = new ByteArrayOutputStream()
+
+        when:
+        cipher.encrypt(IDENTITY, Channels.newChannel(new ByteArrayInputStream(message)), Channels.newChannel(ciphertext))
+        cipher.decrypt(privateKey, Channels.newChannel(new ByteArrayInputStream(ciphertext.toByteArray())), Channels.newChannel(plaintext))
+
+        then:
+        plaintext.toByteArray() == message
+    }
+
+    @Unroll
+    def "Decryption should reject #description."() {
+        given:
+        def ciphertext = encrypt(randomBytes(3 * CHUNK_SIZE + 100))
+
+        when:
+        decrypt(modification(ciphertext))
+
+        then:
+        thrown(DecryptionException)
+
+        where:
+        description                   | modification
+        "a flipped ciphertext bit"    | { byte[] c -> c[c.length - 200] ^= 1; c }
+        "a flipped header bit"        | { byte[] c -> c[20] ^= 1; c }
+        "a dropped final chunk"       | { byte[] c -> Arrays.copyOf(c, c.length - 116) }
+        "a truncated header"          | { byte[] c -> Arrays.copyOf(c, 10) }
+        "appended chunks"             | { byte[] c -> ((c as List) + (c[-116..-1] as List)) as byte[] }
+    }
+
+    def "Decryption with the key of another identity should fail."() {
+        given:
+        def otherKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret).extract("bob@example.com")
+        def ciphertext = encrypt(randomBytes(100))
+
+        when:
+        cipher.decrypt(otherKey, new ByteArrayInputStream(ciphertext), new ByteArrayOutputStream())
+
+        then:
+        thrown(DecryptionException)
+    }
+
+    def encrypt(byte[] message) {
+        def output = new ByteArrayOutputStream()
+        cipher.encrypt(IDENTITY, new ByteArrayInputStream(message), output)
+
+        return output.toByteArray()
+    }
+
+    def decrypt(byte[] ciphertext) {
+        def output = new ByteArrayOutputStream()
+        cipher.decrypt(privateKey, new ByteArrayInputStream(ciphertext), output)
+
+        return output.toByteArray()
+    }
+
+    def randomBytes(int length) {
+        def bytes = new byte[length]
+        secureRandom.nextBytes(bytes)
+
+        return bytes
+    }
+}
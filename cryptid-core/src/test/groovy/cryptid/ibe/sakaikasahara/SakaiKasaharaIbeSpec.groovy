@@ -0,0 +1,175 @@
+package cryptid.ibe.sakaikasahara
+
+import cryptid.CryptID
+import cryptid.ellipticcurve.point.affine.AffinePoint
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.domain.CipherTextTuple
+import cryptid.ibe.domain.EncryptionRequest
+import cryptid.ibe.domain.IbeSetup
+import cryptid.ibe.domain.MaskGenerationMode
+import cryptid.ibe.domain.SecurityLevel
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption
+import java.security.SecureRandom
+
+/**
+ * Tests for the Sakai-Kasahara components.
+ */
+class SakaiKasaharaIbeSpec extends Specification {
+    @Shared
+    private SecureRandom secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    private IbeSetup setup = IbeSetups.SAKAI_KASAHARA
+
+    @Shared
+    private SakaiKasaharaIbeComponentFactoryImpl componentFactory = new SakaiKasaharaIbeComponentFactoryImpl(secureRandom)
+
+    @Unroll
+    def "Encryption and decryption should roundtrip | Mode: #mode"() {
+        given:
+        def client = componentFactory.withMaskGenerationMode(mode).obtainClient(setup.publicParameters)
+        def pkg = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+        def message = new byte[1000]
+        secureRandom.nextBytes(message)
+
+        when:
+        def ciphertext = client.encrypt(message, "alice@example.com")
+
+        then:
+        ciphertext.maskGenerationMode == mode
+        client.decryptBytes(pkg.extract("alice@example.com"), ciphertext).get() == message
+        !client.decryptBytes(pkg.extract("bob@example.com"), ciphertext).present
+
+        where:
+        mode << MaskGenerationMode.values()
+    }
+
+    def "Tampered ciphertexts should be rejected."() {
+        given:
+        def client = componentFactory.obtainClient(setup.publicParameters)
+        def privateKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+                .extract("alice@example.com")
+        def ciphertext = client.encrypt("Hello, Alice!", "alice@example.com")
+        def tamperedV = ciphertext.cipherV.clone()
+        tamperedV[0] ^= 1
+        def tamperedW = ciphertext.cipherW.clone()
+        tamperedW[0] ^= 1
+
+        expect:
+        !client.decrypt(privateKey, new CipherTextTuple(ciphertext.cipherU, tamperedV, ciphertext.cipherW)).present
+        !client.decrypt(privateKey, new CipherTextTuple(ciphertext.cipherU, ciphertext.cipherV, tamperedW)).present
+        !client.decrypt(privateKey, new CipherTextTuple(AffinePoint.INFINITY, ciphertext.cipherV, ciphertext.cipherW)).present
+        !client.decrypt(privateKey, new CipherTextTuple(ciphertext.cipherU, ciphertext.cipherV[1..-1] as byte[], ciphertext.cipherW)).present
+    }
+
+    def "Batch operations should match the single-message ones."() {
+        given:
+        def client = componentFactory.obtainClient(setup.publicParameters)
+        def pkg = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+        def identities = ["alice@example.com", "bob@example.com", "carol@example.com"]
+        def keys = identities.collect { pkg.extract(it) }
+
+        when:
+        def broadcast = client.encryptForAll("Hello, everyone!".bytes, identities)
+        def batch = client.encryptAll(identities.collect { new EncryptionRequest(it, "Hello, ${it}!".toString()) }
+                + [new EncryptionRequest("", "Hello, nobody!")])
+        def decrypted = client.decryptAll([(keys[0]): [broadcast[0], batch[0].value.get(), broadcast[1]],
+                                           (keys[1]): [broadcast[1]]])
+
+        then:
+        [keys, broadcast].transpose().every { key, ct -> client.decrypt(key, ct).get() == "Hello, everyone!" }
+        broadcast.collect { it.cipherV as List }.unique().size() == identities.size()
+        batch[0..2].every { it.success }
+        !batch[3].success
+        decrypted[keys[0]].collect { it.map { new String(it) }.orElse(null) } ==
+                ["Hello, everyone!", "Hello, alice@example.com!", null]
+        new String(decrypted[keys[1]][0].get()) == "Hello, everyone!"
+    }
+
+    def "An outsider should not recover [l]P from two ciphertexts of the same message."() {
+        given:
+        def client = componentFactory.obtainClient(setup.publicParameters)
+        def pkg = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+        def group = client.@group
+        def q = setup.publicParameters.q
+        def identities = ["alice@example.com", "bob@example.com"]
+        def keys = identities.collect { pkg.extract(it) }
+
+        when:
+        def ciphertexts = client.encryptForAll("attack at dawn".bytes, identities)
+
+        // With a shared l, U_1 - U_2 = [l(h_1 - h_2)]P, thus [l]P and g^l = Pairing([l]P, P) would follow.
+        def hashes = identities.collect { group.hashIdentity(it, client.@messageDigestFactory.obtainInstance()) }
+        def inverse = (hashes[0] - hashes[1]).modInverse(q)
+        def candidate = AffinePoint.linearCombination([inverse, q - inverse], ciphertexts*.cipherU,
+                setup.publicParameters.ellipticCurve)
+        def recovered = group.pairing(candidate, setup.publicParameters.pointP)
+
+        then:
+        [keys, ciphertexts].transpose().every { key, ct -> client.decrypt(key, ct).get() == "attack at dawn" }
+        [keys, ciphertexts].transpose().every { key, ct -> group.pairing(ct.cipherU, key.data) != recovered }
+    }
+
+    def "Streamed ciphertexts should decrypt to the message."() {
+        given:
+        def client = componentFactory.obtainClient(setup.publicParameters)
+        def privateKey = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+                .extract("alice@example.com")
+        def message = new byte[100000]
+        secureRandom.nextBytes(message)
+        def directory = Files.createTempDirectory("cryptid-spec")
+        def messageFile = Files.write(directory.resolve("message"), message)
+        def cipherWFile = directory.resolve("w")
+
+        when:
+        def header = FileChannel.open(messageFile).withCloseable { input ->
+            FileChannel.open(cipherWFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE).withCloseable { output ->
+                client.encrypt(input, "alice@example.com", output)
+            }
+        }
+        def output = new ByteArrayOutputStream()
+        def streamed = FileChannel.open(cipherWFile).withCloseable { input ->
+            client.decrypt(privateKey, header, input, Channels.newChannel(output), directory)
+        }
+
+        then:
+        streamed
+        output.toByteArray() == message
+        client.decryptBytes(privateKey, header.withCipherW(Files.readAllBytes(cipherWFile))).get() == message
+
+        cleanup:
+        directory.toFile().deleteDir()
+    }
+
+    def "Encapsulated keys should be decapsulated by the receiver only."() {
+        given:
+        def kem = componentFactory.obtainKem(setup.publicParameters)
+        def pkg = componentFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+
+        when:
+        def fresh = kem.encapsulate("alice@example.com")
+        def precomputed = kem.encapsulate("alice@example.com", kem.precomputeRandomness())
+
+        then:
+        kem.decapsulate(pkg.extract("alice@example.com"), fresh.encapsulation).get() == fresh.key
+        kem.decapsulate(pkg.extract("alice@example.com"), precomputed.encapsulation).get() == precomputed.key
+        kem.decapsulate(pkg.extract("bob@example.com"), fresh.encapsulation).get() != fresh.key
+        !kem.decapsulate(pkg.extract("alice@example.com"), AffinePoint.INFINITY).present
+    }
+
+    def "CryptID should set up a working Sakai-Kasahara system."() {
+        given:
+        def ibe = CryptID.setupSakaiKasahara(SecurityLevel.LOWEST)
+        def privateKey = ibe.extract("alice@example.com")
+
+        expect:
+        ibe.decrypt(privateKey, ibe.encrypt("Hello, Alice!", "alice@example.com")).get() == "Hello, Alice!"
+    }
+}
@@ -0,0 +1,191 @@
+package cryptid.ibe.store
+
+import cryptid.ellipticcurve.pairing.tate.TatePairingFactory
+import cryptid.ibe.IbeSetups
+import cryptid.ibe.bonehfranklin.BonehFranklinIbeComponentFactoryImpl
+import cryptid.ibe.exception.ComponentConstructionException
+import cryptid.ibe.util.HashUtils
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.security.MessageDigest
+
+/**
+ * Tests for {@link IdentityPrecomputationStore} and {@link IdentityPrecomputationStoreBuilder}
+ */
+class IdentityPrecomputationStoreSpec extends Specification {
+    @Shared
+    def secureRandom = IbeSetups.SECURE_RANDOM
+
+    @Shared
+    def setup = IbeSetups.BONEH_FRANKLIN
+
+    @Shared
+    def storeKey = newStoreKey()
+
+    @Shared
+    def identities = (1..40).collect { "user" + it + "@example.com" }
+
+    def "The store should contain the freshly computed values of the identities."() {
+        given:
+        def path = Files.createTempFile("store", ".bin")
+        def pp = setup.publicParameters
+        def pairing = TatePairingFactory.INSTANCE.typeOneTatePairing(pp.ellipticCurve, pp.q)
+
+        when:
+        def count = new IdentityPrecomputationStoreBuilder(pp, storeKey).build(identities + identities[0..4], path)
+        def store = IdentityPrecomputationStore.open(path, pp, storeKey)
+
+        then:
+        count == identities.size()
+        store.size() == identities.size()
+        identities.every { identity ->
+            def point = HashUtils.hashToPoint(pp.ellipticCurve, pp.ellipticCurve.fieldOrder, pp.q, identity,
+                    MessageDigest.getInstance(pp.hashFunction))
+            def stored = store.lookup(identity).get()
+
+            stored.pointQId == point && stored.theta == pairing.performPairing(pp.pointPpublic, point)
+        }
+        !store.lookup("nobody@example.com").isPresent()
+
+        cleanup:
+        store?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "Encryption using the store should be decryptable without it."() {
+        given:
+        def path = Files.createTempFile("store", ".bin")
+        new IdentityPrecomputationStoreBuilder(setup.publicParameters, storeKey).build(identities, path)
+        def store = IdentityPrecomputationStore.open(path, setup.publicParameters, storeKey)
+        def plainFactory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+        def storeFactory = plainFactory.withPrecomputationStore(store)
+
+        when:
+        def ciphertext = storeFactory.obtainClient(setup.publicParameters).encrypt("message", identities[7])
+        def other = storeFactory.obtainClient(setup.publicParameters).encrypt("other", "unknown@example.com")
+        def pkg = storeFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+        def client = plainFactory.obtainClient(setup.publicParameters)
+
+        then:
+        pkg.extract(identities[7]) == plainFactory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret).extract(identities[7])
+        client.decrypt(pkg.extract(identities[7]), ciphertext).get() == "message"
+        client.decrypt(pkg.extract("unknown@example.com"), other).get() == "other"
+
+        cleanup:
+        store?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "Concurrent lookups should all authenticate their slots."() {
+        given:
+        def path = Files.createTempFile("store", ".bin")
+        new IdentityPrecomputationStoreBuilder(setup.publicParameters, storeKey).build(identities, path)
+        def store = IdentityPrecomputationStore.open(path, setup.publicParameters, storeKey)
+
+        when:
+        def found = (1..8).collect { identities }.flatten().parallelStream()
+                .filter { store.lookup(it).isPresent() }
+                .count()
+
+        then:
+        found == 8 * identities.size()
+
+        cleanup:
+        store?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "A store should be rejected for different public parameters."() {
+        given:
+        def path = Files.createTempFile("store", ".bin")
+        new IdentityPrecomputationStoreBuilder(setup.publicParameters, storeKey).build(identities, path)
+        def store = IdentityPrecomputationStore.open(path, setup.publicParameters, storeKey)
+        def otherSetup = IbeSetups.newBonehFranklinSetup()
+
+        when:
+        IdentityPrecomputationStore.open(path, otherSetup.publicParameters, storeKey)
+
+        then:
+        thrown(IOException)
+
+        when:
+        new BonehFranklinIbeComponentFactoryImpl(secureRandom).withPrecomputationStore(store)
+                .obtainClient(otherSetup.publicParameters)
+
+        then:
+        thrown(ComponentConstructionException)
+
+        cleanup:
+        store?.close()
+        Files.deleteIfExists(path)
+    }
+
+    def "Slots that cannot be authenticated should be ignored."() {
+        given:
+        def path = Files.createTempFile("store", ".bin")
+        new IdentityPrecomputationStoreBuilder(setup.publicParameters, storeKey).build(identities, path)
+        def factory = new BonehFranklinIbeComponentFactoryImpl(secureRandom)
+        def privateKey = factory.obtainPrivateKeyGenerator(setup.publicParameters, setup.masterSecret)
+                .extract(identities[3])
+
+        when: "theta of an identity is replaced"
+        def store = IdentityPrecomputationStore.open(path, setup.publicParameters, storeKey)
+        def thetaLength = store.@layout.thetaLength
+        def slotStart = StoreLayout.HEADER_LENGTH + findSlot(store, identities[3]) * (long) store.@layout.slotLength
+        store.close()
+        def bytes = Files.readAllBytes(path)
+        bytes[(int) slotStart + store.@layout.entryLength - thetaLength] ^= 1
+        Files.write(path, bytes)
+        store = IdentityPrecomputationStore.open(path, setup.publicParameters, storeKey)
+        def ciphertext = factory.withPrecomputationStore(store).obtainClient(setup.publicParameters)
+                .encrypt("message", identities[3])
+
+        then:
+        !store.lookup(identities[3]).isPresent()
+        store.lookup(identities[4]).isPresent()
+        factory.obtainClient(setup.publicParameters).decrypt(privateKey, ciphertext).get() == "message"
+
+        when: "the store is opened with another key"
+        store.close()
+        store = IdentityPrecomputationStore.open(path, setup.publicParameters, newStoreKey())
+
+        then:
+        identities.every { !store.lookup(it).isPresent() }
+
+        when:
+        IdentityPrecomputationStore.open(path, setup.publicParameters, new byte[8])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        cleanup:
+        store?.close()
+        Files.deleteIfExists(path)
+    }
+
+    private static int findSlot(IdentityPrecomputationStore store, String identity) {
+        def layout = store.@layout
+        def key = StoreLayout.key(identity)
+        def slotKey = new byte[StoreLayout.KEY_LENGTH]
+        def slot = layout.firstSlot(key)
+
+        while (true) {
+            layout.slot(store.@segments, slot).get(slotKey)
+
+            if (Arrays.equals(key, slotKey)) {
+                return slot
+            }
+
+            slot = layout.nextSlot(slot)
+        }
+    }
+
+    def newStoreKey() {
+        def key = new byte[32]
+        secureRandom.nextBytes(key)
+
+        return key
+    }
+}
@@ -0,0 +1,65 @@
+package cryptid.ibe.util
+
+import cryptid.ibe.domain.MaskGenerationMode
+import cryptid.util.MessageDigestFactory
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.security.MessageDigest
+
+/**
+ * Tests for {@link HashUtils}
+ */
+class HashUtilsSpec extends Specification {
+    private static final BigInteger P = new BigInteger("a6a0ffd016103ffffffffff595f002fe9ef195f002fe9efb", 16)
+
+    def "HashToRange should produce the expected value for a single string and for segments."() {
+        given:
+        def messageDigest = MessageDigest.getInstance("SHA-256")
+
+        expect:
+        HashUtils.hashToRange("Alice".bytes, P, messageDigest) == new BigInteger("2981951974137616552910049679109505014942572770015967490658")
+        HashUtils.hashToRange(P, messageDigest, "rho".bytes, "t".bytes) == new BigInteger("2700795673363462858698834991517340269939329791629609597912")
+        HashUtils.hashToRange(P, messageDigest, ["rhot".bytes] as byte[][]) == HashUtils.hashToRange(P, messageDigest, "rho".bytes, "t".bytes)
+    }
+
+    @Unroll
+    def "HashBytes should produce the expected #length octets."() {
+        given:
+        def messageDigest = MessageDigest.getInstance("SHA-256")
+
+        expect:
+        HashUtils.hashBytes(length, "seed".bytes, messageDigest).encodeHex().toString() == expected
+
+        where:
+        length | expected
+        5      | "108cbb11a0"
+        32     | "108cbb11a097a8bdf187d576ad7a5388e2ac3eabeb5d1082f71cef3222e92bc3"
+        75     | "108cbb11a097a8bdf187d576ad7a5388e2ac3eabeb5d1082f71cef3222e92bc3bffd4438a17940493594708e01b87e58b7bb407b2ab70fdf77a02f87c0dff83353b59992f78832734ead19"
+    }
+
+    @Unroll
+    def "MaskGenerator should produce the same #mode mask as HashUtils in uneven steps."() {
+        given:
+        def data = new byte[length]
+        def maskGenerator = MaskGenerator.forMode(mode, "seed".bytes, MessageDigest.getInstance("SHA-256"))
+        def expected = mode == MaskGenerationMode.HASH_CHAIN
+                ? HashUtils.hashBytes(length, "seed".bytes, MessageDigest.getInstance("SHA-256"))
+                : HashUtils.counterHashBytes(length, "seed".bytes, MessageDigestFactory.forAlgorithm("SHA-256"))
+
+        when:
+        def offset = 0
+        def step = 1
+        while (offset < length) {
+            maskGenerator.xorInto(data, offset, Math.min(step, length - offset))
+            offset += step
+            step += 7
+        }
+
+        then:
+        data == expected
+
+        where:
+        [mode, length] << [MaskGenerationMode.values(), [5, 32, 1000]].combinations()
+    }
+}
@@ -0,0 +1,57 @@
+package cryptid.provider
+
+import cryptid.util.MessageDigestFactory
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.security.MessageDigest
+
+/**
+ * Known-answer tests for {@link Blake2bMessageDigest} and {@link Blake2sMessageDigest}
+ */
+class Blake2Spec extends Specification {
+    private static final byte[] LONG_INPUT = (0..<1000).collect { (byte) (it % 251) } as byte[]
+
+    @Unroll
+    def "#algorithm should produce the expected digest of #description."() {
+        given:
+        def messageDigest = MessageDigest.getInstance(algorithm, CryptIdProvider.INSTANCE)
+
+        expect:
+        messageDigest.digest(input).encodeHex().toString() == expected
+
+        where:
+        algorithm    | description   | input         | expected
+        "BLAKE2B-512" | "abc"        | "abc".bytes   | "ba80a53f981c4d0d6a2797b69f12f6e94c212f14685ac4b74b12bb6fdbffa2d17d87c5392aab792dc252d5de4533cc9518d38aa8dbf1925ab92386edd4009923"
+        "BLAKE2S-256" | "abc"        | "abc".bytes   | "508c5e8c327c14e2e1a72ba34eeb452f37458b209ed63a294d999b4c86675982"
+        "BLAKE2B-512" | "nothing"    | new byte[0]   | "786a02f742015903c6c6fd852552d272912f4740e15847618a86e217f71f5419d25e1031afee585313896444934eb04b903a685b1448b755d56f701afe9be2ce"
+        "BLAKE2S-256" | "nothing"    | new byte[0]   | "69217a3079908094e11121d042354a7c1f55b6482ca1a51e1b250dfd1ed0eef9"
+        "BLAKE2B-512" | "one block"  | new byte[128] | "865939e120e6805438478841afb739ae4250cf372653078a065cdcfffca4caf798e6d462b65d658fc165782640eded70963449ae1500fb0f24981d7727e22c41"
+        "BLAKE2S-256" | "one block"  | new byte[64]  | "ae09db7cd54f42b490ef09b6bc541af688e4959bb8c53f359a6f56e38ab454a3"
+        "BLAKE2B-256" | "1000 bytes" | LONG_INPUT    | "b372d0608f720c8c3dd41e9c8eecb10143b41abe520b616607e754bf79c08331"
+        "BLAKE2B-384" | "1000 bytes" | LONG_INPUT    | "f0a7a4bb3c3290f432e513caa227ab3bf933c4c8c167193dff1cb10a0b992f042f5679e477f00c551e2cf2bec8101f1e"
+        "BLAKE2B-512" | "1000 bytes" | LONG_INPUT    | "c11e1c0340bd7e5a1b275f1230c962fad215ecb1391486e74e31b960a2f2996381a5fad092da06841d5f26e38f6ecfeaf441acbcd1c2de61aef121e7927175f5"
+        "BLAKE2S-224" | "1000 bytes" | LONG_INPUT    | "8562ed9841e94da04044f864e0c30b85a303d0782762be8748894a65"
+        "BLAKE2S-256" | "1000 bytes" | LONG_INPUT    | "1c067a5e746fb0f6734efac9a8cdb0e11061f0077f255184365c690115392501"
+    }
+
+    @Unroll
+    def "Incremental updates and clones of #algorithm should agree with a single update."() {
+        given:
+        def messageDigest = MessageDigestFactory.forAlgorithm(algorithm).obtainInstance()
+        def expected = messageDigest.digest(LONG_INPUT)
+
+        when:
+        messageDigest.update(LONG_INPUT, 0, 300)
+        def clone = (MessageDigest) messageDigest.clone()
+        LONG_INPUT[300..<1000].each { messageDigest.update(it) }
+        clone.update(LONG_INPUT, 300, 700)
+
+        then:
+        messageDigest.digest() == expected
+        clone.digest() == expected
+
+        where:
+        algorithm << ["BLAKE2B-512", "BLAKE2S-256"]
+    }
+}
@@ -0,0 +1,94 @@
+package cryptid.util
+
+import spock.lang.Specification
+
+import java.security.NoSuchAlgorithmException
+import java.security.SecureRandom
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+
+/**
+ * Tests for {@link StripedSecureRandom}
+ */
+class StripedSecureRandomSpec extends Specification {
+    def "Every thread should get its own generator seeded from the master source."() {
+        given:
+        def master = new CountingSecureRandom()
+        def random = new StripedSecureRandom(master)
+        def threadCount = 8
+        def outputs = new ConcurrentHashMap<Integer, List<byte[]>>()
+        def ready = new CountDownLatch(threadCount)
+
+        when:
+        def threads = (0..<threadCount).collect { index ->
+            Thread.start {
+                ready.countDown()
+                ready.await()
+                outputs[index] = (0..<100).collect { def bytes = new byte[32]; random.nextBytes(bytes); bytes }
+            }
+        }
+        threads*.join()
+        def all = outputs.values().collectMany { list -> list.collect { it as List } }
+
+        then:
+        master.seeds == threadCount
+        all.size() == threadCount * 100
+        all.unique(false).size() == all.size()
+        random.algorithm == "Striped" + StripedSecureRandom.DEFAULT_ALGORITHM
+    }
+
+    def "Seeds should be answered by the master source."() {
+        given:
+        def master = new CountingSecureRandom()
+        def random = new StripedSecureRandom(master)
+
+        when:
+        random.generateSeed(16)
+        random.setSeed([1, 2, 3] as byte[])
+
+        then:
+        master.generatedSeeds == 1
+        master.suppliedSeeds == 1
+        master.seeds == 0
+    }
+
+    def "The default generators should not fall back to SHA1PRNG."() {
+        when:
+        def random = new StripedSecureRandom(SecureRandom.getInstance("SHA1PRNG"))
+
+        then:
+        random.algorithm == "Striped" + StripedSecureRandom.DEFAULT_ALGORITHM
+    }
+
+    def "Unavailable algorithms should be rejected on construction."() {
+        when:
+        new StripedSecureRandom(new SecureRandom(), "NoSuchPRNG")
+
+        then:
+        thrown(NoSuchAlgorithmException)
+    }
+
+    static class CountingSecureRandom extends SecureRandom {
+        int seeds
+        int generatedSeeds
+        int suppliedSeeds
+
+        @Override
+        synchronized void nextBytes(byte[] bytes) {
+            seeds++
+            super.nextBytes(bytes)
+        }
+
+        @Override
+        byte[] generateSeed(int numBytes) {
+            generatedSeeds++
+            return super.generateSeed(numBytes)
+        }
+
+        @Override
+        synchronized void setSeed(byte[] seed) {
+            suppliedSeeds++
+            super.setSeed(seed)
+        }
+    }
+}